@@ -0,0 +1,169 @@
+package com.ucl.ADA.core.repository_analyser;
+
+import com.ucl.ADA.model.coupled_pair.CoupledPairService;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.project_structure.ProjectStructureService;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.model.snapshot_document.ProjectStructureDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the analysis results of snapshots in the background, so that an analysis returns as soon as its metrics are
+ * computed. Until its write is over, the project structure of a snapshot is pinned in the ProjectStructureCache and
+ * served from memory, and the snapshot is PENDING; it is then PERSISTED, or FAILED if anything could not be stored.
+ * The results of a snapshot are written in a single transaction, so a FAILED snapshot has none of them stored.
+ * At most ada.write-behind.max-pending snapshots are unwritten at any time, further analyses wait for a free slot.
+ */
+@Component
+public class AnalysisResultWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisResultWriter.class);
+
+    /**
+     * how long the pending writes may take to finish on shutdown
+     */
+    static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    @Autowired
+    ProjectStructureService projectStructureService;
+
+    @Autowired
+    CoupledPairService coupledPairService;
+
+    @Autowired
+    MetricHistoryService metricHistoryService;
+
+    @Autowired
+    SnapshotService snapshotService;
+
+    @Autowired
+    ProjectStructureCache projectStructureCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final Semaphore unwritten;
+
+    private final ExecutorService writers;
+
+    @Autowired
+    public AnalysisResultWriter(@Value("${ada.write-behind.max-pending:4}") int maxPending,
+                                @Value("${ada.write-behind.threads:2}") int threads,
+                                MeterRegistry meterRegistry) {
+        this.unwritten = new Semaphore(maxPending, true);
+        this.writers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("ada-write-behind-"));
+
+        Gauge.builder("ada.write-behind.pending", unwritten, semaphore -> maxPending - semaphore.availablePermits())
+                .description("snapshots whose analysis results are not written yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pin the project structure of a snapshot and write it in the background, with its coupled pairs and metric
+     * history. Blocks while too many snapshots are unwritten.
+     *
+     * @param projectStructure a project structure with computed metrics and the GitRepoInfo of its stored snapshot
+     */
+    public void submit(ProjectStructure projectStructure) {
+        GitRepoInfo gitRepoInfo = projectStructure.getGitRepoInfo();
+        ProjectStructureCache.Key key = new ProjectStructureCache.Key(gitRepoInfo.getOwner(),
+                gitRepoInfo.getRepository(), gitRepoInfo.getBranch(), gitRepoInfo.getTimestamp());
+
+        unwritten.acquireUninterruptibly();
+        projectStructureCache.pin(key, projectStructure);
+        try {
+            writers.execute(() -> write(key, gitRepoInfo.getSnapshot(), projectStructure));
+        } catch (RejectedExecutionException e) {
+            projectStructureCache.unpin(key);
+            unwritten.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Store the results of a snapshot in one transaction and record whether they were stored; a snapshot is marked
+     * FAILED in its own transaction, once the results are rolled back. Saving sets ids and interns values, so the
+     * results are all stored from one copy of the project structure while the pinned one is read by the pending
+     * requests.
+     */
+    void write(ProjectStructureCache.Key key, Snapshot snapshot, ProjectStructure projectStructure) {
+        try {
+            ProjectStructure persisted = copy(projectStructure);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                projectStructureService.save(persisted);
+                coupledPairService.buildIndex(snapshot, persisted);
+                metricHistoryService.append(snapshot, persisted);
+                snapshotService.updateStatus(snapshot, SnapshotStatus.PERSISTED);
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not write the analysis results of snapshot {}", snapshot.getId(), e);
+            markFailed(snapshot);
+        } finally {
+            projectStructureCache.unpin(key);
+            unwritten.release();
+        }
+    }
+
+    /**
+     * @param projectStructure a project structure with computed metrics
+     * @return a linked copy of the project structure, sharing nothing with it but its GitRepoInfo
+     */
+    static ProjectStructure copy(ProjectStructure projectStructure) {
+        ProjectStructure copy = ProjectStructureDocument.of(projectStructure).toProjectStructure();
+        copy.setGitRepoInfo(projectStructure.getGitRepoInfo());
+        return copy;
+    }
+
+    private void markFailed(Snapshot snapshot) {
+        try {
+            snapshotService.updateStatus(snapshot, SnapshotStatus.FAILED);
+        } catch (RuntimeException e) {
+            // the snapshot stays pending, and is failed on the next start
+            LOGGER.error("Could not mark snapshot {} as failed", snapshot.getId(), e);
+        }
+    }
+
+    /**
+     * Fail the snapshots whose write was cut short by the last shutdown, before anything is submitted
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        snapshotService.failPendingSnapshots();
+    }
+
+    /**
+     * Let the submitted writes finish before the application stops
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writers.shutdown();
+        if (!writers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOGGER.warn("Analysis results still unwritten after {} seconds, their snapshots fail on the next start", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.ucl.ADA.model.project_structure.ProjectStructure;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+
 @RestController
 @CrossOrigin
 @RequestMapping("/analyser")
@@ -21,6 +24,16 @@ public class RepositoryAnalyserController {
     public ProjectStructure analyseRepository(@RequestParam(value = "url", defaultValue = "") String url, @RequestParam(value = "branch", defaultValue = "") String branchName) {
         return repositoryAnalyserServices.analyseRepositoryService(url, branchName);
     }
-}
-
 
+    /**
+     * Analyse the last commits of a repository branch, with one snapshot per commit.
+     * @return the timestamps of the analysed commits, the commits analysed before are left out
+     */
+    @CrossOrigin
+    @PostMapping(path = "/history", produces = "application/json")
+    public List<OffsetDateTime> analyseHistory(@RequestParam(value = "url", defaultValue = "") String url,
+                                               @RequestParam(value = "branch", defaultValue = "") String branchName,
+                                               @RequestParam(value = "commits", defaultValue = "10") int commitCount) {
+        return repositoryAnalyserServices.analyseHistoryService(url, branchName, commitCount);
+    }
+}
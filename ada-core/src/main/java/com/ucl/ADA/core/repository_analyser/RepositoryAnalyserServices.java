@@ -2,17 +2,27 @@ package com.ucl.ADA.core.repository_analyser;
 
 import com.ucl.ADA.metric_calculator.metrics.MetricServices;
 import com.ucl.ADA.model.project_structure.ProjectStructure;
-import com.ucl.ADA.model.project_structure.ProjectStructureService;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
 import com.ucl.ADA.parser.ParserServices;
+import com.ucl.ADA.parser.ada_model.ADAClass;
 import com.ucl.ADA.repository_downloader.RepositoryDownloaderService;
+import com.ucl.ADA.repository_downloader.RepositoryHistory;
 import com.ucl.ADA.model.project_structure.GitRepoInfo;
-import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class RepositoryAnalyserServices {
@@ -27,13 +37,17 @@ public class RepositoryAnalyserServices {
     MetricServices metricServices;
 
     @Autowired
-    ProjectStructureService projectStructureService;
+    AnalysisResultWriter analysisResultWriter;
+
+    @Autowired
+    SnapshotService snapshotService;
 
     /**
-     * Handles the entire analysis of the repository and unifies the remaining three modules.
+     * Handles the entire analysis of the repository and unifies the remaining three modules. The results are returned
+     * once the metrics are computed, and written in the background by the AnalysisResultWriter.
      *
      * @return ProjectMetrics object containing the resulting metric values between the objects, or null if there was
-     * an error
+     * an error downloading or reading the repository; any other error is thrown, once the snapshot is marked FAILED
      */
 
     public ProjectStructure analyseRepositoryService(String url, String branchName) {
@@ -50,27 +64,75 @@ public class RepositoryAnalyserServices {
         if (populator == null) return null;
 
 
-        // Parse the downloaded repository.
-        ProjectStructure parsedRepositoryProjectStructure;
+        // The snapshot is FAILED unless its results are handed to the writer, and the download is always deleted
+        boolean submitted = false;
         try {
-            parsedRepositoryProjectStructure = parserServices.parseRepository(populator.getDirectoryPath());
+            // Parse the downloaded repository.
+            ProjectStructure parsedRepositoryProjectStructure = parserServices.parseRepository(populator.getDirectoryPath());
             // connect snapshot to project structure
             populator.getSnapshot().setProjectStructure(parsedRepositoryProjectStructure);
             // set populator
             parsedRepositoryProjectStructure.setGitRepoInfo(populator);
-        } catch (FileNotFoundException e) {
-            parsedRepositoryProjectStructure = null;
-        }
 
-        // Calculate the metrics for the parsed repository.
-        if (parsedRepositoryProjectStructure != null) {
+            // Calculate the metrics for the parsed repository.
             parsedRepositoryProjectStructure.computeAllMetrics();
-            projectStructureService.save(parsedRepositoryProjectStructure);
+            analysisResultWriter.submit(parsedRepositoryProjectStructure);
+            submitted = true;
+            return parsedRepositoryProjectStructure;
+        } catch (FileNotFoundException e) {
+            return null;
+        } finally {
+            try {
+                if (!submitted) snapshotService.updateStatus(populator.getSnapshot(), SnapshotStatus.FAILED);
+            } finally {
+                // Delete downloaded repository since it's been parsed
+                repositoryDownloaderService.deleteDownload(populator);
+            }
         }
+    }
 
-        // Delete downloaded repository since it's been parsed
-        FileUtils.deleteQuietly(new File(populator.getDirectoryPath()));
+    /**
+     * Analyses the last commits of a branch, oldest first, with one snapshot per commit timestamped with the commit
+     * time. The history is fetched once into the local mirror, each commit only writes its changed files, and files
+     * already parsed for an earlier commit are not parsed again. Commits which already have a snapshot are skipped.
+     *
+     * @return timestamps of the analysed commits, or null if the history could not be fetched
+     */
+    public List<OffsetDateTime> analyseHistoryService(String url, String branchName, int commitCount) {
+        List<OffsetDateTime> timestamps = new ArrayList<>();
+        // classes parsed from the files of the analysed commits, by blob id
+        Map<String, List<ADAClass>> parsedFiles = new HashMap<>();
+
+        try (RepositoryHistory history = repositoryDownloaderService.openHistory(url, branchName, commitCount)) {
+            for (RevCommit commit : history.getCommits()) {
+                GitRepoInfo populator = history.checkout(commit);
+
+                Snapshot existing = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(populator.getOwner(),
+                        populator.getRepository(), populator.getBranch(), populator.getTimestamp());
+                if (existing != null) continue;
+
+                ProjectStructure projectStructure = parserServices.parseRepository(populator.getDirectoryPath(),
+                        populator.getFileHashes(), parsedFiles);
+                repositoryDownloaderService.populateDatabase(populator);
+                try {
+                    // connect snapshot to project structure
+                    populator.getSnapshot().setProjectStructure(projectStructure);
+                    projectStructure.setGitRepoInfo(populator);
+
+                    projectStructure.computeAllMetrics();
+                    analysisResultWriter.submit(projectStructure);
+                } catch (RuntimeException e) {
+                    snapshotService.updateStatus(populator.getSnapshot(), SnapshotStatus.FAILED);
+                    throw e;
+                }
+                timestamps.add(populator.getTimestamp());
+            }
+        } catch (GitAPIException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not check out the history of " + url, e);
+        }
 
-        return parsedRepositoryProjectStructure;
+        return timestamps;
     }
 }
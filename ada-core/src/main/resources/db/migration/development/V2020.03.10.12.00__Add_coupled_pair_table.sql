@@ -0,0 +1,11 @@
+CREATE TABLE COUPLED_PAIR
+(
+    id           BIGINT  NOT NULL GENERATED ALWAYS AS IDENTITY (START 1) PRIMARY KEY,
+    snapshot_id  BIGINT  NOT NULL REFERENCES SNAPSHOT (id) ON DELETE CASCADE,
+    metric_type  VARCHAR NOT NULL,
+    rank         INTEGER NOT NULL,
+    source_class VARCHAR NOT NULL,
+    target_class VARCHAR NOT NULL,
+    value        FLOAT4  NOT NULL,
+    UNIQUE (snapshot_id, metric_type, rank)
+)
@@ -0,0 +1,19 @@
+CREATE TABLE METRIC_HISTORY_TIMELINE
+(
+    id                  BIGINT NOT NULL GENERATED ALWAYS AS IDENTITY (START 1) PRIMARY KEY,
+    branch_id           BIGINT NOT NULL UNIQUE REFERENCES BRANCH (id) ON DELETE CASCADE,
+    snapshot_timestamps BYTEA  NOT NULL
+);
+
+CREATE TABLE METRIC_HISTORY
+(
+    id            BIGINT  NOT NULL GENERATED ALWAYS AS IDENTITY (START 1) PRIMARY KEY,
+    branch_id     BIGINT  NOT NULL REFERENCES BRANCH (id) ON DELETE CASCADE,
+    element_type  VARCHAR NOT NULL,
+    element_name  VARCHAR NOT NULL,
+    chunk         INTEGER NOT NULL,
+    metric_values BYTEA   NOT NULL,
+    UNIQUE (branch_id, element_type, element_name, chunk)
+);
+
+CREATE INDEX metric_history_branch_chunk_idx ON METRIC_HISTORY (branch_id, chunk);
@@ -0,0 +1,61 @@
+-- Class and relation metric values are stored as packed float4 vectors (big-endian, 4 bytes per value), ordered by the
+-- ordinal of ClassMetricType and RelationMetricType respectively.
+
+ALTER TABLE CLASS_STRUCTURE
+    ADD COLUMN class_metric_values BYTEA;
+
+UPDATE CLASS_STRUCTURE cs
+SET class_metric_values = float4send(v.number_of_attribute_invocation_incoming) ||
+                          float4send(v.number_of_attribute_invocation_outgoing) ||
+                          float4send(v.number_of_method_invocation_incoming) ||
+                          float4send(v.number_of_method_invocation_outgoing) ||
+                          float4send(v.number_of_package_imports_incoming) ||
+                          float4send(v.number_of_package_imports_outgoing) ||
+                          float4send(v.number_of_constructor_invocation_incoming) ||
+                          float4send(v.number_of_constructor_invocation_outgoing) ||
+                          float4send(v.bidirectional_number_of_attribute_invocations) ||
+                          float4send(v.bidirectional_number_of_method_invocations) ||
+                          float4send(v.bidirectional_number_of_package_imports) ||
+                          float4send(v.bidirectional_number_of_constructor_invocations)
+FROM CLASS_METRIC_VALUE v
+WHERE v.id = cs.class_metric_value_id;
+
+ALTER TABLE CLASS_STRUCTURE
+    ALTER COLUMN class_metric_values SET NOT NULL;
+
+ALTER TABLE CLASS_STRUCTURE
+    DROP COLUMN class_metric_value_id;
+
+DROP TABLE CLASS_METRIC_VALUE;
+
+
+ALTER TABLE CLASS_STRUCTURE_RELATION_METRIC_VALUE
+    ADD COLUMN relation_metric_values BYTEA;
+
+UPDATE CLASS_STRUCTURE_RELATION_METRIC_VALUE r
+SET relation_metric_values = float4send(v.number_of_attribute_invocation_incoming) ||
+                             float4send(v.number_of_attribute_invocation_outgoing) ||
+                             float4send(v.number_of_method_invocation_incoming) ||
+                             float4send(v.number_of_method_invocation_outgoing) ||
+                             float4send(v.number_of_package_imports_incoming) ||
+                             float4send(v.number_of_package_imports_outgoing) ||
+                             float4send(v.number_of_constructor_invocation_incoming) ||
+                             float4send(v.number_of_constructor_invocation_outgoing) ||
+                             float4send(v.bidirectional_number_of_attribute_invocations) ||
+                             float4send(v.bidirectional_number_of_method_invocations) ||
+                             float4send(v.bidirectional_number_of_package_imports) ||
+                             float4send(v.bidirectional_number_of_constructor_invocations) ||
+                             float4send(v.general_cumulative_normalised_bidirectional)
+FROM RELATION_METRIC_VALUE v
+WHERE v.id = r.relation_metric_value_id;
+
+ALTER TABLE CLASS_STRUCTURE_RELATION_METRIC_VALUE
+    ALTER COLUMN relation_metric_values SET NOT NULL;
+
+ALTER TABLE CLASS_STRUCTURE_RELATION_METRIC_VALUE
+    DROP COLUMN relation_metric_value_id;
+
+ALTER TABLE CLASS_STRUCTURE_RELATION_METRIC_VALUE
+    ADD PRIMARY KEY (class_structure_id, class_name);
+
+DROP TABLE RELATION_METRIC_VALUE;
@@ -0,0 +1,7 @@
+-- Relation metrics are only stored on the class with the smaller name of each pair, the other class mirrors them.
+-- Class names are compared by code point, as in Java.
+DELETE
+FROM CLASS_STRUCTURE_RELATION_METRIC_VALUE r
+    USING PROJECT_STRUCTURE_CLASS_STRUCTURE p
+WHERE p.class_structure_id = r.class_structure_id
+  AND p.class_name COLLATE "C" > r.class_name COLLATE "C";
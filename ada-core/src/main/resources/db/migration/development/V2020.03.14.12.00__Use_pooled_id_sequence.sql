@@ -0,0 +1,26 @@
+-- Ids are reserved by Hibernate in blocks of 50 from a single sequence instead of identity columns, which allows
+-- inserts to be sent in JDBC batches. A call to nextval returning v reserves the ids v - 49 to v.
+CREATE SEQUENCE ada_id_sequence START 1 INCREMENT BY 50;
+
+DO
+$$
+    DECLARE
+        table_name VARCHAR;
+        max_id     BIGINT := 0;
+        table_max  BIGINT;
+    BEGIN
+        FOREACH table_name IN ARRAY ARRAY ['OWNER', 'REPOSITORY', 'BRANCH', 'SNAPSHOT', 'SOURCE_FILE',
+            'PACKAGE_DECLARATION', 'CLASS_STRUCTURE', 'ATTRIBUTE_DECLARATION', 'CONSTRUCTOR_DECLARATION',
+            'METHOD_DECLARATION', 'ATTRIBUTE_INVOCATION', 'METHOD_INVOCATION', 'PACKAGE_INVOCATION',
+            'CONSTRUCTOR_INVOCATION', 'PROJECT_STRUCTURE', 'DEPENDENCE_INFO', 'PARAMETER_DECLARATION',
+            'PASSED_PARAMETER', 'COUPLED_PAIR', 'METRIC_HISTORY_TIMELINE', 'METRIC_HISTORY']
+            LOOP
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', lower(table_name));
+                EXECUTE format('SELECT coalesce(max(id), 0) FROM %I', lower(table_name)) INTO table_max;
+                max_id := greatest(max_id, table_max);
+            END LOOP;
+
+        -- the next block starts right after the largest id in use
+        PERFORM setval('ada_id_sequence', greatest(max_id, 1));
+    END
+$$;
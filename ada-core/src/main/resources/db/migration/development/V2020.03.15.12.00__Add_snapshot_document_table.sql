@@ -0,0 +1,10 @@
+CREATE TABLE SNAPSHOT_DOCUMENT
+(
+    id             BIGINT  NOT NULL PRIMARY KEY,
+    snapshot_id    BIGINT  NOT NULL UNIQUE REFERENCES SNAPSHOT (id) ON DELETE CASCADE,
+    format_version INTEGER NOT NULL,
+    document       BYTEA   NOT NULL
+);
+
+-- the document is compressed already, keep it out of line without compressing it again
+ALTER TABLE SNAPSHOT_DOCUMENT ALTER COLUMN document SET STORAGE EXTERNAL;
@@ -0,0 +1,32 @@
+-- merge repositories registered twice for the same owner into the one with the smallest id
+UPDATE BRANCH b
+SET repo_id = d.keep_id
+FROM (SELECT id, min(id) OVER (PARTITION BY owner_id, repo_name) AS keep_id FROM REPOSITORY) d
+WHERE b.repo_id = d.id
+  AND d.id <> d.keep_id;
+
+DELETE
+FROM REPOSITORY r
+    USING (SELECT id, min(id) OVER (PARTITION BY owner_id, repo_name) AS keep_id FROM REPOSITORY) d
+WHERE r.id = d.id
+  AND d.id <> d.keep_id;
+
+-- merge branches registered twice for the same repository, the metric history of the merged branches is rebuilt
+-- from new snapshots
+UPDATE SNAPSHOT s
+SET branch_id = d.keep_id
+FROM (SELECT id, min(id) OVER (PARTITION BY repo_id, branch_name) AS keep_id FROM BRANCH) d
+WHERE s.branch_id = d.id
+  AND d.id <> d.keep_id;
+
+DELETE
+FROM BRANCH b
+    USING (SELECT id, min(id) OVER (PARTITION BY repo_id, branch_name) AS keep_id FROM BRANCH) d
+WHERE b.id = d.id
+  AND d.id <> d.keep_id;
+
+ALTER TABLE REPOSITORY
+    ADD CONSTRAINT repository_owner_id_repo_name_key UNIQUE (owner_id, repo_name);
+
+ALTER TABLE BRANCH
+    ADD CONSTRAINT branch_repo_id_branch_name_key UNIQUE (repo_id, branch_name);
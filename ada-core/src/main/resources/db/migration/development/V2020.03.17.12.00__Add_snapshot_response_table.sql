@@ -0,0 +1,10 @@
+CREATE TABLE SNAPSHOT_RESPONSE
+(
+    id          BIGINT      NOT NULL PRIMARY KEY,
+    snapshot_id BIGINT      NOT NULL UNIQUE REFERENCES SNAPSHOT (id) ON DELETE CASCADE,
+    etag        VARCHAR(64) NOT NULL,
+    content     BYTEA       NOT NULL
+);
+
+-- the response is gzip compressed already, keep it out of line without compressing it again
+ALTER TABLE SNAPSHOT_RESPONSE ALTER COLUMN content SET STORAGE EXTERNAL;
@@ -0,0 +1,26 @@
+-- Identical classes of different snapshots share one CLASS_STRUCTURE record, found by the hash of its content.
+-- Existing records have no hash and are never shared.
+ALTER TABLE CLASS_STRUCTURE
+    ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX class_structure_content_hash_idx ON CLASS_STRUCTURE (content_hash);
+
+-- a class structure may now belong to several project structures, under the same class name
+DO
+$$
+    DECLARE
+        constraint_name NAME;
+    BEGIN
+        FOR constraint_name IN
+            SELECT conname
+            FROM pg_constraint
+            WHERE conrelid = 'project_structure_class_structure'::regclass
+              AND contype = 'u'
+            LOOP
+                EXECUTE format('ALTER TABLE project_structure_class_structure DROP CONSTRAINT %I', constraint_name);
+            END LOOP;
+    END
+$$;
+
+ALTER TABLE PROJECT_STRUCTURE_CLASS_STRUCTURE
+    ADD CONSTRAINT project_structure_class_structure_pkey PRIMARY KEY (project_structure_id, class_name);
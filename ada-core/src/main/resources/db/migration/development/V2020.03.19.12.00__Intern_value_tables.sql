@@ -0,0 +1,154 @@
+-- Modifier types are stored as a bit mask on their declaration, bit n standing for the ModifierType of ordinal n.
+ALTER TABLE ATTRIBUTE_DECLARATION
+    ADD COLUMN modifiers INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE CONSTRUCTOR_DECLARATION
+    ADD COLUMN modifiers INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE METHOD_DECLARATION
+    ADD COLUMN modifiers INTEGER NOT NULL DEFAULT 0;
+
+CREATE FUNCTION pg_temp.modifier_bit(modifier_type VARCHAR) RETURNS INTEGER AS
+$$
+SELECT 1 << (array_position(ARRAY ['PUBLIC', 'PROTECTED', 'DEFAULT', 'PRIVATE', 'STATIC', 'FINAL', 'ABSTRACT', 'UNRESOLVED']::VARCHAR[],
+                            modifier_type) - 1)
+$$ LANGUAGE SQL IMMUTABLE;
+
+UPDATE ATTRIBUTE_DECLARATION d
+SET modifiers = m.mask
+FROM (SELECT attribute_declaration_id, bit_or(pg_temp.modifier_bit(modifier_type)) AS mask
+      FROM ATTRIBUTE_DECLARATION_MODIFIER_TYPE
+      WHERE modifier_type IS NOT NULL
+      GROUP BY attribute_declaration_id) m
+WHERE d.id = m.attribute_declaration_id;
+
+UPDATE CONSTRUCTOR_DECLARATION d
+SET modifiers = m.mask
+FROM (SELECT constructor_declaration_id, bit_or(pg_temp.modifier_bit(modifier_type)) AS mask
+      FROM CONSTRUCTOR_DECLARATION_MODIFIER_TYPE
+      WHERE modifier_type IS NOT NULL
+      GROUP BY constructor_declaration_id) m
+WHERE d.id = m.constructor_declaration_id;
+
+UPDATE METHOD_DECLARATION d
+SET modifiers = m.mask
+FROM (SELECT method_declaration_id, bit_or(pg_temp.modifier_bit(modifier_type)) AS mask
+      FROM METHOD_DECLARATION_MODIFIER_TYPE
+      WHERE modifier_type IS NOT NULL
+      GROUP BY method_declaration_id) m
+WHERE d.id = m.method_declaration_id;
+
+DROP TABLE ATTRIBUTE_DECLARATION_MODIFIER_TYPE;
+DROP TABLE CONSTRUCTOR_DECLARATION_MODIFIER_TYPE;
+DROP TABLE METHOD_DECLARATION_MODIFIER_TYPE;
+
+-- Interned values are shared, so the join tables referring to them no longer have unique element columns.
+DO
+$$
+    DECLARE
+        join_table      VARCHAR;
+        constraint_name NAME;
+    BEGIN
+        FOREACH join_table IN ARRAY ARRAY ['constructor_declaration_parameter_declaration',
+            'method_declaration_parameter_declaration', 'constructor_invocation_passed_parameter',
+            'method_invocation_passed_parameter', 'class_structure_external_package_invocation',
+            'dependence_info_package_invocation']
+            LOOP
+                FOR constraint_name IN
+                    SELECT conname FROM pg_constraint WHERE conrelid = join_table::regclass AND contype = 'u'
+                    LOOP
+                        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', join_table, constraint_name);
+                    END LOOP;
+            END LOOP;
+    END
+$$;
+
+-- Merge the stored duplicates into the value with the smallest id, then make every table unique by content. The
+-- unique indexes are on md5 digests, as passed parameters can be longer than a btree entry.
+CREATE TEMPORARY TABLE package_declaration_merge ON COMMIT DROP AS
+SELECT id, min(id) OVER (PARTITION BY name) AS keep_id
+FROM PACKAGE_DECLARATION;
+
+UPDATE CLASS_STRUCTURE t
+SET package_declaration_id = m.keep_id
+FROM package_declaration_merge m
+WHERE t.package_declaration_id = m.id
+  AND m.id <> m.keep_id;
+
+DELETE
+FROM PACKAGE_DECLARATION t
+    USING package_declaration_merge m
+WHERE t.id = m.id
+  AND m.id <> m.keep_id;
+
+CREATE UNIQUE INDEX package_declaration_name_key ON PACKAGE_DECLARATION (md5(name));
+
+CREATE TEMPORARY TABLE parameter_declaration_merge ON COMMIT DROP AS
+SELECT id, min(id) OVER (PARTITION BY type, name) AS keep_id
+FROM PARAMETER_DECLARATION;
+
+UPDATE CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION t
+SET parameter_declaration_id = m.keep_id
+FROM parameter_declaration_merge m
+WHERE t.parameter_declaration_id = m.id
+  AND m.id <> m.keep_id;
+
+UPDATE METHOD_DECLARATION_PARAMETER_DECLARATION t
+SET parameter_declaration_id = m.keep_id
+FROM parameter_declaration_merge m
+WHERE t.parameter_declaration_id = m.id
+  AND m.id <> m.keep_id;
+
+DELETE
+FROM PARAMETER_DECLARATION t
+    USING parameter_declaration_merge m
+WHERE t.id = m.id
+  AND m.id <> m.keep_id;
+
+CREATE UNIQUE INDEX parameter_declaration_type_name_key ON PARAMETER_DECLARATION (md5(type), md5(name));
+
+CREATE TEMPORARY TABLE passed_parameter_merge ON COMMIT DROP AS
+SELECT id, min(id) OVER (PARTITION BY name) AS keep_id
+FROM PASSED_PARAMETER;
+
+UPDATE CONSTRUCTOR_INVOCATION_PASSED_PARAMETER t
+SET passed_parameter_id = m.keep_id
+FROM passed_parameter_merge m
+WHERE t.passed_parameter_id = m.id
+  AND m.id <> m.keep_id;
+
+UPDATE METHOD_INVOCATION_PASSED_PARAMETER t
+SET passed_parameter_id = m.keep_id
+FROM passed_parameter_merge m
+WHERE t.passed_parameter_id = m.id
+  AND m.id <> m.keep_id;
+
+DELETE
+FROM PASSED_PARAMETER t
+    USING passed_parameter_merge m
+WHERE t.id = m.id
+  AND m.id <> m.keep_id;
+
+CREATE UNIQUE INDEX passed_parameter_name_key ON PASSED_PARAMETER (md5(name));
+
+CREATE TEMPORARY TABLE package_invocation_merge ON COMMIT DROP AS
+SELECT id, min(id) OVER (PARTITION BY name) AS keep_id
+FROM PACKAGE_INVOCATION;
+
+UPDATE CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION t
+SET package_invocation_id = m.keep_id
+FROM package_invocation_merge m
+WHERE t.package_invocation_id = m.id
+  AND m.id <> m.keep_id;
+
+UPDATE DEPENDENCE_INFO_PACKAGE_INVOCATION t
+SET package_invocation_id = m.keep_id
+FROM package_invocation_merge m
+WHERE t.package_invocation_id = m.id
+  AND m.id <> m.keep_id;
+
+DELETE
+FROM PACKAGE_INVOCATION t
+    USING package_invocation_merge m
+WHERE t.id = m.id
+  AND m.id <> m.keep_id;
+
+CREATE UNIQUE INDEX package_invocation_name_key ON PACKAGE_INVOCATION (md5(name));
@@ -0,0 +1,36 @@
+-- Indexes on the foreign key and join columns which are not already the leading column of a key. Snapshots are
+-- loaded one collection at a time with subselects on the owner column, and deletes look up the referencing rows of
+-- every parent, so both sides of each join table need an index.
+CREATE INDEX snapshot_branch_id_idx ON SNAPSHOT (branch_id);
+CREATE INDEX snapshot_project_structure_id_idx ON SNAPSHOT (project_structure_id);
+CREATE INDEX source_file_snapshot_id_idx ON SOURCE_FILE (snapshot_id);
+
+CREATE INDEX class_structure_package_declaration_id_idx ON CLASS_STRUCTURE (package_declaration_id);
+CREATE INDEX project_structure_class_structure_class_structure_id_idx ON PROJECT_STRUCTURE_CLASS_STRUCTURE (class_structure_id);
+
+CREATE INDEX class_structure_attribute_declaration_class_structure_id_idx ON CLASS_STRUCTURE_ATTRIBUTE_DECLARATION (class_structure_id);
+CREATE INDEX class_structure_constructor_declaration_class_structure_id_idx ON CLASS_STRUCTURE_CONSTRUCTOR_DECLARATION (class_structure_id);
+CREATE INDEX class_structure_method_declaration_class_structure_id_idx ON CLASS_STRUCTURE_METHOD_DECLARATION (class_structure_id);
+CREATE INDEX cs_global_attribute_invocation_class_structure_id_idx ON CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION (class_structure_id);
+CREATE INDEX cs_global_method_invocation_class_structure_id_idx ON CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION (class_structure_id);
+CREATE INDEX cs_external_package_invocation_class_structure_id_idx ON CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION (class_structure_id);
+CREATE INDEX cs_external_package_invocation_package_invocation_id_idx ON CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION (package_invocation_id);
+CREATE INDEX cs_external_constructor_invocation_class_structure_id_idx ON CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION (class_structure_id);
+CREATE INDEX cs_external_attribute_invocation_class_structure_id_idx ON CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION (class_structure_id);
+CREATE INDEX cs_external_method_invocation_class_structure_id_idx ON CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION (class_structure_id);
+CREATE INDEX class_structure_outgoing_dependence_info_class_structure_id_idx ON CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO (class_structure_id);
+
+CREATE INDEX constructor_declaration_parameter_constructor_id_idx ON CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION (constructor_declaration_id);
+CREATE INDEX constructor_declaration_parameter_parameter_declaration_id_idx ON CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION (parameter_declaration_id);
+CREATE INDEX method_declaration_parameter_method_id_idx ON METHOD_DECLARATION_PARAMETER_DECLARATION (method_declaration_id);
+CREATE INDEX method_declaration_parameter_parameter_declaration_id_idx ON METHOD_DECLARATION_PARAMETER_DECLARATION (parameter_declaration_id);
+CREATE INDEX constructor_invocation_parameter_constructor_invocation_id_idx ON CONSTRUCTOR_INVOCATION_PASSED_PARAMETER (constructor_invocation_id);
+CREATE INDEX constructor_invocation_parameter_passed_parameter_id_idx ON CONSTRUCTOR_INVOCATION_PASSED_PARAMETER (passed_parameter_id);
+CREATE INDEX method_invocation_parameter_method_invocation_id_idx ON METHOD_INVOCATION_PASSED_PARAMETER (method_invocation_id);
+CREATE INDEX method_invocation_parameter_passed_parameter_id_idx ON METHOD_INVOCATION_PASSED_PARAMETER (passed_parameter_id);
+
+CREATE INDEX dependence_info_package_dependence_info_id_idx ON DEPENDENCE_INFO_PACKAGE_INVOCATION (dependence_info_id);
+CREATE INDEX dependence_info_package_package_invocation_id_idx ON DEPENDENCE_INFO_PACKAGE_INVOCATION (package_invocation_id);
+CREATE INDEX dependence_info_attribute_attribute_invocation_id_idx ON DEPENDENCE_INFO_ATTRIBUTE_INVOCATION (attribute_invocation_id);
+CREATE INDEX dependence_info_constructor_constructor_invocation_id_idx ON DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION (constructor_invocation_id);
+CREATE INDEX dependence_info_method_method_invocation_id_idx ON DEPENDENCE_INFO_METHOD_INVOCATION (method_invocation_id);
@@ -0,0 +1,338 @@
+-- The tables holding rows per snapshot are partitioned by ranges of ids of the shared id sequence, SOURCE_FILE and
+-- COUPLED_PAIR by snapshot id and PROJECT_STRUCTURE_CLASS_STRUCTURE by project structure id. A snapshot and its
+-- project structure are written one after the other, so they almost always fall into the same window. Reads of one
+-- snapshot only touch its partition, and expired snapshots are removed by dropping the partitions of their window.
+-- Class structures are shared between snapshots; the ones no longer referenced are collected in batches afterwards.
+CREATE FUNCTION ada_partition_width() RETURNS BIGINT AS
+$$
+SELECT 10000000::BIGINT
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE FUNCTION ada_create_snapshot_partition(partition_window INTEGER) RETURNS VOID AS
+$$
+DECLARE
+    partitioned_table VARCHAR;
+    partition_name    VARCHAR;
+BEGIN
+    FOREACH partitioned_table IN ARRAY ARRAY ['source_file', 'coupled_pair', 'project_structure_class_structure']
+        LOOP
+            partition_name := partitioned_table || '_p' || partition_window;
+            IF to_regclass(partition_name) IS NULL THEN
+                -- attaching an empty table does not lock out the readers of the parent, unlike CREATE TABLE PARTITION OF
+                EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', partition_name, partitioned_table);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%s) TO (%s)', partitioned_table,
+                               partition_name, partition_window * ada_partition_width(),
+                               (partition_window + 1) * ada_partition_width());
+            END IF;
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION ada_snapshot_partition_windows() RETURNS SETOF INTEGER AS
+$$
+SELECT substring(c.relname FROM '_p([0-9]+)$')::INTEGER
+FROM pg_inherits i
+         JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'source_file'::regclass
+$$ LANGUAGE SQL STABLE;
+
+-- Creates the partitions up to two windows ahead of the id sequence, returns the number of windows created. Gives up
+-- when the parent tables stay locked, the windows ahead leave time for the next attempt.
+CREATE FUNCTION ada_ensure_snapshot_partitions() RETURNS INTEGER AS
+$$
+DECLARE
+    current_window  INTEGER := (SELECT last_value FROM ada_id_sequence) / ada_partition_width();
+    last_window     INTEGER;
+    created         INTEGER := 0;
+    next_window     INTEGER;
+BEGIN
+    SELECT max(w) INTO last_window FROM ada_snapshot_partition_windows() w;
+    IF last_window >= current_window + 2 THEN
+        RETURN 0;
+    END IF;
+
+    PERFORM set_config('lock_timeout', '2s', true);
+    PERFORM pg_advisory_xact_lock(hashtext('ada_snapshot_partitions'));
+    SELECT max(w) INTO last_window FROM ada_snapshot_partition_windows() w;
+    FOR next_window IN coalesce(last_window + 1, current_window) .. current_window + 2
+        LOOP
+            PERFORM ada_create_snapshot_partition(next_window);
+            created := created + 1;
+        END LOOP;
+    RETURN created;
+EXCEPTION
+    WHEN lock_not_available THEN
+        RETURN 0;
+END
+$$ LANGUAGE plpgsql;
+
+-- Class structures referenced by dropped partitions, to be deleted unless another project structure references them.
+CREATE TABLE CLASS_STRUCTURE_GC_CANDIDATE
+(
+    class_structure_id BIGINT NOT NULL PRIMARY KEY
+);
+
+-- Drops the partitions of a full window and deletes its snapshots and project structures, if every snapshot of the
+-- window or referencing a project structure of the window is older than the cutoff. Returns the number of deleted
+-- snapshots, or -1 if the window is kept.
+CREATE FUNCTION ada_drop_expired_snapshot_partition(partition_window INTEGER, cutoff TIMESTAMP WITH TIME ZONE) RETURNS INTEGER AS
+$$
+DECLARE
+    low                 BIGINT := partition_window * ada_partition_width();
+    high                BIGINT := (partition_window + 1) * ada_partition_width();
+    partitioned_table   VARCHAR;
+    expired_structures  BIGINT[];
+    deleted             INTEGER;
+BEGIN
+    IF high > (SELECT last_value FROM ada_id_sequence) OR EXISTS(SELECT 1
+                                                                 FROM SNAPSHOT s
+                                                                 WHERE (s.id >= low AND s.id < high
+                                                                     OR s.project_structure_id >= low AND s.project_structure_id < high)
+                                                                   AND s."timestamp" >= cutoff) THEN
+        RETURN -1;
+    END IF;
+
+    PERFORM set_config('lock_timeout', '2s', true);
+    EXECUTE format('INSERT INTO CLASS_STRUCTURE_GC_CANDIDATE (class_structure_id) SELECT DISTINCT class_structure_id FROM %I ' ||
+                   'ON CONFLICT DO NOTHING', 'project_structure_class_structure_p' || partition_window);
+    FOREACH partitioned_table IN ARRAY ARRAY ['source_file', 'coupled_pair', 'project_structure_class_structure']
+        LOOP
+            EXECUTE format('DROP TABLE IF EXISTS %I', partitioned_table || '_p' || partition_window);
+        END LOOP;
+
+    SELECT array_agg(project_structure_id) INTO expired_structures FROM SNAPSHOT WHERE id >= low AND id < high;
+    DELETE FROM SNAPSHOT WHERE id >= low AND id < high;
+    GET DIAGNOSTICS deleted = ROW_COUNT;
+
+    -- a project structure goes once neither its snapshot nor its partition is left
+    DELETE
+    FROM PROJECT_STRUCTURE p
+    WHERE (p.id >= low AND p.id < high OR p.id = ANY (expired_structures))
+      AND NOT EXISTS(SELECT 1 FROM SNAPSHOT s WHERE s.project_structure_id = p.id)
+      AND NOT EXISTS(SELECT 1 FROM PROJECT_STRUCTURE_CLASS_STRUCTURE c WHERE c.project_structure_id = p.id);
+    RETURN deleted;
+EXCEPTION
+    WHEN lock_not_available THEN
+        RETURN -1;
+END
+$$ LANGUAGE plpgsql;
+
+-- Deletes a batch of candidate class structures which no project structure references, with everything stored below
+-- them. Interned values are kept. Returns the number of candidates processed, 0 once there are none left.
+CREATE FUNCTION ada_collect_class_structures(batch_size INTEGER) RETURNS INTEGER AS
+$$
+DECLARE
+    processed INTEGER;
+BEGIN
+    -- writers hold the shared lock while they reuse stored class structures
+    PERFORM pg_advisory_xact_lock(hashtext('ada_class_structure'));
+
+    DROP TABLE IF EXISTS gc_class_structure, gc_dependence_info, gc_attribute_declaration, gc_constructor_declaration,
+        gc_method_declaration, gc_attribute_invocation, gc_constructor_invocation, gc_method_invocation;
+
+    CREATE TEMPORARY TABLE gc_class_structure ON COMMIT DROP AS
+    SELECT class_structure_id AS id
+    FROM CLASS_STRUCTURE_GC_CANDIDATE
+    LIMIT batch_size;
+    GET DIAGNOSTICS processed = ROW_COUNT;
+    DELETE FROM CLASS_STRUCTURE_GC_CANDIDATE c USING gc_class_structure g WHERE c.class_structure_id = g.id;
+    DELETE
+    FROM gc_class_structure g
+    WHERE EXISTS(SELECT 1 FROM PROJECT_STRUCTURE_CLASS_STRUCTURE c WHERE c.class_structure_id = g.id);
+
+    CREATE TEMPORARY TABLE gc_dependence_info ON COMMIT DROP AS
+    SELECT j.dependence_info_id AS id
+    FROM CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id;
+    CREATE TEMPORARY TABLE gc_attribute_declaration ON COMMIT DROP AS
+    SELECT j.attribute_declaration_id AS id
+    FROM CLASS_STRUCTURE_ATTRIBUTE_DECLARATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id;
+    CREATE TEMPORARY TABLE gc_constructor_declaration ON COMMIT DROP AS
+    SELECT j.constructor_declaration_id AS id
+    FROM CLASS_STRUCTURE_CONSTRUCTOR_DECLARATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id;
+    CREATE TEMPORARY TABLE gc_method_declaration ON COMMIT DROP AS
+    SELECT j.method_declaration_id AS id
+    FROM CLASS_STRUCTURE_METHOD_DECLARATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id;
+    CREATE TEMPORARY TABLE gc_attribute_invocation ON COMMIT DROP AS
+    SELECT j.attribute_invocation_id AS id
+    FROM CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id
+    UNION
+    SELECT j.attribute_invocation_id
+    FROM CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id
+    UNION
+    SELECT j.attribute_invocation_id
+    FROM DEPENDENCE_INFO_ATTRIBUTE_INVOCATION j
+             JOIN gc_dependence_info g ON j.dependence_info_id = g.id;
+    CREATE TEMPORARY TABLE gc_constructor_invocation ON COMMIT DROP AS
+    SELECT j.constructor_invocation_id AS id
+    FROM CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id
+    UNION
+    SELECT j.constructor_invocation_id
+    FROM DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION j
+             JOIN gc_dependence_info g ON j.dependence_info_id = g.id;
+    CREATE TEMPORARY TABLE gc_method_invocation ON COMMIT DROP AS
+    SELECT j.method_invocation_id AS id
+    FROM CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id
+    UNION
+    SELECT j.method_invocation_id
+    FROM CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION j
+             JOIN gc_class_structure g ON j.class_structure_id = g.id
+    UNION
+    SELECT j.method_invocation_id
+    FROM DEPENDENCE_INFO_METHOD_INVOCATION j
+             JOIN gc_dependence_info g ON j.dependence_info_id = g.id;
+
+    -- the references from the collected classes
+    DELETE FROM CLASS_STRUCTURE_ATTRIBUTE_DECLARATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_CONSTRUCTOR_DECLARATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_METHOD_DECLARATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_INCOMING_DEPENDENCE_INFO j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+    DELETE FROM CLASS_STRUCTURE_RELATION_METRIC_VALUE j USING gc_class_structure g WHERE j.class_structure_id = g.id;
+
+    DELETE
+    FROM gc_dependence_info g
+    WHERE EXISTS(SELECT 1 FROM CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO j WHERE j.dependence_info_id = g.id);
+    DELETE FROM CLASS_STRUCTURE_INCOMING_DEPENDENCE_INFO j USING gc_dependence_info g WHERE j.dependence_info_id = g.id;
+    DELETE FROM DEPENDENCE_INFO_PACKAGE_INVOCATION j USING gc_dependence_info g WHERE j.dependence_info_id = g.id;
+    DELETE FROM DEPENDENCE_INFO_ATTRIBUTE_INVOCATION j USING gc_dependence_info g WHERE j.dependence_info_id = g.id;
+    DELETE FROM DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION j USING gc_dependence_info g WHERE j.dependence_info_id = g.id;
+    DELETE FROM DEPENDENCE_INFO_METHOD_INVOCATION j USING gc_dependence_info g WHERE j.dependence_info_id = g.id;
+    DELETE FROM DEPENDENCE_INFO d USING gc_dependence_info g WHERE d.id = g.id;
+
+    -- invocations still referenced from a class or dependence which is kept are kept as well
+    DELETE
+    FROM gc_attribute_invocation g
+    WHERE EXISTS(SELECT 1 FROM CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION j WHERE j.attribute_invocation_id = g.id)
+       OR EXISTS(SELECT 1 FROM CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION j WHERE j.attribute_invocation_id = g.id)
+       OR EXISTS(SELECT 1 FROM DEPENDENCE_INFO_ATTRIBUTE_INVOCATION j WHERE j.attribute_invocation_id = g.id);
+    DELETE
+    FROM gc_constructor_invocation g
+    WHERE EXISTS(SELECT 1 FROM CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION j WHERE j.constructor_invocation_id = g.id)
+       OR EXISTS(SELECT 1 FROM DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION j WHERE j.constructor_invocation_id = g.id);
+    DELETE
+    FROM gc_method_invocation g
+    WHERE EXISTS(SELECT 1 FROM CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION j WHERE j.method_invocation_id = g.id)
+       OR EXISTS(SELECT 1 FROM CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION j WHERE j.method_invocation_id = g.id)
+       OR EXISTS(SELECT 1 FROM DEPENDENCE_INFO_METHOD_INVOCATION j WHERE j.method_invocation_id = g.id);
+
+    DELETE FROM CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION j USING gc_constructor_declaration g WHERE j.constructor_declaration_id = g.id;
+    DELETE FROM METHOD_DECLARATION_PARAMETER_DECLARATION j USING gc_method_declaration g WHERE j.method_declaration_id = g.id;
+    DELETE FROM CONSTRUCTOR_INVOCATION_PASSED_PARAMETER j USING gc_constructor_invocation g WHERE j.constructor_invocation_id = g.id;
+    DELETE FROM METHOD_INVOCATION_PASSED_PARAMETER j USING gc_method_invocation g WHERE j.method_invocation_id = g.id;
+
+    DELETE FROM ATTRIBUTE_DECLARATION d USING gc_attribute_declaration g WHERE d.id = g.id;
+    DELETE FROM CONSTRUCTOR_DECLARATION d USING gc_constructor_declaration g WHERE d.id = g.id;
+    DELETE FROM METHOD_DECLARATION d USING gc_method_declaration g WHERE d.id = g.id;
+    DELETE FROM ATTRIBUTE_INVOCATION d USING gc_attribute_invocation g WHERE d.id = g.id;
+    DELETE FROM CONSTRUCTOR_INVOCATION d USING gc_constructor_invocation g WHERE d.id = g.id;
+    DELETE FROM METHOD_INVOCATION d USING gc_method_invocation g WHERE d.id = g.id;
+    DELETE FROM CLASS_STRUCTURE d USING gc_class_structure g WHERE d.id = g.id;
+    RETURN processed;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE INDEX cs_outgoing_dependence_info_dependence_info_id_idx ON CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO (dependence_info_id);
+CREATE INDEX cs_incoming_dependence_info_dependence_info_id_idx ON CLASS_STRUCTURE_INCOMING_DEPENDENCE_INFO (dependence_info_id);
+CREATE INDEX cs_incoming_dependence_info_class_structure_id_idx ON CLASS_STRUCTURE_INCOMING_DEPENDENCE_INFO (class_structure_id);
+
+-- Move the existing rows into partitioned tables of the same name.
+ALTER TABLE SOURCE_FILE
+    RENAME TO source_file_unpartitioned;
+ALTER INDEX source_file_pkey RENAME TO source_file_unpartitioned_pkey;
+DROP INDEX source_file_snapshot_id_idx;
+
+CREATE TABLE SOURCE_FILE
+(
+    id          BIGINT  NOT NULL,
+    snapshot_id BIGINT  NOT NULL REFERENCES SNAPSHOT (id),
+    file_hash   VARCHAR NOT NULL,
+    file_name   VARCHAR NOT NULL,
+    PRIMARY KEY (id, snapshot_id)
+) PARTITION BY RANGE (snapshot_id);
+
+CREATE INDEX source_file_snapshot_id_idx ON SOURCE_FILE (snapshot_id);
+
+ALTER TABLE COUPLED_PAIR
+    RENAME TO coupled_pair_unpartitioned;
+ALTER INDEX coupled_pair_pkey RENAME TO coupled_pair_unpartitioned_pkey;
+ALTER INDEX coupled_pair_snapshot_id_metric_type_rank_key RENAME TO coupled_pair_unpartitioned_snapshot_id_metric_type_rank_key;
+
+CREATE TABLE COUPLED_PAIR
+(
+    id           BIGINT  NOT NULL,
+    snapshot_id  BIGINT  NOT NULL REFERENCES SNAPSHOT (id) ON DELETE CASCADE,
+    metric_type  VARCHAR NOT NULL,
+    rank         INTEGER NOT NULL,
+    source_class VARCHAR NOT NULL,
+    target_class VARCHAR NOT NULL,
+    value        FLOAT4  NOT NULL,
+    PRIMARY KEY (id, snapshot_id),
+    UNIQUE (snapshot_id, metric_type, rank)
+) PARTITION BY RANGE (snapshot_id);
+
+ALTER TABLE PROJECT_STRUCTURE_CLASS_STRUCTURE
+    RENAME TO project_structure_class_structure_unpartitioned;
+ALTER INDEX project_structure_class_structure_pkey RENAME TO project_structure_class_structure_unpartitioned_pkey;
+DROP INDEX project_structure_class_structure_class_structure_id_idx;
+
+CREATE TABLE PROJECT_STRUCTURE_CLASS_STRUCTURE
+(
+    project_structure_id BIGINT  NOT NULL REFERENCES PROJECT_STRUCTURE (id),
+    class_name           VARCHAR NOT NULL,
+    class_structure_id   BIGINT  NOT NULL REFERENCES CLASS_STRUCTURE (id),
+    PRIMARY KEY (project_structure_id, class_name)
+) PARTITION BY RANGE (project_structure_id);
+
+CREATE INDEX project_structure_class_structure_class_structure_id_idx ON PROJECT_STRUCTURE_CLASS_STRUCTURE (class_structure_id);
+
+DO
+$$
+    DECLARE
+        partition_window INTEGER;
+        current_window   INTEGER := (SELECT last_value FROM ada_id_sequence) / ada_partition_width();
+    BEGIN
+        FOR partition_window IN
+            SELECT snapshot_id / ada_partition_width()
+            FROM source_file_unpartitioned
+            UNION
+            SELECT snapshot_id / ada_partition_width()
+            FROM coupled_pair_unpartitioned
+            UNION
+            SELECT project_structure_id / ada_partition_width()
+            FROM project_structure_class_structure_unpartitioned
+            UNION
+            SELECT generate_series(current_window, current_window + 2)
+            LOOP
+                PERFORM ada_create_snapshot_partition(partition_window);
+            END LOOP;
+    END
+$$;
+
+INSERT INTO SOURCE_FILE (id, snapshot_id, file_hash, file_name)
+SELECT id, snapshot_id, file_hash, file_name
+FROM source_file_unpartitioned;
+DROP TABLE source_file_unpartitioned;
+
+INSERT INTO COUPLED_PAIR (id, snapshot_id, metric_type, rank, source_class, target_class, value)
+SELECT id, snapshot_id, metric_type, rank, source_class, target_class, value
+FROM coupled_pair_unpartitioned;
+DROP TABLE coupled_pair_unpartitioned;
+
+INSERT INTO PROJECT_STRUCTURE_CLASS_STRUCTURE (project_structure_id, class_name, class_structure_id)
+SELECT project_structure_id, class_name, class_structure_id
+FROM project_structure_class_structure_unpartitioned;
+DROP TABLE project_structure_class_structure_unpartitioned;
@@ -0,0 +1,2 @@
+-- persistence state of the analysis results, the snapshots stored so far are complete
+ALTER TABLE snapshot ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'PERSISTED';
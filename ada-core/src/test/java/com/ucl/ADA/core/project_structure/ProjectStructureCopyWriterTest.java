@@ -0,0 +1,134 @@
+package com.ucl.ADA.core.project_structure;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCopyWriter;
+import com.ucl.ADA.model.project_structure.InternedValueStore;
+import com.ucl.ADA.model.project_structure.ProjectStructureRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes the same project structure with JPA and with COPY into a local PostgreSQL and compares what is read back.
+ * Only runs when ADA_TEST_DATABASE=true, against the database of the dev profile.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@EnabledIfEnvironmentVariable(named = "ADA_TEST_DATABASE", matches = "true")
+class ProjectStructureCopyWriterTest {
+
+    @Autowired
+    private ProjectStructureCopyWriter projectStructureCopyWriter;
+
+    @Autowired
+    private ProjectStructureRepository projectStructureRepository;
+
+    @Autowired
+    private InternedValueStore internedValueStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void write_readsBackTheSameStructureAsJpa() {
+        ProjectStructure jpa = transactionTemplate.execute(status -> projectStructureRepository.save(interned(buildProjectStructure())));
+        ProjectStructure copy = transactionTemplate.execute(status -> projectStructureCopyWriter.write(interned(buildProjectStructure())));
+
+        assertThat(copy.getId()).isNotNull().isNotEqualTo(jpa.getId());
+        assertThat(reload(copy.getId())).isEqualTo(reload(jpa.getId()));
+    }
+
+    private ProjectStructure interned(ProjectStructure projectStructure) {
+        internedValueStore.intern(projectStructure, Collections.emptySet());
+        return projectStructure;
+    }
+
+    private String reload(Long id) {
+        return transactionTemplate.execute(status -> dump(projectStructureRepository.findById(id).orElseThrow(IllegalStateException::new)));
+    }
+
+    private static ProjectStructure buildProjectStructure() {
+        Set<ModifierType> modifiers = new HashSet<>(Arrays.asList(ModifierType.PUBLIC, ModifierType.STATIC));
+        ProjectStructure projectStructure = new ProjectStructure();
+        for (int i = 0; i < 20; i++) {
+            String className = "com.ada.example.Class" + i;
+            String otherClassName = "com.ada.example.Class" + ((i * 7 + 3) % 20);
+            projectStructure.addPackageDeclaration(className, new PackageDeclaration("com.ada.example"));
+            projectStructure.addAttributeDeclaration(className, new AttributeDeclaration(modifiers, "String", "attribute" + i, "\"a\\tb\n\""));
+            projectStructure.addConstructorDeclaration(className, new ConstructorDeclaration(modifiers, "Class" + i,
+                    new ArrayList<>(Collections.singletonList(new ParameterDeclaration("int", "value")))));
+            projectStructure.addMethodDeclaration(className, new MethodDeclaration(modifiers, "void", "method" + i,
+                    new ArrayList<>(Arrays.asList(new ParameterDeclaration("String", "first"), new ParameterDeclaration("int", "second")))));
+            projectStructure.addPackageInvocation(className, otherClassName, new PackageInvocation("com.ada.example"));
+            projectStructure.addAttributeInvocation(className, otherClassName, new AttributeInvocation("attribute" + i));
+            projectStructure.addConstructorInvocation(className, otherClassName, new ConstructorInvocation("Class" + i,
+                    new ArrayList<>(Collections.singletonList(new PassedParameter("1")))));
+            projectStructure.addMethodInvocation(className, otherClassName, new MethodInvocation("method" + i,
+                    new ArrayList<>(Arrays.asList(new PassedParameter("\"x\""), new PassedParameter("2")))));
+            projectStructure.addExternalPackageImport(className, new PackageInvocation("java.util"));
+            projectStructure.addExternalMethodInvocations(className, new MethodInvocation("println", new ArrayList<>()));
+        }
+        projectStructure.computeAllMetrics();
+        return projectStructure;
+    }
+
+    /**
+     * A canonical text form of everything stored for a project structure, independent of ids and of collection order
+     */
+    private static String dump(ProjectStructure projectStructure) {
+        StringBuilder dump = new StringBuilder();
+        for (Map.Entry<String, ClassStructure> entry : new TreeMap<>(projectStructure.getClassStructures()).entrySet()) {
+            ClassStructure classStructure = entry.getValue();
+            dump.append(entry.getKey()).append(' ').append(classStructure.getCurrentPackage().getName()).append('\n');
+            dump.append(Arrays.toString(classStructure.getClassMetricValues().getVector())).append('\n');
+            for (AttributeDeclaration declaration : classStructure.getAttributeDeclarations()) {
+                dump.append(new TreeSet<>(declaration.getModifierTypes())).append(declaration.getType())
+                        .append(declaration.getName()).append(declaration.getValue()).append('\n');
+            }
+            for (ConstructorDeclaration declaration : classStructure.getConstructorDeclarations()) {
+                dump.append(new TreeSet<>(declaration.getModifierTypes())).append(declaration.getName());
+                declaration.getParameters().forEach(p -> dump.append(p.getType()).append(p.getName()));
+                dump.append('\n');
+            }
+            for (MethodDeclaration declaration : classStructure.getMethodsDeclarations()) {
+                dump.append(new TreeSet<>(declaration.getModifierTypes())).append(declaration.getReturnType()).append(declaration.getName());
+                declaration.getParameters().forEach(p -> dump.append(p.getType()).append(p.getName()));
+                dump.append('\n');
+            }
+            for (Map.Entry<String, DependenceInfo> outgoing : new TreeMap<>(classStructure.getOutgoingDependenceInfo()).entrySet()) {
+                DependenceInfo dependenceInfo = outgoing.getValue();
+                dump.append("-> ").append(outgoing.getKey());
+                dependenceInfo.getPackages().forEach(invocation -> dump.append(' ').append(invocation.getName()));
+                dependenceInfo.getAttributes().forEach(invocation -> dump.append(' ').append(invocation.getName()));
+                dependenceInfo.getConstructors().forEach(invocation -> dump.append(' ').append(invocation.getName()).append(passed(invocation.getPassedParameters())));
+                dependenceInfo.getMethods().forEach(invocation -> dump.append(' ').append(invocation.getName()).append(passed(invocation.getPassedParameters())));
+                dump.append('\n');
+            }
+            for (Map.Entry<String, DependenceInfo> incoming : new TreeMap<>(classStructure.getIncomingDependenceInfo()).entrySet()) {
+                dump.append("<- ").append(incoming.getKey()).append('\n');
+            }
+            classStructure.getExternalPackageImports().forEach(invocation -> dump.append("import ").append(invocation.getName()).append('\n'));
+            classStructure.getExternalMethodInvocations().forEach(invocation -> dump.append("call ").append(invocation.getName()).append('\n'));
+            new TreeMap<>(classStructure.getRelationMetricValues()).forEach((relatedClass, value) ->
+                    dump.append("~ ").append(relatedClass).append(Arrays.toString(value.getVector())).append('\n'));
+        }
+        return dump.toString();
+    }
+
+    private static String passed(List<PassedParameter> passedParameters) {
+        StringBuilder passed = new StringBuilder("(");
+        passedParameters.forEach(parameter -> passed.append(parameter.getName()).append(','));
+        return passed.append(')').toString();
+    }
+}
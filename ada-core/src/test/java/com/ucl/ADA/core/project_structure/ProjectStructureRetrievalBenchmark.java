@@ -0,0 +1,212 @@
+package com.ucl.ADA.core.project_structure;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.project_structure.InternedValueStore;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCopyWriter;
+import com.ucl.ADA.model.project_structure.ProjectStructureRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads a large synthetic project structure from a local PostgreSQL and reports the number of statements and the
+ * latency of a full load, once with the foreign key indexes of the schema and once with them dropped. The indexes are
+ * dropped inside the measured transaction, which is rolled back. Only runs with -Dada.benchmark=true, against the
+ * database of the dev profile; -Dada.benchmark.classes sets the number of classes.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "ada.benchmark", matches = "true")
+class ProjectStructureRetrievalBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectStructureRetrievalBenchmark.class);
+
+    private static final String INDEX_MIGRATION = "db/migration/development/V2020.03.20.12.00__Add_foreign_key_indexes.sql";
+
+    private static final int WARMUP_ITERATIONS = 2;
+
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private ProjectStructureCopyWriter projectStructureCopyWriter;
+
+    @Autowired
+    private ProjectStructureRepository projectStructureRepository;
+
+    @Autowired
+    private InternedValueStore internedValueStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void load_withAndWithoutForeignKeyIndexes() throws IOException {
+        int classCount = Integer.parseInt(System.getProperty("ada.benchmark.classes", "2000"));
+        ProjectStructure projectStructure = buildProjectStructure(classCount);
+        internedValueStore.intern(projectStructure, Collections.emptySet());
+        Long id = transactionTemplate.execute(status -> projectStructureCopyWriter.write(projectStructure).getId());
+
+        List<String> indexes = foreignKeyIndexes();
+        Result indexed = measure(id, classCount, Collections.emptyList());
+        Result unindexed = measure(id, classCount, indexes);
+
+        LOGGER.info("project structure retrieval, {} classes, median of {} loads", classCount, ITERATIONS);
+        LOGGER.info("  without foreign key indexes: {}", unindexed);
+        LOGGER.info("  with {} foreign key indexes: {}", indexes.size(), indexed);
+
+        assertThat(indexed.statements).isEqualTo(unindexed.statements);
+    }
+
+    private Result measure(Long id, int classCount, List<String> droppedIndexes) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long[] latencies = new long[ITERATIONS];
+        long statements = 0;
+        for (int i = -WARMUP_ITERATIONS; i < ITERATIONS; i++) {
+            int iteration = i;
+            long[] measured = transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                for (String index : droppedIndexes) {
+                    jdbcTemplate.execute("DROP INDEX " + index);
+                }
+                statistics.clear();
+                long start = System.nanoTime();
+                ProjectStructure loaded = projectStructureRepository.findById(id).orElseThrow(IllegalStateException::new);
+                int elements = touch(loaded);
+                long elapsed = System.nanoTime() - start;
+                assertThat(loaded.getClassStructures()).hasSize(classCount);
+                assertThat(elements).isPositive();
+                return new long[]{elapsed, statistics.getPrepareStatementCount()};
+            });
+            if (iteration >= 0) {
+                latencies[iteration] = measured[0];
+                statements = measured[1];
+            }
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies[ITERATIONS / 2], statements);
+    }
+
+    /**
+     * names of the indexes created by the foreign key index migration
+     */
+    private static List<String> foreignKeyIndexes() throws IOException {
+        String migration = StreamUtils.copyToString(new ClassPathResource(INDEX_MIGRATION).getInputStream(), StandardCharsets.UTF_8);
+        List<String> indexes = new ArrayList<>();
+        Matcher matcher = Pattern.compile("CREATE INDEX (\\w+)").matcher(migration);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1));
+        }
+        return indexes;
+    }
+
+    /**
+     * Initialize everything stored for a project structure, the way a full snapshot load does
+     *
+     * @return number of loaded elements
+     */
+    private static int touch(ProjectStructure projectStructure) {
+        int elements = 0;
+        for (ClassStructure classStructure : projectStructure.getClassStructures().values()) {
+            elements += classStructure.getCurrentPackage().getName() != null ? 1 : 0;
+            elements += classStructure.getAttributeDeclarations().size();
+            for (ConstructorDeclaration declaration : classStructure.getConstructorDeclarations()) {
+                elements += 1 + declaration.getParameters().size();
+            }
+            for (MethodDeclaration declaration : classStructure.getMethodsDeclarations()) {
+                elements += 1 + declaration.getParameters().size();
+            }
+            for (DependenceInfo dependenceInfo : classStructure.getOutgoingDependenceInfo().values()) {
+                elements += dependenceInfo.getPackages().size() + dependenceInfo.getAttributes().size();
+                for (ConstructorInvocation invocation : dependenceInfo.getConstructors()) {
+                    elements += 1 + invocation.getPassedParameters().size();
+                }
+                for (MethodInvocation invocation : dependenceInfo.getMethods()) {
+                    elements += 1 + invocation.getPassedParameters().size();
+                }
+            }
+            elements += classStructure.getGlobalData().size() + classStructure.getGlobalMethods().size();
+            elements += classStructure.getExternalPackageImports().size() + classStructure.getExternalMethodInvocations().size();
+            elements += classStructure.getExternalConstructorInvocations().size() + classStructure.getExternalAttributeInvocations().size();
+            elements += classStructure.getRelationMetricValues().size();
+        }
+        return elements;
+    }
+
+    private static ProjectStructure buildProjectStructure(int classCount) {
+        Set<ModifierType> modifiers = new HashSet<>(Arrays.asList(ModifierType.PUBLIC, ModifierType.FINAL));
+        ProjectStructure projectStructure = new ProjectStructure();
+        for (int i = 0; i < classCount; i++) {
+            String packageName = "com.ada.benchmark.p" + (i % 50);
+            String className = packageName + ".Class" + i;
+            projectStructure.addPackageDeclaration(className, new PackageDeclaration(packageName));
+            for (int j = 0; j < 5; j++) {
+                projectStructure.addAttributeDeclaration(className, new AttributeDeclaration(modifiers, "int", "attribute" + j, String.valueOf(j)));
+                projectStructure.addMethodDeclaration(className, new MethodDeclaration(modifiers, "void", "method" + j,
+                        new ArrayList<>(Arrays.asList(new ParameterDeclaration("String", "first"), new ParameterDeclaration("int", "second")))));
+            }
+            projectStructure.addConstructorDeclaration(className, new ConstructorDeclaration(modifiers, "Class" + i,
+                    new ArrayList<>(Collections.singletonList(new ParameterDeclaration("int", "value")))));
+            for (int j = 1; j <= 4; j++) {
+                int other = (i * 31 + j * 17) % classCount;
+                String otherClassName = "com.ada.benchmark.p" + (other % 50) + ".Class" + other;
+                projectStructure.addPackageInvocation(className, otherClassName, new PackageInvocation("com.ada.benchmark.p" + (other % 50)));
+                projectStructure.addAttributeInvocation(className, otherClassName, new AttributeInvocation("attribute" + j));
+                projectStructure.addConstructorInvocation(className, otherClassName, new ConstructorInvocation("Class" + other,
+                        new ArrayList<>(Collections.singletonList(new PassedParameter(String.valueOf(j))))));
+                projectStructure.addMethodInvocation(className, otherClassName, new MethodInvocation("method" + j,
+                        new ArrayList<>(Arrays.asList(new PassedParameter("\"x\""), new PassedParameter("y" + j)))));
+            }
+            projectStructure.addExternalPackageImport(className, new PackageInvocation("java.util"));
+            projectStructure.addExternalMethodInvocations(className, new MethodInvocation("println", new ArrayList<>()));
+        }
+        projectStructure.computeAllMetrics();
+        return projectStructure;
+    }
+
+    private static final class Result {
+
+        final long latencyNanos;
+        final long statements;
+
+        Result(long latencyNanos, long statements) {
+            this.latencyNanos = latencyNanos;
+            this.statements = statements;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f ms, %d statements", latencyNanos / 1e6, statements);
+        }
+    }
+}
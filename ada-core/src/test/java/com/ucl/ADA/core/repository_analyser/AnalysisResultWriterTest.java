@@ -0,0 +1,216 @@
+package com.ucl.ADA.core.repository_analyser;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.coupled_pair.CoupledPairService;
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.project_structure.ProjectStructureService;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisResultWriterTest {
+
+    private final ProjectStructureCache projectStructureCache = new ProjectStructureCache(1 << 20, new SimpleMeterRegistry());
+
+    private AnalysisResultWriter writer(int maxPending) {
+        AnalysisResultWriter writer = new AnalysisResultWriter(maxPending, 1, new SimpleMeterRegistry());
+        writer.projectStructureService = mock(ProjectStructureService.class);
+        writer.coupledPairService = mock(CoupledPairService.class);
+        writer.metricHistoryService = mock(MetricHistoryService.class);
+        writer.snapshotService = mock(SnapshotService.class);
+        writer.projectStructureCache = projectStructureCache;
+        writer.transactionManager = mock(PlatformTransactionManager.class);
+        return writer;
+    }
+
+    private static ProjectStructure projectStructure(String branch) {
+        GitRepoInfo gitRepoInfo = new GitRepoInfo();
+        gitRepoInfo.setOwner("bzq");
+        gitRepoInfo.setRepository("ada");
+        gitRepoInfo.setBranch(branch);
+        gitRepoInfo.setTimestamp(OffsetDateTime.now());
+        gitRepoInfo.setSnapshot(new Snapshot());
+        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure.setGitRepoInfo(gitRepoInfo);
+        return projectStructure;
+    }
+
+    private static ProjectStructureCache.Key key(ProjectStructure projectStructure) {
+        GitRepoInfo gitRepoInfo = projectStructure.getGitRepoInfo();
+        return new ProjectStructureCache.Key(gitRepoInfo.getOwner(), gitRepoInfo.getRepository(), gitRepoInfo.getBranch(), gitRepoInfo.getTimestamp());
+    }
+
+    @Test
+    void submit_servesStructureFromMemoryUntilWritten() throws InterruptedException {
+        AnalysisResultWriter writer = writer(4);
+        ProjectStructure projectStructure = projectStructure("master");
+        Snapshot snapshot = projectStructure.getGitRepoInfo().getSnapshot();
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch saved = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            saving.countDown();
+            saved.await();
+            return projectStructure;
+        }).when(writer.projectStructureService).save(copyOf(projectStructure));
+
+        writer.submit(projectStructure);
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(projectStructureCache.getIfPresent(key(projectStructure))).isSameAs(projectStructure);
+
+        saved.countDown();
+        writer.shutdown();
+
+        verify(writer.coupledPairService).buildIndex(eq(snapshot), copyOf(projectStructure));
+        verify(writer.metricHistoryService).append(eq(snapshot), copyOf(projectStructure));
+        verify(writer.snapshotService).updateStatus(snapshot, SnapshotStatus.PERSISTED);
+        assertThat(projectStructureCache.getIfPresent(key(projectStructure))).isNull();
+    }
+
+    @Test
+    void submit_marksSnapshotFailedWhenTheWriteFails() throws InterruptedException {
+        AnalysisResultWriter writer = writer(4);
+        ProjectStructure projectStructure = projectStructure("master");
+        Snapshot snapshot = projectStructure.getGitRepoInfo().getSnapshot();
+        when(writer.projectStructureService.save(copyOf(projectStructure))).thenThrow(new IllegalStateException("database down"));
+
+        writer.submit(projectStructure);
+        writer.shutdown();
+
+        verify(writer.snapshotService).updateStatus(snapshot, SnapshotStatus.FAILED);
+        verify(writer.snapshotService, never()).updateStatus(snapshot, SnapshotStatus.PERSISTED);
+        verify(writer.coupledPairService, never()).buildIndex(any(), any());
+        assertThat(projectStructureCache.getIfPresent(key(projectStructure))).isNull();
+    }
+
+    @Test
+    void submit_rollsBackTheStoredResultsBeforeMarkingTheSnapshotFailed() throws InterruptedException {
+        AnalysisResultWriter writer = writer(4);
+        ProjectStructure projectStructure = projectStructure("master");
+        Snapshot snapshot = projectStructure.getGitRepoInfo().getSnapshot();
+        doThrow(new IllegalStateException("database down")).when(writer.metricHistoryService).append(eq(snapshot), copyOf(projectStructure));
+
+        writer.submit(projectStructure);
+        writer.shutdown();
+
+        InOrder inOrder = inOrder(writer.projectStructureService, writer.transactionManager, writer.snapshotService);
+        inOrder.verify(writer.projectStructureService).save(copyOf(projectStructure));
+        inOrder.verify(writer.transactionManager).rollback(any());
+        inOrder.verify(writer.snapshotService).updateStatus(snapshot, SnapshotStatus.FAILED);
+        verify(writer.transactionManager, never()).commit(any());
+        verify(writer.snapshotService, never()).updateStatus(snapshot, SnapshotStatus.PERSISTED);
+    }
+
+    @Test
+    void submit_waitsWhileTooManySnapshotsAreUnwritten() throws Exception {
+        AnalysisResultWriter writer = writer(1);
+        ProjectStructure first = projectStructure("master");
+        ProjectStructure second = projectStructure("develop");
+        CountDownLatch saved = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            saved.await();
+            return first;
+        }).when(writer.projectStructureService).save(copyOf(first));
+
+        writer.submit(first);
+        CompletableFuture<Void> submitted = CompletableFuture.runAsync(() -> writer.submit(second));
+        Thread.sleep(200);
+        assertThat(submitted).isNotDone();
+
+        saved.countDown();
+        submitted.get(5, TimeUnit.SECONDS);
+        writer.shutdown();
+
+        verify(writer.projectStructureService).save(copyOf(second));
+    }
+
+    @Test
+    void submit_savesACopyAndLeavesThePinnedStructureUntouched() throws InterruptedException {
+        AnalysisResultWriter writer = writer(4);
+        ProjectStructure projectStructure = projectStructure("master");
+        projectStructure.addMethodInvocation("com.example.A", "com.example.B", new MethodInvocation("methodInB", null));
+        projectStructure.computeAllMetrics();
+        ClassStructure pinnedClass = projectStructure.getClassStructures().get("com.example.A");
+        doAnswer(invocation -> {
+            ProjectStructure persisted = invocation.getArgument(0);
+            persisted.setId(42L);
+            persisted.getClassStructures().values().forEach(classStructure -> classStructure.setId(43L));
+            return persisted;
+        }).when(writer.projectStructureService).save(any());
+
+        writer.submit(projectStructure);
+        writer.shutdown();
+
+        ArgumentCaptor<ProjectStructure> captor = ArgumentCaptor.forClass(ProjectStructure.class);
+        verify(writer.projectStructureService).save(captor.capture());
+        ProjectStructure persisted = captor.getValue();
+        assertThat(persisted).isNotSameAs(projectStructure);
+        assertThat(persisted.getGitRepoInfo()).isSameAs(projectStructure.getGitRepoInfo());
+        assertThat(persisted.getClassStructures().keySet()).isEqualTo(projectStructure.getClassStructures().keySet());
+        assertThat(persisted.getClassStructures().get("com.example.A").getOutgoingDependenceInfo()).containsOnlyKeys("com.example.B");
+        assertThat(projectStructure.getId()).isNull();
+        assertThat(pinnedClass.getId()).isNull();
+    }
+
+    @Test
+    void write_storesAllResultsFromTheSameCopy() {
+        AnalysisResultWriter writer = writer(4);
+        ProjectStructure projectStructure = projectStructure("master");
+        projectStructure.addMethodInvocation("com.example.A", "com.example.B", new MethodInvocation("methodInB", null));
+        projectStructure.computeAllMetrics();
+        Snapshot snapshot = projectStructure.getGitRepoInfo().getSnapshot();
+        ProjectStructureCache.Key key = key(projectStructure);
+        projectStructureCache.pin(key, projectStructure);
+
+        writer.write(key, snapshot, projectStructure);
+
+        ArgumentCaptor<ProjectStructure> saved = ArgumentCaptor.forClass(ProjectStructure.class);
+        ArgumentCaptor<ProjectStructure> indexed = ArgumentCaptor.forClass(ProjectStructure.class);
+        ArgumentCaptor<ProjectStructure> appended = ArgumentCaptor.forClass(ProjectStructure.class);
+        InOrder inOrder = inOrder(writer.projectStructureService, writer.coupledPairService,
+                writer.metricHistoryService, writer.snapshotService, writer.transactionManager);
+        inOrder.verify(writer.projectStructureService).save(saved.capture());
+        inOrder.verify(writer.coupledPairService).buildIndex(eq(snapshot), indexed.capture());
+        inOrder.verify(writer.metricHistoryService).append(eq(snapshot), appended.capture());
+        inOrder.verify(writer.snapshotService).updateStatus(snapshot, SnapshotStatus.PERSISTED);
+        inOrder.verify(writer.transactionManager).commit(any());
+        assertThat(saved.getValue()).isNotSameAs(projectStructure);
+        assertThat(indexed.getValue()).isSameAs(saved.getValue());
+        assertThat(appended.getValue()).isSameAs(saved.getValue());
+        assertThat(saved.getValue().getClassStructures().get("com.example.A").getOwnedRelationMetricValues())
+                .containsOnlyKeys("com.example.B");
+        assertThat(projectStructureCache.getIfPresent(key)).isNull();
+    }
+
+    /**
+     * matches the copy of a project structure which is saved in its place
+     */
+    private static ProjectStructure copyOf(ProjectStructure projectStructure) {
+        return argThat(persisted -> persisted != null && persisted.getGitRepoInfo() == projectStructure.getGitRepoInfo());
+    }
+}
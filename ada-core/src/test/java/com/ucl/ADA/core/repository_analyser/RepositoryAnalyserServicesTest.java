@@ -1,16 +1,83 @@
 package com.ucl.ADA.core.repository_analyser;
 
+import com.ucl.ADA.metric_calculator.metrics.MetricServices;
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.parser.ParserServices;
+import com.ucl.ADA.repository_downloader.RepositoryDownloaderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.FileNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 class RepositoryAnalyserServicesTest {
 
+    private static final String URL = "https://github.com/bzq/ada.git";
+
+    private RepositoryAnalyserServices services;
+
+    private GitRepoInfo populator;
+
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
+        services = new RepositoryAnalyserServices();
+        services.parserServices = mock(ParserServices.class);
+        services.repositoryDownloaderService = mock(RepositoryDownloaderService.class);
+        services.metricServices = mock(MetricServices.class);
+        services.analysisResultWriter = mock(AnalysisResultWriter.class);
+        services.snapshotService = mock(SnapshotService.class);
+
+        populator = new GitRepoInfo();
+        populator.setDirectoryPath("/tmp/bzq/ada");
+        populator.setSnapshot(new Snapshot());
+        when(services.repositoryDownloaderService.downloadAndStoreRepo(URL, "master")).thenReturn(populator);
     }
 
     @Test
-    void analyseRepositoryService() {
+    void analyseRepositoryService_submitsTheResultsAndDeletesTheDownload() throws Exception {
+        ProjectStructure projectStructure = new ProjectStructure();
+        when(services.parserServices.parseRepository("/tmp/bzq/ada")).thenReturn(projectStructure);
+
+        assertThat(services.analyseRepositoryService(URL, "master")).isSameAs(projectStructure);
+
+        verify(services.analysisResultWriter).submit(projectStructure);
+        verify(services.snapshotService, never()).updateStatus(any(), any());
+        verify(services.repositoryDownloaderService).deleteDownload(populator);
+    }
+
+    @Test
+    void analyseRepositoryService_marksTheSnapshotFailedIfTheRepositoryCannotBeRead() throws Exception {
+        when(services.parserServices.parseRepository("/tmp/bzq/ada")).thenThrow(new FileNotFoundException());
+
+        assertThat(services.analyseRepositoryService(URL, "master")).isNull();
+
+        verify(services.snapshotService).updateStatus(populator.getSnapshot(), SnapshotStatus.FAILED);
+        verify(services.repositoryDownloaderService).deleteDownload(populator);
+    }
+
+    @Test
+    void analyseRepositoryService_marksTheSnapshotFailedAndDeletesTheDownloadOnAnyError() throws Exception {
+        ProjectStructure projectStructure = mock(ProjectStructure.class);
+        when(services.parserServices.parseRepository("/tmp/bzq/ada")).thenReturn(projectStructure);
+        doThrow(new IllegalStateException("metrics")).when(projectStructure).computeAllMetrics();
+
+        assertThatThrownBy(() -> services.analyseRepositoryService(URL, "master"))
+                .isInstanceOf(IllegalStateException.class);
 
+        verify(services.analysisResultWriter, never()).submit(any());
+        verify(services.snapshotService).updateStatus(populator.getSnapshot(), SnapshotStatus.FAILED);
+        verify(services.repositoryDownloaderService).deleteDownload(populator);
     }
-}
\ No newline at end of file
+}
@@ -15,10 +15,21 @@ import javax.persistence.*;
 public abstract class BaseEntity {
 
     /**
-     * the unique identity of an object
+     * name of the database sequence all ids are drawn from
+     */
+    public static final String ID_SEQUENCE = "ada_id_sequence";
+
+    /**
+     * number of ids reserved by a single call to the id sequence, the sequence is incremented by the same amount
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * the unique identity of an object, ids are reserved in blocks from a sequence so inserts can be batched
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ada_id_generator")
+    @SequenceGenerator(name = "ada_id_generator", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 }
@@ -1,8 +1,12 @@
 package com.ucl.ADA.model.branch;
 
 import com.ucl.ADA.model.repository.GitRepo;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
@@ -24,4 +28,15 @@ public interface BranchRepository extends CrudRepository<Branch, Long> {
      */
     Branch findByRepositoryAndBranchName(GitRepo gitRepo, String branch);
 
+    /**
+     * Insert a branch of a Git repository unless one with the name exists, in its own transaction so the id is
+     * committed when it is returned
+     * @param repoId id of the Git repository
+     * @param branchName name of the branch
+     * @return id of the new or existing branch
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO branch (id, repo_id, branch_name) VALUES (nextval('ada_id_sequence'), :repoId, :branchName) " +
+            "ON CONFLICT (repo_id, branch_name) DO UPDATE SET branch_name = EXCLUDED.branch_name RETURNING id", nativeQuery = true)
+    Long upsertBranch(@Param("repoId") Long repoId, @Param("branchName") String branchName);
 }
@@ -1,5 +1,6 @@
 package com.ucl.ADA.model.class_structure;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.ucl.ADA.model.BaseEntity;
 import com.ucl.ADA.model.dependence_information.DependenceInfo;
 import com.ucl.ADA.model.dependence_information.declaration_information.AttributeDeclaration;
@@ -32,14 +33,14 @@ public class ClassStructure extends BaseEntity {
     /**
      * Fully qualified class package name (including the name of the class in the end).
      */
-    @OneToOne(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "package_declaration_id")
     private PackageDeclaration currentPackage = new PackageDeclaration("$");
 
     /**
      * Attributes declared in this class.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_ATTRIBUTE_DECLARATION",
@@ -51,7 +52,7 @@ public class ClassStructure extends BaseEntity {
     /**
      * Constructors declared in this class.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_CONSTRUCTOR_DECLARATION",
@@ -63,7 +64,7 @@ public class ClassStructure extends BaseEntity {
     /**
      * Methods declared in this class.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_METHOD_DECLARATION",
@@ -79,7 +80,8 @@ public class ClassStructure extends BaseEntity {
      * Information about the invocations of the elements from the other classes from this class. String is the qualified
      * name of the class.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(name = "CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO",
             joinColumns = {@JoinColumn(name = "class_structure_id")},
             inverseJoinColumns = {@JoinColumn(name = "dependence_info_id")})
@@ -99,7 +101,7 @@ public class ClassStructure extends BaseEntity {
     /**
      * Global Data present in the class. It can be either declared or invoked. Not really possible in Java.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION",
@@ -111,7 +113,7 @@ public class ClassStructure extends BaseEntity {
     /**
      * Global Methods present in the class. They can be either declared or invoked. Not really possible in Java.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION",
@@ -127,7 +129,7 @@ public class ClassStructure extends BaseEntity {
      * External Attribute Invocations. Includes only calls to classes which cannot be resolved within the project. These
      * include the dependencies and libraries.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION",
@@ -140,7 +142,7 @@ public class ClassStructure extends BaseEntity {
      * External Method Invocations. Includes only calls to classes which cannot be resolved within the project. These
      * include the dependencies and libraries.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION",
@@ -153,7 +155,7 @@ public class ClassStructure extends BaseEntity {
      * External Constructor Invocations. Includes only calls to classes which cannot be resolved within the project. These
      * include the dependencies and libraries.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION",
@@ -166,7 +168,7 @@ public class ClassStructure extends BaseEntity {
      * External Attribute Invocations. Includes only calls to classes which cannot be resolved within the project. These
      * include the dependencies and libraries.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION",
@@ -181,20 +183,36 @@ public class ClassStructure extends BaseEntity {
     /**
      * All of the metric values for the link between the current class and the linking classes.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
-    @JoinTable(name = "CLASS_STRUCTURE_RELATION_METRIC_VALUE",
-            joinColumns = {@JoinColumn(name = "class_structure_id")},
-            inverseJoinColumns = {@JoinColumn(name = "relation_metric_value_id")})
-    @MapKeyColumn(name = "class_name")
+    @Transient
     private Map<String, RelationMetricValue> relationMetricValues = new HashMap<>();
 
+    /**
+     * The metric values of the links owned by the current class, seen from the current class. A link is owned by the
+     * class with the lexicographically smaller name, so each link is stored once. The values of the other class are
+     * mirrored from these by ProjectStructure.
+     */
+    @JsonIgnore
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
+    @CollectionTable(name = "CLASS_STRUCTURE_RELATION_METRIC_VALUE",
+            joinColumns = {@JoinColumn(name = "class_structure_id")})
+    @MapKeyColumn(name = "class_name")
+    private Map<String, RelationMetricValue> ownedRelationMetricValues = new HashMap<>();
+
     /**
      * The metrics corresponding to the current class.
      */
-    @OneToOne(cascade = CascadeType.PERSIST)
-    @JoinColumn(name = "class_metric_value_id")
+    @Embedded
     private ClassMetricValue classMetricValues = new ClassMetricValue();
 
+    /**
+     * Hash of the stored content of the class, see ClassStructureContentHash. Snapshots in which the class did not
+     * change share its record.
+     */
+    @JsonIgnore
+    @Column(name = "content_hash")
+    private String contentHash;
+
 
     /**
      * Updates the package corresponding to the class.
@@ -289,122 +307,70 @@ public class ClassStructure extends BaseEntity {
     }
 
     /**
-     * Adds a package invocation element as either an incoming or outgoing dependency, depending on the call.
+     * Adds a package invocation element as an outgoing dependency on the relating class. The incoming dependencies of
+     * the relating class are views of the outgoing ones, kept by the ProjectStructure.
      *
      * @param relatingClass     the class which the invocation relates to
-     * @param invocationType    either an incoming invocation type in the case that the package is being invoked from the
-     *                          relatingClass, or an outgoing invocation type in the case that the package is invoked from
-     *                          the relatingClass
-     * @param packageInvocation the package invocation object containing the data corresponding to the
-     *                          invocation in question
-     */
-    public void addPackageInvocationElement(String relatingClass, InvocationType invocationType, PackageInvocation packageInvocation) {
-        if (invocationType == InvocationType.OUTGOING) {
-            if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
-                this.outgoingDependenceInfo.get(relatingClass).addNewPackage(packageInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewPackage(packageInvocation);
-                this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+     * @param packageInvocation the package invocation object containing the data corresponding to the invocation in question
+     */
+    public void addPackageInvocationElement(String relatingClass, PackageInvocation packageInvocation) {
+        if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
+            this.outgoingDependenceInfo.get(relatingClass).addNewPackage(packageInvocation);
         } else {
-            if (this.incomingDependenceInfo.containsKey(relatingClass)) {
-                this.incomingDependenceInfo.get(relatingClass).addNewPackage(packageInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewPackage(packageInvocation);
-                this.incomingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.addNewPackage(packageInvocation);
+            this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
         }
     }
 
     /**
-     * Adds an attribute invocation element as either an incoming or outgoing dependency, depending on the call.
+     * Adds an attribute invocation element as an outgoing dependency on the relating class. The incoming dependencies of
+     * the relating class are views of the outgoing ones, kept by the ProjectStructure.
      *
      * @param relatingClass       the class which the invocation relates to
-     * @param invocationType      either an incoming invocation type in the case that the attribute is being invoked from the
-     *                            relatingClass, or an outgoing invocation type in the case that the attribute is invoked from
-     *                            the relatingClass
-     * @param attributeInvocation the attribute invocation object containing the data corresponding to the
-     *                            invocation in question
-     */
-    public void addAttributeInvocationElement(String relatingClass, InvocationType invocationType, AttributeInvocation attributeInvocation) {
-        if (invocationType == InvocationType.OUTGOING) {
-            if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
-                this.outgoingDependenceInfo.get(relatingClass).addNewAttribute(attributeInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewAttribute(attributeInvocation);
-                this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+     * @param attributeInvocation the attribute invocation object containing the data corresponding to the invocation in question
+     */
+    public void addAttributeInvocationElement(String relatingClass, AttributeInvocation attributeInvocation) {
+        if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
+            this.outgoingDependenceInfo.get(relatingClass).addNewAttribute(attributeInvocation);
         } else {
-            if (this.incomingDependenceInfo.containsKey(relatingClass)) {
-                this.incomingDependenceInfo.get(relatingClass).addNewAttribute(attributeInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewAttribute(attributeInvocation);
-                this.incomingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.addNewAttribute(attributeInvocation);
+            this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
         }
     }
 
     /**
-     * Adds a constructor invocation element as either an incoming or outgoing dependency, depending on the call.
+     * Adds a constructor invocation element as an outgoing dependency on the relating class. The incoming dependencies of
+     * the relating class are views of the outgoing ones, kept by the ProjectStructure.
      *
      * @param relatingClass         the class which the invocation relates to
-     * @param invocationType        either an incoming invocation type in the case that the constructor is being invoked from the
-     *                              relatingClass, or an outgoing invocation type in the case that the constructor is invoked from
-     *                              the relatingClass
-     * @param constructorInvocation the constructor invocation object containing the data corresponding to the
-     *                              invocation in question
-     */
-    public void addConstructorInvocationElement(String relatingClass, InvocationType invocationType, ConstructorInvocation constructorInvocation) {
-        if (invocationType == InvocationType.OUTGOING) {
-            if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
-                this.outgoingDependenceInfo.get(relatingClass).addNewConstructor(constructorInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewConstructor(constructorInvocation);
-                this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+     * @param constructorInvocation the constructor invocation object containing the data corresponding to the invocation in question
+     */
+    public void addConstructorInvocationElement(String relatingClass, ConstructorInvocation constructorInvocation) {
+        if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
+            this.outgoingDependenceInfo.get(relatingClass).addNewConstructor(constructorInvocation);
         } else {
-            if (this.incomingDependenceInfo.containsKey(relatingClass)) {
-                this.incomingDependenceInfo.get(relatingClass).addNewConstructor(constructorInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewConstructor(constructorInvocation);
-                this.incomingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.addNewConstructor(constructorInvocation);
+            this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
         }
     }
 
     /**
-     * Adds a method invocation element as either an incoming or outgoing dependency, depending on the call.
+     * Adds a method invocation element as an outgoing dependency on the relating class. The incoming dependencies of
+     * the relating class are views of the outgoing ones, kept by the ProjectStructure.
      *
      * @param relatingClass    the class which the invocation relates to
-     * @param invocationType   either an incoming invocation type in the case that the method is being invoked from the
-     *                         relatingClass, or an outgoing invocation type in the case that the method is invoked from
-     *                         the relatingClass
-     * @param methodInvocation the method invocation object containing the data corresponding to the
-     *                         invocation in question
-     */
-    public void addMethodInvocationElement(String relatingClass, InvocationType invocationType, MethodInvocation methodInvocation) {
-        if (invocationType == InvocationType.OUTGOING) {
-            if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
-                this.outgoingDependenceInfo.get(relatingClass).addNewMethod(methodInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewMethod(methodInvocation);
-                this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+     * @param methodInvocation the method invocation object containing the data corresponding to the invocation in question
+     */
+    public void addMethodInvocationElement(String relatingClass, MethodInvocation methodInvocation) {
+        if (this.outgoingDependenceInfo.containsKey(relatingClass)) {
+            this.outgoingDependenceInfo.get(relatingClass).addNewMethod(methodInvocation);
         } else {
-            if (this.incomingDependenceInfo.containsKey(relatingClass)) {
-                this.incomingDependenceInfo.get(relatingClass).addNewMethod(methodInvocation);
-            } else {
-                DependenceInfo dependenceInfo = new DependenceInfo();
-                dependenceInfo.addNewMethod(methodInvocation);
-                this.incomingDependenceInfo.put(relatingClass, dependenceInfo);
-            }
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.addNewMethod(methodInvocation);
+            this.outgoingDependenceInfo.put(relatingClass, dependenceInfo);
         }
     }
 
@@ -515,270 +481,64 @@ public class ClassStructure extends BaseEntity {
     }
 
     /**
-     * compute relation metric which collects detailed invocation information from dependence info
+     * compute all relation metrics between the current class and a single relating class, from both the incoming and
+     * the outgoing dependence information
      *
-     * @param relationMetricType outgoing or incoming relation metric
-     */
-    public void computeRelationMetric(RelationMetricType relationMetricType) {
-        float metricValue = 0F;
-        // TODO: This could be made nicer by extracting the for loop around the switch. However, the switch would then
-        //  be executed for each item, which would make it less efficient.
-
-        switch (relationMetricType) {
-            case NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING:
-
-                // For all of the relating classes get the corresponding metrics
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getPackages().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfPackageImportsIncoming(metricValue);
-                }
-
-                break;
-
-            case NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getPackages().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfPackageImportsOutgoing(metricValue);
-                }
-                break;
-
-            case NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getAttributes().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfAttributeInvocationsIncoming(metricValue);
-                }
-                break;
-
-
-            case NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getAttributes().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfAttributeInvocationsOutgoing(metricValue);
-                }
-                break;
-
-            case NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getMethods().size();
-
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfMethodInvocationsIncoming(metricValue);
-                }
-                break;
-
-            case NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getMethods().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfMethodInvocationsOutgoing(metricValue);
-                }
-                break;
-
-
-            case NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getConstructors().size();
-
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfConstructorInvocationsIncoming(metricValue);
-                }
-                break;
-
-            case NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getConstructors().size();
-
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setNumberOfConstructorInvocationsOutgoing(metricValue);
-                }
-                break;
-
-            case BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getAttributes().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setBidirectionalNumberOfAttributeInvocations(metricValue);
-                }
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getAttributes().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    float currentMetricValue = relationMetricValues.get(key).getBidirectionalNumberOfAttributeInvocations();
-                    relationMetricValues.get(key).setBidirectionalNumberOfAttributeInvocations(currentMetricValue + metricValue);
-                }
-                break;
-
-            case BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getMethods().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setBidirectionalNumberOfMethodInvocations(metricValue);
-                }
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getMethods().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    float currentMetricValue = relationMetricValues.get(key).getBidirectionalNumberOfMethodInvocations();
-                    relationMetricValues.get(key).setBidirectionalNumberOfMethodInvocations(currentMetricValue + metricValue);
-                }
-                break;
-
-            case BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getPackages().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setBidirectionalNumberOfPackageImports(metricValue);
-                }
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getPackages().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    float previousMetricValue = relationMetricValues.get(key).getBidirectionalNumberOfPackageImports();
-                    relationMetricValues.get(key).setBidirectionalNumberOfPackageImports(previousMetricValue + metricValue);
-                }
-                break;
-
-            case BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : outgoingDependenceInfo.keySet()) {
-                    metricValue = (float) outgoingDependenceInfo.get(key).getConstructors().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    relationMetricValues.get(key).setBidirectionalNumberOfConstructorInvocations(metricValue);
-                }
-                for (String key : incomingDependenceInfo.keySet()) {
-                    metricValue = (float) incomingDependenceInfo.get(key).getConstructors().size();
-                    // Check if the relation metrics for the class have already been computed
-                    if (!relationMetricValues.containsKey(key)) {
-                        RelationMetricValue relationMetricValueObject = new RelationMetricValue();
-                        relationMetricValues.put(key, relationMetricValueObject);
-                    }
-                    float currentMetricValue = relationMetricValues.get(key).getBidirectionalNumberOfConstructorInvocations();
-                    relationMetricValues.get(key).setBidirectionalNumberOfConstructorInvocations(currentMetricValue + metricValue);
-                }
-                break;
-        }
+     * @param relatingClass qualified name of the relating class
+     * @return the relation metric values seen from the current class
+     */
+    public RelationMetricValue computeRelationMetricValue(String relatingClass) {
+        DependenceInfo incoming = incomingDependenceInfo.get(relatingClass);
+        DependenceInfo outgoing = outgoingDependenceInfo.get(relatingClass);
+
+        float attributesNumberIncoming = incoming == null ? 0f : incoming.getAttributes().size();
+        float attributesNumberOutgoing = outgoing == null ? 0f : outgoing.getAttributes().size();
+        float constructorNumberIncoming = incoming == null ? 0f : incoming.getConstructors().size();
+        float constructorNumberOutgoing = outgoing == null ? 0f : outgoing.getConstructors().size();
+        float methodsNumberIncoming = incoming == null ? 0f : incoming.getMethods().size();
+        float methodsNumberOutgoing = outgoing == null ? 0f : outgoing.getMethods().size();
+        float packageNumberIncoming = incoming == null ? 0f : incoming.getPackages().size();
+        float packageNumberOutgoing = outgoing == null ? 0f : outgoing.getPackages().size();
+
+        RelationMetricValue relationMetricValue = new RelationMetricValue();
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING, attributesNumberIncoming);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING, attributesNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING, constructorNumberIncoming);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING, constructorNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING, methodsNumberIncoming);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING, methodsNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING, packageNumberIncoming);
+        relationMetricValue.setValue(RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING, packageNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS, attributesNumberIncoming + attributesNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS, constructorNumberIncoming + constructorNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS, methodsNumberIncoming + methodsNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS, packageNumberIncoming + packageNumberOutgoing);
+        relationMetricValue.setValue(RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL, getGeneralCumulativeNormalisedBidirectional(
+                attributesNumberIncoming, attributesNumberOutgoing,
+                constructorNumberIncoming, constructorNumberOutgoing,
+                methodsNumberIncoming, methodsNumberOutgoing,
+                packageNumberIncoming, packageNumberOutgoing));
+        return relationMetricValue;
     }
 
     /**
-     * Computes the overall metric values.
-     * PLEASE NOTE: This method assumes that all of the incoming/outgoing relation metrics have been computed for the class
-     */
-    public void computeCumulativeMetrics(RelationMetricType relationMetricType) {
-        float metricValue = 0F;
-        float attributesNumberIncoming = 0f;
-        float attributesNumberOutgoing = 0f;
-        float constructorNumberIncoming = 0f;
-        float constructorNumberOutgoing = 0f;
-        float methodsNumberIncoming = 0f;
-        float methodsNumberOutgoing = 0f;
-        float packageNumberIncoming = 0f;
-        float packageNumberOutgoing = 0f;
-        float weightedSumOfMetrics = 0f;
-
-        switch (relationMetricType) {
-            case GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL:
-                // For all of the relating classes get the corresponding metrics
-                for (String key : relationMetricValues.keySet()) {
-                    attributesNumberIncoming = (float) relationMetricValues.get(key).getNumberOfAttributeInvocationsIncoming();
-                    attributesNumberOutgoing = (float) relationMetricValues.get(key).getNumberOfAttributeInvocationsOutgoing();
-                    constructorNumberIncoming = (float) relationMetricValues.get(key).getNumberOfConstructorInvocationsIncoming();
-                    constructorNumberOutgoing = (float) relationMetricValues.get(key).getNumberOfConstructorInvocationsOutgoing();
-                    methodsNumberIncoming = (float) relationMetricValues.get(key).getNumberOfMethodInvocationsIncoming();
-                    methodsNumberOutgoing = (float) relationMetricValues.get(key).getNumberOfMethodInvocationsOutgoing();
-                    packageNumberIncoming = (float) relationMetricValues.get(key).getNumberOfPackageImportsIncoming();
-                    packageNumberOutgoing = (float) relationMetricValues.get(key).getNumberOfPackageImportsOutgoing();
-
-
-                    weightedSumOfMetrics =
-                            attributesNumberIncoming +
-                                    2 * (constructorNumberIncoming + methodsNumberIncoming) +
-                                    attributesNumberOutgoing +
-                                    2 * (constructorNumberOutgoing + methodsNumberOutgoing) +
-                                    packageNumberIncoming + packageNumberOutgoing;
-
-                    metricValue = 1f - (weightedSumOfMetrics > 0f ? (1f / weightedSumOfMetrics) : 0);
-
-                    relationMetricValues.get(key).setGeneralCumulativeNormalisedBidirectional(metricValue);
-                }
-        }
+     * compute the general cumulative normalised bidirectional metric of a relation, method and constructor invocations
+     * weight twice as much as attribute invocations and package imports
+     *
+     * @return the normalised value, 0 if there are no invocations at all
+     */
+    private static float getGeneralCumulativeNormalisedBidirectional(float attributesNumberIncoming, float attributesNumberOutgoing,
+                                                                     float constructorNumberIncoming, float constructorNumberOutgoing,
+                                                                     float methodsNumberIncoming, float methodsNumberOutgoing,
+                                                                     float packageNumberIncoming, float packageNumberOutgoing) {
+        float weightedSumOfMetrics =
+                attributesNumberIncoming +
+                        2 * (constructorNumberIncoming + methodsNumberIncoming) +
+                        attributesNumberOutgoing +
+                        2 * (constructorNumberOutgoing + methodsNumberOutgoing) +
+                        packageNumberIncoming + packageNumberOutgoing;
+
+        return 1f - (weightedSumOfMetrics > 0f ? (1f / weightedSumOfMetrics) : 0);
     }
 
     /**
@@ -789,17 +549,4 @@ public class ClassStructure extends BaseEntity {
             this.computeClassMetric(classMetricType);
         }
     }
-
-    /**
-     * compute relation metrics for all relation types
-     */
-    public void computeAllRelationMetrics() {
-        for (RelationMetricType relationMetricType : RelationMetricType.values()) {
-            if (relationMetricType != RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL) {
-                this.computeRelationMetric(relationMetricType);
-            } else {
-                this.computeCumulativeMetrics(relationMetricType);
-            }
-        }
-    }
 }
@@ -0,0 +1,171 @@
+package com.ucl.ADA.model.class_structure;
+
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Computes the content hash of a ClassStructure: a SHA-256 digest over everything stored in its record and the rows
+ * below it, which are the name, package, class metrics, declarations, invocations, outgoing dependences and owned
+ * relation metrics of the class. Two classes with the same hash are stored identically, so a snapshot can reference
+ * the record of an earlier snapshot instead of inserting a copy. Maps and modifier sets are digested in sorted order,
+ * lists in their own order, and every value is length prefixed so the digest does not depend on how values are split.
+ */
+public final class ClassStructureContentHash {
+
+    private final MessageDigest digest;
+
+    private ClassStructureContentHash() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param className      qualified name of the class
+     * @param classStructure the class, with computed metrics
+     * @return the lower case hex encoded content hash of the class
+     */
+    public static String of(String className, ClassStructure classStructure) {
+        ClassStructureContentHash hash = new ClassStructureContentHash();
+        hash.string(className);
+        hash.string(classStructure.getCurrentPackage() != null ? classStructure.getCurrentPackage().getName() : null);
+        hash.floats(classStructure.getClassMetricValues().getVector());
+
+        hash.size(classStructure.getAttributeDeclarations());
+        for (AttributeDeclaration declaration : classStructure.getAttributeDeclarations()) {
+            hash.modifiers(declaration.getModifierTypes());
+            hash.string(declaration.getType());
+            hash.string(declaration.getName());
+            hash.string(declaration.getValue());
+        }
+        hash.size(classStructure.getConstructorDeclarations());
+        for (ConstructorDeclaration declaration : classStructure.getConstructorDeclarations()) {
+            hash.modifiers(declaration.getModifierTypes());
+            hash.string(declaration.getName());
+            hash.parameters(declaration.getParameters());
+        }
+        hash.size(classStructure.getMethodsDeclarations());
+        for (MethodDeclaration declaration : classStructure.getMethodsDeclarations()) {
+            hash.modifiers(declaration.getModifierTypes());
+            hash.string(declaration.getReturnType());
+            hash.string(declaration.getName());
+            hash.parameters(declaration.getParameters());
+        }
+
+        Map<String, DependenceInfo> outgoing = new TreeMap<>(classStructure.getOutgoingDependenceInfo());
+        hash.size(outgoing.keySet());
+        for (Map.Entry<String, DependenceInfo> entry : outgoing.entrySet()) {
+            hash.string(entry.getKey());
+            hash.names(entry.getValue().getPackages());
+            hash.names(entry.getValue().getAttributes());
+            hash.constructorInvocations(entry.getValue().getConstructors());
+            hash.methodInvocations(entry.getValue().getMethods());
+        }
+
+        hash.names(classStructure.getGlobalData());
+        hash.methodInvocations(classStructure.getGlobalMethods());
+        hash.names(classStructure.getExternalPackageImports());
+        hash.methodInvocations(classStructure.getExternalMethodInvocations());
+        hash.constructorInvocations(classStructure.getExternalConstructorInvocations());
+        hash.names(classStructure.getExternalAttributeInvocations());
+
+        Map<String, RelationMetricValue> owned = new TreeMap<>(classStructure.getOwnedRelationMetricValues());
+        hash.size(owned.keySet());
+        for (Map.Entry<String, RelationMetricValue> entry : owned.entrySet()) {
+            hash.string(entry.getKey());
+            hash.floats(entry.getValue().getVector());
+        }
+        return hash.hex();
+    }
+
+    private void parameters(List<ParameterDeclaration> parameters) {
+        size(parameters);
+        for (ParameterDeclaration parameter : parameters) {
+            string(parameter.getType());
+            string(parameter.getName());
+        }
+    }
+
+    private void constructorInvocations(List<ConstructorInvocation> invocations) {
+        size(invocations);
+        for (ConstructorInvocation invocation : invocations) {
+            string(invocation.getName());
+            passedParameters(invocation.getPassedParameters());
+        }
+    }
+
+    private void methodInvocations(List<MethodInvocation> invocations) {
+        size(invocations);
+        for (MethodInvocation invocation : invocations) {
+            string(invocation.getName());
+            passedParameters(invocation.getPassedParameters());
+        }
+    }
+
+    private void passedParameters(List<PassedParameter> passedParameters) {
+        size(passedParameters);
+        for (PassedParameter passedParameter : passedParameters) {
+            string(passedParameter.getName());
+        }
+    }
+
+    private void names(List<? extends ElementInvocation> invocations) {
+        size(invocations);
+        for (ElementInvocation invocation : invocations) {
+            string(invocation.getName());
+        }
+    }
+
+    private void modifiers(Set<ModifierType> modifierTypes) {
+        int mask = 0;
+        for (ModifierType modifierType : modifierTypes) {
+            mask |= 1 << modifierType.ordinal();
+        }
+        integer(mask);
+    }
+
+    private void floats(float[] values) {
+        integer(values.length);
+        for (float value : values) {
+            integer(Float.floatToIntBits(value));
+        }
+    }
+
+    private void size(Collection<?> values) {
+        integer(values.size());
+    }
+
+    private void string(String value) {
+        if (value == null) {
+            integer(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        integer(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void integer(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    private String hex() {
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ucl.ADA.model.class_structure;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ClassStructureRepository extends CrudRepository<ClassStructure, Long> {
+
+    /**
+     * find stored class structures by content hash
+     *
+     * @param contentHashes content hashes of class structures
+     * @return pairs of content hash and the smallest id of a class structure with that hash, for the hashes which are
+     * stored
+     */
+    @Query("select c.contentHash, min(c.id) from ClassStructure c where c.contentHash in :contentHashes group by c.contentHash")
+    List<Object[]> findIdsByContentHashIn(@Param("contentHashes") Collection<String> contentHashes);
+
+    /**
+     * hold off the collection of unreferenced class structures until the current transaction ends, so that stored
+     * class structures found for reuse are not deleted before they are referenced
+     *
+     * @return 1
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('ada_class_structure'))", nativeQuery = true)
+    Integer lockAgainstCollection();
+
+    /**
+     * delete a batch of class structures which lost their last project structure, in its own transaction
+     *
+     * @param batchSize maximum number of candidates processed
+     * @return number of candidates processed, 0 once there are none left
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "SELECT ada_collect_class_structures(:batchSize)", nativeQuery = true)
+    Integer collectUnreferenced(@Param("batchSize") int batchSize);
+
+}
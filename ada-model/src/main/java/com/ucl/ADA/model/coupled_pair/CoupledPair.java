@@ -0,0 +1,76 @@
+package com.ucl.ADA.model.coupled_pair;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * One entry of the precomputed index of the most tightly coupled class pairs of a snapshot.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "COUPLED_PAIR")
+public class CoupledPair extends BaseEntity {
+
+    /**
+     * the snapshot which the pair belongs to
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "snapshot_id", nullable = false)
+    private Snapshot snapshot;
+
+    /**
+     * the relation metric the pair has been ranked by
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric_type", nullable = false)
+    private RelationMetricType metricType;
+
+    /**
+     * position of the pair in the ranking, starting from 0 for the most coupled pair
+     */
+    @Column(name = "rank", nullable = false)
+    private Integer rank;
+
+    /**
+     * qualified name of the class the relation metric value is taken from
+     */
+    @Column(name = "source_class", nullable = false)
+    private String sourceClass;
+
+    /**
+     * qualified name of the class on the other end of the relation
+     */
+    @Column(name = "target_class", nullable = false)
+    private String targetClass;
+
+    /**
+     * value of the relation metric between the two classes
+     */
+    @Column(name = "value", nullable = false)
+    private Float value;
+
+    /**
+     * Constructor of a coupled pair
+     *
+     * @param metricType  the relation metric the pair has been ranked by
+     * @param sourceClass qualified name of the class the value is taken from
+     * @param targetClass qualified name of the class on the other end of the relation
+     * @param value       value of the relation metric
+     */
+    public CoupledPair(RelationMetricType metricType, String sourceClass, String targetClass, Float value) {
+        this.metricType = metricType;
+        this.sourceClass = sourceClass;
+        this.targetClass = targetClass;
+        this.value = value;
+    }
+}
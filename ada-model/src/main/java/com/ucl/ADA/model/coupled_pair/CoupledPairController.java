@@ -0,0 +1,44 @@
+package com.ucl.ADA.model.coupled_pair;
+
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@RestController
+@CrossOrigin
+@RequestMapping("owners/{owner}/repositories/{repository}/branches/{branch}/snapshots/{timestamp}/coupled-pairs")
+public class CoupledPairController {
+
+    @Autowired
+    private CoupledPairService coupledPairService;
+
+    /**
+     * Endpoint for getting the most tightly coupled class pairs of a snapshot for a given relation metric
+     *
+     * @param owner      username of owner
+     * @param repository name of Git repository
+     * @param branch     name of branch
+     * @param timestamp  time when ADA received request for the snapshot
+     * @param metric     relation metric the pairs are ranked by
+     * @param limit      maximum number of pairs to return
+     * @return the pairs ordered from the most to the least coupled
+     */
+    @CrossOrigin
+    @PostMapping
+    public List<CoupledPair> getTopCoupledPairs(@PathVariable String owner,
+                                                @PathVariable String repository,
+                                                @PathVariable String branch,
+                                                @PathVariable String timestamp,
+                                                @RequestParam RelationMetricType metric,
+                                                @RequestParam(defaultValue = "50") int limit) {
+
+        DateTimeFormatter fIn = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, fIn);
+
+        return coupledPairService.getTopCoupledPairs(owner, repository, branch, odt, metric, limit);
+    }
+}
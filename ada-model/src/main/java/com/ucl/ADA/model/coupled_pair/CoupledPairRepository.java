@@ -0,0 +1,23 @@
+package com.ucl.ADA.model.coupled_pair;
+
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoupledPairRepository extends CrudRepository<CoupledPair, Long> {
+
+    /**
+     * Get the highest ranked coupled pairs of a snapshot for a relation metric
+     * @param snapshot snapshot entity
+     * @param metricType relation metric the pairs are ranked by
+     * @param pageable the number of pairs to return
+     * @return the pairs ordered from the most to the least coupled
+     */
+    List<CoupledPair> findAllBySnapshotAndMetricTypeOrderByRankAsc(Snapshot snapshot, RelationMetricType metricType, Pageable pageable);
+
+}
@@ -0,0 +1,151 @@
+package com.ucl.ADA.model.coupled_pair;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+@Service
+public class CoupledPairService {
+
+    /**
+     * the number of pairs kept in the index for each relation metric
+     */
+    public static final int INDEX_SIZE = 50;
+
+    /**
+     * orders pairs from the least to the most coupled, ties are broken by the class names so the ranking is stable
+     */
+    private static final Comparator<CoupledPair> COUPLING_ORDER = Comparator
+            .comparing(CoupledPair::getValue)
+            .thenComparing(CoupledPair::getSourceClass, Comparator.reverseOrder())
+            .thenComparing(CoupledPair::getTargetClass, Comparator.reverseOrder());
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private CoupledPairRepository coupledPairRepository;
+
+    @Autowired
+    private ProjectStructureCache projectStructureCache;
+
+    /**
+     * Build and save the index of the most coupled class pairs of a snapshot for every relation metric. The relation
+     * metrics of the project structure have to be computed beforehand. A bounded heap is kept per metric, so the
+     * index holds at most INDEX_SIZE pairs per metric regardless of the size of the project.
+     *
+     * @param snapshot         the snapshot the project structure belongs to
+     * @param projectStructure the project structure with computed relation metrics
+     * @return the saved index entries
+     */
+    public List<CoupledPair> buildIndex(Snapshot snapshot, ProjectStructure projectStructure) {
+        List<CoupledPair> index = rank(projectStructure, EnumSet.allOf(RelationMetricType.class));
+        for (CoupledPair coupledPair : index) {
+            coupledPair.setSnapshot(snapshot);
+        }
+
+        coupledPairRepository.saveAll(index);
+        return index;
+    }
+
+    /**
+     * Rank the most coupled class pairs of a project structure for some relation metrics
+     *
+     * @param projectStructure    the project structure with computed relation metrics
+     * @param relationMetricTypes the relation metrics to rank the pairs by
+     * @return at most INDEX_SIZE pairs per metric, ordered by metric and from the most to the least coupled
+     */
+    private List<CoupledPair> rank(ProjectStructure projectStructure, Set<RelationMetricType> relationMetricTypes) {
+        Map<RelationMetricType, PriorityQueue<CoupledPair>> heaps = new EnumMap<>(RelationMetricType.class);
+        for (RelationMetricType relationMetricType : relationMetricTypes) {
+            heaps.put(relationMetricType, new PriorityQueue<>(INDEX_SIZE + 1, COUPLING_ORDER));
+        }
+
+        for (Map.Entry<String, ClassStructure> classEntry : projectStructure.getClassStructures().entrySet()) {
+            String sourceClass = classEntry.getKey();
+            for (Map.Entry<String, RelationMetricValue> relationEntry : classEntry.getValue().getRelationMetricValues().entrySet()) {
+                String targetClass = relationEntry.getKey();
+                for (RelationMetricType relationMetricType : relationMetricTypes) {
+                    // symmetric metrics are stored on both classes of the pair, only rank them once
+                    if (relationMetricType.isSymmetric() && sourceClass.compareTo(targetClass) > 0) {
+                        continue;
+                    }
+                    Float value = relationEntry.getValue().getValue(relationMetricType);
+                    if (value == null || value <= 0f) {
+                        continue;
+                    }
+                    offer(heaps.get(relationMetricType), relationMetricType, sourceClass, targetClass, value);
+                }
+            }
+        }
+
+        List<CoupledPair> rankedPairs = new ArrayList<>();
+        for (PriorityQueue<CoupledPair> heap : heaps.values()) {
+            List<CoupledPair> metricPairs = new ArrayList<>(heap);
+            metricPairs.sort(COUPLING_ORDER.reversed());
+            for (int rank = 0; rank < metricPairs.size(); rank++) {
+                metricPairs.get(rank).setRank(rank);
+            }
+            rankedPairs.addAll(metricPairs);
+        }
+        return rankedPairs;
+    }
+
+    /**
+     * Get the most coupled class pairs of a snapshot given username, repository name, branch name and timestamp. The
+     * pairs of a snapshot whose results are still being written are ranked from its pinned project structure.
+     *
+     * @param username           name of the owner
+     * @param repository         name of the Git repository
+     * @param branchName         name of the branch
+     * @param timestamp          timestamp of a given request
+     * @param relationMetricType relation metric the pairs are ranked by
+     * @param limit              maximum number of pairs to return, capped at INDEX_SIZE
+     * @return the pairs ordered from the most to the least coupled
+     */
+    public List<CoupledPair> getTopCoupledPairs(String username, String repository, String branchName, OffsetDateTime timestamp,
+                                                RelationMetricType relationMetricType, int limit) {
+        int size = Math.max(1, Math.min(limit, INDEX_SIZE));
+        ProjectStructure pinned = projectStructureCache.getPinned(new ProjectStructureCache.Key(username, repository, branchName, timestamp));
+        if (pinned != null) {
+            List<CoupledPair> rankedPairs = rank(pinned, EnumSet.of(relationMetricType));
+            return new ArrayList<>(rankedPairs.subList(0, Math.min(size, rankedPairs.size())));
+        }
+
+        Snapshot snapshot = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branchName, timestamp);
+        return coupledPairRepository.findAllBySnapshotAndMetricTypeOrderByRankAsc(snapshot, relationMetricType, PageRequest.of(0, size));
+    }
+
+    /**
+     * Offer a candidate pair to a bounded heap, evicting the least coupled pair once the heap is full. The candidate
+     * is only allocated if it can enter the heap.
+     *
+     * @param heap               min-heap of the most coupled pairs found so far
+     * @param relationMetricType relation metric the pairs are ranked by
+     * @param sourceClass        qualified name of the class the value is taken from
+     * @param targetClass        qualified name of the class on the other end of the relation
+     * @param value              value of the relation metric
+     */
+    private void offer(PriorityQueue<CoupledPair> heap, RelationMetricType relationMetricType, String sourceClass, String targetClass, Float value) {
+        if (heap.size() >= INDEX_SIZE && value < heap.peek().getValue()) {
+            return;
+        }
+        CoupledPair candidate = new CoupledPair(relationMetricType, sourceClass, targetClass, value);
+        if (heap.size() < INDEX_SIZE) {
+            heap.add(candidate);
+        } else if (COUPLING_ORDER.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+}
@@ -26,7 +26,7 @@ public class DependenceInfo extends BaseEntity {
     /**
      * Packages present in the class. They can be either declared or imported.
      */
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "DEPENDENCE_INFO_PACKAGE_INVOCATION",
@@ -40,7 +40,7 @@ public class DependenceInfo extends BaseEntity {
     /**
      * Attributes present in the class. They can be either declared or invoked.
      */
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "DEPENDENCE_INFO_ATTRIBUTE_INVOCATION",
@@ -52,7 +52,7 @@ public class DependenceInfo extends BaseEntity {
     /**
      * Constructors present in the class. They can be either declared or invoked.
      */
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION",
@@ -64,7 +64,7 @@ public class DependenceInfo extends BaseEntity {
     /**
      * Methods present in the class. They can be either declared or invoked.
      */
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "DEPENDENCE_INFO_METHOD_INVOCATION",
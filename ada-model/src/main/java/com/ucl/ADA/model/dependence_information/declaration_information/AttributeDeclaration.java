@@ -30,13 +30,8 @@ public class AttributeDeclaration extends ElementDeclaration {
     /**
      * The access modifier assigned to the attribute.
      */
-    @ElementCollection(targetClass = ModifierType.class, fetch = FetchType.EAGER)
-    @CollectionTable(
-            name = "ATTRIBUTE_DECLARATION_MODIFIER_TYPE",
-            joinColumns = @JoinColumn(name = "attribute_declaration_id")
-    )
-    @Enumerated(EnumType.STRING)
-    @Column(name = "modifier_type")
+    @Convert(converter = ModifierTypesConverter.class)
+    @Column(name = "modifiers", nullable = false)
     private Set<ModifierType> modifierTypes = new HashSet<>();
 
     /**
@@ -3,6 +3,8 @@ package com.ucl.ADA.model.dependence_information.declaration_information;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -20,19 +22,15 @@ public class ConstructorDeclaration extends ElementDeclaration {
     /**
      * The access modifier assigned to the constructor.
      */
-    @ElementCollection(targetClass = ModifierType.class, fetch = FetchType.EAGER)
-    @CollectionTable(
-            name = "CONSTRUCTOR_DECLARATION_MODIFIER_TYPE",
-            joinColumns = @JoinColumn(name = "constructor_declaration_id")
-    )
-    @Enumerated(EnumType.STRING)
-    @Column(name = "modifier_type")
+    @Convert(converter = ModifierTypesConverter.class)
+    @Column(name = "modifiers", nullable = false)
     private Set<ModifierType> modifierTypes = new HashSet<>();
 
     /**
      * List of the parameters which the constructor accepts.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION",
             joinColumns = @JoinColumn(name = "constructor_declaration_id"),
@@ -3,6 +3,8 @@ package com.ucl.ADA.model.dependence_information.declaration_information;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -25,19 +27,15 @@ public class MethodDeclaration extends ElementDeclaration {
     /**
      * The access modifier assigned to the method.
      */
-    @ElementCollection(targetClass = ModifierType.class, fetch = FetchType.EAGER)
-    @CollectionTable(
-            name = "METHOD_DECLARATION_MODIFIER_TYPE",
-            joinColumns = @JoinColumn(name = "method_declaration_id")
-    )
-    @Enumerated(EnumType.STRING)
-    @Column(name = "modifier_type")
+    @Convert(converter = ModifierTypesConverter.class)
+    @Column(name = "modifiers", nullable = false)
     private Set<ModifierType> modifierTypes = new HashSet<>();
 
     /**
      * The parameters which the method accepts.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "METHOD_DECLARATION_PARAMETER_DECLARATION",
             joinColumns = @JoinColumn(name = "method_declaration_id"),
@@ -0,0 +1,38 @@
+package com.ucl.ADA.model.dependence_information.declaration_information;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stores a set of modifier types as one integer column, with bit n set if the set contains the modifier type of
+ * ordinal n.
+ */
+@Converter
+public class ModifierTypesConverter implements AttributeConverter<Set<ModifierType>, Integer> {
+
+    private static final ModifierType[] MODIFIER_TYPES = ModifierType.values();
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<ModifierType> modifierTypes) {
+        int mask = 0;
+        if (modifierTypes != null) {
+            for (ModifierType modifierType : modifierTypes) {
+                mask |= 1 << modifierType.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public Set<ModifierType> convertToEntityAttribute(Integer mask) {
+        Set<ModifierType> modifierTypes = new HashSet<>();
+        if (mask != null) {
+            for (ModifierType modifierType : MODIFIER_TYPES) {
+                if ((mask & (1 << modifierType.ordinal())) != 0) modifierTypes.add(modifierType);
+            }
+        }
+        return modifierTypes;
+    }
+}
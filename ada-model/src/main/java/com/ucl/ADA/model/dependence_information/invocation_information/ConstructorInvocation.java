@@ -3,6 +3,8 @@ package com.ucl.ADA.model.dependence_information.invocation_information;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -18,7 +20,8 @@ public class ConstructorInvocation extends ElementInvocation {
     /**
      * The list of parameters which have been passes to the constructor on invocation.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "CONSTRUCTOR_INVOCATION_PASSED_PARAMETER",
             joinColumns = @JoinColumn(name = "constructor_invocation_id"),
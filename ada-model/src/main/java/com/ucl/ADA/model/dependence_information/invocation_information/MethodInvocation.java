@@ -3,6 +3,8 @@ package com.ucl.ADA.model.dependence_information.invocation_information;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -18,7 +20,8 @@ public class MethodInvocation extends ElementInvocation {
     /**
      * The list of parameters which have been passes to the method on invocation.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(value = FetchMode.SUBSELECT)
     @JoinTable(
             name = "METHOD_INVOCATION_PASSED_PARAMETER",
             joinColumns = @JoinColumn(name = "method_invocation_id"),
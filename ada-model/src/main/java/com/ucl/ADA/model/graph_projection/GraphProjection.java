@@ -0,0 +1,149 @@
+package com.ucl.ADA.model.graph_projection;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * The dependency graph of a snapshot as needed for drawing it: the classes as nodes and the outgoing dependences as
+ * edges weighted by one relation metric. Nodes are identified by their position in the sorted array of class names,
+ * and the edges are stored as parallel arrays of source id, target id and weight, sorted by (source, target).
+ */
+@Getter
+public class GraphProjection {
+
+    /**
+     * the relation metric used as edge weight
+     */
+    private final RelationMetricType metric;
+
+    /**
+     * sorted qualified class names, the index of a name is the id of the node
+     */
+    private final String[] classNames;
+
+    /**
+     * package name of every node
+     */
+    private final String[] packageNames;
+
+    /**
+     * id of the consuming class of every edge
+     */
+    private final int[] sources;
+
+    /**
+     * id of the declaring class of every edge
+     */
+    private final int[] targets;
+
+    /**
+     * value of the metric for the source class towards the target class, for every edge
+     */
+    private final float[] weights;
+
+    private GraphProjection(RelationMetricType metric, String[] classNames, String[] packageNames, int[] sources, int[] targets, float[] weights) {
+        this.metric = metric;
+        this.classNames = classNames;
+        this.packageNames = packageNames;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Project an in-memory project structure, with computed metrics
+     *
+     * @param projectStructure the project structure
+     * @param metric           the relation metric used as edge weight
+     * @return the graph of the project structure
+     */
+    public static GraphProjection of(ProjectStructure projectStructure, RelationMetricType metric) {
+        Builder builder = new Builder();
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            ClassStructure classStructure = entry.getValue();
+            builder.addClass(entry.getKey(), classStructure.getCurrentPackage().getName());
+            for (String target : classStructure.getOutgoingDependenceInfo().keySet()) {
+                builder.addEdge(entry.getKey(), target);
+            }
+            for (Map.Entry<String, RelationMetricValue> owned : classStructure.getOwnedRelationMetricValues().entrySet()) {
+                builder.addOwnedRelationMetrics(entry.getKey(), owned.getKey(), owned.getValue().getVector());
+            }
+        }
+        return builder.build(metric);
+    }
+
+    /**
+     * Collects classes, edges and the relation metrics owned by the classes, in any order, and builds the graph.
+     */
+    static class Builder {
+
+        private final Map<String, String> packageNames = new HashMap<>();
+
+        private final List<String[]> edges = new ArrayList<>();
+
+        /**
+         * owned relation metric vectors by owning class name and related class name
+         */
+        private final Map<String, Map<String, float[]>> ownedRelationMetrics = new HashMap<>();
+
+        void addClass(String className, String packageName) {
+            packageNames.put(className, packageName);
+        }
+
+        void addEdge(String source, String target) {
+            edges.add(new String[]{source, target});
+        }
+
+        void addOwnedRelationMetrics(String owner, String relatedClass, float[] vector) {
+            ownedRelationMetrics.computeIfAbsent(owner, key -> new HashMap<>()).put(relatedClass, vector);
+        }
+
+        GraphProjection build(RelationMetricType metric) {
+            String[] classNames = packageNames.keySet().toArray(new String[0]);
+            Arrays.sort(classNames);
+            String[] classPackageNames = new String[classNames.length];
+            Map<String, Integer> classIds = new HashMap<>(classNames.length * 2);
+            for (int id = 0; id < classNames.length; id++) {
+                classIds.put(classNames[id], id);
+                classPackageNames[id] = packageNames.get(classNames[id]);
+            }
+
+            long[] packedEdges = new long[edges.size()];
+            int edgeCount = 0;
+            for (String[] edge : edges) {
+                Integer source = classIds.get(edge[0]);
+                Integer target = classIds.get(edge[1]);
+                if (source != null && target != null) {
+                    packedEdges[edgeCount++] = ((long) source << 32) | target;
+                }
+            }
+            packedEdges = Arrays.copyOf(packedEdges, edgeCount);
+            Arrays.sort(packedEdges);
+
+            int[] sources = new int[edgeCount];
+            int[] targets = new int[edgeCount];
+            float[] weights = new float[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                sources[e] = (int) (packedEdges[e] >>> 32);
+                targets[e] = (int) packedEdges[e];
+                weights[e] = weight(classNames[sources[e]], classNames[targets[e]], metric);
+            }
+            return new GraphProjection(metric, classNames, classPackageNames, sources, targets, weights);
+        }
+
+        /**
+         * the metric of a class towards a related class, read from whichever of the two classes owns the relation
+         */
+        private float weight(String className, String relatedClass, RelationMetricType metric) {
+            float[] owned = ownedRelationMetrics.getOrDefault(className, Collections.emptyMap()).get(relatedClass);
+            if (owned != null) return owned[metric.ordinal()];
+            float[] mirrored = ownedRelationMetrics.getOrDefault(relatedClass, Collections.emptyMap()).get(className);
+            return mirrored != null ? mirrored[metric.mirror().ordinal()] : 0f;
+        }
+    }
+}
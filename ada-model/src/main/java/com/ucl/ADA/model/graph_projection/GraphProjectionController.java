@@ -0,0 +1,41 @@
+package com.ucl.ADA.model.graph_projection;
+
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@CrossOrigin
+@RequestMapping("owners/{owner}/repositories/{repository}/branches/{branch}/snapshots/{timestamp}/graph")
+public class GraphProjectionController {
+
+    @Autowired
+    private GraphProjectionService graphProjectionService;
+
+    /**
+     * Endpoint for getting the nodes and weighted edges of the dependency graph of a snapshot
+     *
+     * @param owner      username of owner
+     * @param repository name of Git repository
+     * @param branch     name of branch
+     * @param timestamp  time when ADA received request for the snapshot
+     * @param metric     relation metric used as edge weight
+     * @return the graph of the snapshot
+     */
+    @CrossOrigin
+    @PostMapping
+    public GraphProjection getGraphProjection(@PathVariable String owner,
+                                              @PathVariable String repository,
+                                              @PathVariable String branch,
+                                              @PathVariable String timestamp,
+                                              @RequestParam RelationMetricType metric) {
+
+        DateTimeFormatter fIn = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, fIn);
+
+        return graphProjectionService.getGraphProjection(owner, repository, branch, odt, metric);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ucl.ADA.model.graph_projection;
+
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Reads the parts of a stored project structure needed for its graph with projection queries, without loading any
+ * entities.
+ */
+public interface GraphProjectionRepository extends Repository<ProjectStructure, Long> {
+
+    /**
+     * @param snapshot a Snapshot object
+     * @return pairs of qualified class name and package name
+     */
+    @Query("select key(c), c.currentPackage.name from ProjectStructure p join p.classStructures c where p.snapshot = :snapshot")
+    List<Object[]> findClassesBySnapshot(@Param("snapshot") Snapshot snapshot);
+
+    /**
+     * @param snapshot a Snapshot object
+     * @return pairs of consuming class name and declaring class name
+     */
+    @Query("select key(c), key(o) from ProjectStructure p join p.classStructures c join c.outgoingDependenceInfo o where p.snapshot = :snapshot")
+    List<Object[]> findEdgesBySnapshot(@Param("snapshot") Snapshot snapshot);
+
+    /**
+     * @param snapshot a Snapshot object
+     * @return triples of owning class name, related class name and relation metric vector
+     */
+    @Query("select key(c), key(r), r.vector from ProjectStructure p join p.classStructures c join c.ownedRelationMetricValues r where p.snapshot = :snapshot")
+    List<Object[]> findOwnedRelationMetricsBySnapshot(@Param("snapshot") Snapshot snapshot);
+
+}
@@ -0,0 +1,63 @@
+package com.ucl.ADA.model.graph_projection;
+
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot_document.SnapshotDocumentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+@Service
+public class GraphProjectionService {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private SnapshotDocumentService snapshotDocumentService;
+
+    @Autowired
+    private GraphProjectionRepository graphProjectionRepository;
+
+    @Autowired
+    private ProjectStructureCache projectStructureCache;
+
+    /**
+     * Get the graph of a snapshot with edges weighted by a relation metric. Snapshots held in memory, whether cached or
+     * still being written, and snapshots stored as a document are projected from their structure, the others straight
+     * from three projection queries.
+     *
+     * @param username   name of the owner
+     * @param repository name of the Git repository
+     * @param branch     name of the branch
+     * @param timestamp  time when ADA received request for the snapshot
+     * @param metric     relation metric used as edge weight
+     * @return the graph of the snapshot
+     */
+    @Transactional(readOnly = true)
+    public GraphProjection getGraphProjection(String username, String repository, String branch, OffsetDateTime timestamp, RelationMetricType metric) {
+        ProjectStructure projectStructure = projectStructureCache.getIfPresent(new ProjectStructureCache.Key(username, repository, branch, timestamp));
+        if (projectStructure != null) return GraphProjection.of(projectStructure, metric);
+
+        Snapshot snapshot = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branch, timestamp);
+        projectStructure = snapshotDocumentService.findProjectStructure(snapshot);
+        if (projectStructure != null) return GraphProjection.of(projectStructure, metric);
+
+        GraphProjection.Builder builder = new GraphProjection.Builder();
+        for (Object[] row : graphProjectionRepository.findClassesBySnapshot(snapshot)) {
+            builder.addClass((String) row[0], (String) row[1]);
+        }
+        for (Object[] row : graphProjectionRepository.findEdgesBySnapshot(snapshot)) {
+            builder.addEdge((String) row[0], (String) row[1]);
+        }
+        for (Object[] row : graphProjectionRepository.findOwnedRelationMetricsBySnapshot(snapshot)) {
+            builder.addOwnedRelationMetrics((String) row[0], (String) row[1], (float[]) row[2]);
+        }
+        return builder.build(metric);
+    }
+}
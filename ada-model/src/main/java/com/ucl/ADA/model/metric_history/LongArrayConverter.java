@@ -0,0 +1,28 @@
+package com.ucl.ADA.model.metric_history;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.ByteBuffer;
+
+/**
+ * Stores a long array as a single packed binary column, eight bytes per value in big-endian order.
+ */
+@Converter
+public class LongArrayConverter implements AttributeConverter<long[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(long[] attribute) {
+        if (attribute == null) return null;
+        ByteBuffer buffer = ByteBuffer.allocate(attribute.length * Long.BYTES);
+        buffer.asLongBuffer().put(attribute);
+        return buffer.array();
+    }
+
+    @Override
+    public long[] convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) return null;
+        long[] values = new long[dbData.length / Long.BYTES];
+        ByteBuffer.wrap(dbData).asLongBuffer().get(values);
+        return values;
+    }
+}
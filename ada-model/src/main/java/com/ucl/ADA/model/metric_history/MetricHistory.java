@@ -0,0 +1,78 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * A chunk of the metric history of one class or package of a branch. The chunk holds the class metric values of
+ * CHUNK_SIZE consecutive snapshot ordinals, stored as one packed column with one vector of ClassMetricType values per
+ * ordinal. Ordinals at which the element did not exist are stored as NaN.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "METRIC_HISTORY")
+public class MetricHistory extends BaseEntity {
+
+    /**
+     * number of snapshot ordinals stored in one chunk
+     */
+    public static final int CHUNK_SIZE = 64;
+
+    /**
+     * the branch the history belongs to
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "branch_id", nullable = false)
+    private Branch branch;
+
+    /**
+     * whether the series belongs to a class or to a package
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "element_type", nullable = false)
+    private MetricHistoryElementType elementType;
+
+    /**
+     * qualified name of the class or package
+     */
+    @Column(name = "element_name", nullable = false)
+    private String elementName;
+
+    /**
+     * index of the chunk, the chunk holds the ordinals from chunk * CHUNK_SIZE onwards
+     */
+    @Column(name = "chunk", nullable = false)
+    private Integer chunk;
+
+    /**
+     * the packed metric values of the chunk, ordinal major
+     */
+    @Convert(converter = FloatArrayConverter.class)
+    @Column(name = "metric_values", nullable = false)
+    private float[] metricValues = new float[0];
+
+    /**
+     * Constructor of a metric history chunk
+     *
+     * @param branch      the branch the history belongs to
+     * @param elementType whether the series belongs to a class or to a package
+     * @param elementName qualified name of the class or package
+     * @param chunk       index of the chunk
+     */
+    public MetricHistory(Branch branch, MetricHistoryElementType elementType, String elementName, Integer chunk) {
+        this.branch = branch;
+        this.elementType = elementType;
+        this.elementName = elementName;
+        this.chunk = chunk;
+    }
+}
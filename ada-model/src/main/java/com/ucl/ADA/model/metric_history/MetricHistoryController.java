@@ -0,0 +1,38 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@CrossOrigin
+@RequestMapping("owners/{owner}/repositories/{repository}/branches/{branch}/metric-history")
+public class MetricHistoryController {
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    /**
+     * Endpoint for getting the trend of a class metric of a class or package over the snapshots of a branch
+     *
+     * @param owner       username of owner
+     * @param repository  name of Git repository
+     * @param branch      name of branch
+     * @param element     qualified name of the class or package
+     * @param elementType whether the element is a class or a package
+     * @param metric      the class metric of the trend
+     * @param last        number of most recent snapshots to return, all snapshots if not positive
+     * @return the trend of the metric
+     */
+    @CrossOrigin
+    @PostMapping
+    public MetricTrend getTrend(@PathVariable String owner,
+                                @PathVariable String repository,
+                                @PathVariable String branch,
+                                @RequestParam String element,
+                                @RequestParam(defaultValue = "CLASS") MetricHistoryElementType elementType,
+                                @RequestParam ClassMetricType metric,
+                                @RequestParam(defaultValue = "0") int last) {
+        return metricHistoryService.getTrend(owner, repository, branch, elementType, element, metric, last);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ucl.ADA.model.metric_history;
+
+/**
+ * The kind of element a metric history series belongs to.
+ */
+public enum MetricHistoryElementType {
+    CLASS, // a single class, identified by its qualified name
+    PACKAGE // a package, the class metrics of all of its classes are summed up
+}
@@ -0,0 +1,36 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.ucl.ADA.model.branch.Branch;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MetricHistoryRepository extends CrudRepository<MetricHistory, Long> {
+
+    /**
+     * Get the chunks of all classes and packages of a branch within a range of chunk indices
+     * @param branch branch entity
+     * @param fromChunk first chunk index, inclusive
+     * @param toChunk last chunk index, inclusive
+     * @return the chunks of all elements
+     */
+    List<MetricHistory> findAllByBranchAndChunkBetween(Branch branch, Integer fromChunk, Integer toChunk);
+
+    /**
+     * Get the chunks of a single class or package within a range of chunk indices
+     * @param branch branch entity
+     * @param elementType whether the element is a class or a package
+     * @param elementName qualified name of the element
+     * @param fromChunk first chunk index, inclusive
+     * @param toChunk last chunk index, inclusive
+     * @return the chunks ordered by chunk index
+     */
+    List<MetricHistory> findAllByBranchAndElementTypeAndElementNameAndChunkBetweenOrderByChunkAsc(Branch branch,
+                                                                                                MetricHistoryElementType elementType,
+                                                                                                String elementName,
+                                                                                                Integer fromChunk,
+                                                                                                Integer toChunk);
+
+}
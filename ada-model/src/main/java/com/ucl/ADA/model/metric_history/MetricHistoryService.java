@@ -0,0 +1,401 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.branch.BranchService;
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricValue;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static com.ucl.ADA.model.metric_history.MetricHistory.CHUNK_SIZE;
+
+@Service
+public class MetricHistoryService {
+
+    /**
+     * number of values stored per element and snapshot ordinal
+     */
+    static final int CLASS_METRICS = ClassMetricType.values().length;
+
+    @Autowired
+    private BranchService branchService;
+
+    @Autowired
+    private MetricHistoryTimelineRepository metricHistoryTimelineRepository;
+
+    @Autowired
+    private MetricHistoryRepository metricHistoryRepository;
+
+    @Autowired
+    private SnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProjectStructureCache projectStructureCache;
+
+    /**
+     * Record the class metrics of a freshly analysed snapshot in the metric history of its branch. The snapshot is
+     * inserted into the branch timeline at the place of its timestamp, after the snapshots with the same timestamp,
+     * and the metric vector of every class and package is written at its ordinal; the snapshots after it move to the
+     * next ordinal. The class metrics of the project structure have to be computed beforehand.
+     *
+     * @param snapshot         the snapshot the project structure belongs to
+     * @param projectStructure the project structure with computed class metrics
+     */
+    @Transactional
+    public void append(Snapshot snapshot, ProjectStructure projectStructure) {
+        Branch branch = snapshot.getBranch();
+
+        // the timeline exists before it is locked, so the first analyses of a branch wait for each other too
+        metricHistoryTimelineRepository.insertIfAbsent(branch.getId());
+        MetricHistoryTimeline timeline = metricHistoryTimelineRepository.findLockedByBranch(branch);
+        long[] timestamps = timeline.getSnapshotTimestamps();
+        long timestamp = snapshot.getTimestamp().toInstant().toEpochMilli();
+        int ordinal = insertionPoint(timestamps, timestamp);
+        long[] insertedTimestamps = new long[timestamps.length + 1];
+        System.arraycopy(timestamps, 0, insertedTimestamps, 0, ordinal);
+        insertedTimestamps[ordinal] = timestamp;
+        System.arraycopy(timestamps, ordinal, insertedTimestamps, ordinal + 1, timestamps.length - ordinal);
+        timeline.setSnapshotTimestamps(insertedTimestamps);
+        metricHistoryTimelineRepository.save(timeline);
+
+        Map<MetricHistoryElementType, Map<String, float[]>> vectors = new EnumMap<>(MetricHistoryElementType.class);
+        vectors.put(MetricHistoryElementType.CLASS, new HashMap<>());
+        vectors.put(MetricHistoryElementType.PACKAGE, new HashMap<>());
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            float[] classVector = toVector(entry.getValue().getClassMetricValues());
+            vectors.get(MetricHistoryElementType.CLASS).put(entry.getKey(), classVector);
+            float[] packageVector = vectors.get(MetricHistoryElementType.PACKAGE)
+                    .computeIfAbsent(packageOf(entry.getKey()), name -> new float[CLASS_METRICS]);
+            for (int i = 0; i < CLASS_METRICS; i++) {
+                // a class without a value leaves the sum of its package as it is
+                if (Float.isFinite(classVector[i])) packageVector[i] += classVector[i];
+            }
+        }
+
+        updateSeries(branch, ordinal, timestamps.length, vectors);
+    }
+
+    /**
+     * Remove a deleted snapshot from the metric history of its branch; the snapshots after it move to the previous
+     * ordinal
+     *
+     * @param branch    the branch of the snapshot
+     * @param timestamp timestamp of the snapshot
+     */
+    @Transactional
+    public void removeSnapshot(Branch branch, OffsetDateTime timestamp) {
+        MetricHistoryTimeline timeline = metricHistoryTimelineRepository.findLockedByBranch(branch);
+        if (timeline == null) return;
+
+        long[] timestamps = timeline.getSnapshotTimestamps();
+        long removed = timestamp.toInstant().toEpochMilli();
+        int ordinal = insertionPoint(timestamps, removed) - 1;
+        if (ordinal >= 0 && timestamps[ordinal] == removed) removeOrdinal(branch, timeline, ordinal);
+    }
+
+    /**
+     * Remove the snapshots deleted by the retention policy from the metric histories: the recorded snapshots older
+     * than the cutoff which are no longer stored
+     *
+     * @param cutoff the snapshots older than the cutoff may have been deleted
+     */
+    @Transactional
+    public void removeExpiredSnapshots(OffsetDateTime cutoff) {
+        long expiry = cutoff.toInstant().toEpochMilli();
+        for (Branch branch : metricHistoryTimelineRepository.findAllBranches()) {
+            MetricHistoryTimeline timeline = metricHistoryTimelineRepository.findLockedByBranch(branch);
+            int expired = insertionPoint(timeline.getSnapshotTimestamps(), expiry - 1);
+            if (expired == 0) continue;
+
+            Set<Long> stored = new HashSet<>();
+            for (OffsetDateTime timestamp : snapshotRepository.findTimestampsByBranchBefore(branch, cutoff)) {
+                stored.add(timestamp.toInstant().toEpochMilli());
+            }
+            // the latest first, so the ordinals of the earlier ones stay the same
+            for (int ordinal = expired - 1; ordinal >= 0; ordinal--) {
+                if (!stored.contains(timeline.getSnapshotTimestamps()[ordinal])) removeOrdinal(branch, timeline, ordinal);
+            }
+        }
+    }
+
+    /**
+     * Remove an ordinal from a locked timeline and from the series of every element
+     *
+     * @param branch   the branch of the timeline
+     * @param timeline the locked timeline
+     * @param ordinal  the removed ordinal
+     */
+    private void removeOrdinal(Branch branch, MetricHistoryTimeline timeline, int ordinal) {
+        long[] timestamps = timeline.getSnapshotTimestamps();
+        long[] removedTimestamps = new long[timestamps.length - 1];
+        System.arraycopy(timestamps, 0, removedTimestamps, 0, ordinal);
+        System.arraycopy(timestamps, ordinal + 1, removedTimestamps, ordinal, removedTimestamps.length - ordinal);
+        timeline.setSnapshotTimestamps(removedTimestamps);
+        metricHistoryTimelineRepository.save(timeline);
+
+        updateSeries(branch, ordinal, timestamps.length, null);
+    }
+
+    /**
+     * Insert the metric vectors of a snapshot at an ordinal of the metric history of a branch, or remove the ordinal
+     * if there are no vectors, moving the values of the later ordinals of every element by one. Only the chunks from
+     * the one holding the ordinal onwards are read and written, so a snapshot recorded after the others touches a
+     * single chunk.
+     *
+     * @param branch  the branch
+     * @param ordinal the inserted or removed ordinal
+     * @param length  number of ordinals before the change
+     * @param vectors metric vectors of the inserted snapshot by element type and name, null to remove the ordinal
+     */
+    private void updateSeries(Branch branch, int ordinal, int length, Map<MetricHistoryElementType, Map<String, float[]>> vectors) {
+        boolean insert = vectors != null;
+        int updatedLength = insert ? length + 1 : length - 1;
+        int firstChunk = ordinal / CHUNK_SIZE;
+        int lastChunk = (Math.max(length, updatedLength) - 1) / CHUNK_SIZE;
+        int firstOrdinal = firstChunk * CHUNK_SIZE;
+
+        Map<MetricHistoryElementType, Map<String, Map<Integer, MetricHistory>>> chunks = new EnumMap<>(MetricHistoryElementType.class);
+        for (MetricHistoryElementType elementType : MetricHistoryElementType.values()) {
+            chunks.put(elementType, new HashMap<>());
+        }
+        for (MetricHistory history : metricHistoryRepository.findAllByBranchAndChunkBetween(branch, firstChunk, lastChunk)) {
+            chunks.get(history.getElementType())
+                    .computeIfAbsent(history.getElementName(), name -> new HashMap<>())
+                    .put(history.getChunk(), history);
+        }
+        if (insert) {
+            for (Map.Entry<MetricHistoryElementType, Map<String, float[]>> typeEntry : vectors.entrySet()) {
+                for (String elementName : typeEntry.getValue().keySet()) {
+                    chunks.get(typeEntry.getKey()).computeIfAbsent(elementName, name -> new HashMap<>());
+                }
+            }
+        }
+
+        List<MetricHistory> updatedHistories = new ArrayList<>();
+        List<MetricHistory> emptiedHistories = new ArrayList<>();
+        for (Map.Entry<MetricHistoryElementType, Map<String, Map<Integer, MetricHistory>>> typeEntry : chunks.entrySet()) {
+            MetricHistoryElementType elementType = typeEntry.getKey();
+            for (Map.Entry<String, Map<Integer, MetricHistory>> entry : typeEntry.getValue().entrySet()) {
+                // the values of the ordinals from the first chunk on, NaN where the element did not exist
+                float[] series = new float[((lastChunk + 1) * CHUNK_SIZE - firstOrdinal) * CLASS_METRICS];
+                Arrays.fill(series, Float.NaN);
+                for (MetricHistory history : entry.getValue().values()) {
+                    float[] metricValues = history.getMetricValues();
+                    System.arraycopy(metricValues, 0, series,
+                            (history.getChunk() * CHUNK_SIZE - firstOrdinal) * CLASS_METRICS, metricValues.length);
+                }
+
+                int offset = (ordinal - firstOrdinal) * CLASS_METRICS;
+                if (insert) {
+                    System.arraycopy(series, offset, series, offset + CLASS_METRICS, (length - ordinal) * CLASS_METRICS);
+                    float[] vector = vectors.get(elementType).get(entry.getKey());
+                    if (vector != null) {
+                        System.arraycopy(vector, 0, series, offset, CLASS_METRICS);
+                    } else {
+                        Arrays.fill(series, offset, offset + CLASS_METRICS, Float.NaN);
+                    }
+                } else {
+                    int later = (length - ordinal - 1) * CLASS_METRICS;
+                    System.arraycopy(series, offset + CLASS_METRICS, series, offset, later);
+                    Arrays.fill(series, offset + later, offset + later + CLASS_METRICS, Float.NaN);
+                }
+
+                for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+                    float[] metricValues = chunkValues(series, chunk * CHUNK_SIZE - firstOrdinal, updatedLength - chunk * CHUNK_SIZE);
+                    MetricHistory history = entry.getValue().get(chunk);
+                    if (metricValues.length == 0) {
+                        if (history != null) emptiedHistories.add(history);
+                    } else if (history == null) {
+                        history = new MetricHistory(branch, elementType, entry.getKey(), chunk);
+                        history.setMetricValues(metricValues);
+                        updatedHistories.add(history);
+                    } else if (!Arrays.equals(metricValues, history.getMetricValues())) {
+                        history.setMetricValues(metricValues);
+                        updatedHistories.add(history);
+                    }
+                }
+            }
+        }
+        metricHistoryRepository.deleteAll(emptiedHistories);
+        metricHistoryRepository.saveAll(updatedHistories);
+    }
+
+    /**
+     * Get the series of one class metric of a class or package over the snapshots of a branch. The snapshots whose
+     * results are still being written are not in the timeline yet; their values are read from their pinned project
+     * structures.
+     *
+     * @param username    username of owner
+     * @param repoName    name of Git repository
+     * @param branchName  name of branch
+     * @param elementType whether the element is a class or a package
+     * @param elementName qualified name of the class or package
+     * @param metricType  the class metric of the series
+     * @param last        number of most recent snapshots to return, all snapshots if not positive
+     * @return the series, with null values for snapshots in which the element did not exist
+     */
+    public MetricTrend getTrend(String username, String repoName, String branchName,
+                                MetricHistoryElementType elementType, String elementName,
+                                ClassMetricType metricType, int last) {
+        Branch branch = branchService.getBranchGivenOwnerRepoAndName(username, repoName, branchName);
+        MetricHistoryTimeline timeline = metricHistoryTimelineRepository.findByBranch(branch);
+        long[] timestamps = timeline == null ? new long[0] : timeline.getSnapshotTimestamps();
+
+        // a pinned snapshot already in the timeline is committed and about to be unpinned
+        SortedMap<Long, ProjectStructure> pending = new TreeMap<>();
+        for (Map.Entry<ProjectStructureCache.Key, ProjectStructure> entry : projectStructureCache.getPinned(username, repoName, branchName).entrySet()) {
+            long timestamp = entry.getKey().getTimestamp().toEpochMilli();
+            if (Arrays.binarySearch(timestamps, timestamp) < 0) pending.put(timestamp, entry.getValue());
+        }
+        if (timestamps.length == 0 && pending.isEmpty()) return new MetricTrend();
+
+        // the last snapshots hold at most the last stored ones
+        int end = timestamps.length;
+        int start = last > 0 ? Math.max(0, end - last) : 0;
+
+        Float[] values = new Float[end - start];
+        if (end > start) {
+            List<MetricHistory> histories = metricHistoryRepository
+                    .findAllByBranchAndElementTypeAndElementNameAndChunkBetweenOrderByChunkAsc(
+                            branch, elementType, elementName, start / CHUNK_SIZE, (end - 1) / CHUNK_SIZE);
+            for (MetricHistory history : histories) {
+                float[] metricValues = history.getMetricValues();
+                int firstOrdinal = history.getChunk() * CHUNK_SIZE;
+                for (int position = 0; position < metricValues.length / CLASS_METRICS; position++) {
+                    int ordinal = firstOrdinal + position;
+                    if (ordinal < start || ordinal >= end) continue;
+                    float value = metricValues[position * CLASS_METRICS + metricType.ordinal()];
+                    if (!Float.isNaN(value)) values[ordinal - start] = value;
+                }
+            }
+        }
+
+        List<Long> trendTimestamps = new ArrayList<>(end - start + pending.size());
+        List<Float> trendValues = new ArrayList<>(end - start + pending.size());
+        Iterator<Map.Entry<Long, ProjectStructure>> pendingEntries = pending.entrySet().iterator();
+        Map.Entry<Long, ProjectStructure> nextPending = pendingEntries.hasNext() ? pendingEntries.next() : null;
+        for (int ordinal = start; ordinal <= end; ordinal++) {
+            while (nextPending != null && (ordinal == end || nextPending.getKey() < timestamps[ordinal])) {
+                trendTimestamps.add(nextPending.getKey());
+                trendValues.add(valueOf(nextPending.getValue(), elementType, elementName, metricType));
+                nextPending = pendingEntries.hasNext() ? pendingEntries.next() : null;
+            }
+            if (ordinal < end) {
+                trendTimestamps.add(timestamps[ordinal]);
+                trendValues.add(values[ordinal - start]);
+            }
+        }
+
+        int from = last > 0 ? Math.max(0, trendTimestamps.size() - last) : 0;
+        List<OffsetDateTime> trendTimes = new ArrayList<>(trendTimestamps.size() - from);
+        for (long timestamp : trendTimestamps.subList(from, trendTimestamps.size())) {
+            trendTimes.add(OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC));
+        }
+        return new MetricTrend(trendTimes, trendValues.subList(from, trendValues.size()).toArray(new Float[0]));
+    }
+
+    /**
+     * @param projectStructure a project structure with computed class metrics
+     * @param elementType      whether the element is a class or a package
+     * @param elementName      qualified name of the class or package
+     * @param metricType       the class metric
+     * @return the value of the metric for the element, as it would be recorded, null if the element does not exist
+     */
+    private static Float valueOf(ProjectStructure projectStructure, MetricHistoryElementType elementType,
+                                 String elementName, ClassMetricType metricType) {
+        float value;
+        if (elementType == MetricHistoryElementType.CLASS) {
+            ClassStructure classStructure = projectStructure.getClassStructures().get(elementName);
+            if (classStructure == null) return null;
+            value = toVector(classStructure.getClassMetricValues())[metricType.ordinal()];
+        } else {
+            boolean found = false;
+            value = 0f;
+            for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+                if (!packageOf(entry.getKey()).equals(elementName)) continue;
+                found = true;
+                float classValue = toVector(entry.getValue().getClassMetricValues())[metricType.ordinal()];
+                if (Float.isFinite(classValue)) value += classValue;
+            }
+            if (!found) return null;
+        }
+        return Float.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @param timestamps the sorted snapshot timestamps of a timeline
+     * @param timestamp  the timestamp of a new snapshot
+     * @return the ordinal of the new snapshot, after the snapshots with the same timestamp
+     */
+    static int insertionPoint(long[] timestamps, long timestamp) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the packed values of a chunk from the values of a series, leaving out the trailing ordinals at which the
+     * element did not exist
+     *
+     * @param series the packed values of a series, NaN where the element did not exist
+     * @param first  position of the first ordinal of the chunk in the series
+     * @param count  number of ordinals of the timeline from the first ordinal of the chunk on
+     * @return the packed values of the chunk, empty if the element does not exist in the chunk
+     */
+    static float[] chunkValues(float[] series, int first, int count) {
+        int end = Math.max(0, Math.min(CHUNK_SIZE, count));
+        while (end > 0 && isMissing(series, first + end - 1)) end--;
+        return Arrays.copyOfRange(series, first * CLASS_METRICS, (first + end) * CLASS_METRICS);
+    }
+
+    /**
+     * @return whether all values of the vector at a position of a series are NaN
+     */
+    private static boolean isMissing(float[] series, int position) {
+        for (int i = position * CLASS_METRICS; i < (position + 1) * CLASS_METRICS; i++) {
+            if (!Float.isNaN(series[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param classMetricValue the class metrics of a class
+     * @return a copy of the metric values indexed by the ordinal of their ClassMetricType, NaN if there are none
+     */
+    private static float[] toVector(ClassMetricValue classMetricValue) {
+        if (classMetricValue == null) {
+            float[] vector = new float[CLASS_METRICS];
+            Arrays.fill(vector, Float.NaN);
+            return vector;
+        }
+        return classMetricValue.getVector().clone();
+    }
+
+    /**
+     * @param className qualified name of a class
+     * @return name of the package the class is declared in
+     */
+    private static String packageOf(String className) {
+        int index = className.lastIndexOf('.');
+        return index == -1 ? "" : className.substring(0, index);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.branch.Branch;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * The ordered list of snapshots recorded in the metric history of a branch. The position of a snapshot in the list is
+ * its ordinal, which indexes the values of every metric history series of the branch.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "METRIC_HISTORY_TIMELINE")
+public class MetricHistoryTimeline extends BaseEntity {
+
+    /**
+     * the branch the timeline belongs to
+     */
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "branch_id", nullable = false, unique = true)
+    private Branch branch;
+
+    /**
+     * snapshot timestamps in epoch milliseconds, indexed by snapshot ordinal
+     */
+    @Convert(converter = LongArrayConverter.class)
+    @Column(name = "snapshot_timestamps", nullable = false)
+    private long[] snapshotTimestamps = new long[0];
+
+}
@@ -0,0 +1,52 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.ucl.ADA.model.branch.Branch;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+public interface MetricHistoryTimelineRepository extends CrudRepository<MetricHistoryTimeline, Long> {
+
+    /**
+     * Get the metric history timeline of a branch
+     * @param branch branch entity
+     * @return the timeline, or null if nothing has been recorded for the branch
+     */
+    MetricHistoryTimeline findByBranch(Branch branch);
+
+    /**
+     * Create the empty metric history timeline of a branch, unless it exists. A concurrent insert for the same branch
+     * waits for this one to be over, instead of failing on the unique branch.
+     * @param branchId id of the branch
+     * @return number of inserted timelines
+     */
+    @Modifying
+    @Query(value = "INSERT INTO metric_history_timeline (id, branch_id, snapshot_timestamps) " +
+            "VALUES (nextval('ada_id_sequence'), :branchId, decode('', 'hex')) " +
+            "ON CONFLICT (branch_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("branchId") Long branchId);
+
+    /**
+     * Get the metric history timeline of a branch and lock it until the end of the transaction, so concurrent
+     * analyses of the same branch record their snapshots one after the other
+     * @param branch branch entity
+     * @return the timeline, or null if nothing has been recorded for the branch
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    MetricHistoryTimeline findLockedByBranch(Branch branch);
+
+    /**
+     * Get the branches with a metric history timeline, without loading the timelines
+     * @return the branches
+     */
+    @Query("select t.branch from MetricHistoryTimeline t")
+    List<Branch> findAllBranches();
+
+}
@@ -0,0 +1,30 @@
+package com.ucl.ADA.model.metric_history;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single metric series of a class or package over the snapshots of a branch.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricTrend {
+
+    /**
+     * the timestamps of the snapshots, in UTC
+     */
+    private List<OffsetDateTime> timestamps = new ArrayList<>();
+
+    /**
+     * the metric values, aligned with the timestamps, null where the element did not exist
+     */
+    private Float[] values = new Float[0];
+}
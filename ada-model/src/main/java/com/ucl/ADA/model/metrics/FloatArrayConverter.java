@@ -0,0 +1,28 @@
+package com.ucl.ADA.model.metrics;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.ByteBuffer;
+
+/**
+ * Stores a float array as a single packed binary column, four bytes per value in big-endian order.
+ */
+@Converter
+public class FloatArrayConverter implements AttributeConverter<float[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(float[] attribute) {
+        if (attribute == null) return null;
+        ByteBuffer buffer = ByteBuffer.allocate(attribute.length * Float.BYTES);
+        buffer.asFloatBuffer().put(attribute);
+        return buffer.array();
+    }
+
+    @Override
+    public float[] convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) return null;
+        float[] values = new float[dbData.length / Float.BYTES];
+        ByteBuffer.wrap(dbData).asFloatBuffer().get(values);
+        return values;
+    }
+}
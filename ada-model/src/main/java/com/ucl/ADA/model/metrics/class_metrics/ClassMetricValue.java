@@ -1,96 +1,229 @@
 package com.ucl.ADA.model.metrics.class_metrics;
 
-import com.ucl.ADA.model.BaseEntity;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Table;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
 
-@Getter
-@Setter
+/**
+ * The class metrics of a class, kept as one primitive vector and stored as a single packed column of its class.
+ */
 @NoArgsConstructor
-@AllArgsConstructor
-@Entity
-@Table(name = "CLASS_METRIC_VALUE")
-public class ClassMetricValue extends BaseEntity {
+@Embeddable
+public class ClassMetricValue {
 
     /**
-     * total number of incoming package imports
+     * the metric values indexed by the ordinal of their ClassMetricType, a metric set to null is stored as NaN
      */
-    @Column(name = "number_of_package_imports_incoming", nullable = false)
-    private Float numberOfPackageImportsIncoming = 0f;
+    @JsonIgnore
+    @Convert(converter = FloatArrayConverter.class)
+    @Column(name = "class_metric_values", nullable = false)
+    private float[] vector = new float[ClassMetricType.values().length];
 
     /**
-     * total number of outgoing package imports
+     * get the value of the given class metric type
+     *
+     * @param classMetricType the class metric to read
+     * @return the value of the metric
      */
-    @Column(name = "number_of_package_imports_outgoing", nullable = false)
-    private Float numberOfPackageImportsOutgoing = 0f;
+    public Float getValue(ClassMetricType classMetricType) {
+        return vector[classMetricType.ordinal()];
+    }
 
     /**
-     * total number of incoming attribute invocations
+     * set the value of the given class metric type
+     *
+     * @param classMetricType the class metric to write
+     * @param value the value of the metric
      */
-    @Column(name = "number_of_attribute_invocation_incoming", nullable = false)
-    private Float numberOfAttributeInvocationsIncoming = 0f;
+    public void setValue(ClassMetricType classMetricType, float value) {
+        vector[classMetricType.ordinal()] = value;
+    }
 
     /**
-     * total number of outgoing attribute invocations
+     * @return the backing vector of all metric values, indexed by metric type ordinal
      */
-    @Column(name = "number_of_attribute_invocation_outgoing", nullable = false)
-    private Float numberOfAttributeInvocationsOutgoing = 0f;
+    @JsonIgnore
+    public float[] getVector() {
+        return vector;
+    }
 
+    /**
+     * @return total number of incoming package imports
+     */
+    public Float getNumberOfPackageImportsIncoming() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_PACKAGE_IMPORTS_INCOMING.ordinal()];
+    }
+
+    /**
+     * @param numberOfPackageImportsIncoming total number of incoming package imports
+     */
+    public void setNumberOfPackageImportsIncoming(Float numberOfPackageImportsIncoming) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_PACKAGE_IMPORTS_INCOMING.ordinal()] = missingAsNaN(numberOfPackageImportsIncoming);
+    }
+
+    /**
+     * @return total number of outgoing package imports
+     */
+    public Float getNumberOfPackageImportsOutgoing() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_PACKAGE_IMPORTS_OUTGOING.ordinal()];
+    }
+
+    /**
+     * @param numberOfPackageImportsOutgoing total number of outgoing package imports
+     */
+    public void setNumberOfPackageImportsOutgoing(Float numberOfPackageImportsOutgoing) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_PACKAGE_IMPORTS_OUTGOING.ordinal()] = missingAsNaN(numberOfPackageImportsOutgoing);
+    }
+
+    /**
+     * @return total number of incoming attribute invocations
+     */
+    public Float getNumberOfAttributeInvocationsIncoming() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS_INCOMING.ordinal()];
+    }
+
+    /**
+     * @param numberOfAttributeInvocationsIncoming total number of incoming attribute invocations
+     */
+    public void setNumberOfAttributeInvocationsIncoming(Float numberOfAttributeInvocationsIncoming) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfAttributeInvocationsIncoming);
+    }
+
+    /**
+     * @return total number of outgoing attribute invocations
+     */
+    public Float getNumberOfAttributeInvocationsOutgoing() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS_OUTGOING.ordinal()];
+    }
 
     /**
-     * total number of incoming method invocations
+     * @param numberOfAttributeInvocationsOutgoing total number of outgoing attribute invocations
      */
-    @Column(name = "number_of_method_invocation_incoming", nullable = false)
-    private Float numberOfMethodInvocationsIncoming = 0f;
+    public void setNumberOfAttributeInvocationsOutgoing(Float numberOfAttributeInvocationsOutgoing) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfAttributeInvocationsOutgoing);
+    }
 
     /**
-     * total number of outgoing method invocations
+     * @return total number of incoming method invocations
      */
-    @Column(name = "number_of_method_invocation_outgoing", nullable = false)
-    private Float numberOfMethodInvocationsOutgoing = 0f;
+    public Float getNumberOfMethodInvocationsIncoming() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING.ordinal()];
+    }
 
+    /**
+     * @param numberOfMethodInvocationsIncoming total number of incoming method invocations
+     */
+    public void setNumberOfMethodInvocationsIncoming(Float numberOfMethodInvocationsIncoming) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfMethodInvocationsIncoming);
+    }
 
     /**
-     * total number of incoming constructor imports
+     * @return total number of outgoing method invocations
      */
-    @Column(name = "number_of_constructor_invocation_incoming", nullable = false)
-    private Float numberOfConstructorInvocationsIncoming = 0f;
+    public Float getNumberOfMethodInvocationsOutgoing() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING.ordinal()];
+    }
 
     /**
-     * total number of outgoing constructor invocations
+     * @param numberOfMethodInvocationsOutgoing total number of outgoing method invocations
      */
-    @Column(name = "number_of_constructor_invocation_outgoing", nullable = false)
-    private Float numberOfConstructorInvocationsOutgoing = 0f;
+    public void setNumberOfMethodInvocationsOutgoing(Float numberOfMethodInvocationsOutgoing) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfMethodInvocationsOutgoing);
+    }
 
+    /**
+     * @return total number of incoming constructor invocations
+     */
+    public Float getNumberOfConstructorInvocationsIncoming() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS_INCOMING.ordinal()];
+    }
 
     /**
-     * sum of numbers of incoming and outgoing package imports
+     * @param numberOfConstructorInvocationsIncoming total number of incoming constructor invocations
      */
-    @Column(name = "bidirectional_number_of_package_imports", nullable = false)
-    private Float bidirectionalNumberOfPackageImports = 0f;
+    public void setNumberOfConstructorInvocationsIncoming(Float numberOfConstructorInvocationsIncoming) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfConstructorInvocationsIncoming);
+    }
 
     /**
-     * sum of numbers of incoming and outgoing attribute invocations
+     * @return total number of outgoing constructor invocations
      */
-    @Column(name = "bidirectional_number_of_attribute_invocations", nullable = false)
-    private Float bidirectionalNumberOfAttributeInvocations = 0f;
+    public Float getNumberOfConstructorInvocationsOutgoing() {
+        return vector[ClassMetricType.NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS_OUTGOING.ordinal()];
+    }
 
     /**
-     * sum of numbers of incoming and outgoing method invocations
+     * @param numberOfConstructorInvocationsOutgoing total number of outgoing constructor invocations
      */
-    @Column(name = "bidirectional_number_of_method_invocations", nullable = false)
-    private Float bidirectionalNumberOfMethodInvocations = 0f;
+    public void setNumberOfConstructorInvocationsOutgoing(Float numberOfConstructorInvocationsOutgoing) {
+        vector[ClassMetricType.NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfConstructorInvocationsOutgoing);
+    }
 
     /**
-     * sum of numbers of incoming and outgoing constructor invocations
+     * @return sum of numbers of incoming and outgoing package imports
      */
-    @Column(name = "bidirectional_number_of_constructor_invocations", nullable = false)
-    private Float bidirectionalNumberOfConstructorInvocations = 0f;
+    public Float getBidirectionalNumberOfPackageImports() {
+        return vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_PACKAGE_IMPORTS.ordinal()];
+    }
 
+    /**
+     * @param bidirectionalNumberOfPackageImports sum of numbers of incoming and outgoing package imports
+     */
+    public void setBidirectionalNumberOfPackageImports(Float bidirectionalNumberOfPackageImports) {
+        vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_PACKAGE_IMPORTS.ordinal()] = missingAsNaN(bidirectionalNumberOfPackageImports);
+    }
+
+    /**
+     * @return sum of numbers of incoming and outgoing attribute invocations
+     */
+    public Float getBidirectionalNumberOfAttributeInvocations() {
+        return vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfAttributeInvocations sum of numbers of incoming and outgoing attribute invocations
+     */
+    public void setBidirectionalNumberOfAttributeInvocations(Float bidirectionalNumberOfAttributeInvocations) {
+        vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfAttributeInvocations);
+    }
+
+    /**
+     * @return sum of numbers of incoming and outgoing method invocations
+     */
+    public Float getBidirectionalNumberOfMethodInvocations() {
+        return vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_METHOD_INVOCATIONS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfMethodInvocations sum of numbers of incoming and outgoing method invocations
+     */
+    public void setBidirectionalNumberOfMethodInvocations(Float bidirectionalNumberOfMethodInvocations) {
+        vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_METHOD_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfMethodInvocations);
+    }
+
+    /**
+     * @return sum of numbers of incoming and outgoing constructor invocations
+     */
+    public Float getBidirectionalNumberOfConstructorInvocations() {
+        return vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfConstructorInvocations sum of numbers of incoming and outgoing constructor invocations
+     */
+    public void setBidirectionalNumberOfConstructorInvocations(Float bidirectionalNumberOfConstructorInvocations) {
+        vector[ClassMetricType.BIDIRECTIONAL_NUMBER_OF_CLASS_CONSTRUCTOR_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfConstructorInvocations);
+    }
+
+    /**
+     * @param value a boxed metric value, possibly null
+     * @return the value to store in the vector, NaN for a null value
+     */
+    private static float missingAsNaN(Float value) {
+        return value == null ? Float.NaN : value;
+    }
 }
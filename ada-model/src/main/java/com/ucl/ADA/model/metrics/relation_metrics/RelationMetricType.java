@@ -21,5 +21,28 @@ public enum RelationMetricType {
 
     BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS,
 
-    GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL
+    GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL;
+
+    /**
+     * check whether the metric has the same value when seen from either class of the relation
+     *
+     * @return true for the bidirectional and cumulative metrics, false for the incoming and outgoing ones
+     */
+    public boolean isSymmetric() {
+        return this == GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL || this.name().startsWith("BIDIRECTIONAL_");
+    }
+
+    /**
+     * get the metric with the same meaning when the relation is seen from the other class
+     *
+     * @return the outgoing metric for an incoming one and vice versa, the metric itself for symmetric metrics
+     */
+    public RelationMetricType mirror() {
+        if (this.name().endsWith("_INCOMING")) {
+            return valueOf(this.name().replace("_INCOMING", "_OUTGOING"));
+        } else if (this.name().endsWith("_OUTGOING")) {
+            return valueOf(this.name().replace("_OUTGOING", "_INCOMING"));
+        }
+        return this;
+    }
 }
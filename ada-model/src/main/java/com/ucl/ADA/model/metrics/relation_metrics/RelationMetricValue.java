@@ -1,101 +1,257 @@
 package com.ucl.ADA.model.metrics.relation_metrics;
 
-import com.ucl.ADA.model.BaseEntity;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Table;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
 
-@Getter
-@Setter
+/**
+ * The relation metrics between a class and one of its related classes, kept as one primitive vector and stored as a
+ * single packed column of the relation.
+ */
 @NoArgsConstructor
-@AllArgsConstructor
-@Entity
-@Table(name = "RELATION_METRIC_VALUE")
-public class RelationMetricValue extends BaseEntity {
+@Embeddable
+public class RelationMetricValue {
 
     /**
-     * total number of incoming package imports from the other class
+     * the metric values indexed by the ordinal of their RelationMetricType, a metric set to null is stored as NaN
      */
-    @Column(name = "number_of_package_imports_incoming", nullable = false)
-    private Float numberOfPackageImportsIncoming = 0f;
+    @JsonIgnore
+    @Convert(converter = FloatArrayConverter.class)
+    @Column(name = "relation_metric_values", nullable = false)
+    private float[] vector = new float[RelationMetricType.values().length];
 
     /**
-     * total number of outgoing package imports to the other class
+     * get the value of the given relation metric type
+     *
+     * @param relationMetricType the relation metric to read
+     * @return the value of the metric
      */
-    @Column(name = "number_of_package_imports_outgoing", nullable = false)
-    private Float numberOfPackageImportsOutgoing = 0f;
+    public Float getValue(RelationMetricType relationMetricType) {
+        return vector[relationMetricType.ordinal()];
+    }
 
     /**
-     * total number of incoming attribute invocations from the other class
+     * set the value of the given relation metric type
+     *
+     * @param relationMetricType the relation metric to write
+     * @param value the value of the metric
      */
-    @Column(name = "number_of_attribute_invocation_incoming", nullable = false)
-    private Float numberOfAttributeInvocationsIncoming = 0f;
+    public void setValue(RelationMetricType relationMetricType, float value) {
+        vector[relationMetricType.ordinal()] = value;
+    }
 
     /**
-     * total number of outgoing attribute invocations to the other class
+     * get the values of the same relation seen from the other class, where incoming and outgoing are swapped
+     *
+     * @return a new RelationMetricValue with the mirrored values
      */
-    @Column(name = "number_of_attribute_invocation_outgoing", nullable = false)
-    private Float numberOfAttributeInvocationsOutgoing = 0f;
+    public RelationMetricValue mirror() {
+        RelationMetricValue mirrored = new RelationMetricValue();
+        for (RelationMetricType relationMetricType : RelationMetricType.values()) {
+            mirrored.vector[relationMetricType.ordinal()] = vector[relationMetricType.mirror().ordinal()];
+        }
+        return mirrored;
+    }
 
+    /**
+     * @return the backing vector of all metric values, indexed by metric type ordinal
+     */
+    @JsonIgnore
+    public float[] getVector() {
+        return vector;
+    }
+
+    /**
+     * @return total number of incoming package imports from the other class
+     */
+    public Float getNumberOfPackageImportsIncoming() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING.ordinal()];
+    }
+
+    /**
+     * @param numberOfPackageImportsIncoming total number of incoming package imports from the other class
+     */
+    public void setNumberOfPackageImportsIncoming(Float numberOfPackageImportsIncoming) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING.ordinal()] = missingAsNaN(numberOfPackageImportsIncoming);
+    }
+
+    /**
+     * @return total number of outgoing package imports to the other class
+     */
+    public Float getNumberOfPackageImportsOutgoing() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING.ordinal()];
+    }
+
+    /**
+     * @param numberOfPackageImportsOutgoing total number of outgoing package imports to the other class
+     */
+    public void setNumberOfPackageImportsOutgoing(Float numberOfPackageImportsOutgoing) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING.ordinal()] = missingAsNaN(numberOfPackageImportsOutgoing);
+    }
+
+    /**
+     * @return total number of incoming attribute invocations from the other class
+     */
+    public Float getNumberOfAttributeInvocationsIncoming() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING.ordinal()];
+    }
+
+    /**
+     * @param numberOfAttributeInvocationsIncoming total number of incoming attribute invocations from the other class
+     */
+    public void setNumberOfAttributeInvocationsIncoming(Float numberOfAttributeInvocationsIncoming) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfAttributeInvocationsIncoming);
+    }
+
+    /**
+     * @return total number of outgoing attribute invocations to the other class
+     */
+    public Float getNumberOfAttributeInvocationsOutgoing() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING.ordinal()];
+    }
+
+    /**
+     * @param numberOfAttributeInvocationsOutgoing total number of outgoing attribute invocations to the other class
+     */
+    public void setNumberOfAttributeInvocationsOutgoing(Float numberOfAttributeInvocationsOutgoing) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfAttributeInvocationsOutgoing);
+    }
+
+    /**
+     * @return total number of incoming method invocations from the other class
+     */
+    public Float getNumberOfMethodInvocationsIncoming() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING.ordinal()];
+    }
+
+    /**
+     * @param numberOfMethodInvocationsIncoming total number of incoming method invocations from the other class
+     */
+    public void setNumberOfMethodInvocationsIncoming(Float numberOfMethodInvocationsIncoming) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfMethodInvocationsIncoming);
+    }
+
+    /**
+     * @return total number of outgoing method invocations to the other class
+     */
+    public Float getNumberOfMethodInvocationsOutgoing() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING.ordinal()];
+    }
 
     /**
-     * total number of incoming method invocations from the other class
+     * @param numberOfMethodInvocationsOutgoing total number of outgoing method invocations to the other class
      */
-    @Column(name = "number_of_method_invocation_incoming", nullable = false)
-    private Float numberOfMethodInvocationsIncoming = 0f;
+    public void setNumberOfMethodInvocationsOutgoing(Float numberOfMethodInvocationsOutgoing) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfMethodInvocationsOutgoing);
+    }
 
     /**
-     * total number of outgoing method invocations to the other class
+     * @return total number of incoming constructor invocations from the other class
      */
-    @Column(name = "number_of_method_invocation_outgoing", nullable = false)
-    private Float numberOfMethodInvocationsOutgoing = 0f;
+    public Float getNumberOfConstructorInvocationsIncoming() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING.ordinal()];
+    }
 
+    /**
+     * @param numberOfConstructorInvocationsIncoming total number of incoming constructor invocations from the other class
+     */
+    public void setNumberOfConstructorInvocationsIncoming(Float numberOfConstructorInvocationsIncoming) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING.ordinal()] = missingAsNaN(numberOfConstructorInvocationsIncoming);
+    }
 
     /**
-     * total number of incoming constructor imports from the other class
+     * @return total number of outgoing constructor invocations to the other class
      */
-    @Column(name = "number_of_constructor_invocation_incoming", nullable = false)
-    private Float numberOfConstructorInvocationsIncoming = 0f;
+    public Float getNumberOfConstructorInvocationsOutgoing() {
+        return vector[RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING.ordinal()];
+    }
 
     /**
-     * total number of outgoing constructor invocations to the other class
+     * @param numberOfConstructorInvocationsOutgoing total number of outgoing constructor invocations to the other class
      */
-    @Column(name = "number_of_constructor_invocation_outgoing", nullable = false)
-    private Float numberOfConstructorInvocationsOutgoing = 0f;
+    public void setNumberOfConstructorInvocationsOutgoing(Float numberOfConstructorInvocationsOutgoing) {
+        vector[RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING.ordinal()] = missingAsNaN(numberOfConstructorInvocationsOutgoing);
+    }
 
+    /**
+     * @return sum of numbers of incoming and outgoing package imports between the two classes
+     */
+    public Float getBidirectionalNumberOfPackageImports() {
+        return vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfPackageImports sum of numbers of incoming and outgoing package imports between the two classes
+     */
+    public void setBidirectionalNumberOfPackageImports(Float bidirectionalNumberOfPackageImports) {
+        vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS.ordinal()] = missingAsNaN(bidirectionalNumberOfPackageImports);
+    }
+
+    /**
+     * @return sum of numbers of incoming and outgoing attribute invocations between the two classes
+     */
+    public Float getBidirectionalNumberOfAttributeInvocations() {
+        return vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfAttributeInvocations sum of numbers of incoming and outgoing attribute invocations between the two classes
+     */
+    public void setBidirectionalNumberOfAttributeInvocations(Float bidirectionalNumberOfAttributeInvocations) {
+        vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfAttributeInvocations);
+    }
+
+    /**
+     * @return sum of numbers of incoming and outgoing method invocations between the two classes
+     */
+    public Float getBidirectionalNumberOfMethodInvocations() {
+        return vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS.ordinal()];
+    }
+
+    /**
+     * @param bidirectionalNumberOfMethodInvocations sum of numbers of incoming and outgoing method invocations between the two classes
+     */
+    public void setBidirectionalNumberOfMethodInvocations(Float bidirectionalNumberOfMethodInvocations) {
+        vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfMethodInvocations);
+    }
 
     /**
-     * sum of numbers of incoming and outgoing package imports between the two classes
+     * @return sum of numbers of incoming and outgoing constructor invocations between the two classes
      */
-    @Column(name = "bidirectional_number_of_package_imports", nullable = false)
-    private Float bidirectionalNumberOfPackageImports = 0f;
+    public Float getBidirectionalNumberOfConstructorInvocations() {
+        return vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS.ordinal()];
+    }
 
     /**
-     * sum of numbers of incoming and outgoing attribute invocations between the two classes
+     * @param bidirectionalNumberOfConstructorInvocations sum of numbers of incoming and outgoing constructor invocations between the two classes
      */
-    @Column(name = "bidirectional_number_of_attribute_invocations", nullable = false)
-    private Float bidirectionalNumberOfAttributeInvocations = 0f;
+    public void setBidirectionalNumberOfConstructorInvocations(Float bidirectionalNumberOfConstructorInvocations) {
+        vector[RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS.ordinal()] = missingAsNaN(bidirectionalNumberOfConstructorInvocations);
+    }
 
     /**
-     * sum of numbers of incoming and outgoing method invocations between the two classes
+     * @return weighted and normalised sum of all invocations between the two classes
      */
-    @Column(name = "bidirectional_number_of_method_invocations", nullable = false)
-    private Float bidirectionalNumberOfMethodInvocations = 0f;
+    public Float getGeneralCumulativeNormalisedBidirectional() {
+        return vector[RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL.ordinal()];
+    }
 
     /**
-     * sum of numbers of incoming and outgoing constructor invocations between the two classes
+     * @param generalCumulativeNormalisedBidirectional weighted and normalised sum of all invocations between the two classes
      */
-    @Column(name = "bidirectional_number_of_constructor_invocations", nullable = false)
-    private Float bidirectionalNumberOfConstructorInvocations = 0f;
+    public void setGeneralCumulativeNormalisedBidirectional(Float generalCumulativeNormalisedBidirectional) {
+        vector[RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL.ordinal()] = missingAsNaN(generalCumulativeNormalisedBidirectional);
+    }
 
     /**
-     * sum of numbers of incoming and outgoing constructor invocations between the two classes
+     * @param value a boxed metric value, possibly null
+     * @return the value to store in the vector, NaN for a null value
      */
-    @Column(name = "general_cumulative_normalised_bidirectional", nullable = false)
-    private Float generalCumulativeNormalisedBidirectional = 0f;
+    private static float missingAsNaN(Float value) {
+        return value == null ? Float.NaN : value;
+    }
 }
@@ -0,0 +1,7 @@
+package com.ucl.ADA.model.owner;
+
+/**
+ * Published when one or all owners have been deleted, together with their repositories, branches and snapshots.
+ */
+public class OwnerDeletedEvent {
+}
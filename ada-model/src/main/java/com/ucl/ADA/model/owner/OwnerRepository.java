@@ -2,7 +2,10 @@ package com.ucl.ADA.model.owner;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -29,4 +32,15 @@ public interface OwnerRepository extends CrudRepository<Owner, Long> {
      * @return Sorted list of owners by ID ASC.
      */
     List<Owner> findAllByOrderByIdAsc();
+
+    /**
+     * Insert an owner unless one with the username exists, in its own transaction so the id is committed when it is
+     * returned. Concurrent calls with the same username wait for each other and return the same id.
+     * @param username Git username of the owner
+     * @return id of the new or existing owner
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO owner (id, user_name) VALUES (nextval('ada_id_sequence'), :username) " +
+            "ON CONFLICT (user_name) DO UPDATE SET user_name = EXCLUDED.user_name RETURNING id", nativeQuery = true)
+    Long upsertOwner(@Param("username") String username);
 }
@@ -1,6 +1,7 @@
 package com.ucl.ADA.model.owner;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,6 +12,9 @@ public class OwnerService {
     @Autowired
     private OwnerRepository ownerRepository;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * List all owners as Owner  entities, including their Repositories, Branches, Snapshots and SourceFiles.
      * @return a list of Owners
@@ -50,6 +54,7 @@ public class OwnerService {
      */
     public void deleteAllOwners(){
         ownerRepository.deleteAll();
+        applicationEventPublisher.publishEvent(new OwnerDeletedEvent());
     }
 
     /**
@@ -58,6 +63,7 @@ public class OwnerService {
      */
     public void deleteOwner(Long id){
         ownerRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new OwnerDeletedEvent());
     }
 
     /**
@@ -0,0 +1,89 @@
+package com.ucl.ADA.model.project_structure;
+
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Streams the rows of one table to PostgreSQL with COPY FROM STDIN in text format.
+ */
+class CopyRowWriter implements AutoCloseable {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+
+    /**
+     * Start a COPY of the given columns of a table
+     *
+     * @param copyManager the COPY API of the connection
+     * @param table       name of the table
+     * @param columns     names of the columns, in the order of the row values
+     */
+    CopyRowWriter(CopyManager copyManager, String table, String... columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN";
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(copyManager.copyIn(sql), 1 << 16), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Write one row, values can be null, numbers, strings or byte arrays
+     *
+     * @param values the values of the row
+     */
+    void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write('\t');
+            Object value = values[i];
+            if (value == null) {
+                writer.write("\\N");
+            } else if (value instanceof byte[]) {
+                // bytea in hex format, the backslash itself has to be escaped in COPY text format
+                writer.write("\\\\x");
+                for (byte b : (byte[]) value) {
+                    writer.write(HEX[(b >> 4) & 0xF]);
+                    writer.write(HEX[b & 0xF]);
+                }
+            } else {
+                writeEscaped(value.toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Finish the COPY, the rows are committed with the surrounding transaction
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
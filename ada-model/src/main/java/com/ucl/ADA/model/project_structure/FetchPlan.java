@@ -0,0 +1,11 @@
+package com.ucl.ADA.model.project_structure;
+
+/**
+ * How much of a stored ProjectStructure is loaded for a use case. The associations of the model are lazy, each plan
+ * loads only what its callers read, and collections of the same kind are loaded with one subselect query.
+ */
+public enum FetchPlan {
+    NAMES, // the qualified class names only, read with a projection query
+    METRICS, // class structures with their packages, class metrics and relation metrics, no declarations or invocations
+    FULL // the whole structure, with every declaration, invocation and parameter
+}
@@ -7,7 +7,9 @@ import lombok.Setter;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -51,6 +53,12 @@ public class GitRepoInfo {
     @JsonIgnore
     private List<String> fileNames = new ArrayList<>();
 
+    /**
+     * git blob ids of the source files as recorded in the checked out tree, by file name
+     */
+    @JsonIgnore
+    private Map<String, String> fileHashes = new HashMap<>();
+
     /**
      * directory path where downloaded project is stored
      */
@@ -0,0 +1,317 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.ConstructorDeclaration;
+import com.ucl.ADA.model.dependence_information.declaration_information.MethodDeclaration;
+import com.ucl.ADA.model.dependence_information.declaration_information.PackageDeclaration;
+import com.ucl.ADA.model.dependence_information.declaration_information.ParameterDeclaration;
+import com.ucl.ADA.model.dependence_information.invocation_information.ConstructorInvocation;
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.dependence_information.invocation_information.PackageInvocation;
+import com.ucl.ADA.model.dependence_information.invocation_information.PassedParameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Interns the value-like entities of project structures: package declarations, parameter declarations, passed
+ * parameters and package invocations are stored once per content and shared by every class, declaration and
+ * invocation referring to them. Before a project structure is written, the ids of its values are set from an in-memory
+ * cache, and the values missing from the cache are looked up and inserted in one round trip per table. The inserts
+ * run on the connection of the surrounding transaction; if it rolls back the cache is cleared, so a cached id never
+ * refers to a row of a rolled back write.
+ */
+@Component
+public class InternedValueStore {
+
+    /**
+     * number of ids cached per table
+     */
+    static final int CACHE_SIZE = 100_000;
+
+    private static final InternedTable PACKAGE_DECLARATION = new InternedTable("package_declaration", "name");
+    private static final InternedTable PACKAGE_INVOCATION = new InternedTable("package_invocation", "name");
+    private static final InternedTable PASSED_PARAMETER = new InternedTable("passed_parameter", "name");
+    private static final InternedTable PARAMETER_DECLARATION = new InternedTable("parameter_declaration", "type", "name");
+
+    private final Map<InternedTable, Cache<List<String>, Long>> caches = new HashMap<>();
+
+    @Autowired
+    private DataSource dataSource;
+
+    public InternedValueStore() {
+        for (InternedTable table : Arrays.asList(PACKAGE_DECLARATION, PACKAGE_INVOCATION, PASSED_PARAMETER, PARAMETER_DECLARATION)) {
+            caches.put(table, Caffeine.newBuilder().maximumSize(CACHE_SIZE).build());
+        }
+    }
+
+    /**
+     * Set the ids of the interned values of a project structure, inserting the values which are not stored yet
+     *
+     * @param projectStructure the project structure about to be written
+     * @param skippedClassNames classes which are not written, their values are left alone
+     */
+    public void intern(ProjectStructure projectStructure, Set<String> skippedClassNames) {
+        Map<List<String>, List<PackageDeclaration>> packageDeclarations = new HashMap<>();
+        Map<List<String>, List<PackageInvocation>> packageInvocations = new HashMap<>();
+        Map<List<String>, List<PassedParameter>> passedParameters = new HashMap<>();
+        Map<List<String>, List<ParameterDeclaration>> parameterDeclarations = new HashMap<>();
+
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            if (skippedClassNames.contains(entry.getKey())) continue;
+            ClassStructure classStructure = entry.getValue();
+
+            collect(packageDeclarations, Collections.singletonList(classStructure.getCurrentPackage()), p -> key(p.getName()));
+            for (ConstructorDeclaration declaration : classStructure.getConstructorDeclarations()) {
+                collect(parameterDeclarations, declaration.getParameters(), p -> key(p.getType(), p.getName()));
+            }
+            for (MethodDeclaration declaration : classStructure.getMethodsDeclarations()) {
+                collect(parameterDeclarations, declaration.getParameters(), p -> key(p.getType(), p.getName()));
+            }
+            collect(packageInvocations, classStructure.getExternalPackageImports(), p -> key(p.getName()));
+            for (DependenceInfo dependenceInfo : classStructure.getOutgoingDependenceInfo().values()) {
+                collect(packageInvocations, dependenceInfo.getPackages(), p -> key(p.getName()));
+                collectConstructorInvocations(passedParameters, dependenceInfo.getConstructors());
+                collectMethodInvocations(passedParameters, dependenceInfo.getMethods());
+            }
+            collectMethodInvocations(passedParameters, classStructure.getGlobalMethods());
+            collectMethodInvocations(passedParameters, classStructure.getExternalMethodInvocations());
+            collectConstructorInvocations(passedParameters, classStructure.getExternalConstructorInvocations());
+        }
+
+        assignIds(PACKAGE_DECLARATION, packageDeclarations);
+        assignIds(PACKAGE_INVOCATION, packageInvocations);
+        assignIds(PASSED_PARAMETER, passedParameters);
+        assignIds(PARAMETER_DECLARATION, parameterDeclarations);
+    }
+
+    /**
+     * Forget all cached ids, to be called when interned rows are deleted or their insert is rolled back
+     */
+    public void clearCache() {
+        caches.values().forEach(Cache::invalidateAll);
+    }
+
+    private static void collectConstructorInvocations(Map<List<String>, List<PassedParameter>> passedParameters, List<ConstructorInvocation> invocations) {
+        for (ConstructorInvocation invocation : invocations) {
+            collect(passedParameters, invocation.getPassedParameters(), p -> key(p.getName()));
+        }
+    }
+
+    private static void collectMethodInvocations(Map<List<String>, List<PassedParameter>> passedParameters, List<MethodInvocation> invocations) {
+        for (MethodInvocation invocation : invocations) {
+            collect(passedParameters, invocation.getPassedParameters(), p -> key(p.getName()));
+        }
+    }
+
+    /**
+     * Group the values which have no id yet by their content; values with a null in their content are never equal to
+     * a stored value and are grouped by identity under a key of their own
+     */
+    private static <T extends BaseEntity> void collect(Map<List<String>, List<T>> values, List<T> candidates, Function<T, List<String>> key) {
+        for (T candidate : candidates) {
+            if (candidate == null || candidate.getId() != null) continue;
+            List<String> content = key.apply(candidate);
+            if (content.contains(null)) {
+                values.put(new UnmatchedKey(content), new ArrayList<>(Collections.singletonList(candidate)));
+            } else {
+                values.computeIfAbsent(content, k -> new ArrayList<>()).add(candidate);
+            }
+        }
+    }
+
+    private static List<String> key(String... columns) {
+        return Arrays.asList(columns);
+    }
+
+    private <T extends BaseEntity> void assignIds(InternedTable table, Map<List<String>, List<T>> values) {
+        if (values.isEmpty()) return;
+        Cache<List<String>, Long> cache = caches.get(table);
+
+        Map<List<String>, Long> ids = new HashMap<>(cache.getAllPresent(values.keySet()));
+        List<List<String>> missing = new ArrayList<>();
+        for (List<String> content : values.keySet()) {
+            if (!ids.containsKey(content)) missing.add(content);
+        }
+        if (!missing.isEmpty()) {
+            Map<List<String>, Long> resolved = getOrInsert(table, missing);
+            resolved.forEach((content, id) -> {
+                if (!(content instanceof UnmatchedKey)) cache.put(content, id);
+            });
+            ids.putAll(resolved);
+        }
+
+        for (Map.Entry<List<String>, List<T>> entry : values.entrySet()) {
+            Long id = ids.get(entry.getKey());
+            for (T value : entry.getValue()) {
+                value.setId(id);
+            }
+        }
+    }
+
+    /**
+     * Look up the ids of stored values and insert the others, in the surrounding transaction if there is one
+     *
+     * @param table    the table of the values
+     * @param contents the column values of the values, in the column order of the table
+     * @return the ids of all given values
+     */
+    private Map<List<String>, Long> getOrInsert(InternedTable table, List<List<String>> contents) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Map<List<String>, Long> ids = select(connection, table, contents);
+            List<List<String>> missing = new ArrayList<>();
+            for (List<String> content : contents) {
+                if (!ids.containsKey(content)) missing.add(content);
+            }
+            if (missing.isEmpty()) return ids;
+
+            PrimitiveIterator.OfLong reservedIds = ProjectStructureCopyWriter.reserveIds(connection, missing.size());
+            Long[] newIds = new Long[missing.size()];
+            for (int i = 0; i < newIds.length; i++) {
+                newIds[i] = reservedIds.nextLong();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(table.insert)) {
+                statement.setArray(1, connection.createArrayOf("bigint", newIds));
+                setColumnArrays(connection, statement, 2, table, missing);
+                statement.executeUpdate();
+            }
+            clearCacheOnRollback();
+
+            // values inserted concurrently by another writer are read back, values with a null are never matched
+            ids.putAll(select(connection, table, missing));
+            for (int i = 0; i < newIds.length; i++) {
+                if (missing.get(i) instanceof UnmatchedKey) ids.put(missing.get(i), newIds[i]);
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not intern the values of " + table.name, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Clear the cache once the surrounding transaction is rolled back, as the ids inserted in it are cached already
+     */
+    private void clearCacheOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_ROLLED_BACK) clearCache();
+            }
+        });
+    }
+
+    private static Map<List<String>, Long> select(Connection connection, InternedTable table, List<List<String>> contents) throws SQLException {
+        Map<List<String>, Long> ids = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(table.select)) {
+            setColumnArrays(connection, statement, 1, table, contents);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String[] content = new String[table.columns.length];
+                    for (int column = 0; column < content.length; column++) {
+                        content[column] = resultSet.getString(column + 1);
+                    }
+                    ids.put(key(content), resultSet.getLong(content.length + 1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void setColumnArrays(Connection connection, PreparedStatement statement, int firstIndex,
+                                        InternedTable table, List<List<String>> contents) throws SQLException {
+        for (int column = 0; column < table.columns.length; column++) {
+            String[] values = new String[contents.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = contents.get(i).get(column);
+            }
+            Array array = connection.createArrayOf("varchar", values);
+            statement.setArray(firstIndex + column, array);
+        }
+    }
+
+    /**
+     * The content of a value with a null column, only equal to itself
+     */
+    private static final class UnmatchedKey extends AbstractList<String> {
+
+        private final List<String> content;
+
+        UnmatchedKey(List<String> content) {
+            this.content = content;
+        }
+
+        @Override
+        public String get(int index) {
+            return content.get(index);
+        }
+
+        @Override
+        public int size() {
+            return content.size();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * A table of interned values, unique on the md5 digests of its columns so that long values can be indexed
+     */
+    private static final class InternedTable {
+
+        final String name;
+        final String[] columns;
+        final String insert;
+        final String select;
+
+        InternedTable(String name, String... columns) {
+            this.name = name;
+            this.columns = columns;
+
+            StringJoiner columnList = new StringJoiner(", ");
+            StringJoiner unnest = new StringJoiner(", ");
+            StringJoiner digests = new StringJoiner(", ");
+            StringJoiner selected = new StringJoiner(", ");
+            StringJoiner matches = new StringJoiner(" AND ");
+            for (String column : columns) {
+                columnList.add(column);
+                unnest.add("?::varchar[]");
+                digests.add("md5(" + column + ")");
+                selected.add("t." + column);
+                matches.add("md5(t." + column + ") = md5(v." + column + ") AND t." + column + " = v." + column);
+            }
+            this.insert = "INSERT INTO " + name + " (id, " + columnList + ") " +
+                    "SELECT * FROM unnest(?::bigint[], " + unnest + ") " +
+                    "ON CONFLICT (" + digests + ") DO NOTHING";
+            this.select = "SELECT " + selected + ", t.id FROM " + name + " t " +
+                    "JOIN unnest(" + unnest + ") AS v(" + columnList + ") ON " + matches;
+        }
+    }
+}
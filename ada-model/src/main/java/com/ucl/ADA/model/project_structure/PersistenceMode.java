@@ -0,0 +1,10 @@
+package com.ucl.ADA.model.project_structure;
+
+/**
+ * How a ProjectStructure is written to the database, selected with the ada.persistence.mode property.
+ */
+public enum PersistenceMode {
+    JPA, // cascade persist through Hibernate, with batched inserts
+    COPY, // stream the flattened structure with PostgreSQL COPY, see ProjectStructureCopyWriter
+    DOCUMENT // one compressed document per snapshot, see SnapshotDocument
+}
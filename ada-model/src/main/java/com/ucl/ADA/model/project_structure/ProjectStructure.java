@@ -3,31 +3,47 @@ package com.ucl.ADA.model.project_structure;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.ucl.ADA.model.BaseEntity;
 import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
 import com.ucl.ADA.model.dependence_information.declaration_information.AttributeDeclaration;
 import com.ucl.ADA.model.dependence_information.declaration_information.ConstructorDeclaration;
 import com.ucl.ADA.model.dependence_information.declaration_information.MethodDeclaration;
 import com.ucl.ADA.model.dependence_information.declaration_information.PackageDeclaration;
 import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
 import com.ucl.ADA.model.snapshot.Snapshot;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import javax.persistence.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Table(name = "PROJECT_STRUCTURE")
+@NamedEntityGraph(name = ProjectStructure.CLASS_STRUCTURES_GRAPH, attributeNodes = @NamedAttributeNode("classStructures"))
 public class ProjectStructure extends BaseEntity {
 
     /**
-     * a map of ClassStructures, the key is qualified class name
+     * entity graph loading the class structures, with their packages and class metrics, in the same query
      */
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    public static final String CLASS_STRUCTURES_GRAPH = "ProjectStructure.classStructures";
+
+    /**
+     * a map of ClassStructures, the key is qualified class name. Unchanged classes share their record with the
+     * project structures of earlier snapshots.
+     */
+    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JoinTable(name = "PROJECT_STRUCTURE_CLASS_STRUCTURE",
             joinColumns = {@JoinColumn(name = "project_structure_id")},
             inverseJoinColumns = {@JoinColumn(name = "class_structure_id")})
@@ -47,6 +63,19 @@ public class ProjectStructure extends BaseEntity {
     @Transient
     private GitRepoInfo gitRepoInfo;
 
+    /**
+     * whether the incoming dependence information and the mirrored relation metrics of the classes are in place,
+     * false from the moment the project structure is loaded until they are rebuilt
+     */
+    @JsonIgnore
+    @Transient
+    private volatile boolean linked = true;
+
+    /**
+     * number of classes from which the views which are not persisted are rebuilt in parallel
+     */
+    static final int PARALLEL_RELINK_THRESHOLD = 5000;
+
 
     /**
      * Adds package declaration for the corresponding declaring class where it is declared.
@@ -122,21 +151,7 @@ public class ProjectStructure extends BaseEntity {
      * @param packageInvocation  The package declaration object
      */
     public void addPackageInvocation(String consumingClassName, String declaringClassName, PackageInvocation packageInvocation) {
-        if (this.classStructures.containsKey(consumingClassName)) {
-            this.classStructures.get(consumingClassName).addPackageInvocationElement(declaringClassName, InvocationType.OUTGOING, packageInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(consumingClassName);
-            classStructure.addPackageInvocationElement(declaringClassName, InvocationType.OUTGOING, packageInvocation);
-            this.classStructures.put(consumingClassName, classStructure);
-        }
-
-        if (this.classStructures.containsKey(declaringClassName)) {
-            this.classStructures.get(declaringClassName).addPackageInvocationElement(consumingClassName, InvocationType.INCOMING, packageInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(declaringClassName);
-            classStructure.addPackageInvocationElement(consumingClassName, InvocationType.INCOMING, packageInvocation);
-            this.classStructures.put(declaringClassName, classStructure);
-        }
+        getDependenceInfo(consumingClassName, declaringClassName).addNewPackage(packageInvocation);
     }
 
     /**
@@ -148,21 +163,7 @@ public class ProjectStructure extends BaseEntity {
      * @param attributeInvocation The package declaration object
      */
     public void addAttributeInvocation(String consumingClassName, String declaringClassName, AttributeInvocation attributeInvocation) {
-        if (this.classStructures.containsKey(consumingClassName)) {
-            this.classStructures.get(consumingClassName).addAttributeInvocationElement(declaringClassName, InvocationType.OUTGOING, attributeInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(consumingClassName);
-            classStructure.addAttributeInvocationElement(declaringClassName, InvocationType.OUTGOING, attributeInvocation);
-            this.classStructures.put(consumingClassName, classStructure);
-        }
-
-        if (this.classStructures.containsKey(declaringClassName)) {
-            this.classStructures.get(declaringClassName).addAttributeInvocationElement(consumingClassName, InvocationType.INCOMING, attributeInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(declaringClassName);
-            classStructure.addAttributeInvocationElement(consumingClassName, InvocationType.INCOMING, attributeInvocation);
-            this.classStructures.put(declaringClassName, classStructure);
-        }
+        getDependenceInfo(consumingClassName, declaringClassName).addNewAttribute(attributeInvocation);
     }
 
     /**
@@ -174,21 +175,7 @@ public class ProjectStructure extends BaseEntity {
      * @param constructorInvocation The package declaration object
      */
     public void addConstructorInvocation(String consumingClassName, String declaringClassName, ConstructorInvocation constructorInvocation) {
-        if (this.classStructures.containsKey(consumingClassName)) {
-            this.classStructures.get(consumingClassName).addConstructorInvocationElement(declaringClassName, InvocationType.OUTGOING, constructorInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(consumingClassName);
-            classStructure.addConstructorInvocationElement(declaringClassName, InvocationType.OUTGOING, constructorInvocation);
-            this.classStructures.put(consumingClassName, classStructure);
-        }
-
-        if (this.classStructures.containsKey(declaringClassName)) {
-            this.classStructures.get(declaringClassName).addConstructorInvocationElement(consumingClassName, InvocationType.INCOMING, constructorInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(declaringClassName);
-            classStructure.addConstructorInvocationElement(consumingClassName, InvocationType.INCOMING, constructorInvocation);
-            this.classStructures.put(declaringClassName, classStructure);
-        }
+        getDependenceInfo(consumingClassName, declaringClassName).addNewConstructor(constructorInvocation);
     }
 
     /**
@@ -200,21 +187,7 @@ public class ProjectStructure extends BaseEntity {
      * @param methodInvocation   The package declaration object
      */
     public void addMethodInvocation(String consumingClassName, String declaringClassName, MethodInvocation methodInvocation) {
-        if (this.classStructures.containsKey(consumingClassName)) {
-            this.classStructures.get(consumingClassName).addMethodInvocationElement(declaringClassName, InvocationType.OUTGOING, methodInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(consumingClassName);
-            classStructure.addMethodInvocationElement(declaringClassName, InvocationType.OUTGOING, methodInvocation);
-            this.classStructures.put(consumingClassName, classStructure);
-        }
-
-        if (this.classStructures.containsKey(declaringClassName)) {
-            this.classStructures.get(declaringClassName).addMethodInvocationElement(consumingClassName, InvocationType.INCOMING, methodInvocation);
-        } else {
-            ClassStructure classStructure = getNewClassStructure(declaringClassName);
-            classStructure.addMethodInvocationElement(consumingClassName, InvocationType.INCOMING, methodInvocation);
-            this.classStructures.put(declaringClassName, classStructure);
-        }
+        getDependenceInfo(consumingClassName, declaringClassName).addNewMethod(methodInvocation);
     }
 
     /**
@@ -282,13 +255,150 @@ public class ProjectStructure extends BaseEntity {
     }
 
     /**
-     * Computes both the class and the relation metrics for the project structure
+     * Computes both the class and the relation metrics for the project structure. The relation metrics of a pair of
+     * classes are computed once, on the class with the lexicographically smaller name, which owns and persists them.
+     * The other class gets the mirrored values with incoming and outgoing swapped.
      */
     public void computeAllMetrics() {
         for (ClassStructure classStructure : classStructures.values()) {
             classStructure.computeAllClassMetrics();
-            classStructure.computeAllRelationMetrics();
+            classStructure.getRelationMetricValues().clear();
+            classStructure.getOwnedRelationMetricValues().clear();
+        }
+
+        for (Map.Entry<String, ClassStructure> entry : classStructures.entrySet()) {
+            String className = entry.getKey();
+            ClassStructure classStructure = entry.getValue();
+
+            Set<String> relatingClasses = new HashSet<>(classStructure.getOutgoingDependenceInfo().keySet());
+            relatingClasses.addAll(classStructure.getIncomingDependenceInfo().keySet());
+            for (String relatingClass : relatingClasses) {
+                ClassStructure relatingClassStructure = classStructures.get(relatingClass);
+                // the pair is computed from the side of the class owning it
+                if (relatingClassStructure != null && relatingClass.compareTo(className) < 0) continue;
+
+                RelationMetricValue relationMetricValue = classStructure.computeRelationMetricValue(relatingClass);
+                classStructure.getOwnedRelationMetricValues().put(relatingClass, relationMetricValue);
+                classStructure.getRelationMetricValues().put(relatingClass, relationMetricValue);
+                if (relatingClassStructure != null && !relatingClass.equals(className)) {
+                    relatingClassStructure.getRelationMetricValues().put(className, relationMetricValue.mirror());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the views which are not persisted, after the project structure has been loaded from the database: the
+     * incoming dependence information of every class, which shares the outgoing dependence information of the
+     * consuming class, and the relation metrics of the classes which do not own the relation. The outgoing maps and
+     * the owned relation metrics are inverted in a single pass, in parallel for projects with at least
+     * PARALLEL_RELINK_THRESHOLD classes.
+     * <p>
+     * The persisted maps are only read on the calling thread: while the project structure is attached, reading them
+     * loads them through its session, which must not be used from the workers of a parallel stream.
+     */
+    public synchronized void relink() {
+        List<PersistedLinks> persistedLinks = new ArrayList<>(classStructures.size());
+        for (Map.Entry<String, ClassStructure> entry : classStructures.entrySet()) {
+            ClassStructure classStructure = entry.getValue();
+            persistedLinks.add(new PersistedLinks(entry.getKey(), classStructure,
+                    new ArrayList<>(classStructure.getOutgoingDependenceInfo().entrySet()),
+                    new ArrayList<>(classStructure.getOwnedRelationMetricValues().entrySet())));
+        }
+        boolean parallel = persistedLinks.size() >= PARALLEL_RELINK_THRESHOLD;
+
+        Map<String, Map<String, DependenceInfo>> incomingDependenceInfo = stream(persistedLinks, parallel)
+                .flatMap(links -> links.getOutgoing().stream()
+                        .map(outgoing -> new Link<>(outgoing.getKey(), links.getClassName(), outgoing.getValue())))
+                .collect(Collectors.groupingByConcurrent(Link::getHolder,
+                        Collectors.toMap(Link::getRelated, Link::getValue, (first, second) -> first)));
+
+        Map<String, Map<String, RelationMetricValue>> relationMetricValues = stream(persistedLinks, parallel)
+                .flatMap(links -> links.getOwned().stream()
+                        .flatMap(owned -> owned.getKey().equals(links.getClassName())
+                                ? Stream.<Link<RelationMetricValue>>of(new Link<>(links.getClassName(), owned.getKey(), owned.getValue()))
+                                : Stream.<Link<RelationMetricValue>>of(new Link<>(links.getClassName(), owned.getKey(), owned.getValue()),
+                                new Link<>(owned.getKey(), links.getClassName(), owned.getValue().mirror()))))
+                .collect(Collectors.groupingByConcurrent(Link::getHolder,
+                        Collectors.toMap(Link::getRelated, Link::getValue, (first, second) -> first)));
+
+        stream(persistedLinks, parallel).forEach(links -> {
+            Map<String, DependenceInfo> incoming = incomingDependenceInfo.get(links.getClassName());
+            links.getClassStructure().setIncomingDependenceInfo(incoming != null ? incoming : new HashMap<>());
+            Map<String, RelationMetricValue> relations = relationMetricValues.get(links.getClassName());
+            links.getClassStructure().setRelationMetricValues(relations != null ? relations : new HashMap<>());
+        });
+
+        linked = true;
+    }
+
+    /**
+     * Get all class structures of the project. After the project structure has been loaded from the database, the
+     * first call rebuilds the views which are not persisted, see relink.
+     *
+     * @return a map of ClassStructures, the key is qualified class name
+     */
+    public Map<String, ClassStructure> getClassStructures() {
+        if (!linked) {
+            synchronized (this) {
+                if (!linked) relink();
+            }
         }
+        return classStructures;
+    }
+
+    /**
+     * Marks the views which are not persisted as missing once the project structure has been loaded.
+     */
+    @PostLoad
+    void markUnlinked() {
+        linked = false;
+    }
+
+    /**
+     * @param persistedLinks the persisted maps of the classes
+     * @param parallel       whether the stream should be parallel
+     * @return a stream over the persisted maps
+     */
+    private static Stream<PersistedLinks> stream(List<PersistedLinks> persistedLinks, boolean parallel) {
+        return parallel ? persistedLinks.parallelStream() : persistedLinks.stream();
+    }
+
+    /**
+     * Get the dependence information of a consuming class on a declaring class, creating both classes and the
+     * dependence information if needed. A single DependenceInfo object is kept per directed pair of classes: it is the
+     * outgoing dependence information of the consuming class and the incoming one of the declaring class.
+     *
+     * @param consumingClassName class where the elements are invoked from
+     * @param declaringClassName class where the elements are declared in
+     * @return the dependence information shared by both classes
+     */
+    private DependenceInfo getDependenceInfo(String consumingClassName, String declaringClassName) {
+        ClassStructure consumingClass = getOrCreateClassStructure(consumingClassName);
+        ClassStructure declaringClass = getOrCreateClassStructure(declaringClassName);
+
+        DependenceInfo dependenceInfo = consumingClass.getOutgoingDependenceInfo().get(declaringClassName);
+        if (dependenceInfo == null) {
+            dependenceInfo = new DependenceInfo();
+            consumingClass.getOutgoingDependenceInfo().put(declaringClassName, dependenceInfo);
+            declaringClass.getIncomingDependenceInfo().put(consumingClassName, dependenceInfo);
+        }
+        return dependenceInfo;
+    }
+
+    /**
+     * get the ClassStructure object of a class, creating it if it does not exist yet
+     *
+     * @param className qualified name of class
+     * @return the ClassStructure object of the class
+     */
+    private ClassStructure getOrCreateClassStructure(String className) {
+        ClassStructure classStructure = this.classStructures.get(className);
+        if (classStructure == null) {
+            classStructure = getNewClassStructure(className);
+            this.classStructures.put(className, classStructure);
+        }
+        return classStructure;
     }
 
     /**
@@ -314,4 +424,29 @@ public class ProjectStructure extends BaseEntity {
         return (p == -1 ? "" : className.substring(0, p));
     }
 
+    /**
+     * A value held by one class about a related class, used to invert the persisted maps.
+     *
+     * @param <T> the type of the value
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Link<T> {
+        private final String holder;
+        private final String related;
+        private final T value;
+    }
+
+    /**
+     * The persisted maps of a class, read before they are inverted.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class PersistedLinks {
+        private final String className;
+        private final ClassStructure classStructure;
+        private final List<Map.Entry<String, DependenceInfo>> outgoing;
+        private final List<Map.Entry<String, RelationMetricValue>> owned;
+    }
+
 }
@@ -0,0 +1,233 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.owner.OwnerDeletedEvent;
+import com.ucl.ADA.model.snapshot.SnapshotDeletedEvent;
+import com.ucl.ADA.model.snapshot.SnapshotsExpiredEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of fully loaded project structures, keyed by owner, repository, branch and snapshot timestamp.
+ * The cache is bounded by the estimated memory retained by the cached structures rather than by their number, so a
+ * few large repositories cannot push the heap over its limit while many small ones still fit. Entries are dropped
+ * once their snapshot or owner is deleted, or their snapshot expires.
+ * <p>
+ * The project structures of snapshots whose results are still being written are pinned: they are served like cached
+ * entries, but never evicted, until they are unpinned once the write is over.
+ */
+@Component
+public class ProjectStructureCache {
+
+    static final String CACHE_NAME = "projectStructures";
+
+    // rough retained sizes in bytes, taken from heap dumps of loaded structures
+    static final int PROJECT_STRUCTURE_BYTES = 256;
+    static final int CLASS_STRUCTURE_BYTES = 1536;
+    static final int ELEMENT_BYTES = 160;
+    static final int DEPENDENCE_BYTES = 384;
+    static final int RELATION_METRIC_BYTES = 96;
+
+    private final Cache<Key, ProjectStructure> cache;
+
+    private final Map<Key, ProjectStructure> pinned = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProjectStructureCache(@Value("${ada.cache.project-structure.max-bytes:268435456}") long maxBytes,
+                                 MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, ProjectStructure projectStructure) -> weigh(projectStructure))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("ada.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .description("share of lookups answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("ada.cache.weighted.size", cache,
+                c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", CACHE_NAME)
+                .baseUnit("bytes")
+                .description("estimated memory retained by the cached project structures")
+                .register(meterRegistry);
+        Gauge.builder("ada.cache.pinned.size", pinned, Map::size)
+                .tag("cache", CACHE_NAME)
+                .description("project structures held in memory until their write is over")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param key the snapshot
+     * @return the cached project structure of the snapshot, null if it is not cached
+     */
+    public ProjectStructure getIfPresent(Key key) {
+        ProjectStructure projectStructure = pinned.get(key);
+        return projectStructure != null ? projectStructure : cache.getIfPresent(key);
+    }
+
+    /**
+     * @param key the snapshot
+     * @return the pinned project structure of the snapshot, null if its results are not being written
+     */
+    public ProjectStructure getPinned(Key key) {
+        return pinned.get(key);
+    }
+
+    /**
+     * @param owner      username of the owner
+     * @param repository name of the Git repository
+     * @param branch     name of the branch
+     * @return the pinned project structures of the snapshots of a branch whose results are still being written, by
+     * snapshot
+     */
+    public Map<Key, ProjectStructure> getPinned(String owner, String repository, String branch) {
+        Map<Key, ProjectStructure> branchPinned = new HashMap<>();
+        for (Map.Entry<Key, ProjectStructure> entry : pinned.entrySet()) {
+            Key key = entry.getKey();
+            if (key.owner.equals(owner) && key.repository.equals(repository) && key.branch.equals(branch)) {
+                branchPinned.put(key, entry.getValue());
+            }
+        }
+        return branchPinned;
+    }
+
+    /**
+     * Get the cached project structure of a snapshot, loading and caching it if it is not cached. Nothing is cached
+     * when the loader returns null.
+     *
+     * @param key    the snapshot
+     * @param loader loads the fully initialised project structure of the snapshot
+     * @return the project structure, null if the loader found none
+     */
+    public ProjectStructure get(Key key, Supplier<ProjectStructure> loader) {
+        ProjectStructure projectStructure = pinned.get(key);
+        return projectStructure != null ? projectStructure : cache.get(key, k -> loader.get());
+    }
+
+    /**
+     * Hold the project structure of a snapshot in memory until it is unpinned, whatever the size of the cache
+     *
+     * @param key              the snapshot
+     * @param projectStructure its computed project structure
+     */
+    public void pin(Key key, ProjectStructure projectStructure) {
+        pinned.put(key, projectStructure);
+    }
+
+    /**
+     * Release a pinned project structure, once it is stored or could not be stored
+     *
+     * @param key the snapshot
+     */
+    public void unpin(Key key) {
+        pinned.remove(key);
+    }
+
+    /**
+     * Drop the project structure of a deleted snapshot, once the deletion is committed
+     *
+     * @param event the deletion
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSnapshotDeleted(SnapshotDeletedEvent event) {
+        Key key = new Key(event.getOwner(), event.getRepository(), event.getBranch(), event.getTimestamp());
+        pinned.remove(key);
+        cache.invalidate(key);
+    }
+
+    /**
+     * Drop every project structure once owners are deleted, as the deletion cascades to all of their snapshots
+     *
+     * @param event the deletion
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOwnerDeleted(OwnerDeletedEvent event) {
+        pinned.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drop every project structure once the retention policy deleted expired snapshots, which are only known by id
+     *
+     * @param event the expiry
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSnapshotsExpired(SnapshotsExpiredEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Estimate the memory retained by a loaded project structure from the number of classes, declared and invoked
+     * elements, dependences and relation metrics it holds
+     *
+     * @param projectStructure a fully initialised project structure
+     * @return the estimated retained size in bytes, at least one
+     */
+    static int weigh(ProjectStructure projectStructure) {
+        long bytes = PROJECT_STRUCTURE_BYTES;
+        for (ClassStructure classStructure : projectStructure.getClassStructures().values()) {
+            bytes += CLASS_STRUCTURE_BYTES;
+            bytes += (long) ELEMENT_BYTES * (classStructure.getAttributeDeclarations().size()
+                    + classStructure.getConstructorDeclarations().size()
+                    + classStructure.getMethodsDeclarations().size()
+                    + classStructure.getGlobalData().size()
+                    + classStructure.getGlobalMethods().size()
+                    + classStructure.getExternalPackageImports().size()
+                    + classStructure.getExternalMethodInvocations().size()
+                    + classStructure.getExternalConstructorInvocations().size()
+                    + classStructure.getExternalAttributeInvocations().size());
+            for (DependenceInfo dependenceInfo : classStructure.getOutgoingDependenceInfo().values()) {
+                // the incoming map of the target class shares the same instance
+                bytes += DEPENDENCE_BYTES + (long) ELEMENT_BYTES * (dependenceInfo.getPackages().size()
+                        + dependenceInfo.getAttributes().size()
+                        + dependenceInfo.getConstructors().size()
+                        + dependenceInfo.getMethods().size());
+            }
+            bytes += (long) RELATION_METRIC_BYTES * classStructure.getRelationMetricValues().size();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes));
+    }
+
+    /**
+     * identifies the snapshot of a cached project structure; timestamps are compared as instants, so the same
+     * snapshot requested with another offset hits the same entry
+     */
+    @Getter
+    @EqualsAndHashCode
+    public static class Key {
+
+        private final String owner;
+
+        private final String repository;
+
+        private final String branch;
+
+        private final Instant timestamp;
+
+        public Key(String owner, String repository, String branch, OffsetDateTime timestamp) {
+            this.owner = owner;
+            this.repository = repository;
+            this.branch = branch;
+            this.timestamp = timestamp.toInstant();
+        }
+    }
+}
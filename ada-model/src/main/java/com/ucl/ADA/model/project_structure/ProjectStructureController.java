@@ -1,16 +1,40 @@
 package com.ucl.ADA.model.project_structure;
 
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @CrossOrigin
 @RequestMapping("owners/{owner}/repositories/{repository}/branches/{branch}/snapshots/{timestamp}/project-structure")
 public class ProjectStructureController {
 
+    /**
+     * Cache-Control of responses which never change, a year being the longest max-age caches are asked to honour
+     */
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /**
+     * Cache-Control of responses of snapshots whose results are still being written, which caches have to revalidate
+     */
+    private static final String REVALIDATE = "no-cache";
+
     @Autowired
     private ProjectStructureService projectStructureService;
 
@@ -37,4 +61,109 @@ public class ProjectStructureController {
         return projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp(owner, repository, branch, odt);
     }
 
+    /**
+     * get the JSON of the ProjectStructure object given username, repository name, branch name and timestamp when ADA
+     * received request for the snapshot, as serialized once after the analysis. A persisted snapshot never changes, so
+     * its response may be cached forever; the response of a snapshot still being written is revalidated, as the write
+     * may fail. The stored gzip bytes are sent as they are to clients accepting gzip, under their own strong ETag, and a
+     * request with the ETag of the body it would get in its If-None-Match header is answered with 304.
+     *
+     * @param owner          username
+     * @param repository     repository name
+     * @param branch         branch name
+     * @param timestamp      time when ADA received request for the snapshot
+     * @param ifNoneMatch    the ETags cached by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, if any
+     * @return the JSON of the project structure, 304 if the client has it already, or 404 if there is none
+     */
+    @CrossOrigin(exposedHeaders = HttpHeaders.ETAG)
+    @GetMapping
+    public ResponseEntity<byte[]> getProjectStructureResponseGivenOwnerRepoBranchAndTimestamp(@PathVariable String owner,
+                                                                                             @PathVariable String repository,
+                                                                                             @PathVariable String branch,
+                                                                                             @PathVariable String timestamp,
+                                                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+        SnapshotResponse snapshotResponse = projectStructureService.findResponseByOwnerGitRepositoryBranchSnapshotTimestamp(owner, repository, branch, odt);
+        if (snapshotResponse == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = "\"" + snapshotResponse.getEtag() + (gzip ? "-gzip" : "") + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(snapshotResponse.getSnapshot().getStatus() == SnapshotStatus.PERSISTED ? IMMUTABLE : REVALIDATE);
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(snapshotResponse.getContent(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(gunzip(snapshotResponse.getContent()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * @param content gzip compressed bytes
+     * @return the decompressed bytes
+     */
+    private static byte[] gunzip(byte[] content) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * get the qualified class names of a snapshot given username, repository name, branch name and timestamp when ADA
+     * received request for the snapshot
+     *
+     * @param owner      username
+     * @param repository repository name
+     * @param branch     branch name
+     * @param timestamp  time when ADA received request for the snapshot
+     * @return the sorted class names
+     */
+    @CrossOrigin
+    @PostMapping("/class-names")
+    public List<String> getClassNamesGivenOwnerRepoBranchAndTimestamp(@PathVariable String owner,
+                                                                     @PathVariable String repository,
+                                                                     @PathVariable String branch,
+                                                                     @PathVariable String timestamp) {
+
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+        return projectStructureService.findClassNamesByOwnerGitRepositoryBranchSnapshotTimestamp(owner, repository, branch, odt);
+    }
+
+    /**
+     * get the class and relation metrics of a snapshot given username, repository name, branch name and timestamp when
+     * ADA received request for the snapshot, without loading its declarations and invocations
+     *
+     * @param owner      username
+     * @param repository repository name
+     * @param branch     branch name
+     * @param timestamp  time when ADA received request for the snapshot
+     * @return the metrics of the project structure, or null if the snapshot has none
+     */
+    @CrossOrigin
+    @PostMapping("/metrics")
+    public ProjectStructureMetrics getMetricsGivenOwnerRepoBranchAndTimestamp(@PathVariable String owner,
+                                                                             @PathVariable String repository,
+                                                                             @PathVariable String branch,
+                                                                             @PathVariable String timestamp) {
+
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+        ProjectStructure projectStructure = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp(owner, repository, branch, odt, FetchPlan.METRICS);
+        return projectStructure != null ? ProjectStructureMetrics.of(projectStructure) : null;
+    }
+
 }
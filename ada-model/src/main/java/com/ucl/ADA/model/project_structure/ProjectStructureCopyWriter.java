@@ -0,0 +1,354 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.ucl.ADA.model.BaseEntity.ID_ALLOCATION_SIZE;
+import static com.ucl.ADA.model.BaseEntity.ID_SEQUENCE;
+
+/**
+ * Writes a ProjectStructure with PostgreSQL COPY instead of cascading persists. The structure is flattened into lists
+ * of the entities which have no id yet, the ids are reserved in blocks from the id sequence, the same way Hibernate's
+ * pooled optimizer does, and the rows of every table are streamed in one COPY per table. The written rows are the
+ * same as the ones of the JPA path, and the ids are set on the written objects. Classes whose content is stored
+ * already are only referenced from the new project structure.
+ */
+@Component
+public class ProjectStructureCopyWriter {
+
+    private static final FloatArrayConverter FLOAT_ARRAY_CONVERTER = new FloatArrayConverter();
+
+    private static final ModifierTypesConverter MODIFIER_TYPES_CONVERTER = new ModifierTypesConverter();
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Write a project structure, in the surrounding transaction if there is one
+     *
+     * @param projectStructure the project structure to write
+     * @return the same project structure, with ids set
+     */
+    @Transactional
+    public ProjectStructure write(ProjectStructure projectStructure) {
+        return write(projectStructure, Collections.emptyMap());
+    }
+
+    /**
+     * Write a project structure, in the surrounding transaction if there is one, referencing stored class structures
+     * instead of writing the classes they are identical to
+     *
+     * @param projectStructure         the project structure to write
+     * @param reusedClassStructureIds ids of the stored class structures to reference, by class name
+     * @return the same project structure, with ids set on everything but the reused classes
+     */
+    @Transactional
+    public ProjectStructure write(ProjectStructure projectStructure, Map<String, Long> reusedClassStructureIds) {
+        FlattenedProjectStructure flattened = new FlattenedProjectStructure(projectStructure, reusedClassStructureIds.keySet());
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            flattened.assignIds(reserveIds(connection, flattened.size()));
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyEntities(copyManager, flattened);
+            copyClassStructureRelations(copyManager, projectStructure, reusedClassStructureIds, flattened.classStructures);
+            copyDeclarationRelations(copyManager, flattened);
+            copyInvocationRelations(copyManager, flattened);
+
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not copy the project structure into the database", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        return projectStructure;
+    }
+
+    /**
+     * Reserve ids from the id sequence. A value v returned by the sequence reserves the ids v - 49 to v; values below
+     * the allocation size only appear on a fresh sequence and are skipped.
+     *
+     * @param connection the connection of the transaction
+     * @param count      number of ids needed
+     * @return the reserved ids
+     */
+    static PrimitiveIterator.OfLong reserveIds(Connection connection, int count) throws SQLException {
+        long[] ids = new long[count];
+        int reserved = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval('" + ID_SEQUENCE + "') FROM generate_series(1, ?)")) {
+            while (reserved < count) {
+                statement.setInt(1, (count - reserved + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        long upper = resultSet.getLong(1);
+                        if (upper < ID_ALLOCATION_SIZE) continue;
+                        for (long id = upper - ID_ALLOCATION_SIZE + 1; id <= upper && reserved < count; id++) {
+                            ids[reserved++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.stream(ids).iterator();
+    }
+
+    private void copyEntities(CopyManager copyManager, FlattenedProjectStructure flattened) throws SQLException, IOException {
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "PROJECT_STRUCTURE", "id")) {
+            for (ProjectStructure projectStructure : flattened.projectStructures) {
+                rows.row(projectStructure.getId());
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "PACKAGE_DECLARATION", "id", "name")) {
+            for (PackageDeclaration packageDeclaration : flattened.packageDeclarations) {
+                rows.row(packageDeclaration.getId(), packageDeclaration.getName());
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "CLASS_STRUCTURE", "id", "package_declaration_id", "class_metric_values", "content_hash")) {
+            for (ClassStructure classStructure : flattened.classStructures) {
+                rows.row(classStructure.getId(), classStructure.getCurrentPackage().getId(),
+                        FLOAT_ARRAY_CONVERTER.convertToDatabaseColumn(classStructure.getClassMetricValues().getVector()),
+                        classStructure.getContentHash());
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "PARAMETER_DECLARATION", "id", "name", "type")) {
+            for (ParameterDeclaration parameterDeclaration : flattened.parameterDeclarations) {
+                rows.row(parameterDeclaration.getId(), parameterDeclaration.getName(), parameterDeclaration.getType());
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "ATTRIBUTE_DECLARATION", "id", "name", "type", "value", "modifiers")) {
+            for (AttributeDeclaration attributeDeclaration : flattened.attributeDeclarations) {
+                rows.row(attributeDeclaration.getId(), attributeDeclaration.getName(), attributeDeclaration.getType(), attributeDeclaration.getValue(),
+                        MODIFIER_TYPES_CONVERTER.convertToDatabaseColumn(attributeDeclaration.getModifierTypes()));
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "CONSTRUCTOR_DECLARATION", "id", "name", "modifiers")) {
+            for (ConstructorDeclaration constructorDeclaration : flattened.constructorDeclarations) {
+                rows.row(constructorDeclaration.getId(), constructorDeclaration.getName(),
+                        MODIFIER_TYPES_CONVERTER.convertToDatabaseColumn(constructorDeclaration.getModifierTypes()));
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "METHOD_DECLARATION", "id", "name", "return_type", "modifiers")) {
+            for (MethodDeclaration methodDeclaration : flattened.methodDeclarations) {
+                rows.row(methodDeclaration.getId(), methodDeclaration.getName(), methodDeclaration.getReturnType(),
+                        MODIFIER_TYPES_CONVERTER.convertToDatabaseColumn(methodDeclaration.getModifierTypes()));
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "PASSED_PARAMETER", "id", "name")) {
+            for (PassedParameter passedParameter : flattened.passedParameters) {
+                rows.row(passedParameter.getId(), passedParameter.getName());
+            }
+        }
+        copyInvocations(copyManager, "PACKAGE_INVOCATION", flattened.packageInvocations);
+        copyInvocations(copyManager, "ATTRIBUTE_INVOCATION", flattened.attributeInvocations);
+        copyInvocations(copyManager, "CONSTRUCTOR_INVOCATION", flattened.constructorInvocations);
+        copyInvocations(copyManager, "METHOD_INVOCATION", flattened.methodInvocations);
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "DEPENDENCE_INFO", "id")) {
+            for (DependenceInfo dependenceInfo : flattened.dependenceInfos) {
+                rows.row(dependenceInfo.getId());
+            }
+        }
+    }
+
+    private void copyInvocations(CopyManager copyManager, String table, List<? extends ElementInvocation> invocations) throws SQLException, IOException {
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, table, "id", "name")) {
+            for (ElementInvocation invocation : invocations) {
+                rows.row(invocation.getId(), invocation.getName());
+            }
+        }
+    }
+
+    private void copyClassStructureRelations(CopyManager copyManager, ProjectStructure projectStructure,
+                                             Map<String, Long> reusedClassStructureIds, List<ClassStructure> values) throws SQLException, IOException {
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "PROJECT_STRUCTURE_CLASS_STRUCTURE", "project_structure_id", "class_name", "class_structure_id")) {
+            for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+                Long reusedId = reusedClassStructureIds.get(entry.getKey());
+                rows.row(projectStructure.getId(), entry.getKey(), reusedId != null ? reusedId : entry.getValue().getId());
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "CLASS_STRUCTURE_OUTGOING_DEPENDENCE_INFO", "class_structure_id", "class_name", "dependence_info_id")) {
+            for (ClassStructure classStructure : values) {
+                for (Map.Entry<String, DependenceInfo> outgoing : classStructure.getOutgoingDependenceInfo().entrySet()) {
+                    rows.row(classStructure.getId(), outgoing.getKey(), outgoing.getValue().getId());
+                }
+            }
+        }
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, "CLASS_STRUCTURE_RELATION_METRIC_VALUE", "class_structure_id", "class_name", "relation_metric_values")) {
+            for (ClassStructure classStructure : values) {
+                for (Map.Entry<String, RelationMetricValue> owned : classStructure.getOwnedRelationMetricValues().entrySet()) {
+                    rows.row(classStructure.getId(), owned.getKey(), FLOAT_ARRAY_CONVERTER.convertToDatabaseColumn(owned.getValue().getVector()));
+                }
+            }
+        }
+
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_ATTRIBUTE_DECLARATION", "class_structure_id", "attribute_declaration_id", values, ClassStructure::getAttributeDeclarations);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_CONSTRUCTOR_DECLARATION", "class_structure_id", "constructor_declaration_id", values, ClassStructure::getConstructorDeclarations);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_METHOD_DECLARATION", "class_structure_id", "method_declaration_id", values, ClassStructure::getMethodsDeclarations);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_GLOBAL_ATTRIBUTE_INVOCATION", "class_structure_id", "attribute_invocation_id", values, ClassStructure::getGlobalData);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_GLOBAL_METHOD_INVOCATION", "class_structure_id", "method_invocation_id", values, ClassStructure::getGlobalMethods);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_EXTERNAL_PACKAGE_INVOCATION", "class_structure_id", "package_invocation_id", values, ClassStructure::getExternalPackageImports);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_EXTERNAL_METHOD_INVOCATION", "class_structure_id", "method_invocation_id", values, ClassStructure::getExternalMethodInvocations);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_EXTERNAL_CONSTRUCTOR_INVOCATION", "class_structure_id", "constructor_invocation_id", values, ClassStructure::getExternalConstructorInvocations);
+        copyJoinRows(copyManager, "CLASS_STRUCTURE_EXTERNAL_ATTRIBUTE_INVOCATION", "class_structure_id", "attribute_invocation_id", values, ClassStructure::getExternalAttributeInvocations);
+    }
+
+    private void copyDeclarationRelations(CopyManager copyManager, FlattenedProjectStructure flattened) throws SQLException, IOException {
+        copyJoinRows(copyManager, "CONSTRUCTOR_DECLARATION_PARAMETER_DECLARATION", "constructor_declaration_id", "parameter_declaration_id", flattened.constructorDeclarations, ConstructorDeclaration::getParameters);
+        copyJoinRows(copyManager, "METHOD_DECLARATION_PARAMETER_DECLARATION", "method_declaration_id", "parameter_declaration_id", flattened.methodDeclarations, MethodDeclaration::getParameters);
+    }
+
+    private void copyInvocationRelations(CopyManager copyManager, FlattenedProjectStructure flattened) throws SQLException, IOException {
+        copyJoinRows(copyManager, "CONSTRUCTOR_INVOCATION_PASSED_PARAMETER", "constructor_invocation_id", "passed_parameter_id", flattened.constructorInvocations, ConstructorInvocation::getPassedParameters);
+        copyJoinRows(copyManager, "METHOD_INVOCATION_PASSED_PARAMETER", "method_invocation_id", "passed_parameter_id", flattened.methodInvocations, MethodInvocation::getPassedParameters);
+        copyJoinRows(copyManager, "DEPENDENCE_INFO_PACKAGE_INVOCATION", "dependence_info_id", "package_invocation_id", flattened.dependenceInfos, DependenceInfo::getPackages);
+        copyJoinRows(copyManager, "DEPENDENCE_INFO_ATTRIBUTE_INVOCATION", "dependence_info_id", "attribute_invocation_id", flattened.dependenceInfos, DependenceInfo::getAttributes);
+        copyJoinRows(copyManager, "DEPENDENCE_INFO_CONSTRUCTOR_INVOCATION", "dependence_info_id", "constructor_invocation_id", flattened.dependenceInfos, DependenceInfo::getConstructors);
+        copyJoinRows(copyManager, "DEPENDENCE_INFO_METHOD_INVOCATION", "dependence_info_id", "method_invocation_id", flattened.dependenceInfos, DependenceInfo::getMethods);
+    }
+
+    /**
+     * Copy the rows of a join table between owners and the entities of one of their collections
+     */
+    private <O extends BaseEntity> void copyJoinRows(CopyManager copyManager, String table, String ownerColumn, String elementColumn,
+                                                     Collection<O> owners, Function<O, List<? extends BaseEntity>> elements) throws SQLException, IOException {
+        try (CopyRowWriter rows = new CopyRowWriter(copyManager, table, ownerColumn, elementColumn)) {
+            for (O owner : owners) {
+                for (BaseEntity element : elements.apply(owner)) {
+                    rows.row(owner.getId(), element.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * The entities of a project structure which are not in the database yet, grouped by table. Every entity is listed
+     * once, even if it is referenced from several places. Reused classes are left out with everything below them.
+     */
+    static class FlattenedProjectStructure {
+
+        private final Set<BaseEntity> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        final List<ProjectStructure> projectStructures = new ArrayList<>();
+        final List<PackageDeclaration> packageDeclarations = new ArrayList<>();
+        final List<ClassStructure> classStructures = new ArrayList<>();
+        final List<ParameterDeclaration> parameterDeclarations = new ArrayList<>();
+        final List<AttributeDeclaration> attributeDeclarations = new ArrayList<>();
+        final List<ConstructorDeclaration> constructorDeclarations = new ArrayList<>();
+        final List<MethodDeclaration> methodDeclarations = new ArrayList<>();
+        final List<PassedParameter> passedParameters = new ArrayList<>();
+        final List<PackageInvocation> packageInvocations = new ArrayList<>();
+        final List<AttributeInvocation> attributeInvocations = new ArrayList<>();
+        final List<ConstructorInvocation> constructorInvocations = new ArrayList<>();
+        final List<MethodInvocation> methodInvocations = new ArrayList<>();
+        final List<DependenceInfo> dependenceInfos = new ArrayList<>();
+
+        FlattenedProjectStructure(ProjectStructure projectStructure, Set<String> reusedClassNames) {
+            add(projectStructures, projectStructure);
+            for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+                if (reusedClassNames.contains(entry.getKey())) continue;
+                ClassStructure classStructure = entry.getValue();
+                if (!add(classStructures, classStructure)) continue;
+                add(packageDeclarations, classStructure.getCurrentPackage());
+                addAll(attributeDeclarations, classStructure.getAttributeDeclarations());
+                for (ConstructorDeclaration constructorDeclaration : classStructure.getConstructorDeclarations()) {
+                    if (add(constructorDeclarations, constructorDeclaration)) {
+                        addAll(parameterDeclarations, constructorDeclaration.getParameters());
+                    }
+                }
+                for (MethodDeclaration methodDeclaration : classStructure.getMethodsDeclarations()) {
+                    if (add(methodDeclarations, methodDeclaration)) {
+                        addAll(parameterDeclarations, methodDeclaration.getParameters());
+                    }
+                }
+                for (DependenceInfo dependenceInfo : classStructure.getOutgoingDependenceInfo().values()) {
+                    if (add(dependenceInfos, dependenceInfo)) {
+                        addAll(packageInvocations, dependenceInfo.getPackages());
+                        addAll(attributeInvocations, dependenceInfo.getAttributes());
+                        addConstructorInvocations(dependenceInfo.getConstructors());
+                        addMethodInvocations(dependenceInfo.getMethods());
+                    }
+                }
+                addAll(attributeInvocations, classStructure.getGlobalData());
+                addMethodInvocations(classStructure.getGlobalMethods());
+                addAll(packageInvocations, classStructure.getExternalPackageImports());
+                addMethodInvocations(classStructure.getExternalMethodInvocations());
+                addConstructorInvocations(classStructure.getExternalConstructorInvocations());
+                addAll(attributeInvocations, classStructure.getExternalAttributeInvocations());
+            }
+        }
+
+        /**
+         * @return number of entities which need an id
+         */
+        int size() {
+            return seen.size();
+        }
+
+        /**
+         * Set the ids of all listed entities
+         *
+         * @param ids the reserved ids, at least size() of them
+         */
+        void assignIds(PrimitiveIterator.OfLong ids) {
+            for (List<? extends BaseEntity> entities : Arrays.asList(projectStructures, packageDeclarations, classStructures,
+                    parameterDeclarations, attributeDeclarations, constructorDeclarations, methodDeclarations,
+                    passedParameters, packageInvocations, attributeInvocations, constructorInvocations,
+                    methodInvocations, dependenceInfos)) {
+                for (BaseEntity entity : entities) {
+                    entity.setId(ids.nextLong());
+                }
+            }
+        }
+
+        private void addConstructorInvocations(List<ConstructorInvocation> invocations) {
+            for (ConstructorInvocation constructorInvocation : invocations) {
+                if (add(constructorInvocations, constructorInvocation)) {
+                    addAll(passedParameters, constructorInvocation.getPassedParameters());
+                }
+            }
+        }
+
+        private void addMethodInvocations(List<MethodInvocation> invocations) {
+            for (MethodInvocation methodInvocation : invocations) {
+                if (add(methodInvocations, methodInvocation)) {
+                    addAll(passedParameters, methodInvocation.getPassedParameters());
+                }
+            }
+        }
+
+        private <T extends BaseEntity> void addAll(List<T> entities, Collection<? extends T> candidates) {
+            for (T candidate : candidates) {
+                add(entities, candidate);
+            }
+        }
+
+        /**
+         * @return true if the entity is new and has been listed, false if it is already stored or already listed
+         */
+        private <T extends BaseEntity> boolean add(List<T> entities, T entity) {
+            if (entity == null || entity.getId() != null || !seen.add(entity)) return false;
+            entities.add(entity);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricValue;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The class and relation metrics of a project structure, without its declarations and invocations.
+ */
+@Getter
+public class ProjectStructureMetrics {
+
+    /**
+     * class metric values by qualified class name
+     */
+    private final Map<String, ClassMetricValue> classMetrics = new TreeMap<>();
+
+    /**
+     * relation metric values by qualified class name and related class name
+     */
+    private final Map<String, Map<String, RelationMetricValue>> relationMetrics = new TreeMap<>();
+
+    /**
+     * @param projectStructure a project structure loaded with at least the METRICS fetch plan
+     * @return the metrics of the project structure
+     */
+    public static ProjectStructureMetrics of(ProjectStructure projectStructure) {
+        ProjectStructureMetrics metrics = new ProjectStructureMetrics();
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            metrics.classMetrics.put(entry.getKey(), entry.getValue().getClassMetricValues());
+            metrics.relationMetrics.put(entry.getKey(), new TreeMap<>(entry.getValue().getRelationMetricValues()));
+        }
+        return metrics;
+    }
+}
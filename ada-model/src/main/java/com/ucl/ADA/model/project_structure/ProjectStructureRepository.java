@@ -1,7 +1,12 @@
 package com.ucl.ADA.model.project_structure;
 
 import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ProjectStructureRepository extends CrudRepository<ProjectStructure, Long> {
 
@@ -13,4 +18,22 @@ public interface ProjectStructureRepository extends CrudRepository<ProjectStruct
      */
     ProjectStructure findBySnapshot(Snapshot snapshot);
 
+    /**
+     * find ProjectStructure object by the snapshot it belongs to, with its class structures loaded in the same query
+     *
+     * @param snapshot a Snapshot object
+     * @return a ProjectStructure object
+     */
+    @EntityGraph(ProjectStructure.CLASS_STRUCTURES_GRAPH)
+    ProjectStructure findWithClassStructuresBySnapshot(Snapshot snapshot);
+
+    /**
+     * find the qualified names of the classes of the project structure of a snapshot, without loading the classes
+     *
+     * @param snapshot a Snapshot object
+     * @return the class names
+     */
+    @Query("select key(c) from ProjectStructure p join p.classStructures c where p.snapshot = :snapshot")
+    List<String> findClassNamesBySnapshot(@Param("snapshot") Snapshot snapshot);
+
 }
@@ -1,33 +1,155 @@
 package com.ucl.ADA.model.project_structure;
 
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.class_structure.ClassStructureContentHash;
+import com.ucl.ADA.model.class_structure.ClassStructureRepository;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
 import com.ucl.ADA.model.snapshot.Snapshot;
 import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.model.snapshot_document.SnapshotDocumentService;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponse;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponseService;
+import com.ucl.ADA.model.snapshot_retention.SnapshotRetentionService;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.OffsetDateTime;
+import java.util.*;
 
 @Service
 public class ProjectStructureService {
 
+    /**
+     * number of content hashes looked up per query
+     */
+    static final int CONTENT_HASH_BATCH_SIZE = 1000;
+
     @Autowired
     private SnapshotService snapshotService;
 
     @Autowired
     private ProjectStructureRepository projectStructureRepository;
 
+    @Autowired
+    private ClassStructureRepository classStructureRepository;
+
+    @Autowired
+    private InternedValueStore internedValueStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProjectStructureCopyWriter projectStructureCopyWriter;
+
+    @Autowired
+    private SnapshotDocumentService snapshotDocumentService;
+
+    @Autowired
+    private ProjectStructureCache projectStructureCache;
+
+    @Autowired
+    private SnapshotResponseService snapshotResponseService;
+
+    @Autowired
+    private SnapshotRetentionService snapshotRetentionService;
+
+    @Value("${ada.persistence.mode:JPA}")
+    private PersistenceMode persistenceMode = PersistenceMode.JPA;
+
     /**
-     * save a ProjectStructure into Database
+     * save a ProjectStructure into Database, depending on the ada.persistence.mode property. In JPA and COPY mode the
+     * whole structure is written to the relational tables in one transaction, either persisted by Hibernate with
+     * batched inserts or streamed with PostgreSQL COPY, and then set as the project structure of its snapshot. In
+     * DOCUMENT mode it is stored as a single compressed document of its snapshot; a structure without a snapshot is
+     * persisted with JPA. The JSON response of a structure with a snapshot is serialized and stored as well.
+     * <p>
+     * Classes whose content hash is stored already are not written again: the new project structure references the
+     * stored class structure, so consecutive snapshots only add the classes which changed, and the collection of
+     * unreferenced class structures waits until the write is committed. Package declarations, parameters, passed
+     * parameters and package invocations are interned by the InternedValueStore.
      *
      * @param object the ProjectStructure object to save
-     * @return the ProjectStructure object saved
+     * @return the ProjectStructure object saved, or the given object with its id set if stored classes were reused
      */
+    @Transactional
     public ProjectStructure save(ProjectStructure object) {
-        return projectStructureRepository.save(object);
+        GitRepoInfo gitRepoInfo = object.getGitRepoInfo();
+        Snapshot snapshot = gitRepoInfo != null ? gitRepoInfo.getSnapshot() : null;
+        if (snapshot != null && snapshot.getId() == null) snapshot = null;
+
+        if (persistenceMode == PersistenceMode.DOCUMENT && snapshot != null) {
+            snapshotDocumentService.save(snapshot, object);
+            snapshotResponseService.save(snapshot, object);
+            return object;
+        }
+
+        snapshotRetentionService.ensurePartitions();
+        classStructureRepository.lockAgainstCollection();
+        Map<String, Long> reusedClassStructureIds = findReusableClassStructures(object);
+        internedValueStore.intern(object, reusedClassStructureIds.keySet());
+
+        ProjectStructure saved;
+        if (persistenceMode == PersistenceMode.COPY) {
+            saved = projectStructureCopyWriter.write(object, reusedClassStructureIds);
+        } else if (reusedClassStructureIds.isEmpty()) {
+            saved = projectStructureRepository.save(object);
+        } else {
+            // persist a copy referencing the stored classes, the given structure stays complete for its callers
+            ProjectStructure persisted = new ProjectStructure();
+            for (Map.Entry<String, ClassStructure> entry : object.getClassStructures().entrySet()) {
+                Long reusedId = reusedClassStructureIds.get(entry.getKey());
+                persisted.getClassStructures().put(entry.getKey(), reusedId != null
+                        ? entityManager.getReference(ClassStructure.class, reusedId)
+                        : entry.getValue());
+            }
+            saved = projectStructureRepository.save(persisted);
+            object.setId(saved.getId());
+        }
+
+        if (snapshot != null) {
+            snapshotService.linkProjectStructure(snapshot, saved);
+            snapshotResponseService.save(snapshot, object);
+        }
+        return reusedClassStructureIds.isEmpty() ? saved : object;
+    }
+
+    /**
+     * Set the content hash of every class of a project structure and look up the stored class structures with the
+     * same content
+     *
+     * @param projectStructure a project structure with computed metrics
+     * @return ids of the stored class structures identical to classes of the project structure, by class name
+     */
+    private Map<String, Long> findReusableClassStructures(ProjectStructure projectStructure) {
+        // the class name is part of the hash, so every hash belongs to one class
+        Map<String, String> classNamesByHash = new HashMap<>();
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            String contentHash = ClassStructureContentHash.of(entry.getKey(), entry.getValue());
+            entry.getValue().setContentHash(contentHash);
+            classNamesByHash.put(contentHash, entry.getKey());
+        }
+
+        Map<String, Long> reusedClassStructureIds = new HashMap<>();
+        List<String> contentHashes = new ArrayList<>(classNamesByHash.keySet());
+        for (int from = 0; from < contentHashes.size(); from += CONTENT_HASH_BATCH_SIZE) {
+            List<String> batch = contentHashes.subList(from, Math.min(from + CONTENT_HASH_BATCH_SIZE, contentHashes.size()));
+            for (Object[] row : classStructureRepository.findIdsByContentHashIn(batch)) {
+                reusedClassStructureIds.put(classNamesByHash.get((String) row[0]), (Long) row[1]);
+            }
+        }
+        return reusedClassStructureIds;
     }
 
     /**
-     * get ProjectStructure object given username, repository name, branch name and timestamp when ADA received request for the snapshot
+     * get ProjectStructure object given username, repository name, branch name and timestamp when ADA received request for the snapshot,
+     * with every detail loaded
      *
      * @param username   username
      * @param repository repository name
@@ -35,10 +157,149 @@ public class ProjectStructureService {
      * @param timestamp  time when ADA received request for the snapshot
      * @return a ProjectStructure object
      */
+    @Transactional(readOnly = true)
     public ProjectStructure findByOwnerGitRepositoryBranchSnapshotTimestamp(String username, String repository, String branch, OffsetDateTime timestamp) {
+        return findByOwnerGitRepositoryBranchSnapshotTimestamp(username, repository, branch, timestamp, FetchPlan.FULL);
+    }
+
+    /**
+     * get ProjectStructure object given username, repository name, branch name and timestamp when ADA received request for the snapshot,
+     * from the document of the snapshot if it has one and from the relational tables otherwise. The plan decides which
+     * parts are loaded from the relational tables; NAMES loads the class structures like METRICS, use
+     * findClassNamesByOwnerGitRepositoryBranchSnapshotTimestamp to read the names alone. Fully loaded structures are
+     * kept in the ProjectStructureCache and answer every plan; the returned structure may therefore be shared and
+     * must not be modified.
+     *
+     * @param username   username
+     * @param repository repository name
+     * @param branch     branch name
+     * @param timestamp  time when ADA received request for the snapshot
+     * @param fetchPlan  the parts of the project structure which are needed
+     * @return a ProjectStructure object
+     */
+    @Transactional(readOnly = true)
+    public ProjectStructure findByOwnerGitRepositoryBranchSnapshotTimestamp(String username, String repository, String branch, OffsetDateTime timestamp, FetchPlan fetchPlan) {
+        ProjectStructureCache.Key key = new ProjectStructureCache.Key(username, repository, branch, timestamp);
+        ProjectStructure cached = projectStructureCache.getIfPresent(key);
+        if (cached != null) return cached;
+
         Snapshot snapshot = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branch, timestamp);
 
-        return projectStructureRepository.findBySnapshot(snapshot);
+        if (fetchPlan == FetchPlan.FULL) {
+            return projectStructureCache.get(key, () -> loadFully(snapshot));
+        }
+
+        ProjectStructure projectStructure = snapshotDocumentService.findProjectStructure(snapshot);
+        if (projectStructure != null) return projectStructure;
+
+        projectStructure = projectStructureRepository.findWithClassStructuresBySnapshot(snapshot);
+        // rebuilding the views which are not persisted loads the outgoing dependence maps and the owned relation
+        // metrics of all classes, one query each
+        if (projectStructure != null) projectStructure.getClassStructures();
+        return projectStructure;
+    }
+
+    /**
+     * load the project structure of a snapshot with every detail, from its document if it has one
+     *
+     * @param snapshot the snapshot
+     * @return the project structure, null if the snapshot has none
+     */
+    private ProjectStructure loadFully(Snapshot snapshot) {
+        ProjectStructure projectStructure = snapshotDocumentService.findProjectStructure(snapshot);
+        if (projectStructure != null) return projectStructure;
+
+        projectStructure = projectStructureRepository.findBySnapshot(snapshot);
+        if (projectStructure != null) {
+            initializeDetails(projectStructure);
+            // class structures are shared between snapshots, but their incoming dependences and mirrored relation
+            // metrics belong to this project structure; detached, a later load in the same persistence context gets
+            // its own instances
+            entityManager.detach(projectStructure);
+            projectStructure.getClassStructures().values().forEach(entityManager::detach);
+        }
+        return projectStructure;
+    }
+
+    /**
+     * get the stored JSON response of the project structure of a snapshot given username, repository name, branch
+     * name and timestamp when ADA received request for the snapshot. Snapshots analysed before responses were stored
+     * get theirs on the first request; the response of a snapshot whose results are still being written is rendered
+     * from memory.
+     *
+     * @param username   username
+     * @param repository repository name
+     * @param branch     branch name
+     * @param timestamp  time when ADA received request for the snapshot
+     * @return the stored response, or null if the snapshot or its project structure does not exist
+     */
+    @Transactional
+    public SnapshotResponse findResponseByOwnerGitRepositoryBranchSnapshotTimestamp(String username, String repository, String branch, OffsetDateTime timestamp) {
+        Snapshot snapshot = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branch, timestamp);
+        if (snapshot == null) return null;
+
+        SnapshotResponse snapshotResponse = snapshotResponseService.findBySnapshot(snapshot);
+        if (snapshotResponse != null) return snapshotResponse;
+
+        ProjectStructure projectStructure = findByOwnerGitRepositoryBranchSnapshotTimestamp(username, repository, branch, timestamp);
+        if (projectStructure == null) return null;
+        // the write of a pending snapshot stores its response, unless it fails
+        return snapshot.getStatus() == SnapshotStatus.PENDING
+                ? snapshotResponseService.render(snapshot, projectStructure)
+                : snapshotResponseService.save(snapshot, projectStructure);
+    }
+
+    /**
+     * get the sorted qualified class names of the snapshot given username, repository name, branch name and timestamp
+     * when ADA received request for the snapshot, without loading the class structures from the relational tables
+     *
+     * @param username   username
+     * @param repository repository name
+     * @param branch     branch name
+     * @param timestamp  time when ADA received request for the snapshot
+     * @return the class names
+     */
+    @Transactional(readOnly = true)
+    public List<String> findClassNamesByOwnerGitRepositoryBranchSnapshotTimestamp(String username, String repository, String branch, OffsetDateTime timestamp) {
+        // cached and pending snapshots are answered from memory
+        ProjectStructure projectStructure = projectStructureCache.getIfPresent(new ProjectStructureCache.Key(username, repository, branch, timestamp));
+        List<String> classNames;
+        if (projectStructure == null) {
+            Snapshot snapshot = snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branch, timestamp);
+            projectStructure = snapshotDocumentService.findProjectStructure(snapshot);
+            classNames = projectStructure != null
+                    ? new ArrayList<>(projectStructure.getClassStructures().keySet())
+                    : projectStructureRepository.findClassNamesBySnapshot(snapshot);
+        } else {
+            classNames = new ArrayList<>(projectStructure.getClassStructures().keySet());
+        }
+        Collections.sort(classNames);
+        return classNames;
+    }
+
+    /**
+     * Load every lazy collection of a project structure, so it can be used once the transaction is over
+     *
+     * @param projectStructure the loaded project structure
+     */
+    private static void initializeDetails(ProjectStructure projectStructure) {
+        for (ClassStructure classStructure : projectStructure.getClassStructures().values()) {
+            Hibernate.initialize(classStructure.getAttributeDeclarations());
+            classStructure.getConstructorDeclarations().forEach(declaration -> Hibernate.initialize(declaration.getParameters()));
+            classStructure.getMethodsDeclarations().forEach(declaration -> Hibernate.initialize(declaration.getParameters()));
+            for (DependenceInfo dependenceInfo : classStructure.getOutgoingDependenceInfo().values()) {
+                Hibernate.initialize(dependenceInfo.getPackages());
+                Hibernate.initialize(dependenceInfo.getAttributes());
+                dependenceInfo.getConstructors().forEach(invocation -> Hibernate.initialize(invocation.getPassedParameters()));
+                dependenceInfo.getMethods().forEach(invocation -> Hibernate.initialize(invocation.getPassedParameters()));
+            }
+            Hibernate.initialize(classStructure.getGlobalData());
+            classStructure.getGlobalMethods().forEach(invocation -> Hibernate.initialize(invocation.getPassedParameters()));
+            Hibernate.initialize(classStructure.getExternalPackageImports());
+            classStructure.getExternalMethodInvocations().forEach(invocation -> Hibernate.initialize(invocation.getPassedParameters()));
+            classStructure.getExternalConstructorInvocations().forEach(invocation -> Hibernate.initialize(invocation.getPassedParameters()));
+            Hibernate.initialize(classStructure.getExternalAttributeInvocations());
+        }
     }
 
 }
@@ -3,7 +3,10 @@ package com.ucl.ADA.model.repository;
 import com.ucl.ADA.model.owner.Owner;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
@@ -38,4 +41,16 @@ public interface GitRepoRepository extends CrudRepository<GitRepo, Long> {
      * @return the corresponding Git repository
      */
     GitRepo findByOwnerAndRepoName(Owner owner, String repoName);
+
+    /**
+     * Insert a Git repository of an owner unless one with the name exists, in its own transaction so the id is
+     * committed when it is returned
+     * @param ownerId id of the owner
+     * @param repoName name of the Git repository
+     * @return id of the new or existing Git repository
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO repository (id, owner_id, repo_name) VALUES (nextval('ada_id_sequence'), :ownerId, :repoName) " +
+            "ON CONFLICT (owner_id, repo_name) DO UPDATE SET repo_name = EXCLUDED.repo_name RETURNING id", nativeQuery = true)
+    Long upsertGitRepo(@Param("ownerId") Long ownerId, @Param("repoName") String repoName);
 }
@@ -0,0 +1,101 @@
+package com.ucl.ADA.model.repository;
+
+import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.branch.BranchRepository;
+import com.ucl.ADA.model.owner.OwnerDeletedEvent;
+import com.ucl.ADA.model.owner.OwnerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registers the owner, Git repository and branch of an analysis. Each level is resolved with a single upsert on its
+ * unique key, so concurrent analyses of the same repository end up with the same rows, and resolved ids are cached so
+ * that registering a known branch does not touch the database at all.
+ */
+@Service
+public class RepositoryRegistrationService {
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private GitRepoRepository gitRepoRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * owner ids by username
+     */
+    private final Map<String, Long> ownerIds = new ConcurrentHashMap<>();
+
+    /**
+     * Git repository ids by owner id and repository name
+     */
+    private final Map<String, Long> gitRepoIds = new ConcurrentHashMap<>();
+
+    /**
+     * branch ids by Git repository id and branch name
+     */
+    private final Map<String, Long> branchIds = new ConcurrentHashMap<>();
+
+    /**
+     * Get the branch of a Git repository of an owner, registering the owner, repository and branch if needed
+     *
+     * @param username   name of the owner
+     * @param repoName   name of the Git repository
+     * @param branchName name of the branch
+     * @return a reference to the branch entity, its state is loaded when it is first accessed
+     */
+    public Branch registerBranch(String username, String repoName, String branchName) {
+        Long ownerId = ownerIds.get(username);
+        if (ownerId == null) {
+            ownerId = ownerRepository.upsertOwner(username);
+            ownerIds.put(username, ownerId);
+        }
+
+        String gitRepoKey = ownerId + "/" + repoName;
+        Long gitRepoId = gitRepoIds.get(gitRepoKey);
+        if (gitRepoId == null) {
+            gitRepoId = gitRepoRepository.upsertGitRepo(ownerId, repoName);
+            gitRepoIds.put(gitRepoKey, gitRepoId);
+        }
+
+        String branchKey = gitRepoId + ":" + branchName;
+        Long branchId = branchIds.get(branchKey);
+        if (branchId == null) {
+            branchId = branchRepository.upsertBranch(gitRepoId, branchName);
+            branchIds.put(branchKey, branchId);
+        }
+
+        return entityManager.getReference(Branch.class, branchId);
+    }
+
+    /**
+     * Forget all resolved ids once owners, and with them their Git repositories and branches, are deleted
+     *
+     * @param event the deletion
+     */
+    @EventListener
+    public void onOwnerDeleted(OwnerDeletedEvent event) {
+        clearCache();
+    }
+
+    /**
+     * Forget all resolved ids
+     */
+    public void clearCache() {
+        ownerIds.clear();
+        gitRepoIds.clear();
+        branchIds.clear();
+    }
+}
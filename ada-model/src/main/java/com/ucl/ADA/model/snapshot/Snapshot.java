@@ -44,6 +44,13 @@ public class Snapshot extends BaseEntity {
     @Column(name = "timestamp")
     private OffsetDateTime timestamp;
 
+    /**
+     * Whether the analysis results of this snapshot are stored yet
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private SnapshotStatus status = SnapshotStatus.PENDING;
+
     /**
      * Project structure entity corresponding to this snapshot
      */
@@ -1,6 +1,8 @@
 package com.ucl.ADA.model.snapshot;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
@@ -55,4 +57,28 @@ public class SnapshotController {
         return snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(owner, repository, branch, odt);
     }
 
+    /**
+     * Endpoint for deleting a snapshot given the name of a Git repository, the username of
+     * its owner, name of branch and timestamp of request
+     * @param owner username of owner
+     * @param repository name of Git repository
+     * @param branch name of branch
+     * @param timestamp timestamp of request
+     * @return 204 if the snapshot was deleted, 404 if there is no such snapshot
+     * @throws DateTimeParseException if the timestamp string cannot be parsed
+     */
+    @CrossOrigin
+    @DeleteMapping("/{timestamp}")
+    public ResponseEntity<Void> deleteSnapshot(@PathVariable String owner,
+                                               @PathVariable String repository,
+                                               @PathVariable String branch,
+                                               @PathVariable String timestamp) throws DateTimeParseException {
+
+        DateTimeFormatter fIn = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        OffsetDateTime odt = OffsetDateTime.parse(timestamp, fIn);
+
+        boolean deleted = snapshotService.deleteSnapshot(owner, repository, branch, odt);
+        return new ResponseEntity<>(deleted ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
+    }
+
 }
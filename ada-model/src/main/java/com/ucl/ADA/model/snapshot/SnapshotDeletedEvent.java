@@ -0,0 +1,23 @@
+package com.ucl.ADA.model.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Published when a snapshot has been deleted, so that anything cached for it can be dropped.
+ */
+@Getter
+@AllArgsConstructor
+public class SnapshotDeletedEvent {
+
+    private final String owner;
+
+    private final String repository;
+
+    private final String branch;
+
+    private final OffsetDateTime timestamp;
+
+}
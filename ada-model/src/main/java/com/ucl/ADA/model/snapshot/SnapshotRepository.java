@@ -1,10 +1,17 @@
 package com.ucl.ADA.model.snapshot;
 
 import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Set;
 
 @Repository
@@ -25,4 +32,119 @@ public interface SnapshotRepository extends CrudRepository<Snapshot, Long> {
      */
     Snapshot findByBranchAndTimestamp(Branch branch, OffsetDateTime timestamp);
 
+    /**
+     * Get the timestamps of the stored snapshots of a branch older than a cutoff
+     * @param branch branch entity
+     * @param cutoff timestamp the snapshots are older than
+     * @return the timestamps
+     */
+    @Query("select s.timestamp from Snapshot s where s.branch = :branch and s.timestamp < :cutoff")
+    List<OffsetDateTime> findTimestampsByBranchBefore(@Param("branch") Branch branch, @Param("cutoff") OffsetDateTime cutoff);
+
+    /**
+     * Set the project structure of a snapshot, without loading or merging the snapshot
+     * @param snapshotId id of the snapshot
+     * @param projectStructure the stored project structure of the snapshot
+     */
+    @Modifying
+    @Query("update Snapshot s set s.projectStructure = :projectStructure where s.id = :snapshotId")
+    void linkProjectStructure(@Param("snapshotId") Long snapshotId, @Param("projectStructure") ProjectStructure projectStructure);
+
+    /**
+     * Set the status of a snapshot, without loading or merging the snapshot
+     * @param snapshotId id of the snapshot
+     * @param status the new status
+     * @return number of updated snapshots
+     */
+    @Modifying
+    @Query("update Snapshot s set s.status = :status where s.id = :snapshotId")
+    int updateStatus(@Param("snapshotId") Long snapshotId, @Param("status") SnapshotStatus status);
+
+    /**
+     * Set the status of every snapshot with a given status
+     * @param from the status of the updated snapshots
+     * @param to the new status
+     * @return number of updated snapshots
+     */
+    @Modifying
+    @Query("update Snapshot s set s.status = :to where s.status = :from")
+    int replaceStatus(@Param("from") SnapshotStatus from, @Param("to") SnapshotStatus to);
+
+    /**
+     * Record the class structures of the project structure of a snapshot as candidates for ada_collect_class_structures,
+     * which deletes the ones no other project structure references
+     * @param snapshotId id of the snapshot
+     * @return number of class structures recorded
+     */
+    @Modifying
+    @Query(value = "INSERT INTO CLASS_STRUCTURE_GC_CANDIDATE (class_structure_id) " +
+            "SELECT DISTINCT c.class_structure_id FROM PROJECT_STRUCTURE_CLASS_STRUCTURE c " +
+            "JOIN SNAPSHOT s ON s.project_structure_id = c.project_structure_id WHERE s.id = :snapshotId " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int recordClassStructureGcCandidates(@Param("snapshotId") Long snapshotId);
+
+    /**
+     * Delete the source files of a snapshot in one statement
+     * @param snapshotId id of the snapshot
+     * @return number of deleted source files
+     */
+    @Modifying
+    @Query(value = "DELETE FROM SOURCE_FILE WHERE snapshot_id = :snapshotId", nativeQuery = true)
+    int deleteSourceFiles(@Param("snapshotId") Long snapshotId);
+
+    /**
+     * Delete a snapshot, with its coupled pairs, document and stored response, in one statement
+     * @param snapshotId id of the snapshot
+     * @return number of deleted snapshots
+     */
+    @Modifying
+    @Query(value = "DELETE FROM SNAPSHOT WHERE id = :snapshotId", nativeQuery = true)
+    int deleteSnapshot(@Param("snapshotId") Long snapshotId);
+
+    /**
+     * Delete the class structure links of a project structure in one statement, the class structures stay
+     * @param projectStructureId id of the project structure
+     * @return number of deleted links
+     */
+    @Modifying
+    @Query(value = "DELETE FROM PROJECT_STRUCTURE_CLASS_STRUCTURE WHERE project_structure_id = :projectStructureId", nativeQuery = true)
+    int deleteProjectStructureLinks(@Param("projectStructureId") Long projectStructureId);
+
+    /**
+     * Delete a project structure which no snapshot references
+     * @param projectStructureId id of the project structure
+     * @return number of deleted project structures
+     */
+    @Modifying
+    @Query(value = "DELETE FROM PROJECT_STRUCTURE p WHERE p.id = :projectStructureId " +
+            "AND NOT EXISTS(SELECT 1 FROM SNAPSHOT s WHERE s.project_structure_id = p.id)", nativeQuery = true)
+    int deleteUnreferencedProjectStructure(@Param("projectStructureId") Long projectStructureId);
+
+    /**
+     * Create the partitions of the snapshot tables up to two id windows ahead of the id sequence, in its own
+     * transaction
+     * @return number of windows created
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "SELECT ada_ensure_snapshot_partitions()", nativeQuery = true)
+    Integer ensurePartitions();
+
+    /**
+     * Get the id windows the snapshot tables are partitioned into
+     * @return the window numbers, oldest first
+     */
+    @Query(value = "SELECT w FROM ada_snapshot_partition_windows() w ORDER BY w", nativeQuery = true)
+    List<Integer> findPartitionWindows();
+
+    /**
+     * Drop the partitions of an id window and delete its snapshots, if all of them are older than the cutoff, in its
+     * own transaction
+     * @param window number of the id window
+     * @param cutoff snapshots with an older timestamp are expired
+     * @return number of deleted snapshots, or -1 if the window is kept
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "SELECT ada_drop_expired_snapshot_partition(:window, :cutoff)", nativeQuery = true)
+    Integer dropExpiredPartition(@Param("window") int window, @Param("cutoff") OffsetDateTime cutoff);
+
 }
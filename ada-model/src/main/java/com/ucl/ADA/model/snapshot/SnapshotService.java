@@ -2,8 +2,12 @@ package com.ucl.ADA.model.snapshot;
 
 import com.ucl.ADA.model.branch.Branch;
 import com.ucl.ADA.model.branch.BranchService;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.Set;
@@ -17,6 +21,12 @@ public class SnapshotService {
     @Autowired
     private SnapshotRepository snapshotRepository;
 
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * Get all snapshots given a name of a Git repository, the username of its owner and the name of the branch
      * @param username name of the owner
@@ -43,4 +53,68 @@ public class SnapshotService {
 
         return snapshotRepository.findByBranchAndTimestamp(branch, timestamp);
     }
+
+    /**
+     * Store the project structure of a snapshot
+     *
+     * @param snapshot         the snapshot
+     * @param projectStructure the saved project structure of the snapshot
+     */
+    @Transactional
+    public void linkProjectStructure(Snapshot snapshot, ProjectStructure projectStructure) {
+        snapshotRepository.linkProjectStructure(snapshot.getId(), projectStructure);
+    }
+
+    /**
+     * Record whether the analysis results of a snapshot are stored
+     *
+     * @param snapshot the snapshot
+     * @param status   the new status
+     */
+    @Transactional
+    public void updateStatus(Snapshot snapshot, SnapshotStatus status) {
+        snapshotRepository.updateStatus(snapshot.getId(), status);
+        snapshot.setStatus(status);
+    }
+
+    /**
+     * Mark the snapshots whose results were still being written when the application stopped as failed
+     *
+     * @return number of failed snapshots
+     */
+    @Transactional
+    public int failPendingSnapshots() {
+        return snapshotRepository.replaceStatus(SnapshotStatus.PENDING, SnapshotStatus.FAILED);
+    }
+
+    /**
+     * Delete a snapshot with its source files and project structure, with one statement per table. The class
+     * structures of the project structure may be shared with other snapshots; they are recorded as candidates for
+     * ada_collect_class_structures, which deletes the unreferenced ones later. The snapshot is removed from the
+     * metric history of its branch too.
+     *
+     * @param username   name of the owner
+     * @param repository name of the Git repository
+     * @param branchName name of the branch
+     * @param timestamp  timestamp of the snapshot
+     * @return true if the snapshot existed and was deleted
+     */
+    @Transactional
+    public boolean deleteSnapshot(String username, String repository, String branchName, OffsetDateTime timestamp) {
+        Snapshot snapshot = getSnapshotGivenOwnerRepoBranchAndTimestamp(username, repository, branchName, timestamp);
+        if (snapshot == null) return false;
+
+        // the id of the lazy project structure is known without loading it
+        Long projectStructureId = snapshot.getProjectStructure() == null ? null : snapshot.getProjectStructure().getId();
+        snapshotRepository.recordClassStructureGcCandidates(snapshot.getId());
+        snapshotRepository.deleteSourceFiles(snapshot.getId());
+        snapshotRepository.deleteSnapshot(snapshot.getId());
+        if (projectStructureId != null) {
+            snapshotRepository.deleteProjectStructureLinks(projectStructureId);
+            snapshotRepository.deleteUnreferencedProjectStructure(projectStructureId);
+        }
+        metricHistoryService.removeSnapshot(snapshot.getBranch(), snapshot.getTimestamp());
+        applicationEventPublisher.publishEvent(new SnapshotDeletedEvent(username, repository, branchName, timestamp));
+        return true;
+    }
 }
@@ -0,0 +1,22 @@
+package com.ucl.ADA.model.snapshot;
+
+/**
+ * persistence state of the analysis results of a snapshot
+ */
+public enum SnapshotStatus {
+
+    /**
+     * the results are computed and served from memory, while they are written in the background
+     */
+    PENDING,
+
+    /**
+     * the results are stored
+     */
+    PERSISTED,
+
+    /**
+     * the results could not be stored
+     */
+    FAILED
+}
@@ -0,0 +1,16 @@
+package com.ucl.ADA.model.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when expired snapshots have been deleted by the retention policy, so that anything cached for them can be
+ * dropped.
+ */
+@Getter
+@AllArgsConstructor
+public class SnapshotsExpiredEvent {
+
+    private final int deletedSnapshots;
+
+}
@@ -0,0 +1,74 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The difference of one dependence edge between two snapshots. For added edges the counters hold the new values, for
+ * removed edges the old values and for changed edges the difference between the two.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class EdgeDelta {
+
+    /**
+     * qualified name of the consuming class
+     */
+    private String source;
+
+    /**
+     * qualified name of the declaring class
+     */
+    private String target;
+
+    /**
+     * number of package imports
+     */
+    private int packages;
+
+    /**
+     * number of attribute invocations
+     */
+    private int attributes;
+
+    /**
+     * number of constructor invocations
+     */
+    private int constructors;
+
+    /**
+     * number of method invocations
+     */
+    private int methods;
+
+    /**
+     * non-zero differences of the relation metrics of the source class towards the target class
+     */
+    private Map<RelationMetricType, Float> relationMetricDeltas = new EnumMap<>(RelationMetricType.class);
+
+    /**
+     * Constructor of the edge delta
+     *
+     * @param source qualified name of the consuming class
+     * @param target qualified name of the declaring class
+     */
+    public EdgeDelta(String source, String target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * check whether any counter or metric differs
+     *
+     * @return true if the edge has changed
+     */
+    boolean hasChanges() {
+        return packages != 0 || attributes != 0 || constructors != 0 || methods != 0 || !relationMetricDeltas.isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The architectural difference between two snapshots of a branch. Only the parts which changed are included.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SnapshotDiff {
+
+    /**
+     * classes present only in the newer snapshot
+     */
+    private List<String> addedClasses = new ArrayList<>();
+
+    /**
+     * classes present only in the older snapshot
+     */
+    private List<String> removedClasses = new ArrayList<>();
+
+    /**
+     * dependence edges present only in the newer snapshot
+     */
+    private List<EdgeDelta> addedEdges = new ArrayList<>();
+
+    /**
+     * dependence edges present only in the older snapshot
+     */
+    private List<EdgeDelta> removedEdges = new ArrayList<>();
+
+    /**
+     * dependence edges present in both snapshots whose counters or relation metrics changed
+     */
+    private List<EdgeDelta> changedEdges = new ArrayList<>();
+
+    /**
+     * non-zero class metric differences of the classes present in both snapshots, the key is qualified class name
+     */
+    private Map<String, Map<ClassMetricType, Float>> classMetricDeltas = new TreeMap<>();
+}
@@ -0,0 +1,45 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@CrossOrigin
+@RequestMapping("owners/{owner}/repositories/{repository}/branches/{branch}/snapshots/{timestamp}/diff")
+public class SnapshotDiffController {
+
+    @Autowired
+    private SnapshotDiffService snapshotDiffService;
+
+    /**
+     * Endpoint for getting the difference between two snapshots of a branch
+     *
+     * @param owner          username of owner
+     * @param repository     name of Git repository
+     * @param branch         name of branch
+     * @param timestamp      timestamp of the older snapshot
+     * @param otherTimestamp timestamp of the newer snapshot
+     * @return the added and removed classes and edges, and the metric deltas, or 404 if either snapshot does not exist
+     */
+    @CrossOrigin
+    @PostMapping("/{otherTimestamp}")
+    public ResponseEntity<SnapshotDiff> getSnapshotDiff(@PathVariable String owner,
+                                        @PathVariable String repository,
+                                        @PathVariable String branch,
+                                        @PathVariable String timestamp,
+                                        @PathVariable String otherTimestamp) {
+
+        DateTimeFormatter fIn = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        OffsetDateTime before = OffsetDateTime.parse(timestamp, fIn);
+        OffsetDateTime after = OffsetDateTime.parse(otherTimestamp, fIn);
+
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff(owner, repository, branch, before, after);
+        if (snapshotDiff == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(snapshotDiff, HttpStatus.OK);
+    }
+}
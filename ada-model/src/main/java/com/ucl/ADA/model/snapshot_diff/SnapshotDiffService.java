@@ -0,0 +1,167 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.project_structure.FetchPlan;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ucl.ADA.model.snapshot_diff.SnapshotProjection.*;
+
+@Service
+public class SnapshotDiffService {
+
+    @Autowired
+    private ProjectStructureService projectStructureService;
+
+    /**
+     * Compare two snapshots of a branch given username, repository name, branch name and the two timestamps. Each
+     * snapshot is loaded with its metrics and projected right after, so only the compact projections are kept while
+     * diffing; the invocations counted on the edges are read within the transaction, without their parameters.
+     *
+     * @param username   name of the owner
+     * @param repository name of the Git repository
+     * @param branchName name of the branch
+     * @param before     timestamp of the older snapshot
+     * @param after      timestamp of the newer snapshot
+     * @return the difference between the snapshots, or null if either of them does not exist
+     */
+    @Transactional(readOnly = true)
+    public SnapshotDiff diff(String username, String repository, String branchName, OffsetDateTime before, OffsetDateTime after) {
+        ProjectStructure beforeStructure = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp(username, repository, branchName, before, FetchPlan.METRICS);
+        if (beforeStructure == null) return null;
+        SnapshotProjection beforeProjection = SnapshotProjection.of(beforeStructure);
+
+        ProjectStructure afterStructure = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp(username, repository, branchName, after, FetchPlan.METRICS);
+        if (afterStructure == null) return null;
+        SnapshotProjection afterProjection = SnapshotProjection.of(afterStructure);
+
+        return diff(beforeProjection, afterProjection);
+    }
+
+    /**
+     * Compare two snapshot projections. Classes and edges are merged in a single pass over the sorted arrays.
+     *
+     * @param before projection of the older snapshot
+     * @param after  projection of the newer snapshot
+     * @return the difference between the projections
+     */
+    public SnapshotDiff diff(SnapshotProjection before, SnapshotProjection after) {
+        SnapshotDiff snapshotDiff = new SnapshotDiff();
+
+        String[] beforeNames = before.getClassNames();
+        String[] afterNames = after.getClassNames();
+
+        // merge the class names, mapping both sets of ids to ids in the merged name order
+        List<String> mergedNames = new ArrayList<>(Math.max(beforeNames.length, afterNames.length));
+        int[] beforeToMerged = new int[beforeNames.length];
+        int[] afterToMerged = new int[afterNames.length];
+        int i = 0;
+        int j = 0;
+        while (i < beforeNames.length || j < afterNames.length) {
+            int comparison = i == beforeNames.length ? 1 : j == afterNames.length ? -1 : beforeNames[i].compareTo(afterNames[j]);
+            if (comparison < 0) {
+                snapshotDiff.getRemovedClasses().add(beforeNames[i]);
+                beforeToMerged[i++] = mergedNames.size();
+                mergedNames.add(beforeNames[i - 1]);
+            } else if (comparison > 0) {
+                snapshotDiff.getAddedClasses().add(afterNames[j]);
+                afterToMerged[j++] = mergedNames.size();
+                mergedNames.add(afterNames[j - 1]);
+            } else {
+                addClassMetricDeltas(snapshotDiff, beforeNames[i], before.getClassMetrics(), i, after.getClassMetrics(), j);
+                beforeToMerged[i++] = mergedNames.size();
+                afterToMerged[j++] = mergedNames.size();
+                mergedNames.add(beforeNames[i - 1]);
+            }
+        }
+
+        // the id mappings preserve the order, so the remapped edge arrays stay sorted
+        long[] beforeEdges = before.getEdges();
+        long[] afterEdges = after.getEdges();
+        i = 0;
+        j = 0;
+        while (i < beforeEdges.length || j < afterEdges.length) {
+            long beforeEdge = i == beforeEdges.length ? Long.MAX_VALUE : remap(beforeEdges[i], beforeToMerged);
+            long afterEdge = j == afterEdges.length ? Long.MAX_VALUE : remap(afterEdges[j], afterToMerged);
+            if (beforeEdge < afterEdge) {
+                EdgeDelta edgeDelta = edgeDelta(beforeEdge, mergedNames);
+                setCounters(edgeDelta, before.getEdgeCounters(), i, null, 0);
+                snapshotDiff.getRemovedEdges().add(edgeDelta);
+                i++;
+            } else if (beforeEdge > afterEdge) {
+                EdgeDelta edgeDelta = edgeDelta(afterEdge, mergedNames);
+                setCounters(edgeDelta, after.getEdgeCounters(), j, null, 0);
+                snapshotDiff.getAddedEdges().add(edgeDelta);
+                j++;
+            } else {
+                EdgeDelta edgeDelta = edgeDelta(afterEdge, mergedNames);
+                setCounters(edgeDelta, after.getEdgeCounters(), j, before.getEdgeCounters(), i);
+                addRelationMetricDeltas(edgeDelta, before.getRelationMetrics(), i, after.getRelationMetrics(), j);
+                if (edgeDelta.hasChanges()) {
+                    snapshotDiff.getChangedEdges().add(edgeDelta);
+                }
+                i++;
+                j++;
+            }
+        }
+
+        return snapshotDiff;
+    }
+
+    private void addClassMetricDeltas(SnapshotDiff snapshotDiff, String className, float[] beforeMetrics, int beforeId, float[] afterMetrics, int afterId) {
+        Map<ClassMetricType, Float> deltas = null;
+        for (ClassMetricType classMetricType : ClassMetricType.values()) {
+            float delta = afterMetrics[afterId * CLASS_METRICS + classMetricType.ordinal()]
+                    - beforeMetrics[beforeId * CLASS_METRICS + classMetricType.ordinal()];
+            if (delta != 0f) {
+                if (deltas == null) {
+                    deltas = new EnumMap<>(ClassMetricType.class);
+                    snapshotDiff.getClassMetricDeltas().put(className, deltas);
+                }
+                deltas.put(classMetricType, delta);
+            }
+        }
+    }
+
+    private void addRelationMetricDeltas(EdgeDelta edgeDelta, float[] beforeMetrics, int beforeEdge, float[] afterMetrics, int afterEdge) {
+        for (RelationMetricType relationMetricType : RelationMetricType.values()) {
+            float delta = afterMetrics[afterEdge * RELATION_METRICS + relationMetricType.ordinal()]
+                    - beforeMetrics[beforeEdge * RELATION_METRICS + relationMetricType.ordinal()];
+            if (delta != 0f) {
+                edgeDelta.getRelationMetricDeltas().put(relationMetricType, delta);
+            }
+        }
+    }
+
+    /**
+     * set the counters of an edge delta, subtracting the base counters if they are given
+     */
+    private void setCounters(EdgeDelta edgeDelta, int[] counters, int edge, int[] baseCounters, int baseEdge) {
+        int[] delta = new int[EDGE_COUNTERS];
+        for (int c = 0; c < EDGE_COUNTERS; c++) {
+            delta[c] = counters[edge * EDGE_COUNTERS + c] - (baseCounters == null ? 0 : baseCounters[baseEdge * EDGE_COUNTERS + c]);
+        }
+        edgeDelta.setPackages(delta[0]);
+        edgeDelta.setAttributes(delta[1]);
+        edgeDelta.setConstructors(delta[2]);
+        edgeDelta.setMethods(delta[3]);
+    }
+
+    private EdgeDelta edgeDelta(long edge, List<String> mergedNames) {
+        return new EdgeDelta(mergedNames.get(sourceOf(edge)), mergedNames.get(targetOf(edge)));
+    }
+
+    private long remap(long edge, int[] toMerged) {
+        return ((long) toMerged[sourceOf(edge)] << 32) | toMerged[targetOf(edge)];
+    }
+}
@@ -0,0 +1,147 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricValue;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A flat, array based projection of a ProjectStructure used for comparing snapshots. Classes are identified by their
+ * position in the sorted array of class names, and the outgoing dependence edges are kept sorted by (source, target),
+ * so two projections can be compared with a single linear merge.
+ */
+@Getter
+public class SnapshotProjection {
+
+    /**
+     * number of invocation counters stored per edge: packages, attributes, constructors and methods
+     */
+    static final int EDGE_COUNTERS = 4;
+
+    static final int CLASS_METRICS = ClassMetricType.values().length;
+
+    static final int RELATION_METRICS = RelationMetricType.values().length;
+
+    /**
+     * sorted qualified names of all classes, the index of a name is the id of the class
+     */
+    private final String[] classNames;
+
+    /**
+     * class metric values, CLASS_METRICS consecutive values per class id, indexed by ClassMetricType ordinal
+     */
+    private final float[] classMetrics;
+
+    /**
+     * sorted edges, the source id is stored in the upper and the target id in the lower 32 bits
+     */
+    private final long[] edges;
+
+    /**
+     * EDGE_COUNTERS invocation counters per edge
+     */
+    private final int[] edgeCounters;
+
+    /**
+     * relation metric values of the source class towards the target class, RELATION_METRICS consecutive values per
+     * edge, indexed by RelationMetricType ordinal
+     */
+    private final float[] relationMetrics;
+
+    private SnapshotProjection(String[] classNames, float[] classMetrics, long[] edges, int[] edgeCounters, float[] relationMetrics) {
+        this.classNames = classNames;
+        this.classMetrics = classMetrics;
+        this.edges = edges;
+        this.edgeCounters = edgeCounters;
+        this.relationMetrics = relationMetrics;
+    }
+
+    /**
+     * Project a ProjectStructure to sorted arrays of classes and edges.
+     *
+     * @param projectStructure the project structure to project, with computed metrics
+     * @return the projection of the project structure
+     */
+    public static SnapshotProjection of(ProjectStructure projectStructure) {
+        Map<String, ClassStructure> classStructures = projectStructure.getClassStructures();
+
+        String[] classNames = classStructures.keySet().toArray(new String[0]);
+        Arrays.sort(classNames);
+        Map<String, Integer> classIds = new HashMap<>(classNames.length * 2);
+        for (int id = 0; id < classNames.length; id++) {
+            classIds.put(classNames[id], id);
+        }
+
+        float[] classMetrics = new float[classNames.length * CLASS_METRICS];
+        int edgeCount = 0;
+        for (int id = 0; id < classNames.length; id++) {
+            ClassStructure classStructure = classStructures.get(classNames[id]);
+            ClassMetricValue classMetricValue = classStructure.getClassMetricValues();
+            if (classMetricValue != null) {
+                System.arraycopy(classMetricValue.getVector(), 0, classMetrics, id * CLASS_METRICS, CLASS_METRICS);
+            }
+            edgeCount += classStructure.getOutgoingDependenceInfo().size();
+        }
+
+        long[] edges = new long[edgeCount];
+        int edge = 0;
+        for (int id = 0; id < classNames.length; id++) {
+            for (String targetClass : classStructures.get(classNames[id]).getOutgoingDependenceInfo().keySet()) {
+                Integer targetId = classIds.get(targetClass);
+                if (targetId != null) {
+                    edges[edge++] = ((long) id << 32) | targetId;
+                }
+            }
+        }
+        edges = Arrays.copyOf(edges, edge);
+        Arrays.sort(edges);
+
+        int[] edgeCounters = new int[edges.length * EDGE_COUNTERS];
+        float[] relationMetrics = new float[edges.length * RELATION_METRICS];
+        for (int e = 0; e < edges.length; e++) {
+            ClassStructure source = classStructures.get(classNames[sourceOf(edges[e])]);
+            String targetClass = classNames[targetOf(edges[e])];
+
+            DependenceInfo dependenceInfo = source.getOutgoingDependenceInfo().get(targetClass);
+            edgeCounters[e * EDGE_COUNTERS] = dependenceInfo.getPackages().size();
+            edgeCounters[e * EDGE_COUNTERS + 1] = dependenceInfo.getAttributes().size();
+            edgeCounters[e * EDGE_COUNTERS + 2] = dependenceInfo.getConstructors().size();
+            edgeCounters[e * EDGE_COUNTERS + 3] = dependenceInfo.getMethods().size();
+
+            RelationMetricValue relationMetricValue = source.getRelationMetricValues().get(targetClass);
+            if (relationMetricValue != null) {
+                System.arraycopy(relationMetricValue.getVector(), 0, relationMetrics, e * RELATION_METRICS, RELATION_METRICS);
+            }
+        }
+
+        return new SnapshotProjection(classNames, classMetrics, edges, edgeCounters, relationMetrics);
+    }
+
+    /**
+     * get the source class id of an edge
+     *
+     * @param edge the packed edge
+     * @return the id of the source class
+     */
+    static int sourceOf(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    /**
+     * get the target class id of an edge
+     *
+     * @param edge the packed edge
+     * @return the id of the target class
+     */
+    static int targetOf(long edge) {
+        return (int) edge;
+    }
+}
@@ -0,0 +1,284 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The serialised form of a ProjectStructure. Only what the relational tables store is kept: the incoming dependence
+ * information and the mirrored relation metrics are rebuilt with ProjectStructure.relink after decoding.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProjectStructureDocument {
+
+    private List<ClassDocument> classes = new ArrayList<>();
+
+    /**
+     * Convert a project structure, with computed metrics, to a document
+     *
+     * @param projectStructure the project structure
+     * @return the document of the project structure
+     */
+    public static ProjectStructureDocument of(ProjectStructure projectStructure) {
+        ProjectStructureDocument document = new ProjectStructureDocument();
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            document.classes.add(ClassDocument.of(entry.getKey(), entry.getValue()));
+        }
+        return document;
+    }
+
+    /**
+     * Rebuild the project structure stored in the document
+     *
+     * @return a new, linked project structure
+     */
+    public ProjectStructure toProjectStructure() {
+        ProjectStructure projectStructure = new ProjectStructure();
+        for (ClassDocument classDocument : classes) {
+            projectStructure.getClassStructures().put(classDocument.name, classDocument.toClassStructure());
+        }
+        projectStructure.relink();
+        return projectStructure;
+    }
+
+    private static <S, T> List<T> map(List<S> values, Function<S, T> mapper) {
+        return values.stream().map(mapper).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class ClassDocument {
+        private String name;
+        private String packageName;
+        private float[] metrics;
+        private List<AttributeDocument> attributes = new ArrayList<>();
+        private List<MethodDocument> constructors = new ArrayList<>();
+        private List<MethodDocument> methods = new ArrayList<>();
+        private List<DependenceDocument> outgoing = new ArrayList<>();
+        private List<String> globalData = new ArrayList<>();
+        private List<InvocationDocument> globalMethods = new ArrayList<>();
+        private List<String> externalPackages = new ArrayList<>();
+        private List<InvocationDocument> externalMethods = new ArrayList<>();
+        private List<InvocationDocument> externalConstructors = new ArrayList<>();
+        private List<String> externalAttributes = new ArrayList<>();
+        /**
+         * the relation metrics owned by the class, by related class name
+         */
+        private Map<String, float[]> relationMetrics = new HashMap<>();
+
+        static ClassDocument of(String name, ClassStructure classStructure) {
+            ClassDocument document = new ClassDocument();
+            document.name = name;
+            document.packageName = classStructure.getCurrentPackage().getName();
+            document.metrics = classStructure.getClassMetricValues().getVector();
+            document.attributes = map(classStructure.getAttributeDeclarations(), AttributeDocument::of);
+            document.constructors = map(classStructure.getConstructorDeclarations(), MethodDocument::of);
+            document.methods = map(classStructure.getMethodsDeclarations(), MethodDocument::of);
+            for (Map.Entry<String, DependenceInfo> entry : classStructure.getOutgoingDependenceInfo().entrySet()) {
+                document.outgoing.add(DependenceDocument.of(entry.getKey(), entry.getValue()));
+            }
+            document.globalData = map(classStructure.getGlobalData(), ElementInvocation::getName);
+            document.globalMethods = map(classStructure.getGlobalMethods(), InvocationDocument::of);
+            document.externalPackages = map(classStructure.getExternalPackageImports(), ElementInvocation::getName);
+            document.externalMethods = map(classStructure.getExternalMethodInvocations(), InvocationDocument::of);
+            document.externalConstructors = map(classStructure.getExternalConstructorInvocations(), InvocationDocument::of);
+            document.externalAttributes = map(classStructure.getExternalAttributeInvocations(), ElementInvocation::getName);
+            for (Map.Entry<String, RelationMetricValue> entry : classStructure.getOwnedRelationMetricValues().entrySet()) {
+                document.relationMetrics.put(entry.getKey(), entry.getValue().getVector());
+            }
+            return document;
+        }
+
+        ClassStructure toClassStructure() {
+            ClassStructure classStructure = new ClassStructure();
+            classStructure.setCurrentPackage(new PackageDeclaration(packageName));
+            copyInto(metrics, classStructure.getClassMetricValues().getVector());
+            classStructure.setAttributeDeclarations(map(attributes, AttributeDocument::toAttributeDeclaration));
+            classStructure.setConstructorDeclarations(map(constructors, MethodDocument::toConstructorDeclaration));
+            classStructure.setMethodsDeclarations(map(methods, MethodDocument::toMethodDeclaration));
+            for (DependenceDocument dependenceDocument : outgoing) {
+                classStructure.getOutgoingDependenceInfo().put(dependenceDocument.target, dependenceDocument.toDependenceInfo());
+            }
+            classStructure.setGlobalData(map(globalData, AttributeInvocation::new));
+            classStructure.setGlobalMethods(map(globalMethods, InvocationDocument::toMethodInvocation));
+            classStructure.setExternalPackageImports(map(externalPackages, PackageInvocation::new));
+            classStructure.setExternalMethodInvocations(map(externalMethods, InvocationDocument::toMethodInvocation));
+            classStructure.setExternalConstructorInvocations(map(externalConstructors, InvocationDocument::toConstructorInvocation));
+            classStructure.setExternalAttributeInvocations(map(externalAttributes, AttributeInvocation::new));
+            for (Map.Entry<String, float[]> entry : relationMetrics.entrySet()) {
+                RelationMetricValue relationMetricValue = new RelationMetricValue();
+                copyInto(entry.getValue(), relationMetricValue.getVector());
+                classStructure.getOwnedRelationMetricValues().put(entry.getKey(), relationMetricValue);
+            }
+            return classStructure;
+        }
+
+        /**
+         * copy stored metric values into a metric vector, documents written before metric types were added leave the
+         * new metrics at zero
+         */
+        private static void copyInto(float[] stored, float[] vector) {
+            if (stored != null) System.arraycopy(stored, 0, vector, 0, Math.min(stored.length, vector.length));
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class AttributeDocument {
+        private Set<ModifierType> modifiers;
+        private String type;
+        private String name;
+        private String value;
+
+        static AttributeDocument of(AttributeDeclaration declaration) {
+            AttributeDocument document = new AttributeDocument();
+            document.modifiers = declaration.getModifierTypes();
+            document.type = declaration.getType();
+            document.name = declaration.getName();
+            document.value = declaration.getValue();
+            return document;
+        }
+
+        AttributeDeclaration toAttributeDeclaration() {
+            return new AttributeDeclaration(new HashSet<>(modifiers), type, name, value);
+        }
+    }
+
+    /**
+     * A constructor or method declaration, constructors have no return type
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class MethodDocument {
+        private Set<ModifierType> modifiers;
+        private String returnType;
+        private String name;
+        private List<ParameterDocument> parameters = new ArrayList<>();
+
+        static MethodDocument of(ConstructorDeclaration declaration) {
+            MethodDocument document = new MethodDocument();
+            document.modifiers = declaration.getModifierTypes();
+            document.name = declaration.getName();
+            document.parameters = map(declaration.getParameters(), ParameterDocument::of);
+            return document;
+        }
+
+        static MethodDocument of(MethodDeclaration declaration) {
+            MethodDocument document = new MethodDocument();
+            document.modifiers = declaration.getModifierTypes();
+            document.returnType = declaration.getReturnType();
+            document.name = declaration.getName();
+            document.parameters = map(declaration.getParameters(), ParameterDocument::of);
+            return document;
+        }
+
+        ConstructorDeclaration toConstructorDeclaration() {
+            return new ConstructorDeclaration(new HashSet<>(modifiers), name, map(parameters, ParameterDocument::toParameterDeclaration));
+        }
+
+        MethodDeclaration toMethodDeclaration() {
+            return new MethodDeclaration(new HashSet<>(modifiers), returnType, name, map(parameters, ParameterDocument::toParameterDeclaration));
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class ParameterDocument {
+        private String type;
+        private String name;
+
+        static ParameterDocument of(ParameterDeclaration declaration) {
+            ParameterDocument document = new ParameterDocument();
+            document.type = declaration.getType();
+            document.name = declaration.getName();
+            return document;
+        }
+
+        ParameterDeclaration toParameterDeclaration() {
+            return new ParameterDeclaration(type, name);
+        }
+    }
+
+    /**
+     * A constructor or method invocation with the names of its passed parameters
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class InvocationDocument {
+        private String name;
+        private List<String> passedParameters = new ArrayList<>();
+
+        static InvocationDocument of(ConstructorInvocation invocation) {
+            return of(invocation.getName(), invocation.getPassedParameters());
+        }
+
+        static InvocationDocument of(MethodInvocation invocation) {
+            return of(invocation.getName(), invocation.getPassedParameters());
+        }
+
+        private static InvocationDocument of(String name, List<PassedParameter> passedParameters) {
+            InvocationDocument document = new InvocationDocument();
+            document.name = name;
+            document.passedParameters = map(passedParameters, PassedParameter::getName);
+            return document;
+        }
+
+        ConstructorInvocation toConstructorInvocation() {
+            return new ConstructorInvocation(name, map(passedParameters, PassedParameter::new));
+        }
+
+        MethodInvocation toMethodInvocation() {
+            return new MethodInvocation(name, map(passedParameters, PassedParameter::new));
+        }
+    }
+
+    /**
+     * The outgoing dependence information of a class on one target class
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class DependenceDocument {
+        private String target;
+        private List<String> packages = new ArrayList<>();
+        private List<String> attributes = new ArrayList<>();
+        private List<InvocationDocument> constructors = new ArrayList<>();
+        private List<InvocationDocument> methods = new ArrayList<>();
+
+        static DependenceDocument of(String target, DependenceInfo dependenceInfo) {
+            DependenceDocument document = new DependenceDocument();
+            document.target = target;
+            document.packages = map(dependenceInfo.getPackages(), ElementInvocation::getName);
+            document.attributes = map(dependenceInfo.getAttributes(), ElementInvocation::getName);
+            document.constructors = map(dependenceInfo.getConstructors(), InvocationDocument::of);
+            document.methods = map(dependenceInfo.getMethods(), InvocationDocument::of);
+            return document;
+        }
+
+        DependenceInfo toDependenceInfo() {
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.setPackages(map(packages, PackageInvocation::new));
+            dependenceInfo.setAttributes(map(attributes, AttributeInvocation::new));
+            dependenceInfo.setConstructors(map(constructors, InvocationDocument::toConstructorInvocation));
+            dependenceInfo.setMethods(map(methods, InvocationDocument::toMethodInvocation));
+            return dependenceInfo;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes a ProjectStructure as a gzip compressed Smile document and decodes it again. Smile is the binary form of
+ * JSON; repeated names and short strings are written once and referenced afterwards, which suits the many repeated
+ * package, type and invocation names of a project.
+ */
+public final class ProjectStructureDocumentCodec {
+
+    /**
+     * version of the document format written by encode
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper(new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+
+    private static final ObjectWriter WRITER = MAPPER.writerFor(ProjectStructureDocument.class);
+
+    private static final ObjectReader READER = MAPPER.readerFor(ProjectStructureDocument.class);
+
+    private ProjectStructureDocumentCodec() {
+    }
+
+    /**
+     * @param projectStructure a project structure with computed metrics
+     * @return the compressed document
+     */
+    public static byte[] encode(ProjectStructure projectStructure) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (OutputStream out = new GZIPOutputStream(bytes, BUFFER_SIZE)) {
+            WRITER.writeValue(out, ProjectStructureDocument.of(projectStructure));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode the project structure", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a document, streaming from the decompressor into the parser
+     *
+     * @param document      the compressed document
+     * @param formatVersion the format version the document was written with
+     * @return the decoded project structure
+     */
+    public static ProjectStructure decode(byte[] document, int formatVersion) {
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot document format version " + formatVersion);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(document), BUFFER_SIZE)) {
+            ProjectStructureDocument projectStructureDocument = READER.readValue(in);
+            return projectStructureDocument.toProjectStructure();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode the project structure", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * The whole ProjectStructure of a snapshot, stored as one compressed binary document. Snapshots do not change once
+ * they are written, so the document is read back with a single row instead of loading the relational tables.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SNAPSHOT_DOCUMENT")
+public class SnapshotDocument extends BaseEntity {
+
+    /**
+     * the snapshot the document belongs to
+     */
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "snapshot_id", nullable = false, unique = true)
+    private Snapshot snapshot;
+
+    /**
+     * version of the document format, see ProjectStructureDocumentCodec
+     */
+    @Column(name = "format_version", nullable = false)
+    private int formatVersion;
+
+    /**
+     * the encoded and compressed project structure
+     */
+    @JsonIgnore
+    @Column(name = "document", nullable = false)
+    private byte[] document;
+
+}
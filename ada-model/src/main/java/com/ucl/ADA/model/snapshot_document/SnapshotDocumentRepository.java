@@ -0,0 +1,18 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SnapshotDocumentRepository extends CrudRepository<SnapshotDocument, Long> {
+
+    /**
+     * find the document of a snapshot
+     *
+     * @param snapshot a Snapshot object
+     * @return the document of the snapshot, or null if it is not stored as a document
+     */
+    SnapshotDocument findBySnapshot(Snapshot snapshot);
+
+}
@@ -0,0 +1,43 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class SnapshotDocumentService {
+
+    @Autowired
+    private SnapshotDocumentRepository snapshotDocumentRepository;
+
+    /**
+     * store the project structure of a snapshot as a single document
+     *
+     * @param snapshot         the snapshot
+     * @param projectStructure its project structure, with computed metrics
+     * @return the saved document
+     */
+    @Transactional
+    public SnapshotDocument save(Snapshot snapshot, ProjectStructure projectStructure) {
+        SnapshotDocument snapshotDocument = new SnapshotDocument();
+        snapshotDocument.setSnapshot(snapshot);
+        snapshotDocument.setFormatVersion(ProjectStructureDocumentCodec.FORMAT_VERSION);
+        snapshotDocument.setDocument(ProjectStructureDocumentCodec.encode(projectStructure));
+        return snapshotDocumentRepository.save(snapshotDocument);
+    }
+
+    /**
+     * get the project structure of a snapshot from its document
+     *
+     * @param snapshot the snapshot
+     * @return the decoded project structure, or null if the snapshot is not stored as a document
+     */
+    public ProjectStructure findProjectStructure(Snapshot snapshot) {
+        if (snapshot == null) return null;
+        SnapshotDocument snapshotDocument = snapshotDocumentRepository.findBySnapshot(snapshot);
+        if (snapshotDocument == null) return null;
+        return ProjectStructureDocumentCodec.decode(snapshotDocument.getDocument(), snapshotDocument.getFormatVersion());
+    }
+}
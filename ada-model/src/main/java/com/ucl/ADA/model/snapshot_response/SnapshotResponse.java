@@ -0,0 +1,41 @@
+package com.ucl.ADA.model.snapshot_response;
+
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * The JSON response body of the project structure of a snapshot, serialized and gzip compressed once. Snapshots do
+ * not change once they are analysed, so the bytes are served as they are, identified by a strong ETag.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SNAPSHOT_RESPONSE")
+public class SnapshotResponse extends BaseEntity {
+
+    /**
+     * the snapshot the response belongs to
+     */
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "snapshot_id", nullable = false, unique = true)
+    private Snapshot snapshot;
+
+    /**
+     * hex encoded SHA-256 digest of the uncompressed JSON, without the quotes of the ETag header
+     */
+    @Column(name = "etag", nullable = false)
+    private String etag;
+
+    /**
+     * the gzip compressed JSON
+     */
+    @Column(name = "content", nullable = false)
+    private byte[] content;
+
+}
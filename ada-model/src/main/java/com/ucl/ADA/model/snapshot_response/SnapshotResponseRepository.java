@@ -0,0 +1,36 @@
+package com.ucl.ADA.model.snapshot_response;
+
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SnapshotResponseRepository extends CrudRepository<SnapshotResponse, Long> {
+
+    /**
+     * find the stored response of a snapshot
+     *
+     * @param snapshot a Snapshot object
+     * @return the response of the snapshot, or null if none is stored
+     */
+    SnapshotResponse findBySnapshot(Snapshot snapshot);
+
+    /**
+     * store the response of a snapshot unless one is stored already, so concurrent first requests of the same
+     * snapshot do not fail on the unique key
+     *
+     * @param snapshotId id of the snapshot
+     * @param etag       digest of the uncompressed JSON
+     * @param content    the gzip compressed JSON
+     * @return number of inserted rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO snapshot_response (id, snapshot_id, etag, content) " +
+            "VALUES (nextval('ada_id_sequence'), :snapshotId, :etag, :content) " +
+            "ON CONFLICT (snapshot_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("snapshotId") Long snapshotId, @Param("etag") String etag, @Param("content") byte[] content);
+
+}
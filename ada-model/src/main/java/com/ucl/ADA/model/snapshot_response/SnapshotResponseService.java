@@ -0,0 +1,101 @@
+package com.ucl.ADA.model.snapshot_response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class SnapshotResponseService {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @Autowired
+    private SnapshotResponseRepository snapshotResponseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * serialize the project structure of a snapshot with the ObjectMapper of the controllers and store the compressed
+     * JSON, unless a response of the snapshot is stored already
+     *
+     * @param snapshot         the snapshot, with an id
+     * @param projectStructure its project structure, with computed metrics
+     * @return the stored response of the snapshot
+     */
+    @Transactional
+    public SnapshotResponse save(Snapshot snapshot, ProjectStructure projectStructure) {
+        SnapshotResponse snapshotResponse = render(snapshot, projectStructure);
+        if (snapshotResponseRepository.insertIfAbsent(snapshot.getId(), snapshotResponse.getEtag(), snapshotResponse.getContent()) == 0) {
+            return snapshotResponseRepository.findBySnapshot(snapshot);
+        }
+        return snapshotResponse;
+    }
+
+    /**
+     * serialize the project structure of a snapshot with the ObjectMapper of the controllers, without storing it
+     *
+     * @param snapshot         the snapshot
+     * @param projectStructure its project structure, with computed metrics
+     * @return the response of the snapshot
+     */
+    public SnapshotResponse render(Snapshot snapshot, ProjectStructure projectStructure) {
+        SnapshotResponse snapshotResponse = new SnapshotResponse();
+        snapshotResponse.setSnapshot(snapshot);
+
+        // the JSON is digested on its way into the compressor, so it is never held uncompressed
+        MessageDigest digest = sha256();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (OutputStream out = new DigestOutputStream(new GZIPOutputStream(compressed, BUFFER_SIZE), digest)) {
+            objectMapper.writeValue(out, projectStructure);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize the project structure", e);
+        }
+        snapshotResponse.setEtag(toHex(digest.digest()));
+        snapshotResponse.setContent(compressed.toByteArray());
+        return snapshotResponse;
+    }
+
+    /**
+     * get the stored response of a snapshot
+     *
+     * @param snapshot the snapshot
+     * @return the stored response, or null if there is none
+     */
+    public SnapshotResponse findBySnapshot(Snapshot snapshot) {
+        if (snapshot == null) return null;
+        return snapshotResponseRepository.findBySnapshot(snapshot);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param bytes a digest
+     * @return the lower case hex encoding of the digest
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ucl.ADA.model.snapshot_retention;
+
+import com.ucl.ADA.model.class_structure.ClassStructureRepository;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.snapshot.SnapshotRepository;
+import com.ucl.ADA.model.snapshot.SnapshotsExpiredEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Maintains the partitions of the snapshot tables and applies the retention policy. SOURCE_FILE, COUPLED_PAIR and
+ * PROJECT_STRUCTURE_CLASS_STRUCTURE are partitioned by windows of the shared id sequence, so the rows of a snapshot
+ * live in a single partition. Windows whose snapshots are all older than ada.retention.snapshot-max-age are removed
+ * by dropping their partitions, which costs the same however large the database is. The class structures which are
+ * no longer referenced by any snapshot are then deleted in small batches.
+ */
+@Service
+public class SnapshotRetentionService {
+
+    /**
+     * number of unreferenced class structures deleted per transaction
+     */
+    static final int COLLECTION_BATCH_SIZE = 1000;
+
+    @Autowired
+    private SnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ClassStructureRepository classStructureRepository;
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * snapshots older than this are deleted, zero keeps all snapshots
+     */
+    @Value("${ada.retention.snapshot-max-age:0d}")
+    private Duration snapshotMaxAge = Duration.ZERO;
+
+    /**
+     * Create the partitions ahead of the id sequence, so that new snapshots always find theirs. Called before
+     * snapshots and project structures are written, and periodically.
+     */
+    public void ensurePartitions() {
+        snapshotRepository.ensurePartitions();
+    }
+
+    /**
+     * Create the missing partitions once the schema is migrated, before anything is written
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Drop the partitions of the expired id windows, remove their snapshots from the metric histories and delete the
+     * class structures they were the last reference of
+     *
+     * @return number of deleted snapshots
+     */
+    @Scheduled(fixedDelayString = "${ada.retention.interval-ms:3600000}", initialDelayString = "${ada.retention.interval-ms:3600000}")
+    public int purgeExpiredSnapshots() {
+        ensurePartitions();
+        if (snapshotMaxAge.isZero() || snapshotMaxAge.isNegative()) return 0;
+
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(snapshotMaxAge);
+        int deletedSnapshots = 0;
+        for (Integer window : snapshotRepository.findPartitionWindows()) {
+            Integer deleted = snapshotRepository.dropExpiredPartition(window, cutoff);
+            if (deleted != null && deleted > 0) deletedSnapshots += deleted;
+        }
+        if (deletedSnapshots > 0) {
+            metricHistoryService.removeExpiredSnapshots(cutoff);
+            applicationEventPublisher.publishEvent(new SnapshotsExpiredEvent(deletedSnapshots));
+        }
+
+        collectUnreferencedClassStructures();
+        return deletedSnapshots;
+    }
+
+    /**
+     * Delete the class structures left without project structure, one batch per transaction so that writers reusing
+     * stored class structures are only held up briefly
+     */
+    public void collectUnreferencedClassStructures() {
+        Integer processed;
+        do {
+            processed = classStructureRepository.collectUnreferenced(COLLECTION_BATCH_SIZE);
+        } while (processed != null && processed > 0);
+    }
+}
@@ -10,7 +10,7 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-public class ClassStructureAllMetrics {
+public class ClassStructureAllMetricsTest {
 
     private Set<ModifierType> modifiers = new HashSet<>(Collections.singletonList(
             ModifierType.DEFAULT
@@ -47,9 +47,11 @@ public class ClassStructureAllMetrics {
     ClassStructure classStructure5;
     ClassStructure classStructure6;
 
+    ProjectStructure projectStructure;
+
     @BeforeEach
     void setUp() {
-        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure = new ProjectStructure();
 
         // Add the package declaration to every class
         for (String className : classNames) {
@@ -269,8 +271,8 @@ public class ClassStructureAllMetrics {
 
 
     @Test
-    public void computeAllRelationMetrics_testMetricCorrectness() {
-        classStructure1.computeAllRelationMetrics();
+    public void computeAllMetrics_testRelationMetricCorrectness() {
+        projectStructure.computeAllMetrics();
         assertThat(classStructure1.getRelationMetricValues().keySet().size()).isEqualTo(3);
 
         assertThat(classStructure1.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
@@ -318,8 +320,6 @@ public class ClassStructureAllMetrics {
         assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
         assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
 
-
-        classStructure2.computeAllRelationMetrics();
         assertThat(classStructure2.getRelationMetricValues().keySet().size()).isEqualTo(2);
 
         assertThat(classStructure2.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
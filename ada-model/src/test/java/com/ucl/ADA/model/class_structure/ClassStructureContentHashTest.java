@@ -0,0 +1,65 @@
+package com.ucl.ADA.model.class_structure;
+
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassStructureContentHashTest {
+
+    @Test
+    void of_sameContentGivesSameHash() {
+        assertThat(ClassStructureContentHash.of("com.ada.A", buildClassStructure()))
+                .isEqualTo(ClassStructureContentHash.of("com.ada.A", buildClassStructure()))
+                .hasSize(64);
+    }
+
+    @Test
+    void of_ignoresOrderOfModifiersAndOutgoingDependences() {
+        ClassStructure classStructure = buildClassStructure();
+        String hash = ClassStructureContentHash.of("com.ada.A", classStructure);
+
+        Map<String, DependenceInfo> reordered = new LinkedHashMap<>();
+        List<String> targets = new ArrayList<>(classStructure.getOutgoingDependenceInfo().keySet());
+        Collections.reverse(targets);
+        targets.forEach(target -> reordered.put(target, classStructure.getOutgoingDependenceInfo().get(target)));
+        classStructure.setOutgoingDependenceInfo(reordered);
+        classStructure.getMethodsDeclarations().get(0).setModifierTypes(new LinkedHashSet<>(Arrays.asList(ModifierType.STATIC, ModifierType.PUBLIC)));
+
+        assertThat(ClassStructureContentHash.of("com.ada.A", classStructure)).isEqualTo(hash);
+    }
+
+    @Test
+    void of_changesWithNameDeclarationsAndMetrics() {
+        String hash = ClassStructureContentHash.of("com.ada.A", buildClassStructure());
+
+        assertThat(ClassStructureContentHash.of("com.ada.B", buildClassStructure())).isNotEqualTo(hash);
+
+        ClassStructure withMethod = buildClassStructure();
+        withMethod.addMethodDeclaration(new MethodDeclaration(new HashSet<>(), "void", "run", new ArrayList<>()));
+        assertThat(ClassStructureContentHash.of("com.ada.A", withMethod)).isNotEqualTo(hash);
+
+        ClassStructure withMetric = buildClassStructure();
+        withMetric.getClassMetricValues().setValue(ClassMetricType.values()[0], 1f);
+        assertThat(ClassStructureContentHash.of("com.ada.A", withMetric)).isNotEqualTo(hash);
+    }
+
+    private static ClassStructure buildClassStructure() {
+        ClassStructure classStructure = new ClassStructure();
+        classStructure.setCurrentPackage(new PackageDeclaration("com.ada"));
+        classStructure.addAttributeDeclaration(new AttributeDeclaration(new HashSet<>(Collections.singletonList(ModifierType.PRIVATE)), "int", "count", "0"));
+        classStructure.addMethodDeclaration(new MethodDeclaration(new HashSet<>(Arrays.asList(ModifierType.PUBLIC, ModifierType.STATIC)), "int", "size",
+                new ArrayList<>(Collections.singletonList(new ParameterDeclaration("String", "key")))));
+        for (String target : Arrays.asList("com.ada.B", "com.ada.C", "com.ada.D")) {
+            DependenceInfo dependenceInfo = new DependenceInfo();
+            dependenceInfo.addNewMethod(new MethodInvocation(target + ".call", new ArrayList<>(Collections.singletonList(new PassedParameter("key")))));
+            classStructure.getOutgoingDependenceInfo().put(target, dependenceInfo);
+        }
+        return classStructure;
+    }
+}
@@ -3,6 +3,7 @@ package com.ucl.ADA.model.class_structure;
 import com.ucl.ADA.model.dependence_information.declaration_information.*;
 import com.ucl.ADA.model.dependence_information.invocation_information.*;
 import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
 import com.ucl.ADA.model.project_structure.ProjectStructure;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,9 +49,11 @@ public class ClassStructureRelationMetricsTest {
     ClassStructure classStructure5;
     ClassStructure classStructure6;
 
+    ProjectStructure projectStructure;
+
     @BeforeEach
     void setUp() {
-        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure = new ProjectStructure();
 
         // Add the package declaration to every class
         for (String className : classNames) {
@@ -167,409 +170,180 @@ public class ClassStructureRelationMetricsTest {
         classStructure4 = projectStructure.getClassStructures().get(fourthClass);
         classStructure5 = projectStructure.getClassStructures().get(fifthClass);
         classStructure6 = projectStructure.getClassStructures().get(sixthClass);
+
+        projectStructure.computeAllMetrics();
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationPackageImportsIncoming() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING;
+    public void computeAllMetrics_testRelatedClasses() {
+        assertThat(classStructure1.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(secondClass, thirdClass, fifthClass);
+        assertThat(classStructure2.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(firstClass, thirdClass);
+        assertThat(classStructure3.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(firstClass, secondClass, fourthClass, fifthClass, sixthClass);
+        assertThat(classStructure4.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(thirdClass);
+        assertThat(classStructure5.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(firstClass, thirdClass);
+        assertThat(classStructure6.getRelationMetricValues().keySet()).containsExactlyInAnyOrder(thirdClass);
+    }
 
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
+    @Test
+    public void computeAllMetrics_testNumberOfRelationPackageImportsIncoming() {
+        assertIncoming(RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_INCOMING);
         assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsIncoming()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().containsKey(sixthClass)).isFalse();
+        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsIncoming()).isEqualTo(0);
     }
 
-   @Test
-    public void computeRelationMetric_testNumberOfRelationPackageImportsOutgoing() {
-       RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING;
-
-       classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-
-       classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-
-       classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(4);
+    @Test
+    public void computeAllMetrics_testNumberOfRelationPackageImportsOutgoing() {
+        assertOutgoing(RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING);
         assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-
-       classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().containsKey(fourthClass)).isFalse();
-
-       classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
-
-       classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsOutgoing()).isEqualTo(1);
+        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfPackageImportsOutgoing()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationAttributeInvocationsIncoming() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
+    public void computeAllMetrics_testNumberOfRelationAttributeInvocationsIncoming() {
+        assertIncoming(RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_INCOMING);
         assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().containsKey(sixthClass)).isFalse();
+        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsIncoming()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationAttributeInvocationsOutgoing() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(4);
+    public void computeAllMetrics_testNumberOfRelationAttributeInvocationsOutgoing() {
+        assertOutgoing(RelationMetricType.NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS_OUTGOING);
         assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().containsKey(fourthClass)).isFalse();
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(1);
+        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfAttributeInvocationsOutgoing()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationMethodInvocationsIncoming() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
+    public void computeAllMetrics_testNumberOfRelationMethodInvocationsIncoming() {
+        assertIncoming(RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_INCOMING);
         assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().containsKey(sixthClass)).isFalse();
+        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsIncoming()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationMethodInvocationsOutgoing() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-
-       classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(4);
+    public void computeAllMetrics_testNumberOfRelationMethodInvocationsOutgoing() {
+        assertOutgoing(RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING);
         assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().containsKey(fourthClass)).isFalse();
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(1);
+        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfMethodInvocationsOutgoing()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationConstructorInvocationsIncoming() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
+    public void computeAllMetrics_testNumberOfRelationConstructorInvocationsIncoming() {
+        assertIncoming(RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_INCOMING);
         assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().containsKey(sixthClass)).isFalse();
+        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsIncoming()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testNumberOfRelationConstructorInvocationsOutgoing() {
-        RelationMetricType relationMetricType = RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(secondClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(4);
+    public void computeAllMetrics_testNumberOfRelationConstructorInvocationsOutgoing() {
+        assertOutgoing(RelationMetricType.NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS_OUTGOING);
         assertThat(classStructure3.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().containsKey(fourthClass)).isFalse();
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(1);
+        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getNumberOfConstructorInvocationsOutgoing()).isEqualTo(0);
     }
 
     @Test
-    public void computeRelationMetric_testBidirectionalNumberOfRelationPackageImports() {
-        RelationMetricType relationMetricType = RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
+    public void computeAllMetrics_testBidirectionalNumberOfRelationPackageImports() {
+        assertBidirectional(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_PACKAGE_IMPORTS);
         assertThat(classStructure1.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(5);
-        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfPackageImports()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfPackageImports()).isEqualTo(1);
     }
 
     @Test
-    public void computeRelationMetric_testBidirectionalNumberOfRelationAttributeInvocations() {
-        RelationMetricType relationMetricType = RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
+    public void computeAllMetrics_testBidirectionalNumberOfRelationAttributeInvocations() {
+        assertBidirectional(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_ATTRIBUTE_INVOCATIONS);
         assertThat(classStructure1.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(2);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(5);
-        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfAttributeInvocations()).isEqualTo(1);
     }
 
     @Test
-    public void computeRelationMetric_testBidirectionalNumberOfRelationMethodInvocations() {
-        RelationMetricType relationMetricType = RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
+    public void computeAllMetrics_testBidirectionalNumberOfRelationMethodInvocations() {
+        assertBidirectional(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS);
         assertThat(classStructure1.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(2);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(5);
-        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfMethodInvocations()).isEqualTo(1);
     }
 
     @Test
-    public void computeRelationMetric_testBidirectionalNumberOfRelationConstructorInvocations() {
-        RelationMetricType relationMetricType = RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS;
-
-        classStructure1.computeRelationMetric(relationMetricType);
-        assertThat(classStructure1.getRelationMetricValues().size()).isEqualTo(3);
+    public void computeAllMetrics_testBidirectionalNumberOfRelationConstructorInvocations() {
+        assertBidirectional(RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_CONSTRUCTOR_INVOCATIONS);
         assertThat(classStructure1.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(2);
-        assertThat(classStructure1.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-        assertThat(classStructure1.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(2);
-
-        classStructure2.computeRelationMetric(relationMetricType);
-        assertThat(classStructure2.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(2);
-        assertThat(classStructure2.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-
-        classStructure3.computeRelationMetric(relationMetricType);
-        assertThat(classStructure3.getRelationMetricValues().size()).isEqualTo(5);
-        assertThat(classStructure3.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(secondClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fourthClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(fifthClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-        assertThat(classStructure3.getRelationMetricValues().get(sixthClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-
-        classStructure4.computeRelationMetric(relationMetricType);
-        assertThat(classStructure4.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure4.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-
-        classStructure5.computeRelationMetric(relationMetricType);
-        assertThat(classStructure5.getRelationMetricValues().size()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(firstClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(2);
-        assertThat(classStructure5.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
-
-        classStructure6.computeRelationMetric(relationMetricType);
-        assertThat(classStructure6.getRelationMetricValues().size()).isEqualTo(1);
-        assertThat(classStructure6.getRelationMetricValues().get(thirdClass).getBidirectionalNumberOfConstructorInvocations()).isEqualTo(1);
+    }
+
+    @Test
+    public void computeAllMetrics_testGeneralCumulativeNormalisedBidirectionalIsTheSameFromBothClasses() {
+        RelationMetricType relationMetricType = RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL;
+        for (String className : classNames) {
+            for (String relatedClass : projectStructure.getClassStructures().get(className).getRelationMetricValues().keySet()) {
+                Float value = projectStructure.getClassStructures().get(className).getRelationMetricValues().get(relatedClass).getValue(relationMetricType);
+                assertThat(value).isPositive();
+                assertRelation(className, relatedClass, relationMetricType, value);
+            }
+        }
+    }
+
+    /**
+     * every related class invokes the class once with each kind of invocation, or not at all
+     */
+    private void assertIncoming(RelationMetricType relationMetricType) {
+        assertRelation(firstClass, secondClass, relationMetricType, 1);
+        assertRelation(firstClass, thirdClass, relationMetricType, 1);
+        assertRelation(firstClass, fifthClass, relationMetricType, 1);
+        assertRelation(secondClass, firstClass, relationMetricType, 1);
+        assertRelation(secondClass, thirdClass, relationMetricType, 1);
+        assertRelation(thirdClass, firstClass, relationMetricType, 0);
+        assertRelation(thirdClass, secondClass, relationMetricType, 0);
+        assertRelation(thirdClass, fourthClass, relationMetricType, 0);
+        assertRelation(thirdClass, fifthClass, relationMetricType, 0);
+        assertRelation(thirdClass, sixthClass, relationMetricType, 1);
+        assertRelation(fourthClass, thirdClass, relationMetricType, 1);
+        assertRelation(fifthClass, firstClass, relationMetricType, 1);
+        assertRelation(fifthClass, thirdClass, relationMetricType, 1);
+        assertRelation(sixthClass, thirdClass, relationMetricType, 0);
+    }
+
+    /**
+     * the class invokes every related class once with each kind of invocation, or not at all
+     */
+    private void assertOutgoing(RelationMetricType relationMetricType) {
+        assertRelation(firstClass, secondClass, relationMetricType, 1);
+        assertRelation(firstClass, thirdClass, relationMetricType, 0);
+        assertRelation(firstClass, fifthClass, relationMetricType, 1);
+        assertRelation(secondClass, firstClass, relationMetricType, 1);
+        assertRelation(secondClass, thirdClass, relationMetricType, 0);
+        assertRelation(thirdClass, firstClass, relationMetricType, 1);
+        assertRelation(thirdClass, secondClass, relationMetricType, 1);
+        assertRelation(thirdClass, fourthClass, relationMetricType, 1);
+        assertRelation(thirdClass, fifthClass, relationMetricType, 1);
+        assertRelation(thirdClass, sixthClass, relationMetricType, 0);
+        assertRelation(fourthClass, thirdClass, relationMetricType, 0);
+        assertRelation(fifthClass, firstClass, relationMetricType, 1);
+        assertRelation(fifthClass, thirdClass, relationMetricType, 0);
+        assertRelation(sixthClass, thirdClass, relationMetricType, 1);
+    }
+
+    private void assertBidirectional(RelationMetricType relationMetricType) {
+        assertRelation(firstClass, secondClass, relationMetricType, 2);
+        assertRelation(firstClass, thirdClass, relationMetricType, 1);
+        assertRelation(firstClass, fifthClass, relationMetricType, 2);
+        assertRelation(secondClass, thirdClass, relationMetricType, 1);
+        assertRelation(thirdClass, fourthClass, relationMetricType, 1);
+        assertRelation(thirdClass, fifthClass, relationMetricType, 1);
+        assertRelation(thirdClass, sixthClass, relationMetricType, 1);
+    }
+
+    /**
+     * Check the value of a relation metric as seen from a class, on the owning side, which holds the computed values,
+     * and on the mirrored side, which holds them with incoming and outgoing swapped
+     */
+    private void assertRelation(String className, String relatedClass, RelationMetricType relationMetricType, float expected) {
+        String owner = className.compareTo(relatedClass) < 0 ? className : relatedClass;
+        String other = owner.equals(className) ? relatedClass : className;
+        RelationMetricValue owned = projectStructure.getClassStructures().get(owner).getOwnedRelationMetricValues().get(other);
+        assertThat(owned).isNotNull();
+        assertThat(projectStructure.getClassStructures().get(other).getOwnedRelationMetricValues()).doesNotContainKey(owner);
+        assertThat(projectStructure.getClassStructures().get(other).getRelationMetricValues().get(owner).getVector())
+                .containsExactly(owned.mirror().getVector());
+
+        RelationMetricValue seenFromClass = owner.equals(className) ? owned : owned.mirror();
+        assertThat(seenFromClass.getValue(relationMetricType)).isEqualTo(expected);
+        assertThat(projectStructure.getClassStructures().get(className).getRelationMetricValues().get(relatedClass).getValue(relationMetricType))
+                .isEqualTo(expected);
+        assertThat(projectStructure.getClassStructures().get(relatedClass).getRelationMetricValues().get(className).getValue(relationMetricType.mirror()))
+                .isEqualTo(expected);
     }
 }
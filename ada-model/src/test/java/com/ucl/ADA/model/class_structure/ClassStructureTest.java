@@ -132,7 +132,7 @@ class ClassStructureTest {
 
         PackageInvocation packageInvocationInformation = new PackageInvocation("moduleImportInformationName");
 
-        classStructure.addPackageInvocationElement(className, InvocationType.OUTGOING, packageInvocationInformation);
+        classStructure.addPackageInvocationElement(className, packageInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -145,7 +145,7 @@ class ClassStructureTest {
 
         AttributeInvocation attributeInvocationInformation = new AttributeInvocation("dataInvocationInformationName");
 
-        classStructure.addAttributeInvocationElement(className, InvocationType.OUTGOING, attributeInvocationInformation);
+        classStructure.addAttributeInvocationElement(className, attributeInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -158,7 +158,7 @@ class ClassStructureTest {
 
         ConstructorInvocation constructorInvocationInformation = new ConstructorInvocation("constructorExample", passedParameterList0);
 
-        classStructure.addConstructorInvocationElement(className, InvocationType.OUTGOING, constructorInvocationInformation);
+        classStructure.addConstructorInvocationElement(className, constructorInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -171,67 +171,13 @@ class ClassStructureTest {
 
         MethodInvocation methodInvocationInformation = new MethodInvocation("methodExample", passedParameterList0);
 
-        classStructure.addMethodInvocationElement(className, InvocationType.OUTGOING, methodInvocationInformation);
+        classStructure.addMethodInvocationElement(className, methodInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
         assertThat(classStructure.getOutgoingDependenceInfo().get(className).getMethods()).containsExactly(methodInvocationInformation);
     }
 
-    @Test
-    void addModuleElement_testAddingIncomingInvocation() {
-        String className = "TestClass";
-
-        PackageInvocation packageInvocationInformation = new PackageInvocation("moduleImportInformationName");
-
-
-        classStructure.addPackageInvocationElement(className, InvocationType.INCOMING, packageInvocationInformation);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getPackages()).containsExactly(packageInvocationInformation);
-    }
-
-    @Test
-    void addDataElement_testAddingIncomingInvocation() {
-        String className = "TestClass";
-
-        AttributeInvocation attributeInvocationInformation = new AttributeInvocation("dataInvocationInformationName");
-
-        classStructure.addAttributeInvocationElement(className, InvocationType.INCOMING, attributeInvocationInformation);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getAttributes()).containsExactly(attributeInvocationInformation);
-    }
-
-    @Test
-    void addConstructorElement_testAddingIncomingInvocation() {
-        String className = "TestClass";
-
-        ConstructorInvocation constructorInvocationInformation = new ConstructorInvocation("constructorExample", passedParameterList0);
-
-        classStructure.addConstructorInvocationElement(className, InvocationType.INCOMING, constructorInvocationInformation);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getConstructors()).containsExactly(constructorInvocationInformation);
-    }
-
-    @Test
-    void addMethodElement_testAddingIncomingInvocation() {
-        String className = "TestClass";
-
-        MethodInvocation methodInvocationInformation = new MethodInvocation("methodExample", passedParameterList0);
-
-        classStructure.addMethodInvocationElement(className, InvocationType.INCOMING, methodInvocationInformation);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getMethods()).containsExactly(methodInvocationInformation);
-    }
-
-
     @Test
     void addModuleElement_testAddingOutgoingInvocationWithExistingElement() {
         String className = "TestClass";
@@ -239,8 +185,8 @@ class ClassStructureTest {
         PackageInvocation packageInvocationInformation0 = new PackageInvocation("moduleImportInformationName0");
         PackageInvocation packageInvocationInformation1 = new PackageInvocation("moduleImportInformationName1");
 
-        classStructure.addPackageInvocationElement(className, InvocationType.OUTGOING, packageInvocationInformation0);
-        classStructure.addPackageInvocationElement(className, InvocationType.OUTGOING, packageInvocationInformation1);
+        classStructure.addPackageInvocationElement(className, packageInvocationInformation0);
+        classStructure.addPackageInvocationElement(className, packageInvocationInformation1);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -254,8 +200,8 @@ class ClassStructureTest {
         AttributeInvocation attributeInvocationInformation0 = new AttributeInvocation("dataInvocationInformationName0");
         AttributeInvocation attributeInvocationInformation1 = new AttributeInvocation("dataInvocationInformationName1");
 
-        classStructure.addAttributeInvocationElement(className, InvocationType.OUTGOING, attributeInvocationInformation0);
-        classStructure.addAttributeInvocationElement(className, InvocationType.OUTGOING, attributeInvocationInformation1);
+        classStructure.addAttributeInvocationElement(className, attributeInvocationInformation0);
+        classStructure.addAttributeInvocationElement(className, attributeInvocationInformation1);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -269,8 +215,8 @@ class ClassStructureTest {
         ConstructorInvocation constructorInvocationInformation0 = new ConstructorInvocation("constructorExample0", passedParameterList0);
         ConstructorInvocation constructorInvocationInformation1 = new ConstructorInvocation("constructorExample1", passedParameterList1);
 
-        classStructure.addConstructorInvocationElement(className, InvocationType.OUTGOING, constructorInvocationInformation0);
-        classStructure.addConstructorInvocationElement(className, InvocationType.OUTGOING, constructorInvocationInformation1);
+        classStructure.addConstructorInvocationElement(className, constructorInvocationInformation0);
+        classStructure.addConstructorInvocationElement(className, constructorInvocationInformation1);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
@@ -284,83 +230,22 @@ class ClassStructureTest {
         MethodInvocation methodInvocationInformation0 = new MethodInvocation("methodExample0", passedParameterList0);
         MethodInvocation methodInvocationInformation1 = new MethodInvocation("methodExample1", passedParameterList1);
 
-        classStructure.addMethodInvocationElement(className, InvocationType.OUTGOING, methodInvocationInformation0);
-        classStructure.addMethodInvocationElement(className, InvocationType.OUTGOING, methodInvocationInformation1);
+        classStructure.addMethodInvocationElement(className, methodInvocationInformation0);
+        classStructure.addMethodInvocationElement(className, methodInvocationInformation1);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
         assertThat(classStructure.getOutgoingDependenceInfo().get(className).getMethods()).containsExactlyInAnyOrderElementsOf(Arrays.asList(methodInvocationInformation0, methodInvocationInformation1));
     }
 
-    @Test
-    void addModuleElement_testAddingIncomingInvocationWithExistingElement() {
-        String className = "TestClass";
-
-        PackageInvocation packageInvocationInformation0 = new PackageInvocation("moduleImportInformationName0");
-        PackageInvocation packageInvocationInformation1 = new PackageInvocation("moduleImportInformationName1");
-
-
-        classStructure.addPackageInvocationElement(className, InvocationType.INCOMING, packageInvocationInformation0);
-        classStructure.addPackageInvocationElement(className, InvocationType.INCOMING, packageInvocationInformation1);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getPackages()).containsExactlyInAnyOrderElementsOf(Arrays.asList(packageInvocationInformation0, packageInvocationInformation1));
-    }
-
-    @Test
-    void addDataElement_testAddingIncomingInvocationWithExistingElement() {
-        String className = "TestClass";
-
-        AttributeInvocation attributeInvocationInformation0 = new AttributeInvocation("dataInvocationInformationName0");
-        AttributeInvocation attributeInvocationInformation1 = new AttributeInvocation("dataInvocationInformationName1");
-
-        classStructure.addAttributeInvocationElement(className, InvocationType.INCOMING, attributeInvocationInformation0);
-        classStructure.addAttributeInvocationElement(className, InvocationType.INCOMING, attributeInvocationInformation1);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getAttributes()).containsExactlyInAnyOrderElementsOf(Arrays.asList(attributeInvocationInformation0, attributeInvocationInformation1));
-    }
-
-    @Test
-    void addConstructorElement_testAddingIncomingInvocationWithExistingElement() {
-        String className = "TestClass";
-
-        ConstructorInvocation constructorInvocationInformation0 = new ConstructorInvocation("constructorExample0", passedParameterList0);
-        ConstructorInvocation constructorInvocationInformation1 = new ConstructorInvocation("constructorExample1", passedParameterList1);
-
-        classStructure.addConstructorInvocationElement(className, InvocationType.INCOMING, constructorInvocationInformation0);
-        classStructure.addConstructorInvocationElement(className, InvocationType.INCOMING, constructorInvocationInformation1);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getConstructors()).containsExactlyInAnyOrderElementsOf(Arrays.asList(constructorInvocationInformation0, constructorInvocationInformation1));
-    }
-
-    @Test
-    void addMethodElement_testAddingIncomingInvocationWithExistingElement() {
-        String className = "TestClass";
-
-        MethodInvocation methodInvocationInformation0 = new MethodInvocation("methodExample0", passedParameterList0);
-        MethodInvocation methodInvocationInformation1 = new MethodInvocation("methodExample1", passedParameterList1);
-
-        classStructure.addMethodInvocationElement(className, InvocationType.INCOMING, methodInvocationInformation0);
-        classStructure.addMethodInvocationElement(className, InvocationType.INCOMING, methodInvocationInformation1);
-
-        assertThat(classStructure.getIncomingDependenceInfo().keySet()).containsExactly(className);
-
-        assertThat(classStructure.getIncomingDependenceInfo().get(className).getMethods()).containsExactlyInAnyOrderElementsOf(Arrays.asList(methodInvocationInformation0, methodInvocationInformation1));
-    }
-
     @Test
     public void addNewElements_testCreationOfKeys() {
         ArrayList<String> classNames = new ArrayList<>(Arrays.asList("FirstClass", "SecondClass", "ThirdClass", "FourthClass"));
 
-        classStructure.addPackageInvocationElement(classNames.get(0), InvocationType.OUTGOING, null);
-        classStructure.addAttributeInvocationElement(classNames.get(1), InvocationType.OUTGOING, null);
-        classStructure.addConstructorInvocationElement(classNames.get(2), InvocationType.OUTGOING, null);
-        classStructure.addMethodInvocationElement(classNames.get(3), InvocationType.OUTGOING, null);
+        classStructure.addPackageInvocationElement(classNames.get(0), null);
+        classStructure.addAttributeInvocationElement(classNames.get(1), null);
+        classStructure.addConstructorInvocationElement(classNames.get(2), null);
+        classStructure.addMethodInvocationElement(classNames.get(3), null);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactlyInAnyOrderElementsOf(classNames);
     }
@@ -375,10 +260,10 @@ class ClassStructureTest {
         MethodInvocation methodInvocationInformation = new MethodInvocation("methodExample", passedParameterList1);
 
 
-        classStructure.addPackageInvocationElement(classNames.get(0), InvocationType.OUTGOING, packageInvocationInformation);
-        classStructure.addAttributeInvocationElement(classNames.get(1), InvocationType.OUTGOING, attributeInvocationInformation);
-        classStructure.addConstructorInvocationElement(classNames.get(2), InvocationType.OUTGOING, constructorInvocationInformation);
-        classStructure.addMethodInvocationElement(classNames.get(3), InvocationType.OUTGOING, methodInvocationInformation);
+        classStructure.addPackageInvocationElement(classNames.get(0), packageInvocationInformation);
+        classStructure.addAttributeInvocationElement(classNames.get(1), attributeInvocationInformation);
+        classStructure.addConstructorInvocationElement(classNames.get(2), constructorInvocationInformation);
+        classStructure.addMethodInvocationElement(classNames.get(3), methodInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactlyInAnyOrderElementsOf(classNames);
 
@@ -398,10 +283,10 @@ class ClassStructureTest {
         MethodInvocation methodInvocationInformation = new MethodInvocation("methodExample", passedParameterList1);
 
 
-        classStructure.addPackageInvocationElement(className, InvocationType.OUTGOING, packageInvocationInformation);
-        classStructure.addAttributeInvocationElement(className, InvocationType.OUTGOING, attributeInvocationInformation);
-        classStructure.addConstructorInvocationElement(className, InvocationType.OUTGOING, constructorInvocationInformation);
-        classStructure.addMethodInvocationElement(className, InvocationType.OUTGOING, methodInvocationInformation);
+        classStructure.addPackageInvocationElement(className, packageInvocationInformation);
+        classStructure.addAttributeInvocationElement(className, attributeInvocationInformation);
+        classStructure.addConstructorInvocationElement(className, constructorInvocationInformation);
+        classStructure.addMethodInvocationElement(className, methodInvocationInformation);
 
         assertThat(classStructure.getOutgoingDependenceInfo().keySet()).containsExactly(className);
 
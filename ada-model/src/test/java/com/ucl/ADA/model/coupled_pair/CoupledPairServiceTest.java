@@ -0,0 +1,108 @@
+package com.ucl.ADA.model.coupled_pair;
+
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CoupledPairServiceTest {
+
+    @InjectMocks
+    private CoupledPairService coupledPairService;
+
+    @Mock
+    private CoupledPairRepository coupledPairRepository;
+
+    @Mock
+    private ProjectStructureCache projectStructureCache;
+
+    private ProjectStructure projectStructure;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.initMocks(this);
+
+        projectStructure = new ProjectStructure();
+        for (int i = 0; i < 3; i++) {
+            projectStructure.addMethodInvocation("com.example.A", "com.example.B", new MethodInvocation("methodInB", null));
+        }
+        projectStructure.addMethodInvocation("com.example.C", "com.example.B", new MethodInvocation("methodInB", null));
+        projectStructure.computeAllMetrics();
+    }
+
+    @Test
+    void testBuildIndexRanksPairsByMetricValue() {
+        Snapshot snapshot = new Snapshot();
+
+        List<CoupledPair> index = coupledPairService.buildIndex(snapshot, projectStructure);
+
+        List<CoupledPair> outgoing = pairsOf(index, RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING);
+        assertThat(outgoing).hasSize(2);
+        assertThat(outgoing.get(0).getSourceClass()).isEqualTo("com.example.A");
+        assertThat(outgoing.get(0).getTargetClass()).isEqualTo("com.example.B");
+        assertThat(outgoing.get(0).getValue()).isEqualTo(3f);
+        assertThat(outgoing.get(0).getRank()).isEqualTo(0);
+        assertThat(outgoing.get(1).getSourceClass()).isEqualTo("com.example.C");
+        assertThat(outgoing.get(1).getRank()).isEqualTo(1);
+        assertThat(outgoing.get(0).getSnapshot()).isEqualTo(snapshot);
+
+        verify(coupledPairRepository).saveAll(anyList());
+    }
+
+    @Test
+    void testPairsOfPendingSnapshotAreRankedFromItsPinnedStructure() {
+        OffsetDateTime timestamp = OffsetDateTime.now();
+        when(projectStructureCache.getPinned(new ProjectStructureCache.Key("bzq", "ada", "master", timestamp))).thenReturn(projectStructure);
+
+        List<CoupledPair> pairs = coupledPairService.getTopCoupledPairs("bzq", "ada", "master", timestamp,
+                RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING, 1);
+
+        assertThat(pairs).hasSize(1);
+        assertThat(pairs.get(0).getSourceClass()).isEqualTo("com.example.A");
+        assertThat(pairs.get(0).getValue()).isEqualTo(3f);
+        assertThat(pairs.get(0).getRank()).isEqualTo(0);
+        verify(coupledPairRepository, never()).findAllBySnapshotAndMetricTypeOrderByRankAsc(any(), any(), any());
+    }
+
+    @Test
+    void testBuildIndexStoresSymmetricPairsOnce() {
+        List<CoupledPair> index = coupledPairService.buildIndex(new Snapshot(), projectStructure);
+
+        List<CoupledPair> bidirectional = pairsOf(index, RelationMetricType.BIDIRECTIONAL_NUMBER_OF_RELATION_METHOD_INVOCATIONS);
+        assertThat(bidirectional).hasSize(2);
+        assertThat(bidirectional.get(0).getSourceClass()).isEqualTo("com.example.A");
+        assertThat(bidirectional.get(0).getTargetClass()).isEqualTo("com.example.B");
+        assertThat(bidirectional.get(1).getSourceClass()).isEqualTo("com.example.B");
+        assertThat(bidirectional.get(1).getTargetClass()).isEqualTo("com.example.C");
+    }
+
+    @Test
+    void testBuildIndexSkipsUncoupledPairs() {
+        List<CoupledPair> index = coupledPairService.buildIndex(new Snapshot(), projectStructure);
+
+        assertThat(pairsOf(index, RelationMetricType.NUMBER_OF_RELATION_PACKAGE_IMPORTS_OUTGOING)).isEmpty();
+    }
+
+    private List<CoupledPair> pairsOf(List<CoupledPair> index, RelationMetricType relationMetricType) {
+        return index.stream()
+                .filter(coupledPair -> coupledPair.getMetricType() == relationMetricType)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,31 @@
+package com.ucl.ADA.model.dependence_information.declaration_information;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModifierTypesConverterTest {
+
+    private final ModifierTypesConverter converter = new ModifierTypesConverter();
+
+    @Test
+    void convert_setsOneBitPerModifierType() {
+        Set<ModifierType> modifierTypes = new HashSet<>(Arrays.asList(ModifierType.PUBLIC, ModifierType.STATIC, ModifierType.FINAL));
+
+        assertThat(converter.convertToDatabaseColumn(modifierTypes)).isEqualTo(1 | 16 | 32);
+        assertThat(converter.convertToEntityAttribute(1 | 16 | 32)).isEqualTo(modifierTypes);
+    }
+
+    @Test
+    void convert_roundTripsEveryModifierType() {
+        Set<ModifierType> all = EnumSet.allOf(ModifierType.class);
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(all))).isEqualTo(all);
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(new HashSet<>()))).isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package com.ucl.ADA.model.graph_projection;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot_document.SnapshotDocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GraphProjectionServiceTest {
+
+    private static final RelationMetricType METRIC = RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING;
+
+    @InjectMocks
+    private GraphProjectionService graphProjectionService;
+
+    @Mock
+    private SnapshotService snapshotService;
+
+    @Mock
+    private SnapshotDocumentService snapshotDocumentService;
+
+    @Mock
+    private GraphProjectionRepository graphProjectionRepository;
+
+    @Mock
+    private ProjectStructureCache projectStructureCache;
+
+    private ProjectStructure projectStructure;
+
+    private Snapshot snapshot;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.initMocks(this);
+
+        projectStructure = new ProjectStructure();
+        for (int i = 0; i < 3; i++) {
+            projectStructure.addMethodInvocation("com.example.C", "com.example.A", new MethodInvocation("methodInA", new ArrayList<>()));
+        }
+        projectStructure.addMethodInvocation("com.example.A", "com.example.B", new MethodInvocation("methodInB", new ArrayList<>()));
+        projectStructure.addMethodInvocation("com.example.B", "com.example.A", new MethodInvocation("methodInA", new ArrayList<>()));
+        projectStructure.computeAllMetrics();
+
+        snapshot = new Snapshot();
+        when(snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any())).thenReturn(snapshot);
+    }
+
+    @Test
+    void testGraphFromQueriesMatchesRelationMetricsOfTheSourceClass() {
+        List<Object[]> classes = new ArrayList<>();
+        List<Object[]> edges = new ArrayList<>();
+        List<Object[]> ownedRelationMetrics = new ArrayList<>();
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            classes.add(new Object[]{entry.getKey(), entry.getValue().getCurrentPackage().getName()});
+            entry.getValue().getOutgoingDependenceInfo().keySet().forEach(target -> edges.add(new Object[]{entry.getKey(), target}));
+            entry.getValue().getOwnedRelationMetricValues().forEach((related, value) ->
+                    ownedRelationMetrics.add(new Object[]{entry.getKey(), related, value.getVector()}));
+        }
+        when(graphProjectionRepository.findClassesBySnapshot(snapshot)).thenReturn(classes);
+        when(graphProjectionRepository.findEdgesBySnapshot(snapshot)).thenReturn(edges);
+        when(graphProjectionRepository.findOwnedRelationMetricsBySnapshot(snapshot)).thenReturn(ownedRelationMetrics);
+
+        GraphProjection graph = graphProjectionService.getGraphProjection("bzq", "ada", "master", OffsetDateTime.now(), METRIC);
+
+        assertThat(graph.getClassNames()).containsExactly("com.example.A", "com.example.B", "com.example.C");
+        assertThat(graph.getPackageNames()).containsOnly("com.example");
+        assertThat(graph.getSources()).containsExactly(0, 1, 2);
+        assertThat(graph.getTargets()).containsExactly(1, 0, 0);
+        for (int e = 0; e < graph.getSources().length; e++) {
+            ClassStructure source = projectStructure.getClassStructures().get(graph.getClassNames()[graph.getSources()[e]]);
+            String target = graph.getClassNames()[graph.getTargets()[e]];
+            assertThat(graph.getWeights()[e]).isEqualTo(source.getRelationMetricValues().get(target).getValue(METRIC));
+        }
+        assertThat(graph.getWeights()[2]).isEqualTo(3f);
+    }
+
+    @Test
+    void testGraphOfDocumentSnapshotIsProjectedInMemory() {
+        when(snapshotDocumentService.findProjectStructure(snapshot)).thenReturn(projectStructure);
+
+        GraphProjection graph = graphProjectionService.getGraphProjection("bzq", "ada", "master", OffsetDateTime.now(), METRIC);
+
+        assertThat(graph.getClassNames()).hasSize(3);
+        assertThat(graph.getWeights()).containsExactly(1f, 1f, 3f);
+    }
+
+    @Test
+    void testGraphOfPendingSnapshotIsProjectedFromItsPinnedStructure() {
+        OffsetDateTime timestamp = OffsetDateTime.now();
+        when(projectStructureCache.getIfPresent(new ProjectStructureCache.Key("bzq", "ada", "master", timestamp))).thenReturn(projectStructure);
+
+        GraphProjection graph = graphProjectionService.getGraphProjection("bzq", "ada", "master", timestamp, METRIC);
+
+        assertThat(graph.getClassNames()).hasSize(3);
+        assertThat(graph.getWeights()).containsExactly(1f, 1f, 3f);
+        verify(snapshotService, never()).getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any());
+        verify(graphProjectionRepository, never()).findClassesBySnapshot(any());
+    }
+}
@@ -0,0 +1,292 @@
+package com.ucl.ADA.model.metric_history;
+
+import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.branch.BranchService;
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureCache;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MetricHistoryServiceTest {
+
+    @InjectMocks
+    private MetricHistoryService metricHistoryService;
+
+    @Mock
+    private BranchService branchService;
+
+    @Mock
+    private MetricHistoryTimelineRepository metricHistoryTimelineRepository;
+
+    @Mock
+    private MetricHistoryRepository metricHistoryRepository;
+
+    @Mock
+    private SnapshotRepository snapshotRepository;
+
+    @Mock
+    private ProjectStructureCache projectStructureCache;
+
+    private Branch branch;
+
+    private MetricHistoryTimeline timeline;
+
+    private List<MetricHistory> histories;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        MockitoAnnotations.initMocks(this);
+
+        branch = new Branch();
+        timeline = new MetricHistoryTimeline();
+        timeline.setBranch(branch);
+        histories = new ArrayList<>();
+
+        when(branchService.getBranchGivenOwnerRepoAndName("owner", "repo", "master")).thenReturn(branch);
+        when(metricHistoryTimelineRepository.findLockedByBranch(branch)).thenReturn(timeline);
+        when(metricHistoryTimelineRepository.findByBranch(branch)).thenReturn(timeline);
+        when(metricHistoryRepository.findAllByBranchAndChunkBetween(any(), any(), any())).thenAnswer(invocation -> {
+            List<MetricHistory> result = new ArrayList<>();
+            for (MetricHistory history : histories) {
+                if (history.getChunk() >= (Integer) invocation.getArgument(1)
+                        && history.getChunk() <= (Integer) invocation.getArgument(2)) {
+                    result.add(history);
+                }
+            }
+            return result;
+        });
+        doAnswer(invocation -> {
+            for (MetricHistory history : (Iterable<MetricHistory>) invocation.getArgument(0)) {
+                histories.remove(history);
+            }
+            return null;
+        }).when(metricHistoryRepository).deleteAll(any());
+        when(metricHistoryRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (MetricHistory history : (Iterable<MetricHistory>) invocation.getArgument(0)) {
+                if (!histories.contains(history)) histories.add(history);
+            }
+            return invocation.getArgument(0);
+        });
+        when(metricHistoryRepository.findAllByBranchAndElementTypeAndElementNameAndChunkBetweenOrderByChunkAsc(
+                any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            List<MetricHistory> result = new ArrayList<>();
+            for (MetricHistory history : histories) {
+                if (history.getElementType() == invocation.getArgument(1)
+                        && history.getElementName().equals(invocation.getArgument(2))) {
+                    result.add(history);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Test
+    void testAppendAssignsConsecutiveOrdinals() {
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+        metricHistoryService.append(snapshot(2), projectStructure(3, false));
+
+        assertThat(timeline.getSnapshotTimestamps()).hasSize(2);
+        ArgumentCaptor<MetricHistoryTimeline> captor = ArgumentCaptor.forClass(MetricHistoryTimeline.class);
+        verify(metricHistoryTimelineRepository, times(2)).save(captor.capture());
+        assertThat(captor.getValue()).isSameAs(timeline);
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getTimestamps()).hasSize(2);
+        assertThat(trend.getValues()).containsExactly(1f, 3f);
+    }
+
+    @Test
+    void testPackageSeriesSumsClassesAndMissingElementsAreNull() {
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+        metricHistoryService.append(snapshot(2), projectStructure(2, true));
+
+        MetricTrend packageTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.PACKAGE,
+                "com.example", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING, 0);
+        assertThat(packageTrend.getValues()).containsExactly(1f, 3f);
+
+        MetricTrend classTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.C", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(classTrend.getValues()).containsExactly(null, 1f);
+
+        MetricTrend lastTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.C", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 1);
+        assertThat(lastTrend.getValues()).containsExactly(1f);
+    }
+
+    @Test
+    void testTheTimelineIsCreatedBeforeItIsLocked() {
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+
+        InOrder inOrder = inOrder(metricHistoryTimelineRepository);
+        inOrder.verify(metricHistoryTimelineRepository).insertIfAbsent(branch.getId());
+        inOrder.verify(metricHistoryTimelineRepository).findLockedByBranch(branch);
+    }
+
+    @Test
+    void testSnapshotsAreOrderedByTimestampWhateverTheirArrivalOrder() {
+        metricHistoryService.append(snapshot(3), projectStructure(3, false));
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+        metricHistoryService.append(snapshot(2), projectStructure(2, true));
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getTimestamps()).containsExactly(snapshot(1).getTimestamp(), snapshot(2).getTimestamp(), snapshot(3).getTimestamp());
+        assertThat(trend.getValues()).containsExactly(1f, 2f, 3f);
+
+        MetricTrend classTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.C", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(classTrend.getValues()).containsExactly(null, 1f, null);
+    }
+
+    @Test
+    void testAnEarlierSnapshotMovesTheLaterOrdinalsAcrossChunks() {
+        for (int day = 2; day <= MetricHistory.CHUNK_SIZE + 1; day++) {
+            metricHistoryService.append(snapshot(day), projectStructure(day, false));
+        }
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getValues()).hasSize(MetricHistory.CHUNK_SIZE + 1);
+        for (int ordinal = 0; ordinal <= MetricHistory.CHUNK_SIZE; ordinal++) {
+            assertThat(trend.getValues()[ordinal]).isEqualTo(ordinal + 1f);
+        }
+        assertThat(histories).extracting(MetricHistory::getChunk).contains(0, 1);
+    }
+
+    @Test
+    void testPendingSnapshotsAreReadFromTheirPinnedStructure() {
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+        metricHistoryService.append(snapshot(3), projectStructure(3, false));
+        Map<ProjectStructureCache.Key, ProjectStructure> pinned = new HashMap<>();
+        pinned.put(new ProjectStructureCache.Key("owner", "repo", "master", snapshot(2).getTimestamp()), projectStructure(2, true));
+        pinned.put(new ProjectStructureCache.Key("owner", "repo", "master", snapshot(3).getTimestamp()), projectStructure(3, false));
+        when(projectStructureCache.getPinned("owner", "repo", "master")).thenReturn(pinned);
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getTimestamps()).containsExactly(snapshot(1).getTimestamp(), snapshot(2).getTimestamp(), snapshot(3).getTimestamp());
+        assertThat(trend.getValues()).containsExactly(1f, 2f, 3f);
+
+        MetricTrend classTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.C", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 2);
+        assertThat(classTrend.getValues()).containsExactly(1f, null);
+
+        MetricTrend packageTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.PACKAGE,
+                "com.example", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING, 0);
+        assertThat(packageTrend.getValues()).containsExactly(1f, 3f, 3f);
+    }
+
+    @Test
+    void testPackageSumsSkipClassesWithoutAValue() {
+        ProjectStructure stored = projectStructure(1, false);
+        stored.getClassStructures().get("com.example.A").getClassMetricValues().setNumberOfMethodInvocationsIncoming(null);
+        metricHistoryService.append(snapshot(1), stored);
+        ProjectStructure pending = projectStructure(2, false);
+        pending.getClassStructures().get("com.example.A").getClassMetricValues().setNumberOfMethodInvocationsIncoming(null);
+        Map<ProjectStructureCache.Key, ProjectStructure> pinned = new HashMap<>();
+        pinned.put(new ProjectStructureCache.Key("owner", "repo", "master", snapshot(2).getTimestamp()), pending);
+        when(projectStructureCache.getPinned("owner", "repo", "master")).thenReturn(pinned);
+
+        MetricTrend packageTrend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.PACKAGE,
+                "com.example", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING, 0);
+        assertThat(packageTrend.getValues()).containsExactly(1f, 2f);
+    }
+
+    @Test
+    void testRemovedSnapshotMovesTheLaterOrdinalsBack() {
+        metricHistoryService.append(snapshot(1), projectStructure(1, false));
+        metricHistoryService.append(snapshot(2), projectStructure(2, true));
+        metricHistoryService.append(snapshot(3), projectStructure(3, false));
+
+        metricHistoryService.removeSnapshot(branch, snapshot(2).getTimestamp());
+        metricHistoryService.removeSnapshot(branch, snapshot(4).getTimestamp());
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getTimestamps()).containsExactly(snapshot(1).getTimestamp(), snapshot(3).getTimestamp());
+        assertThat(trend.getValues()).containsExactly(1f, 3f);
+        assertThat(histories).extracting(MetricHistory::getElementName).doesNotContain("com.example.C");
+    }
+
+    @Test
+    void testExpiredSnapshotsWhichAreNoLongerStoredAreRemoved() {
+        for (int day = 1; day <= 4; day++) {
+            metricHistoryService.append(snapshot(day), projectStructure(day, false));
+        }
+        OffsetDateTime cutoff = snapshot(4).getTimestamp();
+        when(metricHistoryTimelineRepository.findAllBranches()).thenReturn(Collections.singletonList(branch));
+        when(snapshotRepository.findTimestampsByBranchBefore(branch, cutoff))
+                .thenReturn(Collections.singletonList(snapshot(2).getTimestamp()));
+
+        metricHistoryService.removeExpiredSnapshots(cutoff);
+
+        MetricTrend trend = metricHistoryService.getTrend("owner", "repo", "master", MetricHistoryElementType.CLASS,
+                "com.example.A", ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_OUTGOING, 0);
+        assertThat(trend.getTimestamps()).containsExactly(snapshot(2).getTimestamp(), snapshot(4).getTimestamp());
+        assertThat(trend.getValues()).containsExactly(2f, 4f);
+    }
+
+    @Test
+    void testChunkValuesLeaveOutTrailingMissingOrdinals() {
+        float[] series = new float[3 * MetricHistoryService.CLASS_METRICS];
+        Arrays.fill(series, Float.NaN);
+        series[MetricHistoryService.CLASS_METRICS] = 1f;
+
+        assertThat(MetricHistoryService.chunkValues(series, 0, 3)).hasSize(2 * MetricHistoryService.CLASS_METRICS);
+        assertThat(MetricHistoryService.chunkValues(series, 0, 3)[0]).isNaN();
+        assertThat(MetricHistoryService.chunkValues(series, 0, 1)).isEmpty();
+        assertThat(MetricHistoryService.chunkValues(series, 2, 1)).isEmpty();
+    }
+
+    @Test
+    void testInsertionPointIsAfterEqualTimestamps() {
+        assertThat(MetricHistoryService.insertionPoint(new long[0], 5)).isZero();
+        assertThat(MetricHistoryService.insertionPoint(new long[]{1, 5, 5, 9}, 5)).isEqualTo(3);
+        assertThat(MetricHistoryService.insertionPoint(new long[]{1, 5, 9}, 0)).isZero();
+        assertThat(MetricHistoryService.insertionPoint(new long[]{1, 5, 9}, 10)).isEqualTo(3);
+    }
+
+    private Snapshot snapshot(int day) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setBranch(branch);
+        snapshot.setTimestamp(OffsetDateTime.of(2020, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC).plusDays(day - 1));
+        return snapshot;
+    }
+
+    private ProjectStructure projectStructure(int invocations, boolean withC) {
+        ProjectStructure projectStructure = new ProjectStructure();
+        for (int i = 0; i < invocations; i++) {
+            projectStructure.addMethodInvocation("com.example.A", "com.example.B", new MethodInvocation("methodInB", null));
+        }
+        if (withC) {
+            projectStructure.addMethodInvocation("com.example.C", "com.example.B", new MethodInvocation("methodInB", null));
+        }
+        projectStructure.computeAllMetrics();
+        return projectStructure;
+    }
+}
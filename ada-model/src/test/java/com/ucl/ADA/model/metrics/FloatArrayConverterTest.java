@@ -0,0 +1,37 @@
+package com.ucl.ADA.model.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FloatArrayConverterTest {
+
+    private final FloatArrayConverter converter = new FloatArrayConverter();
+
+    @Test
+    void testValuesRoundTrip() {
+        float[] values = {0f, 1.5f, -3f, Float.MAX_VALUE, Float.MIN_VALUE, Float.NaN, Float.POSITIVE_INFINITY};
+
+        byte[] column = converter.convertToDatabaseColumn(values);
+
+        assertThat(column).hasSize(values.length * Float.BYTES);
+        assertThat(converter.convertToEntityAttribute(column)).containsExactly(values);
+    }
+
+    @Test
+    void testValuesArePackedBigEndian() {
+        assertThat(converter.convertToDatabaseColumn(new float[]{1f})).containsExactly((byte) 0x3f, (byte) 0x80, (byte) 0x00, (byte) 0x00);
+    }
+
+    @Test
+    void testEmptyVectorRoundTrips() {
+        assertThat(converter.convertToDatabaseColumn(new float[0])).isEmpty();
+        assertThat(converter.convertToEntityAttribute(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void testNullIsKeptNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
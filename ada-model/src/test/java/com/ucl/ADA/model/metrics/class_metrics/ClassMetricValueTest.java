@@ -0,0 +1,34 @@
+package com.ucl.ADA.model.metrics.class_metrics;
+
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassMetricValueTest {
+
+    @Test
+    void testPackedVectorRoundTrips() {
+        ClassMetricValue classMetricValue = new ClassMetricValue();
+        for (ClassMetricType classMetricType : ClassMetricType.values()) {
+            classMetricValue.setValue(classMetricType, classMetricType.ordinal() + 0.5f);
+        }
+        FloatArrayConverter converter = new FloatArrayConverter();
+
+        float[] vector = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(classMetricValue.getVector()));
+
+        assertThat(vector).containsExactly(classMetricValue.getVector());
+        assertThat(vector[ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING.ordinal()])
+                .isEqualTo(classMetricValue.getNumberOfMethodInvocationsIncoming());
+    }
+
+    @Test
+    void testNullValueIsStoredAsNaN() {
+        ClassMetricValue classMetricValue = new ClassMetricValue();
+
+        classMetricValue.setNumberOfMethodInvocationsIncoming(null);
+
+        assertThat(classMetricValue.getNumberOfMethodInvocationsIncoming()).isNaN();
+        assertThat(classMetricValue.getNumberOfMethodInvocationsOutgoing()).isZero();
+    }
+}
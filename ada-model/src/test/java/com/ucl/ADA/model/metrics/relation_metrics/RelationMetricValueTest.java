@@ -0,0 +1,34 @@
+package com.ucl.ADA.model.metrics.relation_metrics;
+
+import com.ucl.ADA.model.metrics.FloatArrayConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RelationMetricValueTest {
+
+    @Test
+    void testPackedVectorRoundTrips() {
+        RelationMetricValue relationMetricValue = new RelationMetricValue();
+        for (RelationMetricType relationMetricType : RelationMetricType.values()) {
+            relationMetricValue.setValue(relationMetricType, relationMetricType.ordinal() + 0.5f);
+        }
+        FloatArrayConverter converter = new FloatArrayConverter();
+
+        float[] vector = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(relationMetricValue.getVector()));
+
+        assertThat(vector).containsExactly(relationMetricValue.getVector());
+        assertThat(vector[RelationMetricType.GENERAL_CUMULATIVE_NORMALISED_BIDIRECTIONAL.ordinal()])
+                .isEqualTo(relationMetricValue.getGeneralCumulativeNormalisedBidirectional());
+    }
+
+    @Test
+    void testNullValueIsStoredAsNaN() {
+        RelationMetricValue relationMetricValue = new RelationMetricValue();
+
+        relationMetricValue.setGeneralCumulativeNormalisedBidirectional(null);
+
+        assertThat(relationMetricValue.getGeneralCumulativeNormalisedBidirectional()).isNaN();
+        assertThat(relationMetricValue.getBidirectionalNumberOfMethodInvocations()).isZero();
+    }
+}
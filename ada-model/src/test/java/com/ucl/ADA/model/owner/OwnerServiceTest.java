@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -23,6 +24,9 @@ public class OwnerServiceTest {
     @Mock
     private OwnerRepository ownerRepository;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @BeforeEach
     void init() {
         MockitoAnnotations.initMocks(this);
@@ -0,0 +1,142 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.ucl.ADA.model.BaseEntity;
+import com.ucl.ADA.model.dependence_information.declaration_information.PackageDeclaration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InternedValueStoreTest {
+
+    private static final long RESERVED_ID = 1L;
+
+    private static final long CONCURRENT_ID = 7L;
+
+    @InjectMocks
+    private InternedValueStore internedValueStore;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement selectStatement;
+
+    @Mock
+    private PreparedStatement reserveStatement;
+
+    @Mock
+    private PreparedStatement insertStatement;
+
+    @BeforeEach
+    void init() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("SELECT t."))).thenReturn(selectStatement);
+        when(connection.prepareStatement(startsWith("SELECT nextval"))).thenReturn(reserveStatement);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insertStatement);
+
+        // the value is missing, then found inserted by another writer instead of the reserved id
+        ResultSet missing = mock(ResultSet.class);
+        ResultSet concurrent = row("com.ada", CONCURRENT_ID);
+        ResultSet found = row("com.ada", CONCURRENT_ID);
+        when(selectStatement.executeQuery()).thenReturn(missing, concurrent, found);
+        ResultSet reserved = mock(ResultSet.class);
+        when(reserved.next()).thenReturn(true, false);
+        when(reserved.getLong(1)).thenReturn(RESERVED_ID + BaseEntity.ID_ALLOCATION_SIZE - 1);
+        when(reserveStatement.executeQuery()).thenReturn(reserved);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testValueInsertedConcurrentlyGetsTheStoredId() throws Exception {
+        PackageDeclaration packageDeclaration = intern("com.ada");
+
+        assertThat(packageDeclaration.getId()).isEqualTo(CONCURRENT_ID);
+        verify(insertStatement).executeUpdate();
+        verify(connection).close();
+    }
+
+    @Test
+    void testCachedValueIsNotLookedUp() throws Exception {
+        intern("com.ada");
+        PackageDeclaration packageDeclaration = intern("com.ada");
+
+        assertThat(packageDeclaration.getId()).isEqualTo(CONCURRENT_ID);
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void testCacheIsClearedWhenTheTransactionRollsBack() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        intern("com.ada");
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        PackageDeclaration packageDeclaration = intern("com.ada");
+
+        assertThat(packageDeclaration.getId()).isEqualTo(CONCURRENT_ID);
+        verify(dataSource, times(2)).getConnection();
+        verify(insertStatement, times(1)).executeUpdate();
+    }
+
+    @Test
+    void testCacheIsKeptWhenTheTransactionCommits() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        intern("com.ada");
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        intern("com.ada");
+
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, never()).setAutoCommit(true);
+    }
+
+    private PackageDeclaration intern(String packageName) {
+        PackageDeclaration packageDeclaration = new PackageDeclaration(packageName);
+        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure.addPackageDeclaration(packageName + ".A", packageDeclaration);
+        internedValueStore.intern(projectStructure, Collections.emptySet());
+        return packageDeclaration;
+    }
+
+    private static ResultSet row(String name, long id) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn(name);
+        when(resultSet.getLong(2)).thenReturn(id);
+        return resultSet;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ucl.ADA.model.project_structure;
+
+import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class ProjectStructureControllerTest {
+
+    private static final String TIMESTAMP = "2020-03-01T12:00:00Z";
+
+    private static final String JSON = "{\"classStructures\":{}}";
+
+    @InjectMocks
+    private ProjectStructureController projectStructureController;
+
+    @Mock
+    private ProjectStructureService projectStructureService;
+
+    private Snapshot snapshot;
+
+    @BeforeEach
+    void init() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        snapshot = new Snapshot();
+        snapshot.setStatus(SnapshotStatus.PERSISTED);
+        SnapshotResponse snapshotResponse = new SnapshotResponse();
+        snapshotResponse.setSnapshot(snapshot);
+        snapshotResponse.setEtag("abc");
+        snapshotResponse.setContent(gzip(JSON));
+        when(projectStructureService.findResponseByOwnerGitRepositoryBranchSnapshotTimestamp(any(), any(), any(), any()))
+                .thenReturn(snapshotResponse);
+    }
+
+    @Test
+    void testEachEncodingHasItsOwnETag() {
+        ResponseEntity<byte[]> compressed = get(null, "gzip, deflate");
+        ResponseEntity<byte[]> plain = get(null, null);
+
+        assertThat(compressed.getHeaders().getETag()).isEqualTo("\"abc-gzip\"");
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(plain.getHeaders().getETag()).isEqualTo("\"abc\"");
+        assertThat(new String(plain.getBody(), StandardCharsets.UTF_8)).isEqualTo(JSON);
+    }
+
+    @Test
+    void testOnlyTheETagOfTheSentEncodingIsNotModified() {
+        assertThat(get("\"abc\"", "gzip").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("\"abc-gzip\"", "gzip").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(get("\"abc\"", null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void testOnlyPersistedSnapshotsAreImmutable() {
+        assertThat(get(null, "gzip").getHeaders().getCacheControl()).contains("immutable");
+
+        snapshot.setStatus(SnapshotStatus.PENDING);
+
+        assertThat(get(null, "gzip").getHeaders().getCacheControl()).isEqualTo("no-cache");
+    }
+
+    private ResponseEntity<byte[]> get(String ifNoneMatch, String acceptEncoding) {
+        return projectStructureController.getProjectStructureResponseGivenOwnerRepoBranchAndTimestamp(
+                "owner", "repo", "master", TIMESTAMP, ifNoneMatch, acceptEncoding);
+    }
+
+    private static byte[] gzip(String json) throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -1,19 +1,39 @@
 package com.ucl.ADA.model.project_structure;
 
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.class_structure.ClassStructureContentHash;
+import com.ucl.ADA.model.class_structure.ClassStructureRepository;
+import com.ucl.ADA.model.dependence_information.declaration_information.PackageDeclaration;
 import com.ucl.ADA.model.snapshot.Snapshot;
+import com.ucl.ADA.model.snapshot.SnapshotDeletedEvent;
 import com.ucl.ADA.model.snapshot.SnapshotService;
+import com.ucl.ADA.model.snapshot.SnapshotStatus;
+import com.ucl.ADA.model.snapshot_document.SnapshotDocumentService;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponse;
+import com.ucl.ADA.model.snapshot_response.SnapshotResponseService;
+import com.ucl.ADA.model.snapshot_retention.SnapshotRetentionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.persistence.EntityManager;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +49,26 @@ class ProjectStructureServiceTest {
     @Mock
     private SnapshotService snapshotService;
 
+    @Mock
+    private ClassStructureRepository classStructureRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SnapshotDocumentService snapshotDocumentService;
+
+    @Mock
+    private SnapshotResponseService snapshotResponseService;
+
+    @Mock
+    private InternedValueStore internedValueStore;
+
+    @Mock
+    private SnapshotRetentionService snapshotRetentionService;
+
+    @Spy
+    private ProjectStructureCache projectStructureCache = new ProjectStructureCache(1 << 20, new SimpleMeterRegistry());
 
     private ProjectStructure returnProjectStructure;
 
@@ -73,4 +113,100 @@ class ProjectStructureServiceTest {
         assertThat(retrievedProjectStructure).isEqualTo(projectStructure);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByOwnerGitRepositoryBranchSnapshotTimestamp_metricsPlanLoadsOnlyClassStructures() {
+        ProjectStructure projectStructure = new ProjectStructure();
+        Snapshot snapshot = new Snapshot();
+
+        when(snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any())).thenReturn(snapshot);
+        when(projectStructureRepository.findWithClassStructuresBySnapshot(snapshot)).thenReturn(projectStructure);
+
+        ProjectStructure retrievedProjectStructure = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", OffsetDateTime.now(), FetchPlan.METRICS);
+
+        verify(projectStructureRepository, never()).findBySnapshot(any());
+        assertThat(retrievedProjectStructure).isEqualTo(projectStructure);
+    }
+
+    @Test
+    void findClassNamesByOwnerGitRepositoryBranchSnapshotTimestamp_returnsSortedNames() {
+        Snapshot snapshot = new Snapshot();
+
+        when(snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any())).thenReturn(snapshot);
+        when(projectStructureRepository.findClassNamesBySnapshot(snapshot)).thenReturn(new ArrayList<>(Arrays.asList("com.ada.B", "com.ada.A")));
+
+        List<String> classNames = projectStructureService.findClassNamesByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", OffsetDateTime.now());
+
+        assertThat(classNames).containsExactly("com.ada.A", "com.ada.B");
+    }
+
+    @Test
+    void findByOwnerGitRepositoryBranchSnapshotTimestamp_readsThroughCache() {
+        ProjectStructure projectStructure = new ProjectStructure();
+        Snapshot snapshot = new Snapshot();
+        OffsetDateTime timestamp = OffsetDateTime.now();
+
+        when(snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any())).thenReturn(snapshot);
+        when(projectStructureRepository.findBySnapshot(snapshot)).thenReturn(projectStructure);
+
+        ProjectStructure first = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", timestamp);
+        ProjectStructure second = projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", timestamp, FetchPlan.METRICS);
+
+        verify(projectStructureRepository).findBySnapshot(snapshot);
+        verify(projectStructureRepository, never()).findWithClassStructuresBySnapshot(any());
+        assertThat(first).isSameAs(projectStructure);
+        assertThat(second).isSameAs(projectStructure);
+
+        projectStructureCache.onSnapshotDeleted(new SnapshotDeletedEvent("bzq", "ada", "master", timestamp));
+        projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", timestamp);
+
+        verify(projectStructureRepository, times(2)).findBySnapshot(snapshot);
+    }
+
+    @Test
+    void findResponseByOwnerGitRepositoryBranchSnapshotTimestamp_rendersPinnedStructureOfPendingSnapshot() {
+        ProjectStructure projectStructure = new ProjectStructure();
+        Snapshot snapshot = new Snapshot();
+        snapshot.setStatus(SnapshotStatus.PENDING);
+        OffsetDateTime timestamp = OffsetDateTime.now();
+        SnapshotResponse rendered = new SnapshotResponse();
+
+        projectStructureCache.pin(new ProjectStructureCache.Key("bzq", "ada", "master", timestamp), projectStructure);
+        when(snapshotService.getSnapshotGivenOwnerRepoBranchAndTimestamp(any(), any(), any(), any())).thenReturn(snapshot);
+        when(snapshotResponseService.render(snapshot, projectStructure)).thenReturn(rendered);
+
+        SnapshotResponse response = projectStructureService.findResponseByOwnerGitRepositoryBranchSnapshotTimestamp("bzq", "ada", "master", timestamp);
+
+        assertThat(response).isSameAs(rendered);
+        verify(snapshotResponseService, never()).save(any(), any());
+        verify(projectStructureRepository, never()).findBySnapshot(any());
+    }
+
+    @Test
+    void save_referencesStoredClassStructuresWithTheSameContent() {
+        ProjectStructure projectStructure = new ProjectStructure();
+        ClassStructure unchanged = new ClassStructure();
+        unchanged.setCurrentPackage(new PackageDeclaration("com.ada"));
+        ClassStructure changed = new ClassStructure();
+        changed.setCurrentPackage(new PackageDeclaration("com.ada"));
+        projectStructure.getClassStructures().put("com.ada.A", unchanged);
+        projectStructure.getClassStructures().put("com.ada.B", changed);
+
+        ClassStructure stored = new ClassStructure();
+        List<Object[]> storedIds = Collections.singletonList(new Object[]{ClassStructureContentHash.of("com.ada.A", unchanged), 42L});
+        when(classStructureRepository.findIdsByContentHashIn(any())).thenReturn(storedIds);
+        when(entityManager.getReference(ClassStructure.class, 42L)).thenReturn(stored);
+        when(projectStructureRepository.save(any())).thenReturn(returnProjectStructure);
+
+        ProjectStructure savedProjectStructure = projectStructureService.save(projectStructure);
+
+        ArgumentCaptor<ProjectStructure> persisted = ArgumentCaptor.forClass(ProjectStructure.class);
+        verify(projectStructureRepository).save(persisted.capture());
+        assertThat(persisted.getValue().getClassStructures())
+                .containsEntry("com.ada.A", stored)
+                .containsEntry("com.ada.B", changed);
+        assertThat(savedProjectStructure).isSameAs(projectStructure);
+        assertThat(savedProjectStructure.getId()).isEqualTo(1L);
+        assertThat(changed.getContentHash()).isEqualTo(ClassStructureContentHash.of("com.ada.B", changed));
+    }
+}
@@ -1,11 +1,14 @@
 package com.ucl.ADA.model.project_structure;
 
+import com.ucl.ADA.model.dependence_information.DependenceInfo;
 import com.ucl.ADA.model.dependence_information.declaration_information.*;
 import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -335,4 +338,137 @@ class ProjectStructureTest {
 
         assertThat(pdt.getClassStructures().get(declaringClassName).getExternalAttributeInvocations()).containsExactly(attributeInvocation);
     }
+
+    @Test
+    void testInvocationIsStoredOncePerClassPair() {
+        MethodInvocation methodInvocation = new MethodInvocation("method", passedParameterList0);
+
+        pdt.addMethodInvocation("ConsumingTestClass", "DeclaringTestClass", methodInvocation);
+
+        assertThat(pdt.getClassStructures().get("DeclaringTestClass").getIncomingDependenceInfo().get("ConsumingTestClass"))
+                .isSameAs(pdt.getClassStructures().get("ConsumingTestClass").getOutgoingDependenceInfo().get("DeclaringTestClass"));
+    }
+
+    @Test
+    void testRelationMetricsAreOwnedByOneClassAndMirrored() {
+        pdt.addMethodInvocation("FirstClass", "SecondClass", new MethodInvocation("method", passedParameterList0));
+        pdt.addAttributeInvocation("SecondClass", "FirstClass", new AttributeInvocation("attribute"));
+        pdt.addAttributeInvocation("SecondClass", "FirstClass", new AttributeInvocation("attribute"));
+
+        pdt.computeAllMetrics();
+
+        assertThat(pdt.getClassStructures().get("FirstClass").getOwnedRelationMetricValues()).containsOnlyKeys("SecondClass");
+        assertThat(pdt.getClassStructures().get("SecondClass").getOwnedRelationMetricValues()).isEmpty();
+
+        RelationMetricValue first = pdt.getClassStructures().get("FirstClass").getRelationMetricValues().get("SecondClass");
+        RelationMetricValue second = pdt.getClassStructures().get("SecondClass").getRelationMetricValues().get("FirstClass");
+        assertThat(first.getNumberOfMethodInvocationsOutgoing()).isEqualTo(1f);
+        assertThat(first.getNumberOfAttributeInvocationsIncoming()).isEqualTo(2f);
+        assertThat(second.getNumberOfMethodInvocationsIncoming()).isEqualTo(1f);
+        assertThat(second.getNumberOfAttributeInvocationsOutgoing()).isEqualTo(2f);
+        assertThat(second.getGeneralCumulativeNormalisedBidirectional()).isEqualTo(first.getGeneralCumulativeNormalisedBidirectional());
+    }
+
+    @Test
+    void testRelinkRebuildsViewsFromPersistedState() {
+        pdt.addMethodInvocation("FirstClass", "SecondClass", new MethodInvocation("method", passedParameterList0));
+        pdt.computeAllMetrics();
+        pdt.getClassStructures().values().forEach(classStructure -> {
+            classStructure.getIncomingDependenceInfo().clear();
+            classStructure.getRelationMetricValues().clear();
+        });
+
+        pdt.relink();
+
+        assertThat(pdt.getClassStructures().get("SecondClass").getIncomingDependenceInfo()).containsOnlyKeys("FirstClass");
+        assertThat(pdt.getClassStructures().get("SecondClass").getRelationMetricValues().get("FirstClass").getNumberOfMethodInvocationsIncoming())
+                .isEqualTo(1f);
+    }
+
+    @Test
+    void testViewsAreRebuiltOnFirstAccessAfterLoad() {
+        pdt.addMethodInvocation("FirstClass", "SecondClass", new MethodInvocation("method", passedParameterList0));
+        pdt.computeAllMetrics();
+        DependenceInfo outgoing = pdt.getClassStructures().get("FirstClass").getOutgoingDependenceInfo().get("SecondClass");
+        // as loaded from the database, where the incoming maps are not persisted
+        pdt.getClassStructures().get("SecondClass").setIncomingDependenceInfo(new HashMap<>());
+        pdt.markUnlinked();
+
+        assertThat(pdt.getClassStructures().get("SecondClass").getIncomingDependenceInfo().get("FirstClass")).isSameAs(outgoing);
+    }
+
+    @Test
+    void testRelinkInParallelForLargeProjects() {
+        int classes = ProjectStructure.PARALLEL_RELINK_THRESHOLD + 1;
+        for (int i = 0; i < classes; i++) {
+            pdt.addMethodInvocation("Class" + i, "Class" + ((i + 1) % classes), new MethodInvocation("method", null));
+        }
+        pdt.computeAllMetrics();
+
+        pdt.relink();
+
+        for (int i = 0; i < classes; i++) {
+            assertThat(pdt.getClassStructures().get("Class" + i).getIncomingDependenceInfo())
+                    .containsOnlyKeys("Class" + ((i + classes - 1) % classes));
+            assertThat(pdt.getClassStructures().get("Class" + i).getRelationMetricValues()).hasSize(2);
+        }
+    }
+
+    @Test
+    void testRelinkReadsThePersistedMapsOnTheCallingThreadOnly() {
+        int classes = ProjectStructure.PARALLEL_RELINK_THRESHOLD + 1;
+        for (int i = 0; i < classes; i++) {
+            pdt.addMethodInvocation("Class" + i, "Class" + ((i + 1) % classes), new MethodInvocation("method", null));
+        }
+        pdt.computeAllMetrics();
+        // as loaded lazily through the session of an attached project structure, which is not thread-safe
+        Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        pdt.getClassStructures().values().forEach(classStructure -> {
+            classStructure.setOutgoingDependenceInfo(new ReaderRecordingMap<>(classStructure.getOutgoingDependenceInfo(), readers));
+            classStructure.setOwnedRelationMetricValues(new ReaderRecordingMap<>(classStructure.getOwnedRelationMetricValues(), readers));
+        });
+        pdt.markUnlinked();
+
+        pdt.getClassStructures();
+
+        assertThat(readers).containsExactly(Thread.currentThread());
+        assertThat(pdt.getClassStructures().get("Class0").getIncomingDependenceInfo()).containsOnlyKeys("Class" + (classes - 1));
+        assertThat(pdt.getClassStructures().get("Class0").getRelationMetricValues()).hasSize(2);
+    }
+
+    /**
+     * A map recording the threads reading its entries
+     */
+    private static class ReaderRecordingMap<K, V> extends HashMap<K, V> {
+        private final Set<Thread> readers;
+
+        ReaderRecordingMap(Map<K, V> map, Set<Thread> readers) {
+            super(map);
+            this.readers = readers;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            readers.add(Thread.currentThread());
+            return super.entrySet();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            readers.add(Thread.currentThread());
+            return super.keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            readers.add(Thread.currentThread());
+            return super.values();
+        }
+
+        @Override
+        public V get(Object key) {
+            readers.add(Thread.currentThread());
+            return super.get(key);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.ucl.ADA.model.repository;
+
+import com.ucl.ADA.model.branch.Branch;
+import com.ucl.ADA.model.branch.BranchRepository;
+import com.ucl.ADA.model.owner.OwnerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RepositoryRegistrationServiceTest {
+
+    @InjectMocks
+    private RepositoryRegistrationService repositoryRegistrationService;
+
+    @Mock
+    private OwnerRepository ownerRepository;
+
+    @Mock
+    private GitRepoRepository gitRepoRepository;
+
+    @Mock
+    private BranchRepository branchRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private Branch branch;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.initMocks(this);
+
+        branch = new Branch();
+        when(ownerRepository.upsertOwner("bzq")).thenReturn(1L);
+        when(gitRepoRepository.upsertGitRepo(1L, "ada")).thenReturn(2L);
+        when(branchRepository.upsertBranch(2L, "master")).thenReturn(3L);
+        when(branchRepository.upsertBranch(2L, "develop")).thenReturn(4L);
+        when(entityManager.getReference(eq(Branch.class), anyLong())).thenReturn(branch);
+    }
+
+    @Test
+    void testRegisterBranchUpsertsEveryLevelOnce() {
+        assertThat(repositoryRegistrationService.registerBranch("bzq", "ada", "master")).isSameAs(branch);
+        repositoryRegistrationService.registerBranch("bzq", "ada", "master");
+
+        verify(ownerRepository, times(1)).upsertOwner("bzq");
+        verify(gitRepoRepository, times(1)).upsertGitRepo(1L, "ada");
+        verify(branchRepository, times(1)).upsertBranch(2L, "master");
+        verify(entityManager, times(2)).getReference(Branch.class, 3L);
+    }
+
+    @Test
+    void testRegisterBranchReusesCachedOwnerAndRepository() {
+        repositoryRegistrationService.registerBranch("bzq", "ada", "master");
+        repositoryRegistrationService.registerBranch("bzq", "ada", "develop");
+
+        verify(ownerRepository, times(1)).upsertOwner("bzq");
+        verify(gitRepoRepository, times(1)).upsertGitRepo(1L, "ada");
+        verify(branchRepository).upsertBranch(2L, "develop");
+        verify(entityManager).getReference(Branch.class, 4L);
+    }
+
+    @Test
+    void testClearCacheResolvesAgain() {
+        repositoryRegistrationService.registerBranch("bzq", "ada", "master");
+        repositoryRegistrationService.clearCache();
+        repositoryRegistrationService.registerBranch("bzq", "ada", "master");
+
+        verify(ownerRepository, times(2)).upsertOwner("bzq");
+        verify(branchRepository, times(2)).upsertBranch(2L, "master");
+    }
+}
@@ -3,11 +3,15 @@ package com.ucl.ADA.model.snapshot;
 import com.ucl.ADA.model.branch.Branch;
 import com.ucl.ADA.model.branch.BranchRepository;
 import com.ucl.ADA.model.branch.BranchService;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.util.LinkedHashSet;
@@ -15,6 +19,8 @@ import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +38,12 @@ public class SnapshotServiceTest {
     @Mock
     private SnapshotRepository snapshotRepository;
 
+    @Mock
+    private MetricHistoryService metricHistoryService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @BeforeEach
     void init() {
         MockitoAnnotations.initMocks(this);
@@ -84,4 +96,57 @@ public class SnapshotServiceTest {
         assertThat(retrievedSnapshot).isEqualTo(snapshot);
     }
 
+    @Test
+    public void testDeleteSnapshotPublishesEvent(){
+        Snapshot snapshot = new Snapshot();
+        Branch branch = new Branch();
+        OffsetDateTime time = OffsetDateTime.now();
+        snapshot.setBranch(branch);
+        snapshot.setTimestamp(time);
+
+        when(branchService.getBranchGivenOwnerRepoAndName(any(), any(), any())).thenReturn(branch);
+        when(snapshotRepository.findByBranchAndTimestamp(any(), any())).thenReturn(snapshot);
+
+        boolean deleted = snapshotService.deleteSnapshot("naum97", "name", "master", time);
+
+        assertThat(deleted).isTrue();
+        verify(snapshotRepository).deleteSnapshot(snapshot.getId());
+        verify(metricHistoryService).removeSnapshot(branch, time);
+        verify(applicationEventPublisher).publishEvent(any(SnapshotDeletedEvent.class));
+    }
+
+    @Test
+    public void testDeleteSnapshotRecordsItsClassStructuresBeforeUnlinkingThem(){
+        Snapshot snapshot = new Snapshot();
+        snapshot.setId(7L);
+        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure.setId(8L);
+        snapshot.setProjectStructure(projectStructure);
+
+        when(branchService.getBranchGivenOwnerRepoAndName(any(), any(), any())).thenReturn(new Branch());
+        when(snapshotRepository.findByBranchAndTimestamp(any(), any())).thenReturn(snapshot);
+
+        snapshotService.deleteSnapshot("naum97", "name", "master", OffsetDateTime.now());
+
+        InOrder inOrder = inOrder(snapshotRepository);
+        inOrder.verify(snapshotRepository).recordClassStructureGcCandidates(7L);
+        inOrder.verify(snapshotRepository).deleteSourceFiles(7L);
+        inOrder.verify(snapshotRepository).deleteSnapshot(7L);
+        inOrder.verify(snapshotRepository).deleteProjectStructureLinks(8L);
+        inOrder.verify(snapshotRepository).deleteUnreferencedProjectStructure(8L);
+        verify(snapshotRepository, never()).delete(any());
+    }
+
+    @Test
+    public void testDeleteMissingSnapshot(){
+        when(branchService.getBranchGivenOwnerRepoAndName(any(), any(), any())).thenReturn(new Branch());
+
+        boolean deleted = snapshotService.deleteSnapshot("naum97", "name", "master", OffsetDateTime.now());
+
+        assertThat(deleted).isFalse();
+        verify(snapshotRepository, never()).deleteSnapshot(any());
+        verify(metricHistoryService, never()).removeSnapshot(any(), any());
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+
 }
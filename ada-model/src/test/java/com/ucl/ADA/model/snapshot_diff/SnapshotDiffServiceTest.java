@@ -0,0 +1,134 @@
+package com.ucl.ADA.model.snapshot_diff;
+
+import com.ucl.ADA.model.dependence_information.invocation_information.AttributeInvocation;
+import com.ucl.ADA.model.dependence_information.invocation_information.MethodInvocation;
+import com.ucl.ADA.model.metrics.class_metrics.ClassMetricType;
+import com.ucl.ADA.model.metrics.relation_metrics.RelationMetricType;
+import com.ucl.ADA.model.project_structure.FetchPlan;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.project_structure.ProjectStructureService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SnapshotDiffServiceTest {
+
+    @InjectMocks
+    private SnapshotDiffService snapshotDiffService;
+
+    @Mock
+    private ProjectStructureService projectStructureService;
+
+    private SnapshotProjection before;
+
+    private SnapshotProjection after;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        ProjectStructure beforeStructure = new ProjectStructure();
+        beforeStructure.addMethodInvocation("A", "B", new MethodInvocation("method", null));
+        beforeStructure.addAttributeInvocation("A", "C", new AttributeInvocation("attribute"));
+        beforeStructure.computeAllMetrics();
+        before = SnapshotProjection.of(beforeStructure);
+
+        ProjectStructure afterStructure = new ProjectStructure();
+        afterStructure.addMethodInvocation("A", "B", new MethodInvocation("method", null));
+        afterStructure.addMethodInvocation("A", "B", new MethodInvocation("otherMethod", null));
+        afterStructure.addMethodInvocation("D", "B", new MethodInvocation("method", null));
+        afterStructure.computeAllMetrics();
+        after = SnapshotProjection.of(afterStructure);
+    }
+
+    @Test
+    void testProjectionIsSorted() {
+        assertThat(before.getClassNames()).containsExactly("A", "B", "C");
+        assertThat(before.getEdges()).isSorted();
+        assertThat(before.getEdges()).hasSize(2);
+    }
+
+    @Test
+    void testAddedAndRemovedClasses() {
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff(before, after);
+
+        assertThat(snapshotDiff.getAddedClasses()).containsExactly("D");
+        assertThat(snapshotDiff.getRemovedClasses()).containsExactly("C");
+    }
+
+    @Test
+    void testAddedRemovedAndChangedEdges() {
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff(before, after);
+
+        assertThat(snapshotDiff.getAddedEdges()).hasSize(1);
+        assertThat(snapshotDiff.getAddedEdges().get(0).getSource()).isEqualTo("D");
+        assertThat(snapshotDiff.getAddedEdges().get(0).getTarget()).isEqualTo("B");
+        assertThat(snapshotDiff.getAddedEdges().get(0).getMethods()).isEqualTo(1);
+
+        assertThat(snapshotDiff.getRemovedEdges()).hasSize(1);
+        assertThat(snapshotDiff.getRemovedEdges().get(0).getSource()).isEqualTo("A");
+        assertThat(snapshotDiff.getRemovedEdges().get(0).getTarget()).isEqualTo("C");
+        assertThat(snapshotDiff.getRemovedEdges().get(0).getAttributes()).isEqualTo(1);
+
+        assertThat(snapshotDiff.getChangedEdges()).hasSize(1);
+        EdgeDelta changedEdge = snapshotDiff.getChangedEdges().get(0);
+        assertThat(changedEdge.getSource()).isEqualTo("A");
+        assertThat(changedEdge.getTarget()).isEqualTo("B");
+        assertThat(changedEdge.getMethods()).isEqualTo(1);
+        assertThat(changedEdge.getRelationMetricDeltas().get(RelationMetricType.NUMBER_OF_RELATION_METHOD_INVOCATIONS_OUTGOING)).isEqualTo(1f);
+    }
+
+    @Test
+    void testClassMetricDeltas() {
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff(before, after);
+
+        assertThat(snapshotDiff.getClassMetricDeltas().get("B").get(ClassMetricType.NUMBER_OF_CLASS_METHOD_INVOCATIONS_INCOMING)).isEqualTo(2f);
+        assertThat(snapshotDiff.getClassMetricDeltas().get("A").get(ClassMetricType.NUMBER_OF_CLASS_ATTRIBUTE_INVOCATIONS_OUTGOING)).isEqualTo(-1f);
+    }
+
+    @Test
+    void testIdenticalSnapshotsHaveNoDifference() {
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff(before, before);
+
+        assertThat(snapshotDiff.getAddedClasses()).isEmpty();
+        assertThat(snapshotDiff.getRemovedClasses()).isEmpty();
+        assertThat(snapshotDiff.getAddedEdges()).isEmpty();
+        assertThat(snapshotDiff.getRemovedEdges()).isEmpty();
+        assertThat(snapshotDiff.getChangedEdges()).isEmpty();
+        assertThat(snapshotDiff.getClassMetricDeltas()).isEmpty();
+    }
+
+    @Test
+    void testSnapshotsAreLoadedWithTheirMetricsOnly() {
+        OffsetDateTime beforeTime = OffsetDateTime.parse("2020-03-01T12:00:00Z");
+        OffsetDateTime afterTime = beforeTime.plusDays(1);
+        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure.addMethodInvocation("A", "B", new MethodInvocation("method", null));
+        projectStructure.computeAllMetrics();
+        when(projectStructureService.findByOwnerGitRepositoryBranchSnapshotTimestamp(eq("owner"), eq("repo"), eq("master"), any(), eq(FetchPlan.METRICS)))
+                .thenReturn(projectStructure);
+
+        SnapshotDiff snapshotDiff = snapshotDiffService.diff("owner", "repo", "master", beforeTime, afterTime);
+
+        assertThat(snapshotDiff.getChangedEdges()).isEmpty();
+        verify(projectStructureService, never()).findByOwnerGitRepositoryBranchSnapshotTimestamp(any(), any(), any(), any());
+        verify(projectStructureService, never()).findByOwnerGitRepositoryBranchSnapshotTimestamp(any(), any(), any(), any(), eq(FetchPlan.FULL));
+    }
+
+    @Test
+    void testMissingSnapshotHasNoDifference() {
+        assertThat(snapshotDiffService.diff("owner", "repo", "master", OffsetDateTime.parse("2020-03-01T12:00:00Z"),
+                OffsetDateTime.parse("2020-03-02T12:00:00Z"))).isNull();
+    }
+}
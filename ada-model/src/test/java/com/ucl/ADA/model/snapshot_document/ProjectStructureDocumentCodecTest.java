@@ -0,0 +1,79 @@
+package com.ucl.ADA.model.snapshot_document;
+
+import com.ucl.ADA.model.class_structure.ClassStructure;
+import com.ucl.ADA.model.dependence_information.declaration_information.*;
+import com.ucl.ADA.model.dependence_information.invocation_information.*;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProjectStructureDocumentCodecTest {
+
+    private ProjectStructure projectStructure;
+
+    @BeforeEach
+    void setUp() {
+        Set<ModifierType> modifiers = new HashSet<>(Collections.singletonList(ModifierType.PUBLIC));
+        projectStructure = new ProjectStructure();
+        projectStructure.addPackageDeclaration("com.ada.A", new PackageDeclaration("com.ada"));
+        projectStructure.addAttributeDeclaration("com.ada.A", new AttributeDeclaration(modifiers, "String", "name", "\"a\""));
+        projectStructure.addMethodDeclaration("com.ada.B", new MethodDeclaration(modifiers, "int", "size",
+                new ArrayList<>(Collections.singletonList(new ParameterDeclaration("String", "value")))));
+        projectStructure.addAttributeInvocation("com.ada.B", "com.ada.A", new AttributeInvocation("name"));
+        projectStructure.addMethodInvocation("com.ada.A", "com.ada.B", new MethodInvocation("size",
+                new ArrayList<>(Collections.singletonList(new PassedParameter("name")))));
+        projectStructure.addExternalPackageImport("com.ada.A", new PackageInvocation("java.util"));
+        projectStructure.computeAllMetrics();
+    }
+
+    @Test
+    void decode_restoresDeclarationsDependencesAndMetrics() {
+        ProjectStructure decoded = ProjectStructureDocumentCodec.decode(
+                ProjectStructureDocumentCodec.encode(projectStructure), ProjectStructureDocumentCodec.FORMAT_VERSION);
+
+        assertThat(decoded.getClassStructures().keySet()).isEqualTo(projectStructure.getClassStructures().keySet());
+        for (Map.Entry<String, ClassStructure> entry : projectStructure.getClassStructures().entrySet()) {
+            ClassStructure expected = entry.getValue();
+            ClassStructure actual = decoded.getClassStructures().get(entry.getKey());
+
+            assertThat(actual.getCurrentPackage().getName()).isEqualTo(expected.getCurrentPackage().getName());
+            assertThat(actual.getClassMetricValues().getVector()).isEqualTo(expected.getClassMetricValues().getVector());
+            assertThat(actual.getAttributeDeclarations()).extracting("name").containsExactlyElementsOf(
+                    expected.getAttributeDeclarations().stream().map(ElementDeclaration::getName).collect(Collectors.toList()));
+            assertThat(actual.getOutgoingDependenceInfo().keySet()).isEqualTo(expected.getOutgoingDependenceInfo().keySet());
+            assertThat(actual.getIncomingDependenceInfo().keySet()).isEqualTo(expected.getIncomingDependenceInfo().keySet());
+            assertThat(actual.getExternalPackageImports()).extracting("name").containsExactlyElementsOf(
+                    expected.getExternalPackageImports().stream().map(ElementInvocation::getName).collect(Collectors.toList()));
+            for (String relatedClass : expected.getRelationMetricValues().keySet()) {
+                assertThat(actual.getRelationMetricValues().get(relatedClass).getVector())
+                        .isEqualTo(expected.getRelationMetricValues().get(relatedClass).getVector());
+            }
+        }
+    }
+
+    @Test
+    void decode_sharesDependenceInfoBetweenConsumerAndDeclarer() {
+        ProjectStructure decoded = ProjectStructureDocumentCodec.decode(
+                ProjectStructureDocumentCodec.encode(projectStructure), ProjectStructureDocumentCodec.FORMAT_VERSION);
+
+        assertThat(decoded.getClassStructures().get("com.ada.A").getOutgoingDependenceInfo().get("com.ada.B"))
+                .isSameAs(decoded.getClassStructures().get("com.ada.B").getIncomingDependenceInfo().get("com.ada.A"));
+        MethodInvocation invocation = decoded.getClassStructures().get("com.ada.A").getOutgoingDependenceInfo().get("com.ada.B").getMethods().get(0);
+        assertThat(invocation.getName()).isEqualTo("size");
+        assertThat(invocation.getPassedParameters()).extracting("name").containsExactly("name");
+    }
+
+    @Test
+    void decode_rejectsUnknownFormatVersion() {
+        byte[] document = ProjectStructureDocumentCodec.encode(projectStructure);
+
+        assertThatThrownBy(() -> ProjectStructureDocumentCodec.decode(document, ProjectStructureDocumentCodec.FORMAT_VERSION + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
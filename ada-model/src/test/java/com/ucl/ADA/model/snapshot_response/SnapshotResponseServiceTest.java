@@ -0,0 +1,79 @@
+package com.ucl.ADA.model.snapshot_response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucl.ADA.model.dependence_information.declaration_information.PackageDeclaration;
+import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.model.snapshot.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SnapshotResponseServiceTest {
+
+    @InjectMocks
+    private SnapshotResponseService snapshotResponseService;
+
+    @Mock
+    private SnapshotResponseRepository snapshotResponseRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    void saveStoresCompressedJsonWithItsDigest() throws Exception {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setId(7L);
+        ProjectStructure projectStructure = new ProjectStructure();
+        projectStructure.addPackageDeclaration("com.ada.A", new PackageDeclaration("com.ada"));
+
+        when(snapshotResponseRepository.insertIfAbsent(any(), any(), any())).thenReturn(1);
+
+        SnapshotResponse snapshotResponse = snapshotResponseService.save(snapshot, projectStructure);
+
+        byte[] json = gunzip(snapshotResponse.getContent());
+        assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(projectStructure)));
+        assertThat(snapshotResponse.getEtag())
+                .isEqualTo(SnapshotResponseService.toHex(MessageDigest.getInstance("SHA-256").digest(json)))
+                .hasSize(64);
+        verify(snapshotResponseRepository).insertIfAbsent(eq(7L), eq(snapshotResponse.getEtag()), eq(snapshotResponse.getContent()));
+    }
+
+    @Test
+    void saveReturnsStoredResponseWhenOneExists() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setId(7L);
+        SnapshotResponse stored = new SnapshotResponse();
+
+        when(snapshotResponseRepository.insertIfAbsent(any(), any(), any())).thenReturn(0);
+        when(snapshotResponseRepository.findBySnapshot(snapshot)).thenReturn(stored);
+
+        assertThat(snapshotResponseService.save(snapshot, new ProjectStructure())).isSameAs(stored);
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+}
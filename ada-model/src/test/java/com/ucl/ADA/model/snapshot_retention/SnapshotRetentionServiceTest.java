@@ -0,0 +1,97 @@
+package com.ucl.ADA.model.snapshot_retention;
+
+import com.ucl.ADA.model.class_structure.ClassStructureRepository;
+import com.ucl.ADA.model.metric_history.MetricHistoryService;
+import com.ucl.ADA.model.snapshot.SnapshotRepository;
+import com.ucl.ADA.model.snapshot.SnapshotsExpiredEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SnapshotRetentionServiceTest {
+
+    @InjectMocks
+    private SnapshotRetentionService snapshotRetentionService;
+
+    @Mock
+    private SnapshotRepository snapshotRepository;
+
+    @Mock
+    private ClassStructureRepository classStructureRepository;
+
+    @Mock
+    private MetricHistoryService metricHistoryService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testPurgeKeepsEverythingWithoutMaxAge() {
+        int deleted = snapshotRetentionService.purgeExpiredSnapshots();
+
+        assertThat(deleted).isZero();
+        verify(snapshotRepository).ensurePartitions();
+        verify(snapshotRepository, never()).dropExpiredPartition(anyInt(), any());
+        verify(classStructureRepository, never()).collectUnreferenced(anyInt());
+    }
+
+    @Test
+    public void testPurgeDropsExpiredWindowsAndCollectsClassStructures() {
+        ReflectionTestUtils.setField(snapshotRetentionService, "snapshotMaxAge", Duration.ofDays(30));
+        when(snapshotRepository.findPartitionWindows()).thenReturn(Arrays.asList(0, 1, 2));
+        when(snapshotRepository.dropExpiredPartition(eq(0), any())).thenReturn(3);
+        when(snapshotRepository.dropExpiredPartition(eq(1), any())).thenReturn(-1);
+        when(snapshotRepository.dropExpiredPartition(eq(2), any())).thenReturn(2);
+        when(classStructureRepository.collectUnreferenced(anyInt())).thenReturn(1000, 12, 0);
+
+        OffsetDateTime before = OffsetDateTime.now().minusDays(30);
+        int deleted = snapshotRetentionService.purgeExpiredSnapshots();
+
+        assertThat(deleted).isEqualTo(5);
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(snapshotRepository).dropExpiredPartition(eq(0), cutoff.capture());
+        assertThat(cutoff.getValue()).isAfterOrEqualTo(before).isBefore(OffsetDateTime.now().minusDays(29));
+        verify(classStructureRepository, times(3)).collectUnreferenced(SnapshotRetentionService.COLLECTION_BATCH_SIZE);
+        verify(metricHistoryService).removeExpiredSnapshots(cutoff.getValue());
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue()).isInstanceOfSatisfying(SnapshotsExpiredEvent.class,
+                expired -> assertThat(expired.getDeletedSnapshots()).isEqualTo(5));
+    }
+
+    @Test
+    public void testPurgeWithoutExpiredWindowsPublishesNothing() {
+        ReflectionTestUtils.setField(snapshotRetentionService, "snapshotMaxAge", Duration.ofDays(30));
+        when(snapshotRepository.findPartitionWindows()).thenReturn(Arrays.asList(4, 5));
+        when(snapshotRepository.dropExpiredPartition(anyInt(), any())).thenReturn(-1);
+        when(classStructureRepository.collectUnreferenced(anyInt())).thenReturn(0);
+
+        assertThat(snapshotRetentionService.purgeExpiredSnapshots()).isZero();
+        verify(metricHistoryService, never()).removeExpiredSnapshots(any());
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
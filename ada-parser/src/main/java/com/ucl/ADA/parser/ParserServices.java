@@ -1,10 +1,13 @@
 package com.ucl.ADA.parser;
 
 import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.parser.ada_model.ADAClass;
 import com.ucl.ADA.parser.transformer.Transformer;
 import org.springframework.stereotype.Service;
 
 import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class ParserServices {
@@ -20,4 +23,17 @@ public class ParserServices {
     public ProjectStructure parseRepository(String repositoryPath) throws FileNotFoundException {
         return new Transformer().transform(repositoryPath);
     }
+
+    /**
+     * Given a downloaded repository, Calculates the dependence between classes and returns it, reusing the classes
+     * parsed from files with the same hash, such as the unchanged files of another commit.
+     *
+     * @param repositoryPath path of the downloaded repository
+     * @param fileHashes     hashes of the source files by file path, equal hashes mean equal contents
+     * @param parsedFiles    classes parsed from earlier files by hash, completed with the files parsed now
+     * @return ProjectStructure with all the information about the parsed project/repository dependence
+     */
+    public ProjectStructure parseRepository(String repositoryPath, Map<String, String> fileHashes, Map<String, List<ADAClass>> parsedFiles) {
+        return new Transformer().transform(repositoryPath, fileHashes, parsedFiles);
+    }
 }
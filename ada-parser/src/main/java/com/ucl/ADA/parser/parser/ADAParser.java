@@ -39,8 +39,40 @@ public class ADAParser {
      */
     public Set<ADAClass> getParsedSourceFile(String rootDirectory) {
         Set<ADAClass> allParsedFile = new HashSet<>();
-        List<ADAClass> classes = parsingSourceFilesConcurrently(rootDirectory);
-        allParsedFile.addAll(classes);
+        List<String> filePaths = sourceFileProcessor.getSourceFilePaths(rootDirectory);
+        for (List<ADAClass> classes : parsingSourceFilesConcurrently(rootDirectory, filePaths).values()) {
+            allParsedFile.addAll(classes);
+        }
+        return allParsedFile;
+    }
+
+
+    /**
+     * It parses the .*java source files whose hash has not been parsed before and populates a set of ADAClass model,
+     * taking the classes of the other files from the earlier results. Files with the same hash have the same contents.
+     *
+     * @param rootDirectory Source repository path
+     * @param fileHashes    Hashes of the source files by file path
+     * @param parsedFiles   Classes parsed from earlier files by hash, completed with the files parsed now
+     * @return A set of parsed class in from of ADAClass model
+     */
+    public Set<ADAClass> getParsedSourceFile(String rootDirectory, Map<String, String> fileHashes, Map<String, List<ADAClass>> parsedFiles) {
+        Set<ADAClass> allParsedFile = new HashSet<>();
+        List<String> unparsedFilePaths = new ArrayList<>();
+        for (String filePath : sourceFileProcessor.getSourceFilePaths(rootDirectory)) {
+            String hash = fileHashes.get(filePath);
+            List<ADAClass> classes = hash != null ? parsedFiles.get(hash) : null;
+            if (classes != null) {
+                allParsedFile.addAll(classes);
+            } else {
+                unparsedFilePaths.add(filePath);
+            }
+        }
+        for (Map.Entry<String, List<ADAClass>> parsedFile : parsingSourceFilesConcurrently(rootDirectory, unparsedFilePaths).entrySet()) {
+            allParsedFile.addAll(parsedFile.getValue());
+            String hash = fileHashes.get(parsedFile.getKey());
+            if (hash != null) parsedFiles.put(hash, parsedFile.getValue());
+        }
         return allParsedFile;
     }
 
@@ -68,33 +100,35 @@ public class ADAParser {
 
 
     /**
-     * This method parsed all source *.java files for a given source repository and make a list of ADAClass models
-     * It performs thread pooling to parsing the source files and populate list of ADAClass models concurrently.
+     * This method parsed the given source *.java files of a source repository and make a list of ADAClass models
+     * for each of them. It performs thread pooling to parsing the source files and populate the ADAClass models
+     * concurrently.
      *
      * @param rootDirectory Source repository path
-     * @return A list of parsed class in from of ADAClass model
+     * @param filePaths     Paths of the source files to parse
+     * @return The parsed classes in from of ADAClass model, by file path
      * @InterruptedException if errors occur in thread pooling.
      */
-    private List<ADAClass> parsingSourceFilesConcurrently(String rootDirectory) {
-        List<ADAClass> parsedClasses = new ArrayList<>();
-        List<String> filePaths = sourceFileProcessor.getSourceFilePaths(rootDirectory);
+    private Map<String, List<ADAClass>> parsingSourceFilesConcurrently(String rootDirectory, List<String> filePaths) {
+        Map<String, List<ADAClass>> parsedClasses = new HashMap<>();
+        if (filePaths.isEmpty()) return parsedClasses;
         List<List<String>> filePathBatches = ListUtils.partition(filePaths, NUMBER_OF_FILES_IN_A_BATCH);
         List<Map<String, String>> allFileContents = sourceFileProcessor.getSourceContentsInChunks(filePathBatches);
         String[] allSrcDirectories = sourceFileProcessor.getSourceDirectories(new File(rootDirectory));
         ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
         // Callable, return a future, submit and run the task async
-        List<Callable<List<ADAClass>>> listOfCallable = new ArrayList<>();
+        List<Callable<Map<String, List<ADAClass>>>> listOfCallable = new ArrayList<>();
         for (Map<String, String> filePathBatch : allFileContents) {
-            Callable<List<ADAClass>> c = () -> {
+            Callable<Map<String, List<ADAClass>>> c = () -> {
                 return parseSourceFiles(filePathBatch, allSrcDirectories);
             };
             listOfCallable.add(c);
         }
         try {
-            List<Future<List<ADAClass>>> futures = executor.invokeAll(listOfCallable);
-            for (Future<List<ADAClass>> future : futures) {
+            List<Future<Map<String, List<ADAClass>>>> futures = executor.invokeAll(listOfCallable);
+            for (Future<Map<String, List<ADAClass>>> future : futures) {
                 if (future.isDone()) {
-                    parsedClasses.addAll(future.get());
+                    parsedClasses.putAll(future.get());
                 }
             }
         } catch (InterruptedException | ExecutionException e) {
@@ -109,20 +143,20 @@ public class ADAParser {
 
 
     /**
-     * It parses a given list of files and populates a list of ADAClass model.
+     * It parses a given list of files and populates a list of ADAClass model for each of them.
      *
      * @param filePathContentPair A map containing file path->file contents
      * @param sourceDirectories   All the source directories (src/) insider the repository.
-     * @return A list of ADAClass model with parsed data.
+     * @return The ADAClass models with parsed data, by file path.
      */
-    private List<ADAClass> parseSourceFiles(Map<String, String> filePathContentPair, String[] sourceDirectories) {
-        List<ADAClass> parsedClasses = new ArrayList<>();
+    private Map<String, List<ADAClass>> parseSourceFiles(Map<String, String> filePathContentPair, String[] sourceDirectories) {
+        Map<String, List<ADAClass>> parsedClasses = new HashMap<>();
         for (Map.Entry<String, String> sourceEntry : filePathContentPair.entrySet()) {
             String filePath = sourceEntry.getKey();
             String sourceCode = sourceEntry.getValue();
             CompilationUnit compilationUnit = compilationUnitBuilder.getCompilationUnit(filePath, sourceCode, sourceDirectories);
             List<ADAClass> classes = getParsedClass(compilationUnit);
-            parsedClasses.addAll(classes);
+            parsedClasses.put(filePath, classes);
         }
         return parsedClasses;
     }
@@ -4,6 +4,8 @@ import com.ucl.ADA.model.project_structure.ProjectStructure;
 import com.ucl.ADA.parser.ada_model.ADAClass;
 import com.ucl.ADA.parser.parser.ADAParser;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class Transformer {
@@ -15,10 +17,31 @@ public class Transformer {
      * @return a ProjectStructure object that contains all information of a project
      */
     public ProjectStructure transform(String src_dir) {
+        return transform(new ADAParser().getParsedSourceFile(src_dir));
+    }
 
-        ProjectStructure projectStructure = new ProjectStructure();
+    /**
+     * transform a project into a ProjectStructure object given its directory path, only parsing the files whose hash
+     * has not been parsed before
+     *
+     * @param src_dir     directory path of the project
+     * @param fileHashes  hashes of the source files of the project by file path
+     * @param parsedFiles classes parsed from earlier files by hash, completed with the files parsed now
+     * @return a ProjectStructure object that contains all information of a project
+     */
+    public ProjectStructure transform(String src_dir, Map<String, String> fileHashes, Map<String, List<ADAClass>> parsedFiles) {
+        return transform(new ADAParser().getParsedSourceFile(src_dir, fileHashes, parsedFiles));
+    }
 
-        Set<ADAClass> sourceClasses = new ADAParser().getParsedSourceFile(src_dir);
+    /**
+     * transform the parsed classes of a project into a ProjectStructure object
+     *
+     * @param sourceClasses the parsed classes
+     * @return a ProjectStructure object that contains all information of a project
+     */
+    private ProjectStructure transform(Set<ADAClass> sourceClasses) {
+
+        ProjectStructure projectStructure = new ProjectStructure();
 
         Set<String> classNames = SourceClassTransformer.getClassNames(sourceClasses);
 
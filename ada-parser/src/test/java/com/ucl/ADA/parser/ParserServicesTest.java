@@ -1,12 +1,26 @@
 package com.ucl.ADA.parser;
 
 import com.ucl.ADA.model.project_structure.ProjectStructure;
+import com.ucl.ADA.parser.ada_model.ADAClass;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ParserServicesTest {
 
@@ -22,4 +36,35 @@ class ParserServicesTest {
         String src_dir = System.getProperty("user.dir")+"/src/main/resources/source_to_parse";
         assertEquals(parserServices.parseRepository(src_dir).getClass(), ProjectStructure.class);
     }
+
+    @Test
+    void parseRepository_reusesTheClassesOfKnownHashes(@TempDir Path directory) throws IOException {
+        // the parser only reads the files under src or java directories
+        File src_dir = directory.resolve("src").toFile();
+        FileUtils.copyDirectory(new File(System.getProperty("user.dir") + "/src/main/resources/source_to_parse"), src_dir);
+        Map<String, String> fileHashes = new HashMap<>();
+        for (File file : FileUtils.listFiles(src_dir, new String[]{"java"}, true)) {
+            // a distinct hash per file
+            fileHashes.put(file.getAbsolutePath(), file.getAbsolutePath());
+        }
+        Map<String, List<ADAClass>> parsedFiles = new HashMap<>();
+
+        ProjectStructure parsed = parserServices.parseRepository(directory.toString(), fileHashes, parsedFiles);
+        assertTrue(parsed.getClassStructures().containsKey("declaration.constructor_declaration.Bird"));
+        assertEquals(new HashSet<>(fileHashes.values()), parsedFiles.keySet());
+
+        // a file with a known hash is not parsed again, even if it could not be parsed any more
+        File bird = new File(src_dir, "declaration/constructor_declaration/Bird.java");
+        List<ADAClass> birdClasses = parsedFiles.get(bird.getAbsolutePath());
+        FileUtils.writeStringToFile(bird, "", StandardCharsets.UTF_8);
+        ProjectStructure reparsed = parserServices.parseRepository(directory.toString(), fileHashes, parsedFiles);
+        assertEquals(parsed.getClassStructures().keySet(), reparsed.getClassStructures().keySet());
+        assertSame(birdClasses, parsedFiles.get(bird.getAbsolutePath()));
+
+        // the same file under a new hash is parsed
+        fileHashes.put(bird.getAbsolutePath(), "changed");
+        ProjectStructure changed = parserServices.parseRepository(directory.toString(), fileHashes, parsedFiles);
+        assertFalse(changed.getClassStructures().containsKey("declaration.constructor_declaration.Bird"));
+        assertTrue(parsedFiles.containsKey("changed"));
+    }
 }
@@ -0,0 +1,203 @@
+package com.ucl.ADA.repository_downloader;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the downloads into the temp directory. At most ada.download.max-concurrent downloads run at
+ * once, and the downloaded directories reserve space in a temp-disk budget of ada.download.temp-max-bytes until they
+ * are deleted. A download reserves the size of the last download of its repository, or
+ * ada.download.default-estimate-bytes for a repository not downloaded yet, and its reservation is corrected to the
+ * size of its directory once written. Downloads wait for a free slot, then for enough free space; a download larger
+ * than the whole budget runs alone.
+ */
+@Component
+public class DownloadScheduler {
+
+    private final Semaphore slots;
+
+    private final long maxBytes;
+
+    private final long defaultEstimateBytes;
+
+    private final Timer queueWait;
+
+    /**
+     * bytes reserved by the reservations not closed yet, guarded by this
+     */
+    private long reservedBytes;
+
+    /**
+     * size of the last download of each repository, by url
+     */
+    private final Map<String, Long> lastSizes = new ConcurrentHashMap<>();
+
+    /**
+     * reservations of the downloaded directories, by directory path
+     */
+    private final Map<String, Reservation> downloads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DownloadScheduler(@Value("${ada.download.max-concurrent:4}") int maxConcurrent,
+                             @Value("${ada.download.temp-max-bytes:2147483648}") long maxBytes,
+                             @Value("${ada.download.default-estimate-bytes:104857600}") long defaultEstimateBytes,
+                             MeterRegistry meterRegistry) {
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.maxBytes = maxBytes;
+        this.defaultEstimateBytes = defaultEstimateBytes;
+
+        this.queueWait = Timer.builder("ada.download.queue.wait")
+                .description("time downloads waited for a slot and for temp-disk space")
+                .register(meterRegistry);
+        Gauge.builder("ada.download.active", slots, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("downloads running")
+                .register(meterRegistry);
+        Gauge.builder("ada.download.queued", slots, Semaphore::getQueueLength)
+                .description("downloads waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("ada.download.temp.reserved", this, DownloadScheduler::getReservedBytes)
+                .baseUnit("bytes")
+                .description("temp-disk space reserved by the downloaded directories")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wait for a download slot and for temp-disk space for a download of a repository
+     *
+     * @param url url of the repository
+     * @return the reservation, to be closed if the download fails or once its directory is no longer needed
+     */
+    public Reservation reserve(String url) {
+        long bytes = Math.min(estimate(url), maxBytes);
+        long start = System.nanoTime();
+        slots.acquireUninterruptibly();
+        try {
+            synchronized (this) {
+                boolean interrupted = false;
+                while (reservedBytes > 0 && reservedBytes + bytes > maxBytes) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                reservedBytes += bytes;
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        } catch (RuntimeException | Error e) {
+            slots.release();
+            throw e;
+        }
+        queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Reservation(url, bytes);
+    }
+
+    /**
+     * Delete a downloaded directory and release its reservation
+     *
+     * @param directoryPath the directory of a download
+     */
+    public void release(String directoryPath) {
+        Reservation reservation = downloads.get(directoryPath);
+        if (reservation != null) {
+            reservation.close();
+        } else {
+            FileUtils.deleteQuietly(new File(directoryPath));
+        }
+    }
+
+    /**
+     * @return the temp-disk space reserved by the open reservations, in bytes
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * @return the space to reserve for a download of a repository, in bytes
+     */
+    long estimate(String url) {
+        return lastSizes.getOrDefault(url, defaultEstimateBytes);
+    }
+
+    private synchronized void resize(long fromBytes, long toBytes) {
+        reservedBytes += toBytes - fromBytes;
+        if (toBytes < fromBytes) notifyAll();
+    }
+
+    /**
+     * The slot and temp-disk space of a download. The slot is released once the download is over, the space once the
+     * reservation is closed.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final String url;
+
+        private long bytes;
+
+        private String directoryPath;
+
+        private boolean running = true;
+
+        private boolean closed;
+
+        private Reservation(String url, long bytes) {
+            this.url = url;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Release the download slot, keeping the reserved space
+         */
+        public synchronized void fetched() {
+            if (!running) return;
+            running = false;
+            slots.release();
+        }
+
+        /**
+         * Release the download slot and correct the reserved space to the size of the written directory, which is
+         * deleted when the reservation is closed
+         *
+         * @param directoryPath the directory written by the download
+         */
+        public synchronized void downloaded(String directoryPath) {
+            fetched();
+            if (closed) return;
+            this.directoryPath = directoryPath;
+            downloads.put(directoryPath, this);
+
+            File directory = new File(directoryPath);
+            long size = directory.isDirectory() ? FileUtils.sizeOfDirectory(directory) : 0;
+            lastSizes.put(url, size);
+            resize(bytes, size);
+            bytes = size;
+        }
+
+        /**
+         * Delete the downloaded directory, if any, and release the slot and space of the download
+         */
+        @Override
+        public synchronized void close() {
+            fetched();
+            if (closed) return;
+            closed = true;
+            if (directoryPath != null) {
+                downloads.remove(directoryPath, this);
+                FileUtils.deleteQuietly(new File(directoryPath));
+            }
+            resize(bytes, 0);
+        }
+    }
+}
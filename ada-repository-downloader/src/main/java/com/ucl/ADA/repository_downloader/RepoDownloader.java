@@ -1,19 +1,29 @@
 package com.ucl.ADA.repository_downloader;
 
 import com.ucl.ADA.model.project_structure.GitRepoInfo;
-import org.eclipse.jgit.api.CreateBranchCommand;
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.api.errors.RefNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,15 +34,39 @@ import java.util.stream.Stream;
 
 public class RepoDownloader {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(RepoDownloader.class);
+
     /**
-     * Download a Git repository given a URL and a branch name and initialize a GitRepoInfo object.
+     * number of commits fetched by a clone, only the tip of the branch is analysed
+     */
+    static final int CLONE_DEPTH = 1;
+
+    /**
+     * Download a Git repository given a URL and a branch name and initialize a GitRepoInfo object. Only the tip of
+     * the branch is cloned.
      * @see GitRepoInfo
      * @param url Git url of the repository
      * @param branch Branch name
      * @return Initialized GitRepoInfo object
-     * @throws GitAPIException if download fails
+     * @throws GitAPIException if download fails or the branch does not exist
      */
     public static GitRepoInfo downloadRepository(String url, String branch) throws GitAPIException {
+        return downloadRepository(url, branch, null);
+    }
+
+    /**
+     * Download a Git repository given a URL and a branch name and initialize a GitRepoInfo object, through the local
+     * mirror of the repository. The tip of the branch is fetched into the mirror, and only its .java files are written
+     * to the directory of the GitRepoInfo, straight from the object database of the mirror; the directory is not a
+     * clone. The file hashes are the blob ids of the files.
+     * @see GitRepoInfo
+     * @param url Git url of the repository
+     * @param branch Branch name
+     * @param mirrorCache the mirrors of the repositories, null to clone the repository directly
+     * @return Initialized GitRepoInfo object
+     * @throws GitAPIException if download fails or the branch does not exist
+     */
+    public static GitRepoInfo downloadRepository(String url, String branch, RepositoryMirrorCache mirrorCache) throws GitAPIException {
 
         if (branch.equals("")) {
             branch = "master";
@@ -40,29 +74,90 @@ public class RepoDownloader {
 
         GitRepoInfo repo = setup(url, branch);
 
+        if (mirrorCache != null) {
+            writeSourceFiles(repo, mirrorCache);
+            return repo;
+        }
+
+        Git git = cloneBranch(repo);
+
+        try {
+            List<String> fileNames = getSourceFileNames(repo.getDirectoryPath());
+            repo.setFileNames(fileNames);
+            try {
+                repo.setFileHashes(SourceFileHashes.fromHeadTree(git.getRepository(), repo.getDirectoryPath()));
+            } catch (IOException e) {
+                LOGGER.warn("Could not read the tree of {}, hashing its source files from disk", repo.getUrl(), e);
+                repo.setFileHashes(SourceFileHashes.complete(fileNames, Collections.emptyMap()));
+            }
+        } finally {
+            git.close();
+        }
+
+        return repo;
+    }
+
+    /**
+     * Fetch the branch of a GitRepoInfo into the mirror of its repository and write the .java files of its tip into
+     * the directory of the GitRepoInfo
+     * @param repo the initialized GitRepoInfo
+     * @param mirrorCache the mirrors of the repositories
+     * @throws GitAPIException if the fetch fails or the branch does not exist
+     */
+    private static void writeSourceFiles(GitRepoInfo repo, RepositoryMirrorCache mirrorCache) throws GitAPIException {
+        String branchRef = Constants.R_HEADS + repo.getBranch();
+        try (RepositoryMirrorCache.Lease mirror = mirrorCache.acquire(repo.getUrl(), repo.getBranch());
+             Repository repository = mirror.openRepository()) {
+            ObjectId tip = repository.resolve(branchRef);
+            if (tip == null) {
+                throw new RefNotFoundException("Branch " + repo.getBranch() + " not found in " + repo.getUrl());
+            }
+            Map<String, String> fileHashes = TreeSourceFiles.write(repository, tip, repo.getDirectoryPath());
+            List<String> fileNames = new ArrayList<>(fileHashes.keySet());
+            Collections.sort(fileNames);
+            repo.setFileNames(fileNames);
+            repo.setFileHashes(fileHashes);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(new File(repo.getDirectoryPath()));
+            throw new JGitInternalException("Could not write the source files of " + repo.getUrl(), e);
+        } catch (RuntimeException e) {
+            // no partly written directory is left behind
+            FileUtils.deleteQuietly(new File(repo.getDirectoryPath()));
+            throw e;
+        }
+    }
+
+    /**
+     * Clone the tip of the branch of a GitRepoInfo into its directory
+     * @param repo the initialized GitRepoInfo
+     * @return the clone, with the branch checked out
+     * @throws GitAPIException if the clone fails or the branch does not exist
+     */
+    private static Git cloneBranch(GitRepoInfo repo) throws GitAPIException {
         File repoDir = new File(repo.getDirectoryPath());
 
+        String branchRef = Constants.R_HEADS + repo.getBranch();
         Git git = Git.cloneRepository()
                 .setURI( repo.getUrl() )
                 .setDirectory( repoDir )
-                .setCloneAllBranches( true )
+                .setBranchesToClone( Collections.singletonList(branchRef) )
+                .setBranch( branchRef )
+                .setDepth( CLONE_DEPTH )
                 .call();
 
-        if (!repo.getBranch().equals("master")) {
-
-            Ref ref = git.checkout().
-                    setCreateBranch(true).
-                    setName(repo.getBranch()).
-                    setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.TRACK).
-                    setStartPoint("origin/" + repo.getBranch()).
-                    call();
+        try {
+            // a branch missing from the remote leaves an empty clone
+            if (git.getRepository().exactRef(branchRef) == null) {
+                git.close();
+                FileUtils.deleteQuietly(repoDir);
+                throw new RefNotFoundException("Branch " + repo.getBranch() + " not found in " + repo.getUrl());
+            }
+        } catch (IOException e) {
+            git.close();
+            FileUtils.deleteQuietly(repoDir);
+            throw new JGitInternalException("Could not read the cloned branch " + repo.getBranch(), e);
         }
-
-        List<String> fileNames = getSourceFileNames(repo.getDirectoryPath());
-        repo.setFileNames(fileNames);
-        git.close();
-
-        return repo;
+        return git;
     }
 
     /**
@@ -71,17 +166,19 @@ public class RepoDownloader {
      * @param branch name
      * @return initialized GitRepoInfo object
      */
-    private static GitRepoInfo setup(String url, String branch) {
+    static GitRepoInfo setup(String url, String branch) {
 
         GitRepoInfo gitRepoInfo = new GitRepoInfo();
         gitRepoInfo.setUrl(url);
         String[] data = url.split("/|//");
-        String owner = data[3];
+        // local repositories are named after the last two directories of their path
+        int ownerIndex = url.startsWith("file:") ? data.length - 2 : 3;
+        String owner = data[ownerIndex];
         String name;
-        if (data[4].indexOf(".") > 0) {
-            name = data[4].substring(0, data[4].indexOf("."));
+        if (data[ownerIndex + 1].indexOf(".") > 0) {
+            name = data[ownerIndex + 1].substring(0, data[ownerIndex + 1].indexOf("."));
         } else {
-            name = data[4];
+            name = data[ownerIndex + 1];
         }
         gitRepoInfo.setRepository(name);
         gitRepoInfo.setOwner(owner);
@@ -107,17 +204,15 @@ public class RepoDownloader {
      * Utility method to list all source files (.java) in a given repository.
      * @param directoryPath path to the source directory
      * @return a list containing all file names ending with .java
+     * @throws UncheckedIOException if the directory cannot be listed
      */
     private static List<String> getSourceFileNames(String directoryPath) {
-        List<String> result = null;
         try (Stream<Path> walk = Files.walk(Paths.get(directoryPath))) {
-
-            result = walk.map(Path::toString)
+            return walk.map(Path::toString)
                     .filter(f -> f.endsWith(".java")).collect(Collectors.toList());
-
         } catch (IOException e) {
-            e.printStackTrace();
+            LOGGER.error("Could not list the source files of {}", directoryPath, e);
+            throw new UncheckedIOException(e);
         }
-        return result;
     }
 }
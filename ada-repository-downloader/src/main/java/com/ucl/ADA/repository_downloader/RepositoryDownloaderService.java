@@ -1,26 +1,20 @@
 package com.ucl.ADA.repository_downloader;
 
 import com.ucl.ADA.model.branch.Branch;
-import com.ucl.ADA.model.branch.BranchRepository;
-import com.ucl.ADA.model.owner.Owner;
-import com.ucl.ADA.model.owner.OwnerService;
 import com.ucl.ADA.model.project_structure.GitRepoInfo;
-import com.ucl.ADA.model.repository.GitRepo;
-import com.ucl.ADA.model.repository.GitRepoRepository;
+import com.ucl.ADA.model.repository.RepositoryRegistrationService;
 import com.ucl.ADA.model.snapshot.Snapshot;
 import com.ucl.ADA.model.snapshot.SnapshotRepository;
+import com.ucl.ADA.model.snapshot_retention.SnapshotRetentionService;
 import com.ucl.ADA.model.source_file.SourceFile;
 import com.ucl.ADA.model.source_file.SourceFileRepository;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-
-import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import java.util.Map;
 
 /**
  * Service class for downloading and storing the Git repository metadata in the DB (owner, repoName, branch, timestamp, .java files etc..)
@@ -33,50 +27,89 @@ public class RepositoryDownloaderService {
 
 
     @Autowired
-    private OwnerService ownerService;
+    private RepositoryRegistrationService repositoryRegistrationService;
 
     @Autowired
-    private GitRepoRepository gitRepoRepository;
+    private SnapshotRepository snapshotRepository;
 
     @Autowired
-    private BranchRepository branchRepository;
+    private SourceFileRepository sourceFileRepository;
 
     @Autowired
-    private SnapshotRepository snapshotRepository;
+    private SnapshotRetentionService snapshotRetentionService;
 
     @Autowired
-    private SourceFileRepository sourceFileRepository;
+    private RepositoryMirrorCache repositoryMirrorCache;
+
+    @Autowired
+    private DownloadScheduler downloadScheduler;
 
     /**
-     * Download Git repository and populate database, following the hierarchical database model of
-     * Owner -*> GitRepo -*> Branch -*> Snapshot -*> SourceFiles
+     * Download Git repository through its local mirror and populate database, following the hierarchical database model of
+     * Owner -*> GitRepo -*> Branch -*> Snapshot -*> SourceFiles. The download waits for a slot and temp-disk space in
+     * the DownloadScheduler, and its directory is deleted right away if anything fails.
      *
      * @param url        url of the Git repository
      * @param branchName branch name of the Git repository
-     * @return GitRepoInfo object to be used by the parser
+     * @return GitRepoInfo object to be used by the parser, to be released with deleteDownload once parsed
      */
     public GitRepoInfo downloadAndStoreRepo(String url, String branchName) throws GitAPIException {
 
-        GitRepoInfo gitRepoInfo = RepoDownloader.downloadRepository(url, branchName);
+        DownloadScheduler.Reservation reservation = downloadScheduler.reserve(url);
+        try {
+            GitRepoInfo gitRepoInfo = RepoDownloader.downloadRepository(url, branchName, repositoryMirrorCache);
+            reservation.downloaded(gitRepoInfo.getDirectoryPath());
 
-        return populateDatabase(gitRepoInfo);
+            return populateDatabase(gitRepoInfo);
+        } catch (GitAPIException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Delete the downloaded directory of a repository and release its temp-disk space
+     *
+     * @param gitRepoInfo the GitRepoInfo returned by downloadAndStoreRepo
+     */
+    public void deleteDownload(GitRepoInfo gitRepoInfo) {
+        downloadScheduler.release(gitRepoInfo.getDirectoryPath());
     }
 
     /**
-     * Populate database with the metadata of the git repository.
+     * Fetch the last commits of a branch into the local mirror of its repository, to be checked out one by one. The
+     * snapshots of the commits are stored with populateDatabase.
+     *
+     * @param url         url of the Git repository
+     * @param branchName  branch name of the Git repository
+     * @param commitCount number of commits to walk back from the tip of the branch
+     * @return the history of the branch, to be closed once analysed
+     */
+    public RepositoryHistory openHistory(String url, String branchName, int commitCount) throws GitAPIException {
+        DownloadScheduler.Reservation reservation = downloadScheduler.reserve(url);
+        try {
+            return RepositoryHistory.open(url, branchName, commitCount, repositoryMirrorCache, reservation);
+        } catch (GitAPIException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Populate database with the metadata of the git repository. The owner, repository and branch are registered
+     * with upserts, see RepositoryRegistrationService.
      *
      * @param gitRepoInfo helper object containing the name, owner, branch and path to source files
      *                        of the downloaded Git Repository
      * @return the same GitRepoInfo object, to be used by the the parser.
      */
-    GitRepoInfo populateDatabase(GitRepoInfo gitRepoInfo) {
+    public GitRepoInfo populateDatabase(GitRepoInfo gitRepoInfo) {
 
-        Owner owner = initOwner(gitRepoInfo);
-
-        GitRepo repo = initRepo(owner, gitRepoInfo);
-
-        Branch branchEntity = initBranch(repo, gitRepoInfo);
+        Branch branchEntity = repositoryRegistrationService.registerBranch(
+                gitRepoInfo.getOwner(), gitRepoInfo.getRepository(), gitRepoInfo.getBranch());
 
+        // the source files go to the partition of the snapshot id
+        snapshotRetentionService.ensurePartitions();
         Snapshot snapshot = initSnapshot(gitRepoInfo, branchEntity);
 
         gitRepoInfo.setSnapshot(snapshot);
@@ -87,33 +120,31 @@ public class RepositoryDownloaderService {
     }
 
     /**
-     * Create, initalize and store a new SourceFile entity in the DB.
+     * Create, initalize and store the SourceFile entities of a snapshot in the DB, in batched inserts. The file hashes
+     * are the git blob ids from the checked out tree; files missing from it are hashed from disk in parallel, and a
+     * file which cannot be read fails the snapshot rather than being stored without a hash.
      *
      * @param gitRepoInfo helper object containing the source file names of the downloaded repository
      * @param snapshot        corresponding Snapshot entity
      * @see GitRepoInfo#getFileNames()
+     * @see GitRepoInfo#getFileHashes()
      */
-
     private void initSourceFiles(GitRepoInfo gitRepoInfo, Snapshot snapshot) {
         List<String> fileNames = gitRepoInfo.getFileNames();
+        Map<String, String> fileHashes = SourceFileHashes.complete(fileNames, gitRepoInfo.getFileHashes());
 
+        List<SourceFile> sourceFiles = new ArrayList<>(fileNames.size());
         for (String file : fileNames) {
 
             SourceFile sourceFile = new SourceFile();
             sourceFile.setSnapshot(snapshot);
             sourceFile.setFileName(file);
+            sourceFile.setFileHash(fileHashes.get(file));
 
-            String filehash;
-            try {
-                filehash = sha1Hex(new FileInputStream(file));
-            } catch (IOException e) {
-                filehash = null;
-            }
-
-            sourceFile.setFileHash(filehash);
-
-            sourceFileRepository.save(sourceFile);
+            sourceFiles.add(sourceFile);
         }
+
+        sourceFileRepository.saveAll(sourceFiles);
     }
 
     /**
@@ -132,79 +163,4 @@ public class RepositoryDownloaderService {
         return snapshotRepository.save(snapshot);
     }
 
-    /**
-     * Initialize a Branch entity by searching for existing branch within a repository, and returning it if found.
-     * Otherwise, create, initialize and save a new Branch entity in the DB.
-     *
-     * @param repo           corresponding Git repository
-     * @param downloadedRepo object containing metadata of Git repository
-     * @return an existing (or new) Branch entity.
-     * @see GitRepoInfo#getBranch()
-     */
-    private Branch initBranch(GitRepo repo, GitRepoInfo downloadedRepo) {
-        Set<Branch> branches = repo.getBranches();
-        String branchName = downloadedRepo.getBranch();
-
-        for (Branch b : branches) {
-
-            if (b.getBranchName().equals(branchName)) {
-                return b;
-            }
-        }
-
-        Branch branchEntity = new Branch();
-        branchEntity.setRepository(repo);
-        branchEntity.setBranchName(branchName);
-
-        return branchRepository.save(branchEntity);
-    }
-
-    /**
-     * Initialize a GitRepository entity by searching for existing repo associated with a given owner, and returning it if found.
-     * Otherwise, create, initialize and return a new GitRepository entity.
-     *
-     * @param owner          corresponding owner
-     * @param downloadedRepo object containing metadata of Git repository
-     * @return an existing (or new) GitRepository
-     */
-    private GitRepo initRepo(Owner owner, GitRepoInfo downloadedRepo) {
-
-        Set<GitRepo> repos = owner.getRepos();
-        String repoName = downloadedRepo.getRepository();
-        for (GitRepo r : repos) {
-            if (r.getRepoName().equals(repoName)) {
-                return r;
-            }
-        }
-        GitRepo repo = new GitRepo();
-        repo.setOwner(owner);
-        repo.setRepoName(repoName);
-        return gitRepoRepository.save(repo);
-    }
-
-    /**
-     * Initialize a Owner entity by searching for existing Owner in the database, and returning it if found.
-     * Otherwise, create, initialize and return a new Owner entity.
-     *
-     * @param downloadedRepo object containining metadata of Git repository
-     * @return an existing (or new) Owner
-     */
-    private Owner initOwner(GitRepoInfo downloadedRepo) {
-
-        List<Owner> owners = ownerService.listOwners();
-        String testUserName = downloadedRepo.getOwner();
-
-        // Search and return existing user, if found
-        for (Owner u : owners) {
-            if (u.getUsername().equals(testUserName)) {
-                return u;
-            }
-        }
-
-        // If not found, create and return a new user
-        Owner owner = new Owner();
-        owner.setUsername(downloadedRepo.getOwner());
-        return ownerService.addOwner(owner);
-    }
-
 }
@@ -0,0 +1,213 @@
+package com.ucl.ADA.repository_downloader;
+
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.api.errors.RefNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * The last commits of a branch, read from the mirror of its repository into a single source directory, one commit
+ * after the other. Moving to the next commit only writes the .java files whose blob changed and deletes the removed
+ * ones, so walking the history costs about the number of distinct blobs rather than commits times files. The mirror
+ * stays locked until the history is closed.
+ */
+public class RepositoryHistory implements AutoCloseable {
+
+    private final GitRepoInfo branch;
+
+    private final RepositoryMirrorCache.Lease mirror;
+
+    private final Repository repository;
+
+    private final List<RevCommit> commits;
+
+    /**
+     * temp-disk space of the source directory, null if not scheduled
+     */
+    private final DownloadScheduler.Reservation reservation;
+
+    /**
+     * blob ids of the written files, by path in the repository
+     */
+    private Map<String, ObjectId> writtenFiles = new HashMap<>();
+
+    private RepositoryHistory(GitRepoInfo branch, RepositoryMirrorCache.Lease mirror, Repository repository,
+                              List<RevCommit> commits, DownloadScheduler.Reservation reservation) {
+        this.branch = branch;
+        this.mirror = mirror;
+        this.repository = repository;
+        this.commits = commits;
+        this.reservation = reservation;
+    }
+
+    /**
+     * Fetch the last commits of a branch into the mirror of its repository
+     *
+     * @param url         Git url of the repository
+     * @param branchName  branch name
+     * @param commitCount number of commits to walk back from the tip of the branch, following first parents
+     * @param mirrorCache the mirrors of the repositories
+     * @return the history, to be closed once read
+     * @throws GitAPIException if the fetch fails or the branch does not exist
+     */
+    static RepositoryHistory open(String url, String branchName, int commitCount, RepositoryMirrorCache mirrorCache) throws GitAPIException {
+        return open(url, branchName, commitCount, mirrorCache, null);
+    }
+
+    /**
+     * Fetch the last commits of a branch into the mirror of its repository, within a reservation of the download
+     * scheduler. The download slot is released once fetched, the reserved space once the history is closed.
+     *
+     * @param reservation the reservation of the download, closed by the history, or by the caller if this throws
+     * @see #open(String, String, int, RepositoryMirrorCache)
+     */
+    static RepositoryHistory open(String url, String branchName, int commitCount, RepositoryMirrorCache mirrorCache,
+                                  DownloadScheduler.Reservation reservation) throws GitAPIException {
+        GitRepoInfo branch = RepoDownloader.setup(url, branchName.equals("") ? "master" : branchName);
+        branch.setDirectoryPath(branch.getDirectoryPath() + "-history");
+
+        RepositoryMirrorCache.Lease mirror = mirrorCache.acquire(branch.getUrl(), branch.getBranch(), commitCount);
+        Repository repository = null;
+        try {
+            repository = mirror.openRepository();
+            ObjectId tip = repository.resolve(Constants.R_HEADS + branch.getBranch());
+            if (tip == null) {
+                throw new RefNotFoundException("Branch " + branch.getBranch() + " not found in " + branch.getUrl());
+            }
+            List<RevCommit> commits = firstParents(repository, tip, commitCount);
+            if (reservation != null) reservation.fetched();
+            return new RepositoryHistory(branch, mirror, repository, commits, reservation);
+        } catch (IOException e) {
+            release(mirror, repository);
+            throw new JGitInternalException("Could not read the history of " + branch.getUrl(), e);
+        } catch (GitAPIException | RuntimeException e) {
+            release(mirror, repository);
+            throw e;
+        }
+    }
+
+    /**
+     * Close the repository of a history which could not be opened and release its mirror
+     *
+     * @param repository the opened repository of the mirror, null if not opened
+     */
+    private static void release(RepositoryMirrorCache.Lease mirror, Repository repository) {
+        if (repository != null) repository.close();
+        mirror.close();
+    }
+
+    /**
+     * The commits on the first parent line of a tip, oldest first. Of commits made in the same second, only the
+     * newest is kept, as snapshots are identified by their time.
+     */
+    private static List<RevCommit> firstParents(Repository repository, ObjectId tip, int commitCount) throws IOException {
+        Map<Integer, RevCommit> commitsBySecond = new LinkedHashMap<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setFirstParent(true);
+            revWalk.markStart(revWalk.parseCommit(tip));
+            for (RevCommit commit : revWalk) {
+                commitsBySecond.putIfAbsent(commit.getCommitTime(), commit);
+                if (commitsBySecond.size() == commitCount) break;
+            }
+        }
+        List<RevCommit> commits = new ArrayList<>(commitsBySecond.values());
+        Collections.reverse(commits);
+        return commits;
+    }
+
+    /**
+     * @return the walked commits, oldest first
+     */
+    public List<RevCommit> getCommits() {
+        return commits;
+    }
+
+    /**
+     * Bring the source directory to the .java files of a commit and describe them as a GitRepoInfo timestamped with
+     * the commit time. The directory is shared by all commits: the GitRepoInfo of a commit is only valid until the
+     * next call.
+     *
+     * @param commit one of the walked commits
+     * @return GitRepoInfo of the commit, with the blob ids of its files as hashes
+     * @throws IOException if the tree cannot be read, a file cannot be written or a path leaves the directory
+     */
+    public GitRepoInfo checkout(RevCommit commit) throws IOException {
+        Map<String, ObjectId> files = new HashMap<>();
+        Path directory = Paths.get(branch.getDirectoryPath());
+        Files.createDirectories(directory);
+
+        try (ObjectReader reader = repository.newObjectReader(); TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create(".java"));
+            while (treeWalk.next()) {
+                FileMode mode = treeWalk.getFileMode(0);
+                if (mode != FileMode.REGULAR_FILE && mode != FileMode.EXECUTABLE_FILE) continue;
+
+                String path = treeWalk.getPathString();
+                Path file = TreeSourceFiles.resolve(directory, path);
+                ObjectId blob = treeWalk.getObjectId(0);
+                files.put(path, blob);
+                if (blob.equals(writtenFiles.get(path))) continue;
+
+                Files.createDirectories(file.getParent());
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    reader.open(blob, Constants.OBJ_BLOB).copyTo(out);
+                }
+            }
+        }
+        for (String path : writtenFiles.keySet()) {
+            if (!files.containsKey(path)) Files.deleteIfExists(directory.resolve(path));
+        }
+        writtenFiles = files;
+
+        GitRepoInfo gitRepoInfo = new GitRepoInfo();
+        gitRepoInfo.setUrl(branch.getUrl());
+        gitRepoInfo.setOwner(branch.getOwner());
+        gitRepoInfo.setRepository(branch.getRepository());
+        gitRepoInfo.setBranch(branch.getBranch());
+        PersonIdent committer = commit.getCommitterIdent();
+        gitRepoInfo.setTimestamp(OffsetDateTime.ofInstant(committer.getWhen().toInstant(), committer.getTimeZone().toZoneId()));
+        gitRepoInfo.setDirectoryPath(branch.getDirectoryPath());
+        Map<String, String> fileHashes = new HashMap<>();
+        for (Map.Entry<String, ObjectId> file : files.entrySet()) {
+            fileHashes.put(directory.resolve(file.getKey()).toString(), file.getValue().name());
+        }
+        List<String> fileNames = new ArrayList<>(fileHashes.keySet());
+        Collections.sort(fileNames);
+        gitRepoInfo.setFileNames(fileNames);
+        gitRepoInfo.setFileHashes(fileHashes);
+        return gitRepoInfo;
+    }
+
+    /**
+     * Delete the source directory and release the mirror and the reserved space
+     */
+    @Override
+    public void close() {
+        FileUtils.deleteQuietly(new File(branch.getDirectoryPath()));
+        repository.close();
+        mirror.close();
+        if (reservation != null) reservation.close();
+    }
+}
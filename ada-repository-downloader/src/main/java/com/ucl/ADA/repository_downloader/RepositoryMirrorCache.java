@@ -0,0 +1,248 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local bare mirrors of the analysed repositories, one per repository URL. An analysis fetches the tip of its branch
+ * into the mirror and reads its sources from there, so a repository analysed again only transfers the commits it has
+ * not seen. Each mirror is locked while it is fetched and read from. Once the mirrors take more than
+ * ada.mirror-cache.max-bytes on disk, the least recently used ones are deleted.
+ */
+@Component
+public class RepositoryMirrorCache {
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    /**
+     * mirrors by directory name, least recently used first
+     */
+    private final Map<String, Mirror> mirrors = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public RepositoryMirrorCache(@Value("${ada.mirror-cache.directory:${user.dir}/mirrors}") String directory,
+                                 @Value("${ada.mirror-cache.max-bytes:10737418240}") long maxBytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+
+        // mirrors kept from earlier runs, oldest first
+        if (Files.isDirectory(this.directory)) {
+            try (Stream<Path> stored = Files.list(this.directory)) {
+                List<Path> paths = stored.filter(Files::isDirectory)
+                        .sorted(Comparator.comparing(path -> path.toFile().lastModified()))
+                        .collect(Collectors.toList());
+                for (Path path : paths) {
+                    Mirror mirror = new Mirror(path);
+                    mirror.bytes = FileUtils.sizeOfDirectory(path.toFile());
+                    mirrors.put(path.getFileName().toString(), mirror);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the mirror cache " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Fetch the tip of a branch into the mirror of a repository, creating the mirror if needed, and lock the mirror
+     * until the lease is closed
+     *
+     * @param url    url of the repository
+     * @param branch name of the branch
+     * @return the lease of the mirror, to be closed once read from
+     * @throws GitAPIException if the fetch fails or the branch does not exist
+     */
+    public Lease acquire(String url, String branch) throws GitAPIException {
+        return acquire(url, branch, RepoDownloader.CLONE_DEPTH);
+    }
+
+    /**
+     * Fetch the last commits of a branch into the mirror of a repository, creating the mirror if needed, and lock the
+     * mirror until the lease is closed
+     *
+     * @param url    url of the repository
+     * @param branch name of the branch
+     * @param depth  number of commits needed from the tip of the branch, 0 fetches the whole history
+     * @return the lease of the mirror, to be closed once read from
+     * @throws GitAPIException if the fetch fails or the branch does not exist
+     */
+    public Lease acquire(String url, String branch, int depth) throws GitAPIException {
+        String name = directoryName(url);
+        while (true) {
+            Mirror mirror;
+            synchronized (this) {
+                mirror = mirrors.computeIfAbsent(name, n -> new Mirror(directory.resolve(n)));
+            }
+            mirror.lock.lock();
+            if (mirror.evicted) {
+                // deleted while waiting for the lock, start over with a new mirror
+                mirror.lock.unlock();
+                continue;
+            }
+
+            boolean created = !Files.isDirectory(mirror.directory);
+            try {
+                fetch(mirror.directory, url, branch, depth, created);
+                return new Lease(mirror);
+            } catch (GitAPIException | RuntimeException e) {
+                if (created) remove(mirror);
+                mirror.lock.unlock();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the mirrors' total size on disk in bytes, as of the end of their last use
+     */
+    public synchronized long getSizeInBytes() {
+        return mirrors.values().stream().mapToLong(mirror -> mirror.bytes).sum();
+    }
+
+    private static void fetch(Path mirrorDirectory, String url, String branch, int depth, boolean create) throws GitAPIException {
+        try (Git git = create
+                ? Git.init().setBare(true).setDirectory(mirrorDirectory.toFile()).call()
+                : Git.open(mirrorDirectory.toFile())) {
+            String branchRef = Constants.R_HEADS + branch;
+            FetchCommand fetch = git.fetch()
+                    .setRemote(url)
+                    .setRefSpecs(new RefSpec("+" + branchRef + ":" + branchRef));
+            if (depth > 0) {
+                fetch.setDepth(depth);
+            } else if (Files.exists(mirrorDirectory.resolve("shallow"))) {
+                fetch.setUnshallow(true);
+            }
+            fetch.call();
+        } catch (IOException e) {
+            throw new JGitInternalException("Could not open the mirror of " + url, e);
+        }
+    }
+
+    /**
+     * Delete the least recently used mirrors which are not in use, until the mirrors fit in the budget
+     */
+    private synchronized void evict() {
+        long bytes = getSizeInBytes();
+        Iterator<Mirror> iterator = mirrors.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Mirror mirror = iterator.next();
+            if (!mirror.lock.tryLock()) continue;
+            try {
+                iterator.remove();
+                mirror.evicted = true;
+                FileUtils.deleteQuietly(mirror.directory.toFile());
+                bytes -= mirror.bytes;
+            } finally {
+                mirror.lock.unlock();
+            }
+        }
+    }
+
+    private synchronized void remove(Mirror mirror) {
+        mirrors.remove(mirror.directory.getFileName().toString(), mirror);
+        mirror.evicted = true;
+        FileUtils.deleteQuietly(mirror.directory.toFile());
+    }
+
+    /**
+     * @return name of the mirror directory of a repository, the SHA-256 of its url in hex
+     */
+    static String directoryName(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.append(".git").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Mirror {
+
+        final Path directory;
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * size on disk, guarded by the cache
+         */
+        long bytes;
+
+        /**
+         * set once deleted, guarded by the lock
+         */
+        boolean evicted;
+
+        Mirror(Path directory) {
+            this.directory = directory;
+        }
+    }
+
+    /**
+     * A fetched mirror, locked against other fetches and eviction until closed
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Mirror mirror;
+
+        private boolean closed;
+
+        private Lease(Mirror mirror) {
+            this.mirror = mirror;
+        }
+
+        /**
+         * @return the repository of the mirror, to be closed by the caller before the lease
+         * @throws IOException if the mirror cannot be opened
+         */
+        public Repository openRepository() throws IOException {
+            return new FileRepositoryBuilder().setGitDir(mirror.directory.toFile()).setMustExist(true).build();
+        }
+
+        /**
+         * Release the mirror and delete the least recently used mirrors beyond the budget
+         */
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            long bytes = FileUtils.sizeOfDirectory(mirror.directory.toFile());
+            synchronized (RepositoryMirrorCache.this) {
+                mirror.bytes = bytes;
+            }
+            mirror.lock.unlock();
+            evict();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashes of source files, as git blob ids. The ids of committed files are read from the tree of the checked out commit
+ * without touching the files; files which are not in the tree are hashed the same way from disk.
+ */
+final class SourceFileHashes {
+
+    private SourceFileHashes() {
+    }
+
+    /**
+     * Read the blob ids of all .java files in the tree of HEAD
+     *
+     * @param repository    the cloned repository
+     * @param directoryPath the working directory of the repository
+     * @return blob ids in hex by file name, file names are resolved against the working directory
+     */
+    static Map<String, String> fromHeadTree(Repository repository, String directoryPath) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        ObjectId head = repository.resolve(Constants.HEAD);
+        if (head == null) return hashes;
+
+        try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(head).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create(".java"));
+            while (treeWalk.next()) {
+                hashes.put(Paths.get(directoryPath, treeWalk.getPathString()).toString(), treeWalk.getObjectId(0).name());
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Complete the hashes of a list of files, hashing the files with no known hash in parallel
+     *
+     * @param fileNames   names of all files
+     * @param knownHashes hashes already known, by file name
+     * @return hashes of all files by file name
+     * @throws UncheckedIOException if a file with no known hash cannot be read, as every source file needs a hash
+     */
+    static Map<String, String> complete(List<String> fileNames, Map<String, String> knownHashes) {
+        Map<String, String> hashes = new ConcurrentHashMap<>(knownHashes);
+        fileNames.parallelStream()
+                .filter(fileName -> !hashes.containsKey(fileName))
+                .forEach(fileName -> hashes.put(fileName, hash(fileName)));
+        return hashes;
+    }
+
+    /**
+     * Hash a file on disk the way git hashes a blob
+     *
+     * @param fileName name of the file
+     * @return the blob id in hex
+     */
+    static String hash(String fileName) {
+        try {
+            byte[] content = Files.readAllBytes(Paths.get(fileName));
+            return new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, content).name();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Source files of a commit, read from the object database of a repository without checking the commit out. Only the
+ * .java files are written to disk, where the parser resolves the bindings between them; the rest of the tree and the
+ * history stay in the object database.
+ */
+final class TreeSourceFiles {
+
+    private TreeSourceFiles() {
+    }
+
+    /**
+     * Write the .java files of the tree of a commit into a directory, streaming their blobs from the object database
+     *
+     * @param repository    the repository holding the commit
+     * @param commit        id of the commit
+     * @param directoryPath the directory to write the files into, created if missing
+     * @return blob ids in hex by file name, file names are resolved against the directory
+     * @throws IOException if the tree cannot be read, a file cannot be written or a path leaves the directory
+     */
+    static Map<String, String> write(Repository repository, ObjectId commit, String directoryPath) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        Files.createDirectories(Paths.get(directoryPath));
+        try (ObjectReader reader = repository.newObjectReader();
+             RevWalk revWalk = new RevWalk(reader);
+             TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(revWalk.parseCommit(commit).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create(".java"));
+            while (treeWalk.next()) {
+                // symbolic links and submodules have no content of their own
+                FileMode mode = treeWalk.getFileMode(0);
+                if (mode != FileMode.REGULAR_FILE && mode != FileMode.EXECUTABLE_FILE) continue;
+
+                ObjectId blob = treeWalk.getObjectId(0);
+                Path file = resolve(Paths.get(directoryPath), treeWalk.getPathString());
+                Files.createDirectories(file.getParent());
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    reader.open(blob, Constants.OBJ_BLOB).copyTo(out);
+                }
+                hashes.put(file.toString(), blob.name());
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Resolve the path of a tree entry against the directory it is written into. Trees are not checked when fetched,
+     * so a crafted tree may hold entries such as .. that would write outside the directory.
+     *
+     * @param directory the directory the files are written into
+     * @param path      path of a tree entry, relative to the root of the tree
+     * @return the file of the entry in the directory
+     * @throws IOException if the path leaves the directory
+     */
+    static Path resolve(Path directory, String path) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IOException("Path " + path + " leaves the directory " + directory);
+        }
+        return directory.resolve(path);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ucl.ADA.repository_downloader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DownloadSchedulerTest {
+
+    private static final String URL = "https://github.com/owner/project.git";
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testDownloadsWaitForAFreeSlot() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(1, 1000, 10, meterRegistry);
+
+        DownloadScheduler.Reservation first = scheduler.reserve(URL);
+        CompletableFuture<DownloadScheduler.Reservation> second = CompletableFuture.supplyAsync(() -> scheduler.reserve(URL));
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        assertThat(meterRegistry.get("ada.download.queued").gauge().value()).isEqualTo(1);
+
+        first.fetched();
+        second.get(5, TimeUnit.SECONDS).close();
+        first.close();
+
+        assertThat(scheduler.getReservedBytes()).isZero();
+        assertThat(meterRegistry.get("ada.download.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("ada.download.queue.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testDownloadsWaitForTempDiskSpace() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(4, 100, 60, meterRegistry);
+
+        DownloadScheduler.Reservation first = scheduler.reserve(URL);
+        first.fetched();
+        CompletableFuture<DownloadScheduler.Reservation> second = CompletableFuture.supplyAsync(() -> scheduler.reserve(URL));
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        assertThat(scheduler.getReservedBytes()).isEqualTo(60);
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertThat(scheduler.getReservedBytes()).isZero();
+    }
+
+    @Test
+    void testADownloadLargerThanTheBudgetRunsAlone() {
+        DownloadScheduler scheduler = new DownloadScheduler(4, 100, 500, meterRegistry);
+
+        try (DownloadScheduler.Reservation reservation = scheduler.reserve(URL)) {
+            assertThat(scheduler.getReservedBytes()).isEqualTo(100);
+        }
+        assertThat(scheduler.getReservedBytes()).isZero();
+    }
+
+    @Test
+    void testTheReservationFollowsTheDownloadedDirectory() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(4, 1000, 500, meterRegistry);
+        Path download = directory.resolve("download");
+        Files.createDirectories(download);
+        Files.write(download.resolve("Master.java"), new byte[42]);
+
+        DownloadScheduler.Reservation reservation = scheduler.reserve(URL);
+        assertThat(scheduler.getReservedBytes()).isEqualTo(500);
+        reservation.downloaded(download.toString());
+        assertThat(scheduler.getReservedBytes()).isEqualTo(42);
+        assertThat(meterRegistry.get("ada.download.temp.reserved").gauge().value()).isEqualTo(42);
+        assertThat(scheduler.estimate(URL)).isEqualTo(42);
+
+        scheduler.release(download.toString());
+        assertThat(download).doesNotExist();
+        assertThat(scheduler.getReservedBytes()).isZero();
+        assertThat(meterRegistry.get("ada.download.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void testClosingAFailedDownloadReleasesItsSlotAndSpace() {
+        DownloadScheduler scheduler = new DownloadScheduler(1, 1000, 500, meterRegistry);
+
+        scheduler.reserve(URL).close();
+
+        assertThat(scheduler.getReservedBytes()).isZero();
+        assertThat(meterRegistry.get("ada.download.active").gauge().value()).isZero();
+        scheduler.reserve(URL).close();
+    }
+}
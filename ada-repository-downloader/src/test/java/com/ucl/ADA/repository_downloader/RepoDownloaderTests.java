@@ -3,18 +3,27 @@ package com.ucl.ADA.repository_downloader;
 
 import com.ucl.ADA.model.project_structure.GitRepoInfo;
 import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Path;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 public class RepoDownloaderTests {
 
+    @TempDir
+    Path directory;
+
     @AfterAll
     static void deleteDir(){
         String path = System.getProperty("user.dir")+"/temp";
@@ -67,4 +76,29 @@ public class RepoDownloaderTests {
         });
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCloningOnlyTheTipOfTheRequestedBranch() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+
+        GitRepoInfo populator = RepoDownloader.downloadRepository(url, "feature");
+
+        assertEquals("owner", populator.getOwner());
+        assertEquals("project", populator.getRepository());
+        assertThat(populator.getFileNames()).hasSize(2).anyMatch(fileName -> fileName.endsWith("Feature.java"));
+        try (Git git = Git.open(new File(populator.getDirectoryPath()))) {
+            assertThat(git.getRepository().getFullBranch()).isEqualTo(Constants.R_HEADS + "feature");
+            assertThat(git.getRepository().getRefDatabase().getRefsByPrefix(Constants.R_REMOTES).stream().map(Ref::getName))
+                    .contains(Constants.R_REMOTES + "origin/feature")
+                    .doesNotContain(Constants.R_REMOTES + "origin/master");
+            assertThat(TestRepositories.log(git)).containsExactly("feature 2");
+        }
+    }
+
+    @Test
+    void testGitAPIExceptionThrownIfBranchIsMissingFromLocalRepository() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+
+        assertThrows(GitAPIException.class, () -> RepoDownloader.downloadRepository(url, "not-existing-branch"));
+    }
+}
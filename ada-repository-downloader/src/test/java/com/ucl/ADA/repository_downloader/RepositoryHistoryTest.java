@@ -0,0 +1,123 @@
+package com.ucl.ADA.repository_downloader;
+
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryHistoryTest {
+
+    private static final OffsetDateTime FIRST_COMMIT_TIME = OffsetDateTime.of(2020, 3, 1, 12, 0, 0, 0, ZoneOffset.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Create a bare repository owner/history.git with four commits on master, a minute apart: A and B are added, B is
+     * changed and C added, A is deleted, and the last commit only changes the README
+     *
+     * @return file url of the bare repository
+     */
+    private String createHistory() throws Exception {
+        Path work = directory.resolve("work");
+        try (Git git = Git.init().setDirectory(work.toFile()).call()) {
+            write(work.resolve("src/A.java"), "class A { }");
+            write(work.resolve("src/B.java"), "class B { }");
+            commit(git, 0, "add A and B");
+            write(work.resolve("src/B.java"), "class B { A a; }");
+            write(work.resolve("src/C.java"), "class C { }");
+            commit(git, 1, "change B and add C");
+            Files.delete(work.resolve("src/A.java"));
+            commit(git, 2, "delete A");
+            write(work.resolve("README.md"), "history");
+            commit(git, 3, "add README");
+        }
+
+        Path bare = directory.resolve("owner/history.git");
+        Git.cloneRepository().setURI(work.toUri().toString()).setDirectory(bare.toFile()).setBare(true).call().close();
+        return bare.toUri().toString();
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void commit(Git git, int minutes, String message) throws Exception {
+        OffsetDateTime time = FIRST_COMMIT_TIME.plusMinutes(minutes);
+        PersonIdent ident = new PersonIdent("ada", "ada@example.com", Date.from(time.toInstant()),
+                TimeZone.getTimeZone(time.getOffset()));
+        git.add().addFilepattern(".").call();
+        git.add().setUpdate(true).addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static List<String> relativeFileNames(GitRepoInfo gitRepoInfo) {
+        Path root = Paths.get(gitRepoInfo.getDirectoryPath());
+        return gitRepoInfo.getFileNames().stream()
+                .map(fileName -> root.relativize(Paths.get(fileName)).toString().replace(File.separatorChar, '/'))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testTheLastCommitsAreWalkedOldestFirst() throws Exception {
+        String url = createHistory();
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(directory.resolve("mirrors").toString(), Long.MAX_VALUE);
+
+        try (RepositoryHistory history = RepositoryHistory.open(url, "master", 3, mirrorCache)) {
+            assertThat(history.getCommits()).extracting(RevCommit::getShortMessage)
+                    .containsExactly("change B and add C", "delete A", "add README");
+        }
+    }
+
+    @Test
+    void testEachCheckoutOnlyHoldsTheSourceFilesOfItsCommit() throws Exception {
+        String url = createHistory();
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(directory.resolve("mirrors").toString(), Long.MAX_VALUE);
+
+        String directoryPath;
+        try (RepositoryHistory history = RepositoryHistory.open(url, "master", 10, mirrorCache)) {
+            List<RevCommit> commits = history.getCommits();
+            assertThat(commits).hasSize(4);
+
+            GitRepoInfo first = history.checkout(commits.get(0));
+            directoryPath = first.getDirectoryPath();
+            assertThat(first.getOwner()).isEqualTo("owner");
+            assertThat(first.getRepository()).isEqualTo("history");
+            assertThat(first.getBranch()).isEqualTo("master");
+            assertThat(first.getTimestamp()).isEqualTo(FIRST_COMMIT_TIME);
+            assertThat(relativeFileNames(first)).containsExactly("src/A.java", "src/B.java");
+            String firstHashOfA = first.getFileHashes().get(first.getFileNames().get(0));
+
+            GitRepoInfo second = history.checkout(commits.get(1));
+            assertThat(relativeFileNames(second)).containsExactly("src/A.java", "src/B.java", "src/C.java");
+            Path b = Paths.get(directoryPath, "src/B.java");
+            assertThat(new String(Files.readAllBytes(b), StandardCharsets.UTF_8)).isEqualTo("class B { A a; }");
+            assertThat(second.getFileHashes().get(b.toString())).isEqualTo(SourceFileHashes.hash(b.toString()));
+            assertThat(second.getFileHashes().get(second.getFileNames().get(0))).isEqualTo(firstHashOfA);
+
+            GitRepoInfo third = history.checkout(commits.get(2));
+            assertThat(relativeFileNames(third)).containsExactly("src/B.java", "src/C.java");
+            assertThat(Paths.get(directoryPath, "src/A.java")).doesNotExist();
+            assertThat(Paths.get(directoryPath, "README.md")).doesNotExist();
+            assertThat(third.getTimestamp()).isEqualTo(FIRST_COMMIT_TIME.plusMinutes(2));
+        }
+        assertThat(Paths.get(directoryPath)).doesNotExist();
+    }
+}
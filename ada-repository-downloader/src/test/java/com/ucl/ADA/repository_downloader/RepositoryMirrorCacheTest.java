@@ -0,0 +1,98 @@
+package com.ucl.ADA.repository_downloader;
+
+import com.ucl.ADA.model.project_structure.GitRepoInfo;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.transport.RefSpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RepositoryMirrorCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testDownloadingTwiceFetchesIntoTheSameMirror() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+        Path mirrors = directory.resolve("mirrors");
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(mirrors.toString(), Long.MAX_VALUE);
+
+        GitRepoInfo first = RepoDownloader.downloadRepository(url, "feature", mirrorCache);
+        FileUtils.deleteQuietly(new File(first.getDirectoryPath()));
+
+        Path work = directory.resolve("work");
+        try (Git git = Git.open(work.toFile())) {
+            TestRepositories.commit(git, work.resolve("Feature.java"), "class Feature { int version = 3; }", "feature 3");
+            git.push().setRemote(url).setRefSpecs(new RefSpec("feature:feature")).call();
+        }
+
+        GitRepoInfo second = RepoDownloader.downloadRepository(url, "feature", mirrorCache);
+        try {
+            Path feature = Paths.get(second.getDirectoryPath(), "Feature.java");
+            assertThat(new String(Files.readAllBytes(feature), StandardCharsets.UTF_8)).isEqualTo("class Feature { int version = 3; }");
+            assertThat(second.getFileHashes().get(feature.toString())).isEqualTo(SourceFileHashes.hash(feature.toString()));
+        } finally {
+            FileUtils.deleteQuietly(new File(second.getDirectoryPath()));
+        }
+
+        assertThat(mirrors.resolve(RepositoryMirrorCache.directoryName(url))).isDirectory();
+        assertThat(mirrors.toFile().list()).hasSize(1);
+        assertThat(mirrorCache.getSizeInBytes()).isPositive();
+        assertThat(new RepositoryMirrorCache(mirrors.toString(), Long.MAX_VALUE).getSizeInBytes()).isEqualTo(mirrorCache.getSizeInBytes());
+    }
+
+    @Test
+    void testOnlyTheSourceFilesOfTheTipAreWritten() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(directory.resolve("mirrors").toString(), Long.MAX_VALUE);
+
+        GitRepoInfo populator = RepoDownloader.downloadRepository(url, "feature", mirrorCache);
+        try {
+            Path checkout = Paths.get(populator.getDirectoryPath());
+            assertThat(checkout.toFile().list()).containsExactlyInAnyOrder("Master.java", "Feature.java");
+            assertThat(populator.getFileNames()).containsExactly(checkout.resolve("Feature.java").toString(), checkout.resolve("Master.java").toString());
+            for (String fileName : populator.getFileNames()) {
+                assertThat(populator.getFileHashes().get(fileName)).isEqualTo(SourceFileHashes.hash(fileName));
+            }
+        } finally {
+            FileUtils.deleteQuietly(new File(populator.getDirectoryPath()));
+        }
+    }
+
+    @Test
+    void testMirrorsBeyondTheBudgetAreDeletedOnceUnused() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+        Path mirrors = directory.resolve("mirrors");
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(mirrors.toString(), 0);
+
+        try (RepositoryMirrorCache.Lease lease = mirrorCache.acquire(url, "master")) {
+            assertThat(mirrors.resolve(RepositoryMirrorCache.directoryName(url))).isDirectory();
+        }
+
+        assertThat(mirrors.resolve(RepositoryMirrorCache.directoryName(url))).doesNotExist();
+        assertThat(mirrorCache.getSizeInBytes()).isZero();
+    }
+
+    @Test
+    void testFailedFetchLeavesNoMirror() throws Exception {
+        String url = TestRepositories.createBareRepository(directory);
+        Path mirrors = directory.resolve("mirrors");
+        RepositoryMirrorCache mirrorCache = new RepositoryMirrorCache(mirrors.toString(), Long.MAX_VALUE);
+
+        assertThrows(GitAPIException.class, () -> mirrorCache.acquire(url, "not-existing-branch"));
+
+        assertThat(Files.exists(mirrors.resolve(RepositoryMirrorCache.directoryName(url)))).isFalse();
+        assertThat(mirrorCache.getSizeInBytes()).isZero();
+    }
+}
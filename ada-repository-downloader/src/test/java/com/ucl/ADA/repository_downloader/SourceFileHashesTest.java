@@ -0,0 +1,65 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SourceFileHashesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testTreeHashesMatchHashesFromDisk() throws Exception {
+        Path source = directory.resolve("src/A.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, "class A {}\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("README.md"), "readme".getBytes(StandardCharsets.UTF_8));
+
+        try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("init").setAuthor("ada", "ada@example.com").setCommitter("ada", "ada@example.com").call();
+
+            Map<String, String> hashes = SourceFileHashes.fromHeadTree(git.getRepository(), directory.toString());
+
+            assertThat(hashes).containsOnlyKeys(source.toString());
+            assertThat(hashes.get(source.toString())).isEqualTo(SourceFileHashes.hash(source.toString()));
+        }
+    }
+
+    @Test
+    void testCompleteHashesOnlyUnknownFiles() throws Exception {
+        Path known = directory.resolve("Known.java");
+        Path unknown = directory.resolve("Unknown.java");
+        Files.write(known, "class Known {}".getBytes(StandardCharsets.UTF_8));
+        Files.write(unknown, "class Unknown {}".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> hashes = SourceFileHashes.complete(Arrays.asList(known.toString(), unknown.toString()),
+                Collections.singletonMap(known.toString(), "cached"));
+
+        assertThat(hashes).containsOnlyKeys(known.toString(), unknown.toString());
+        assertThat(hashes.get(known.toString())).isEqualTo("cached");
+        assertThat(hashes.get(unknown.toString())).isEqualTo(SourceFileHashes.hash(unknown.toString()));
+    }
+
+    @Test
+    void testCompleteFailsOnAFileWhichCannotBeRead() throws Exception {
+        Path known = directory.resolve("Known.java");
+        Files.write(known, "class Known {}".getBytes(StandardCharsets.UTF_8));
+        String missing = directory.resolve("Missing.java").toString();
+
+        assertThatThrownBy(() -> SourceFileHashes.complete(Arrays.asList(known.toString(), missing), Collections.emptyMap()))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+}
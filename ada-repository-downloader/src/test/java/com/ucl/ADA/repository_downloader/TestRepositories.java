@@ -0,0 +1,65 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Local repositories to download from in tests
+ */
+final class TestRepositories {
+
+    private TestRepositories() {
+    }
+
+    /**
+     * Create a bare repository owner/project.git with a README and three commits of Master.java on master, and two
+     * more commits of Feature.java on a feature branch, from the working repository work
+     *
+     * @param directory the directory of both repositories
+     * @return file url of the bare repository
+     */
+    static String createBareRepository(Path directory) throws GitAPIException, IOException {
+        Path work = directory.resolve("work");
+        try (Git git = Git.init().setDirectory(work.toFile()).call()) {
+            Files.write(work.resolve("README.md"), "project".getBytes(StandardCharsets.UTF_8));
+            for (int i = 1; i <= 3; i++) {
+                commit(git, work.resolve("Master.java"), "class Master { int version = " + i + "; }", "master " + i);
+            }
+            git.checkout().setCreateBranch(true).setName("feature").call();
+            for (int i = 1; i <= 2; i++) {
+                commit(git, work.resolve("Feature.java"), "class Feature { int version = " + i + "; }", "feature " + i);
+            }
+        }
+
+        Path bare = directory.resolve("owner/project.git");
+        Git.cloneRepository().setURI(work.toUri().toString()).setDirectory(bare.toFile()).setBare(true).call().close();
+        return bare.toUri().toString();
+    }
+
+    /**
+     * Commit a new content of a file
+     */
+    static void commit(Git git, Path file, String content, String message) throws GitAPIException, IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor("ada", "ada@example.com").setCommitter("ada", "ada@example.com").call();
+    }
+
+    /**
+     * @return the messages of the commits reachable from HEAD, newest first
+     */
+    static List<String> log(Git git) throws GitAPIException {
+        return StreamSupport.stream(git.log().call().spliterator(), false)
+                .map(RevCommit::getShortMessage)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package com.ucl.ADA.repository_downloader;
+
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TreeSourceFilesTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Commit a tree holding Evil.java under an entry named .., which git add would refuse but a pushed tree may hold
+     */
+    private static ObjectId commitEscapingTree(Repository repository) throws IOException {
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "class Evil { }".getBytes(StandardCharsets.UTF_8));
+            TreeFormatter parent = new TreeFormatter();
+            parent.append("Evil.java", FileMode.REGULAR_FILE, blob);
+            TreeFormatter root = new TreeFormatter();
+            root.append("..", FileMode.TREE, inserter.insert(parent));
+
+            PersonIdent ident = new PersonIdent("ada", "ada@example.com");
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(inserter.insert(root));
+            commit.setAuthor(ident);
+            commit.setCommitter(ident);
+            commit.setMessage("escape");
+            ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+            return commitId;
+        }
+    }
+
+    @Test
+    void testTreeEntriesLeavingTheDirectoryAreNotWritten() throws Exception {
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(directory.resolve("evil.git").toFile()).build()) {
+            repository.create(true);
+            ObjectId commit = commitEscapingTree(repository);
+            Path sources = directory.resolve("sources");
+
+            assertThatThrownBy(() -> TreeSourceFiles.write(repository, commit, sources.toString()))
+                    .isInstanceOf(IOException.class);
+            assertThat(directory.resolve("Evil.java")).doesNotExist();
+        }
+    }
+
+    @Test
+    void testOnlyPathsInsideTheDirectoryResolve() throws Exception {
+        Path sources = directory.resolve("sources");
+
+        assertThat(TreeSourceFiles.resolve(sources, "src/A.java")).isEqualTo(sources.resolve("src/A.java"));
+        assertThat(TreeSourceFiles.resolve(sources, "src/../A.java")).isEqualTo(sources.resolve("src/../A.java"));
+        assertThatThrownBy(() -> TreeSourceFiles.resolve(sources, "../A.java")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> TreeSourceFiles.resolve(sources, "src/../../A.java")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> TreeSourceFiles.resolve(sources, directory.resolve("A.java").toString()))
+                .isInstanceOf(IOException.class);
+    }
+}
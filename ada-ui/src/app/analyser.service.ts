@@ -46,6 +46,6 @@ export class AnalyserService {
     let apiUrl = this.buildFetchPreviousSnapshotAPIUrl(owner, repository, branch, snapshot);
     this.elementInsightService.clearSelectedNodes();
     this.elementInsightService.clearSelectedEdges();
-    return this.http.post<JSON>(apiUrl, new HttpParams());
+    return this.http.get<JSON>(apiUrl);
   }
 }